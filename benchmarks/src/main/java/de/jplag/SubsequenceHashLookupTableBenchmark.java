@@ -0,0 +1,65 @@
+package de.jplag;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.jplag.benchmark.BenchmarkDataSet;
+import de.jplag.exceptions.ExitException;
+
+/**
+ * Measures the construction of the {@link SubsequenceHashLookupTable} on the token sequences of a data set. Each
+ * invocation builds the table of the next submission, thus the result is the average time per submission. Located in
+ * the core package, as the lookup table is package-private.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SubsequenceHashLookupTableBenchmark {
+
+    @Param({"SORT_ALGO", "PROGPEDIA"})
+    private BenchmarkDataSet dataSet;
+
+    @Param({"3", "9", "12"})
+    private int windowSize;
+
+    private List<int[]> values;
+    private List<boolean[]> markings;
+    private int next;
+
+    @Setup
+    public void setUp() throws ExitException {
+        List<Submission> submissions = BenchmarkDataSet.parse(dataSet.createOptions()).getSubmissions();
+        values = submissions.stream().map(it -> it.getTokenSequence().tokenValues()).toList();
+        markings = values.stream().map(SubsequenceHashLookupTableBenchmark::excludedFromMatching).toList();
+    }
+
+    @Benchmark
+    public SubsequenceHashLookupTable build() {
+        int index = next;
+        next = (next + 1) % values.size();
+        return new SubsequenceHashLookupTable(windowSize, values.get(index), markings.get(index));
+    }
+
+    private static boolean[] excludedFromMatching(int[] tokenValues) {
+        boolean[] marked = new boolean[tokenValues.length];
+        for (int i = 0; i < tokenValues.length; i++) {
+            marked[i] = TokenTypeRegistry.isExcludedFromMatching(tokenValues[i]);
+        }
+        return marked;
+    }
+}
@@ -0,0 +1,122 @@
+package de.jplag.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import de.jplag.SubmissionSet;
+import de.jplag.SubmissionSetBuilder;
+import de.jplag.exceptions.ExitException;
+import de.jplag.java.JavaLanguage;
+import de.jplag.options.JPlagOptions;
+
+/**
+ * The data sets of the end-to-end tests, which serve as real-world fixtures for the benchmarks. The data sets are read
+ * from the resources of the endtoend-testing module, which are located via the system property
+ * {@value #DATA_DIRECTORY_PROPERTY} or relative to the working directory.
+ */
+public enum BenchmarkDataSet {
+    /**
+     * Small data set of sorting algorithms with many obfuscated copies.
+     */
+    SORT_ALGO("sortAlgo", false, null),
+    /**
+     * Larger data set of student submissions to programming exercises.
+     */
+    PROGPEDIA("progpedia", true, "ACCEPTED");
+
+    public static final String DATA_DIRECTORY_PROPERTY = "jplag.benchmark.data";
+    private static final List<String> DEFAULT_DATA_DIRECTORIES = List.of("endtoend-testing/src/test/resources/data",
+            "../endtoend-testing/src/test/resources/data");
+    private static final String ZIP_SUFFIX = ".zip";
+    private static final String EXTRACTION_DIRECTORY_PREFIX = "jplag-benchmark-";
+
+    private final String name;
+    private final boolean zipped;
+    private final String submissionDirectory; // null if the submissions are directly in the source directory
+
+    BenchmarkDataSet(String name, boolean zipped, String submissionDirectory) {
+        this.name = name;
+        this.zipped = zipped;
+        this.submissionDirectory = submissionDirectory;
+    }
+
+    /**
+     * Creates the options to compare the submissions of this data set.
+     * @return the default options for this data set.
+     */
+    public JPlagOptions createOptions() {
+        return new JPlagOptions(new JavaLanguage(), Set.of(getRootDirectory()), Set.of());
+    }
+
+    /**
+     * @return the root directory that contains the submissions of this data set.
+     */
+    public File getRootDirectory() {
+        return submissionDirectory == null ? sourceDirectory() : new File(sourceDirectory(), submissionDirectory);
+    }
+
+    /**
+     * Parses the submissions of this data set.
+     * @param options are the options to parse with, see {@link #createOptions()}.
+     * @return the parsed submissions.
+     * @throws ExitException if the submissions cannot be parsed.
+     */
+    public static SubmissionSet parse(JPlagOptions options) throws ExitException {
+        return new SubmissionSetBuilder(options).buildSubmissionSet();
+    }
+
+    private File sourceDirectory() {
+        File dataDirectory = dataDirectory();
+        if (!zipped) {
+            return new File(dataDirectory, name);
+        }
+        // extracted once into the temporary directory, such that forked benchmark runs can reuse it
+        Path target = Path.of(System.getProperty("java.io.tmpdir"), EXTRACTION_DIRECTORY_PREFIX + name);
+        if (!Files.isDirectory(target)) {
+            extract(new File(dataDirectory, name + ZIP_SUFFIX).toPath(), target);
+        }
+        return target.toFile();
+    }
+
+    private static File dataDirectory() {
+        String configuredDirectory = System.getProperty(DATA_DIRECTORY_PROPERTY);
+        if (configuredDirectory != null) {
+            return new File(configuredDirectory);
+        }
+        return DEFAULT_DATA_DIRECTORIES.stream().map(File::new).filter(File::isDirectory).findFirst()
+                .orElseThrow(() -> new IllegalStateException("Data sets not found, set the system property " + DATA_DIRECTORY_PROPERTY));
+    }
+
+    private static void extract(Path zip, Path target) {
+        try {
+            Path temporaryTarget = Files.createTempDirectory(EXTRACTION_DIRECTORY_PREFIX);
+            try (ZipInputStream zipStream = new ZipInputStream(Files.newInputStream(zip))) {
+                for (ZipEntry entry = zipStream.getNextEntry(); entry != null; entry = zipStream.getNextEntry()) {
+                    Path entryPath = temporaryTarget.resolve(entry.getName()).normalize();
+                    if (!entryPath.startsWith(temporaryTarget)) {
+                        throw new IOException("Zip entry outside of the target directory: " + entry.getName());
+                    }
+                    if (entry.isDirectory()) {
+                        Files.createDirectories(entryPath);
+                    } else {
+                        Files.createDirectories(entryPath.getParent());
+                        Files.copy(zipStream, entryPath, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+            }
+            Files.move(temporaryTarget, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException exception) {
+            if (!Files.isDirectory(target)) { // otherwise extracted concurrently by another run
+                throw new UncheckedIOException("Could not extract " + zip, exception);
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package de.jplag.benchmark;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.jplag.JPlag;
+import de.jplag.JPlagResult;
+import de.jplag.cli.CLI;
+import de.jplag.cli.CliException;
+import de.jplag.exceptions.ExitException;
+
+import picocli.CommandLine.ParseResult;
+
+/**
+ * Measures the startup of the command line interface, which loads the available languages and builds the command line
+ * from them. Each fork measures a single invocation in a fresh JVM, thus the result includes class loading and the
+ * instantiation of the languages. The help of a language is printed to a discarding stream.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class CliStartupBenchmark {
+
+    private PrintStream standardOutput;
+    private String rootDirectory;
+
+    @Setup
+    public void setUp() {
+        rootDirectory = BenchmarkDataSet.SORT_ALGO.getRootDirectory().getPath();
+        standardOutput = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(standardOutput);
+    }
+
+    /**
+     * Equivalent to {@code jplag -l java --help}.
+     */
+    @Benchmark
+    public ParseResult help() throws CliException {
+        return new CLI().parseOptions("-l", "java", "--help");
+    }
+
+    /**
+     * Equivalent to {@code jplag -l java <root>} on the {@link BenchmarkDataSet#SORT_ALGO} data set, without writing the
+     * report.
+     */
+    @Benchmark
+    public JPlagResult smallRun() throws CliException, ExitException {
+        CLI cli = new CLI();
+        ParseResult parseResult = cli.parseOptions("-l", "java", rootDirectory);
+        return JPlag.run(cli.buildOptionsFromArguments(parseResult));
+    }
+}
@@ -0,0 +1,64 @@
+package de.jplag.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.jplag.GreedyStringTiling;
+import de.jplag.JPlagComparison;
+import de.jplag.Submission;
+import de.jplag.exceptions.ExitException;
+import de.jplag.options.ExecutionOptions;
+import de.jplag.options.JPlagOptions;
+
+/**
+ * Measures {@link GreedyStringTiling#compare} on the real token sequences of a data set. Each invocation compares the
+ * next pair of submissions, thus the result is the average time per pair over all pairs of the data set.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GreedyStringTilingBenchmark {
+
+    @Param({"SORT_ALGO", "PROGPEDIA"})
+    private BenchmarkDataSet dataSet;
+
+    @Param({"6", "9", "12"})
+    private int minimumTokenMatch;
+
+    @Param({"false", "true"})
+    private boolean bitsetTilingKernel;
+
+    private GreedyStringTiling greedyStringTiling;
+    private SubmissionPairs pairs;
+
+    @Setup
+    public void setUp() throws ExitException {
+        ExecutionOptions executionOptions = new ExecutionOptions().withBitsetTilingKernel(bitsetTilingKernel);
+        JPlagOptions options = dataSet.createOptions().withMinimumTokenMatch(minimumTokenMatch).withExecutionOptions(executionOptions);
+        List<Submission> submissions = BenchmarkDataSet.parse(options).getSubmissions();
+        greedyStringTiling = new GreedyStringTiling(options);
+        greedyStringTiling.prepareSubmissions(submissions);
+        pairs = new SubmissionPairs(submissions);
+    }
+
+    @Benchmark
+    public JPlagComparison compare() {
+        Submission[] pair = pairs.next();
+        return greedyStringTiling.compare(pair[0], pair[1]);
+    }
+}
@@ -0,0 +1,68 @@
+package de.jplag.benchmark;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.jplag.GreedyStringTiling;
+import de.jplag.JPlagComparison;
+import de.jplag.Submission;
+import de.jplag.options.ExecutionOptions;
+import de.jplag.options.JPlagOptions;
+
+/**
+ * Compares the tiling kernels of the {@link GreedyStringTiling}, i.e. token markings in boolean arrays compared token
+ * by token versus markings in bitsets compared word-wise. A high modification rate yields near-copies with long
+ * matches, a low one yields many short matches.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GreedyStringTilingKernelBenchmark {
+    private static final int MINIMUM_TOKEN_MATCH = 9;
+
+    @Param({"false", "true"})
+    private boolean bitsetTilingKernel;
+
+    @Param({"1000", "10000"})
+    private int numberOfTokens;
+
+    @Param({"20", "2000"})
+    private int modificationRate;
+
+    private GreedyStringTiling greedyStringTiling;
+    private Submission first;
+    private Submission second;
+
+    @Setup
+    public void setUp() {
+        ExecutionOptions executionOptions = new ExecutionOptions().withBitsetTilingKernel(bitsetTilingKernel);
+        JPlagOptions options = new JPlagOptions(null, Set.of(), Set.of()).withMinimumTokenMatch(MINIMUM_TOKEN_MATCH)
+                .withExecutionOptions(executionOptions);
+        SyntheticSubmissions submissions = new SyntheticSubmissions(numberOfTokens, numberOfTokens);
+        first = submissions.createSubmission("first", modificationRate);
+        second = submissions.createSubmission("second", modificationRate);
+        greedyStringTiling = new GreedyStringTiling(options);
+        greedyStringTiling.prepareSubmissions(List.of(first, second));
+    }
+
+    @Benchmark
+    public JPlagComparison compare() {
+        return greedyStringTiling.compare(first, second);
+    }
+}
@@ -0,0 +1,72 @@
+package de.jplag.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.jplag.GreedyStringTiling;
+import de.jplag.JPlagComparison;
+import de.jplag.Submission;
+import de.jplag.exceptions.ExitException;
+import de.jplag.merging.MatchMerging;
+import de.jplag.merging.MergingOptions;
+import de.jplag.options.JPlagOptions;
+
+/**
+ * Measures {@link MatchMerging#mergeMatchesOf(JPlagComparison)} on the comparisons of a data set. Each invocation
+ * merges the next comparison, thus the result is the average time per comparison.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatchMergingBenchmark {
+
+    @Param({"SORT_ALGO", "PROGPEDIA"})
+    private BenchmarkDataSet dataSet;
+
+    @Param({"2", "4"})
+    private int minimumNeighborLength;
+
+    @Param({"6", "12"})
+    private int maximumGapSize;
+
+    private MatchMerging matchMerging;
+    private List<JPlagComparison> comparisons;
+    private int next;
+
+    @Setup
+    public void setUp() throws ExitException {
+        JPlagOptions options = dataSet.createOptions().withMergingOptions(new MergingOptions(true, minimumNeighborLength, maximumGapSize));
+        List<Submission> submissions = BenchmarkDataSet.parse(options).getSubmissions();
+        GreedyStringTiling greedyStringTiling = new GreedyStringTiling(options);
+        SubmissionPairs pairs = new SubmissionPairs(submissions);
+        comparisons = new ArrayList<>(pairs.size());
+        for (int i = 0; i < pairs.size(); i++) {
+            Submission[] pair = pairs.next();
+            comparisons.add(greedyStringTiling.compare(pair[0], pair[1]));
+        }
+        matchMerging = new MatchMerging(options);
+    }
+
+    @Benchmark
+    public JPlagComparison mergeMatches() {
+        JPlagComparison comparison = comparisons.get(next);
+        next = (next + 1) % comparisons.size();
+        return matchMerging.mergeMatchesOf(comparison);
+    }
+}
@@ -0,0 +1,86 @@
+package de.jplag.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.jplag.GreedyStringTiling;
+import de.jplag.JPlagResult;
+import de.jplag.SubmissionSet;
+import de.jplag.exceptions.ExitException;
+import de.jplag.merging.MatchMerging;
+import de.jplag.merging.MergingOptions;
+import de.jplag.options.JPlagOptions;
+import de.jplag.strategy.ParallelComparisonStrategy;
+
+/**
+ * Measures the end-to-end comparison of all submissions of a data set via the {@link ParallelComparisonStrategy},
+ * including the preparation of the submissions and the optional match merging. Besides the time per run, the throughput
+ * in compared pairs per second is reported as secondary result {@code pairs}. The number of threads is set via the
+ * parallelism of the common pool, e.g. {@code -jvmArgsAppend -Djava.util.concurrent.ForkJoinPool.common.parallelism=4}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ParallelComparisonBenchmark {
+
+    @Param({"SORT_ALGO", "PROGPEDIA"})
+    private BenchmarkDataSet dataSet;
+
+    @Param({"9", "12"})
+    private int minimumTokenMatch;
+
+    @Param({"false", "true"})
+    private boolean merging;
+
+    private JPlagOptions options;
+    private SubmissionSet submissionSet;
+    private long pairsPerRun;
+
+    /**
+     * Counts the compared pairs, which JMH reports as throughput.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class PairCounter {
+        public long pairs;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            pairs = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() throws ExitException {
+        options = dataSet.createOptions().withMinimumTokenMatch(minimumTokenMatch).withMergingOptions(new MergingOptions().withEnabled(merging));
+        submissionSet = BenchmarkDataSet.parse(options);
+        long submissions = submissionSet.numberOfSubmissions();
+        pairsPerRun = submissions * (submissions - 1) / 2;
+    }
+
+    @Benchmark
+    public JPlagResult compareAll(PairCounter counter) {
+        JPlagResult result = new ParallelComparisonStrategy(options, new GreedyStringTiling(options)).compareSubmissions(submissionSet);
+        if (merging) {
+            result = new MatchMerging(options).mergeMatchesOf(result);
+        }
+        counter.pairs += pairsPerRun;
+        return result;
+    }
+}
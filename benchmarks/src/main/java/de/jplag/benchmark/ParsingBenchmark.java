@@ -0,0 +1,87 @@
+package de.jplag.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.jplag.Language;
+import de.jplag.ParsingException;
+import de.jplag.Token;
+import de.jplag.cli.LanguageLoader;
+
+/**
+ * Measures the parsing throughput of a language on the test files of its module, i.e. how often all of them are parsed
+ * per second. The files are looked up in the languages directory relative to the working directory or its parent, a
+ * different directory can be set via the system property {@value #LANGUAGES_DIRECTORY_PROPERTY}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParsingBenchmark {
+    public static final String LANGUAGES_DIRECTORY_PROPERTY = "jplag.benchmark.languages";
+    private static final List<String> DEFAULT_LANGUAGES_DIRECTORIES = List.of("languages", "../languages");
+    private static final Map<String, String> MODULE_DIRECTORIES = Map.of("cpp2", "cpp2", "csharp", "csharp", "go", "golang", "kotlin",
+            "kotlin", "python3", "python-3", "rlang", "rlang", "rust", "rust", "swift", "swift", "typescript", "typescript");
+
+    @Param({"cpp2", "csharp", "go", "kotlin", "python3", "rlang", "rust", "swift", "typescript"})
+    private String language;
+
+    private Language parser;
+    private Set<File> files;
+
+    @Setup
+    public void setUp() {
+        parser = LanguageLoader.getLanguage(language).orElseThrow(() -> new IllegalArgumentException("Unknown language " + language));
+        Path resources = languagesDirectory().resolve(MODULE_DIRECTORIES.get(language)).resolve(Path.of("src", "test", "resources"));
+        try (Stream<Path> paths = Files.walk(resources)) {
+            files = paths.filter(Files::isRegularFile).filter(this::hasSuffix).map(Path::toFile).collect(Collectors.toSet());
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Could not list the test files of " + language, exception);
+        }
+        if (files.isEmpty()) {
+            throw new IllegalStateException("No test files of " + language + " in " + resources);
+        }
+    }
+
+    @Benchmark
+    public List<Token> parse() throws ParsingException {
+        return parser.parse(files);
+    }
+
+    private boolean hasSuffix(Path path) {
+        String fileName = path.getFileName().toString();
+        return Stream.of(parser.suffixes()).anyMatch(fileName::endsWith);
+    }
+
+    private static Path languagesDirectory() {
+        String configuredDirectory = System.getProperty(LANGUAGES_DIRECTORY_PROPERTY);
+        if (configuredDirectory != null) {
+            return Path.of(configuredDirectory);
+        }
+        return DEFAULT_LANGUAGES_DIRECTORIES.stream().map(Path::of).filter(Files::isDirectory).findFirst().orElseThrow(
+                () -> new IllegalStateException("Languages not found, set the system property " + LANGUAGES_DIRECTORY_PROPERTY));
+    }
+}
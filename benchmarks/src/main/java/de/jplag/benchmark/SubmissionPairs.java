@@ -0,0 +1,47 @@
+package de.jplag.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import de.jplag.Submission;
+
+/**
+ * Cycles through all pairs of a list of submissions, such that consecutive benchmark invocations compare different
+ * pairs. Not thread-safe, thus to be used in thread-scoped benchmark states.
+ */
+public final class SubmissionPairs {
+    private final List<Submission[]> pairs;
+    private int next;
+
+    /**
+     * Creates the pairs of the given submissions.
+     * @param submissions are the submissions to pair.
+     */
+    public SubmissionPairs(List<Submission> submissions) {
+        pairs = new ArrayList<>();
+        for (int i = 0; i < submissions.size(); i++) {
+            for (int j = i + 1; j < submissions.size(); j++) {
+                pairs.add(new Submission[] {submissions.get(i), submissions.get(j)});
+            }
+        }
+        if (pairs.isEmpty()) {
+            throw new IllegalArgumentException("At least two submissions are required.");
+        }
+    }
+
+    /**
+     * @return the next pair of submissions, starting over after the last one.
+     */
+    public Submission[] next() {
+        Submission[] pair = pairs.get(next);
+        next = (next + 1) % pairs.size();
+        return pair;
+    }
+
+    /**
+     * @return the number of pairs.
+     */
+    public int size() {
+        return pairs.size();
+    }
+}
@@ -0,0 +1,70 @@
+package de.jplag.benchmark;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import de.jplag.Submission;
+import de.jplag.Token;
+
+/**
+ * Generates submissions with synthetic token sequences. All submissions are derived from a common random sequence that
+ * is modified at random positions, thus the similarity of the submissions is controlled by the modification rate. The
+ * generation is deterministic for a given seed.
+ */
+public final class SyntheticSubmissions {
+    private static final File FILE = new File("Synthetic.java");
+    private static final int FILE_LENGTH = 500; // average number of tokens per file
+
+    private final Random random;
+    private final List<Token> original;
+
+    /**
+     * Creates a generator for submissions that are derived from a common sequence.
+     * @param length is the number of tokens of the common sequence.
+     * @param seed is the seed of the random generation.
+     */
+    public SyntheticSubmissions(int length, long seed) {
+        this.random = new Random(seed);
+        this.original = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            original.add(randomToken(i));
+        }
+    }
+
+    /**
+     * Creates a submission whose tokens are a modified copy of the common sequence.
+     * @param name is the name of the submission.
+     * @param modificationRate determines the similarity: On average, one of this many tokens is removed, replaced or
+     * followed by a file end.
+     * @return the parsed submission.
+     */
+    public Submission createSubmission(String name, int modificationRate) {
+        List<Token> tokens = new ArrayList<>(original.size() + original.size() / FILE_LENGTH + 1);
+        for (Token token : original) {
+            if (random.nextInt(modificationRate) == 0) {
+                switch (random.nextInt(3)) {
+                    case 0 -> tokens.add(randomToken(token.getLine())); // replaced
+                    case 1 -> tokens.add(Token.fileEnd(FILE));
+                    default -> { // removed
+                    }
+                }
+            } else {
+                tokens.add(token);
+            }
+            if (random.nextInt(FILE_LENGTH) == 0) {
+                tokens.add(Token.fileEnd(FILE));
+            }
+        }
+        tokens.add(Token.fileEnd(FILE));
+        Submission submission = new Submission(name, FILE, true, List.of(FILE), null);
+        submission.setTokenList(tokens);
+        return submission;
+    }
+
+    private Token randomToken(int line) {
+        SyntheticTokenType[] types = SyntheticTokenType.values();
+        return new Token(types[random.nextInt(types.length)], FILE, line + 1, 1, 1);
+    }
+}
@@ -0,0 +1,47 @@
+package de.jplag.benchmark;
+
+import de.jplag.TokenType;
+
+/**
+ * Token types of synthetic token sequences. The number of types roughly matches the number of token types of the
+ * language modules.
+ */
+public enum SyntheticTokenType implements TokenType {
+    T00,
+    T01,
+    T02,
+    T03,
+    T04,
+    T05,
+    T06,
+    T07,
+    T08,
+    T09,
+    T10,
+    T11,
+    T12,
+    T13,
+    T14,
+    T15,
+    T16,
+    T17,
+    T18,
+    T19,
+    T20,
+    T21,
+    T22,
+    T23,
+    T24,
+    T25,
+    T26,
+    T27,
+    T28,
+    T29,
+    T30,
+    T31;
+
+    @Override
+    public String getDescription() {
+        return name();
+    }
+}
@@ -0,0 +1,53 @@
+package de.jplag.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.jplag.Submission;
+import de.jplag.Token;
+import de.jplag.exceptions.ExitException;
+import de.jplag.normalization.TokenStringNormalizer;
+
+/**
+ * Measures {@link TokenStringNormalizer#normalize} on the token sequences of a data set. Each invocation normalizes the
+ * tokens of the next submission, thus the result is the average time per submission.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenStringNormalizerBenchmark {
+
+    @Param({"SORT_ALGO", "PROGPEDIA"})
+    private BenchmarkDataSet dataSet;
+
+    private List<List<Token>> tokenLists;
+    private int next;
+
+    @Setup
+    public void setUp() throws ExitException {
+        List<Submission> submissions = BenchmarkDataSet.parse(dataSet.createOptions()).getSubmissions();
+        tokenLists = submissions.stream().map(Submission::getTokenList).toList();
+    }
+
+    @Benchmark
+    public List<Token> normalize() {
+        List<Token> tokens = tokenLists.get(next);
+        next = (next + 1) % tokenLists.size();
+        return TokenStringNormalizer.normalize(tokens);
+    }
+}
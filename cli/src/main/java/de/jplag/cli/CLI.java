@@ -18,6 +18,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import de.jplag.JPlag;
+import de.jplag.JPlagExecutor;
 import de.jplag.JPlagResult;
 import de.jplag.Language;
 import de.jplag.cli.logger.CollectedLoggerFactory;
@@ -25,6 +26,7 @@ import de.jplag.clustering.ClusteringOptions;
 import de.jplag.clustering.Preprocessing;
 import de.jplag.exceptions.ExitException;
 import de.jplag.merging.MergingOptions;
+import de.jplag.options.ExecutionOptions;
 import de.jplag.options.JPlagOptions;
 import de.jplag.options.LanguageOption;
 import de.jplag.options.LanguageOptions;
@@ -63,6 +65,8 @@ public final class CLI {
 
     private static final String DESCRIPTION_PATTERN = "%nJPlag - %s%n%s%n%n";
 
+    private static final String COMPARISON_STORE_SUFFIX = ".comparisons";
+
     /**
      * Main class for using JPlag via the CLI.
      * @param args are the CLI arguments that will be passed to JPlag.
@@ -77,11 +81,13 @@ public final class CLI {
 
             if (!parseResult.isUsageHelpRequested() && !(parseResult.subcommand() != null && parseResult.subcommand().isUsageHelpRequested())) {
                 JPlagOptions options = cli.buildOptionsFromArguments(parseResult);
-                JPlagResult result = JPlag.run(options);
-                ReportObjectFactory reportObjectFactory = new ReportObjectFactory();
-                reportObjectFactory.createAndSaveReport(result, cli.getResultFolder());
+                try (JPlagExecutor executor = new JPlagExecutor(options.executionOptions().threads())) {
+                    JPlagResult result = JPlag.run(options, executor);
+                    ReportObjectFactory reportObjectFactory = new ReportObjectFactory(executor);
+                    reportObjectFactory.createAndSaveReport(result, cli.getResultFolder());
 
-                OutputFileGenerator.generateCsvOutput(result, new File(cli.getResultFolder()), cli.options);
+                    OutputFileGenerator.generateCsvOutput(result, new File(cli.getResultFolder()), cli.options);
+                }
             }
         } catch (ExitException exception) {
             logger.error(exception.getMessage()); // do not pass exception here to keep log clean
@@ -115,10 +121,10 @@ public final class CLI {
     }
 
     private List<CommandSpec> buildSubcommands() {
-        return LanguageLoader.getAllAvailableLanguages().values().stream().map(language -> {
+        return LanguageLoader.getAllAvailableLanguageDescriptors().values().stream().map(language -> {
             CommandSpec command = CommandSpec.create().name(language.getIdentifier());
 
-            for (LanguageOption<?> option : language.getOptions().getOptionsAsList()) {
+            for (LanguageOption<?> option : language.getOptions()) {
                 command.addOption(OptionSpec.builder(option.getNameAsUnixParameter()).type(option.getType().getJavaType())
                         .description(option.getDescription()).build());
             }
@@ -181,7 +187,7 @@ public final class CLI {
         JPlagOptions jPlagOptions = new JPlagOptions(loadLanguage(parseResult), this.options.minTokenMatch, submissionDirectories,
                 oldSubmissionDirectories, null, this.options.advanced.subdirectory, suffixes, this.options.advanced.exclusionFileName,
                 JPlagOptions.DEFAULT_SIMILARITY_METRIC, this.options.advanced.similarityThreshold, this.options.shownComparisons, clusteringOptions,
-                this.options.advanced.debug, mergingOptions);
+                this.options.advanced.debug, mergingOptions).withExecutionOptions(getExecutionOptions(this.options));
 
         String baseCodePath = this.options.baseCode;
         File baseCodeDirectory = baseCodePath == null ? null : new File(baseCodePath);
@@ -240,6 +246,16 @@ public final class CLI {
         return clusteringOptions;
     }
 
+    private static ExecutionOptions getExecutionOptions(CliOptions options) {
+        return new ExecutionOptions().withBoundedResultCollection(options.advanced.boundedResults)
+                .withParserThreads(options.advanced.parserThreads).withTokenCacheDirectory(options.advanced.tokenCacheDirectory)
+                .withTokenCacheSize(options.advanced.tokenCacheSize).withCorpusIndex(options.advanced.corpusIndex)
+                .withCorpusAppend(options.advanced.corpusAppend)
+                .withComparisonStore(options.advanced.incremental ? new File(options.resultFolder + COMPARISON_STORE_SUFFIX) : null)
+                .withPipelinedExecution(options.advanced.pipelined).withThreads(options.advanced.threads)
+                .withCollectMetrics(options.advanced.metrics);
+    }
+
     private static MergingOptions getMergingOptions(CliOptions options) {
         return new MergingOptions(options.merging.enabled, options.merging.minimumNeighborLength, options.merging.maximumGapSize);
     }
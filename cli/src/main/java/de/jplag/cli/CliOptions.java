@@ -7,6 +7,7 @@ import de.jplag.clustering.ClusteringAlgorithm;
 import de.jplag.clustering.ClusteringOptions;
 import de.jplag.clustering.algorithm.InterClusterSimilarity;
 import de.jplag.java.JavaLanguage;
+import de.jplag.options.ExecutionOptions;
 import de.jplag.options.JPlagOptions;
 import de.jplag.options.SimilarityMetric;
 
@@ -91,6 +92,46 @@ public class CliOptions implements Runnable {
 
         @Option(names = "--csv-export", description = "If present, a csv export will be generated in addition to the zip file.")
         public boolean csvExport = false;
+
+        @Option(names = "--bounded-results", description = "If present, only the comparisons shown in the report are kept in memory. "
+                + "Reduces the memory usage for large numbers of submissions. "
+                + "The csv export then only contains these comparisons and states so in its first line.%n")
+        public boolean boundedResults = false;
+
+        @Option(names = "--parser-threads", description = "Number of threads that parse the submissions concurrently. Zero uses the number "
+                + "of available processors (default: ${DEFAULT-VALUE})%n")
+        public int parserThreads = ExecutionOptions.DEFAULT_PARSER_THREADS;
+
+        @Option(names = "--token-cache", description = "Directory of a persistent cache of parsed submissions. Unchanged submissions are "
+                + "loaded from the cache instead of being parsed again.%n")
+        public File tokenCacheDirectory;
+
+        @Option(names = "--token-cache-size", description = "Maximum size of the token cache in megabytes. The least recently used entries "
+                + "are evicted (default: ${DEFAULT-VALUE})%n")
+        public int tokenCacheSize = ExecutionOptions.DEFAULT_TOKEN_CACHE_SIZE;
+
+        @Option(names = "--corpus-index", description = "File of a persistent index of old submissions. Indexed submissions that share "
+                + "code with the new submissions are compared without parsing them. The old submissions are added to the index.%n")
+        public File corpusIndex;
+
+        @Option(names = "--corpus-append", description = "If present, the new submissions are also added to the corpus index.%n")
+        public boolean corpusAppend = false;
+
+        @Option(names = "--incremental", description = "If present, the comparisons are stored next to the result file. Later runs "
+                + "with the same result file only compare pairs of submissions of which at least one changed.%n")
+        public boolean incremental = false;
+
+        @Option(names = "--pipelined", description = "If present, submissions are compared while the remaining submissions are still "
+                + "parsed.%n")
+        public boolean pipelined = false;
+
+        @Option(names = "--threads", description = "Number of worker threads for parsing, comparing, merging, and writing the report. "
+                + "Zero uses the number of available processors (default: ${DEFAULT-VALUE})%n")
+        public int threads = ExecutionOptions.DEFAULT_THREADS;
+
+        @Option(names = "--metrics", description = "If present, the duration of each stage of the run is measured and a summary of "
+                + "these metrics is written next to the result file.%n")
+        public boolean metrics = false;
     }
 
     public static class Clustering {
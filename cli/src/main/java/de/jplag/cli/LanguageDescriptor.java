@@ -0,0 +1,103 @@
+package de.jplag.cli;
+
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.jplag.Language;
+import de.jplag.LanguageMetadata;
+import de.jplag.options.LanguageOption;
+import de.jplag.options.LanguageOptions;
+
+/**
+ * Describes a {@link Language} that is available in the classpath. The description is based on the
+ * {@link LanguageMetadata} of the language class, so the language itself is only instantiated on first access via
+ * {@link #getLanguage()}. Languages without metadata are instantiated right away to describe them.
+ */
+public final class LanguageDescriptor {
+    private static final Logger logger = LoggerFactory.getLogger(LanguageDescriptor.class);
+
+    private final String identifier;
+    private final String name;
+    private final Supplier<List<LanguageOption<?>>> options;
+    private final Supplier<Language> factory;
+    private Language language;
+
+    private LanguageDescriptor(String identifier, String name, Supplier<List<LanguageOption<?>>> options, Supplier<Language> factory) {
+        this.identifier = identifier;
+        this.name = name;
+        this.options = options;
+        this.factory = factory;
+    }
+
+    /**
+     * Describes the language of a service provider without instantiating it, if the language class has metadata.
+     * @param provider is the service provider of the language.
+     * @return the description of the language.
+     */
+    static LanguageDescriptor of(ServiceLoader.Provider<Language> provider) {
+        LanguageMetadata metadata = provider.type().getAnnotation(LanguageMetadata.class);
+        if (metadata == null) {
+            logger.debug("Language Module '{}' has no metadata, loading it eagerly", provider.type().getName());
+            Language language = provider.get();
+            LanguageDescriptor descriptor = new LanguageDescriptor(language.getIdentifier(), language.getName(),
+                    () -> language.getOptions().getOptionsAsList(), () -> language);
+            descriptor.language = language;
+            return descriptor;
+        }
+        Class<? extends LanguageOptions> optionsType = metadata.options();
+        return new LanguageDescriptor(metadata.identifier(), metadata.name(), () -> createOptions(optionsType).getOptionsAsList(), provider);
+    }
+
+    /**
+     * @return the identifier of the language.
+     * @see Language#getIdentifier()
+     */
+    public String getIdentifier() {
+        return identifier;
+    }
+
+    /**
+     * @return the descriptive name of the language.
+     * @see Language#getName()
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Provides the options of the language to describe them, e.g. for the command line. Changing their values does not
+     * affect the language, use the options of {@link #getLanguage()} instead.
+     * @return the options of the language.
+     * @see Language#getOptions()
+     */
+    public List<LanguageOption<?>> getOptions() {
+        return options.get();
+    }
+
+    /**
+     * Provides the language, it is instantiated on first access.
+     * @return the language instance.
+     */
+    public synchronized Language getLanguage() {
+        if (language == null) {
+            logger.debug("Loading Language Module '{}'", name);
+            language = factory.get();
+        }
+        return language;
+    }
+
+    private static LanguageOptions createOptions(Class<? extends LanguageOptions> optionsType) {
+        if (optionsType == LanguageOptions.class) {
+            return LanguageOptions.EMPTY_OPTIONS;
+        }
+        try {
+            return optionsType.getConstructor().newInstance();
+        } catch (ReflectiveOperationException exception) {
+            throw new IllegalStateException("Cannot instantiate the language options " + optionsType.getName(), exception);
+        }
+    }
+}
@@ -20,6 +20,7 @@ import de.jplag.Language;
 public final class LanguageLoader {
     private static final Logger logger = LoggerFactory.getLogger(LanguageLoader.class);
 
+    private static Map<String, LanguageDescriptor> cachedLanguageDescriptors = null;
     private static Map<String, Language> cachedLanguageInstances = null;
 
     private LanguageLoader() {
@@ -27,43 +28,61 @@ public final class LanguageLoader {
     }
 
     /**
-     * Get all languages that are currently in the classpath. The languages will be cached. Use {@link #clearCache()} to
+     * Get the descriptions of all languages that are currently in the classpath. The languages are only instantiated on
+     * demand, see {@link LanguageDescriptor#getLanguage()}. The descriptions will be cached. Use {@link #clearCache()} to
      * obtain new instances.
-     * @return the languages as unmodifiable map from identifier to language instance.
+     * @return the descriptions as unmodifiable map from identifier to description.
      */
-    public static synchronized Map<String, Language> getAllAvailableLanguages() {
-        if (cachedLanguageInstances != null)
-            return cachedLanguageInstances;
+    public static synchronized Map<String, LanguageDescriptor> getAllAvailableLanguageDescriptors() {
+        if (cachedLanguageDescriptors != null)
+            return cachedLanguageDescriptors;
 
-        Map<String, Language> languages = new TreeMap<>();
+        Map<String, LanguageDescriptor> languages = new TreeMap<>();
 
-        for (Language language : ServiceLoader.load(Language.class)) {
+        for (ServiceLoader.Provider<Language> provider : ServiceLoader.load(Language.class).stream().toList()) {
+            LanguageDescriptor language = LanguageDescriptor.of(provider);
             String languageIdentifier = language.getIdentifier();
             if (languages.containsKey(languageIdentifier)) {
                 logger.error("Multiple implementations for a language '{}' are present in the classpath! Skipping ..", languageIdentifier);
                 languages.remove(languageIdentifier);
                 continue;
             }
-            logger.debug("Loading Language Module '{}'", language.getName());
             languages.put(languageIdentifier, language);
         }
-        logger.info("Available languages: '{}'", languages.values().stream().map(Language::getName).toList());
+        logger.info("Available languages: '{}'", languages.values().stream().map(LanguageDescriptor::getName).toList());
+
+        cachedLanguageDescriptors = Collections.unmodifiableMap(languages);
+        return cachedLanguageDescriptors;
+    }
+
+    /**
+     * Get all languages that are currently in the classpath. This instantiates all languages, use
+     * {@link #getAllAvailableLanguageDescriptors()} or {@link #getLanguage(String)} if not all of them are required. The
+     * languages will be cached. Use {@link #clearCache()} to obtain new instances.
+     * @return the languages as unmodifiable map from identifier to language instance.
+     */
+    public static synchronized Map<String, Language> getAllAvailableLanguages() {
+        if (cachedLanguageInstances != null)
+            return cachedLanguageInstances;
+
+        Map<String, Language> languages = new TreeMap<>();
+        getAllAvailableLanguageDescriptors().forEach((identifier, language) -> languages.put(identifier, language.getLanguage()));
 
         cachedLanguageInstances = Collections.unmodifiableMap(languages);
         return cachedLanguageInstances;
     }
 
     /**
-     * Load a language that is currently in the classpath by its short name.
+     * Load a language that is currently in the classpath by its short name. Only this language is instantiated.
      * @param identifier the identifier of the language
      * @return the language or an empty optional if no language has been found.
      * @see Language#getIdentifier()
      */
     public static Optional<Language> getLanguage(String identifier) {
-        var language = getAllAvailableLanguages().get(identifier);
+        var language = getAllAvailableLanguageDescriptors().get(identifier);
         if (language == null)
             logger.warn("Attempt to load Language {} was not successful", identifier);
-        return Optional.ofNullable(language);
+        return Optional.ofNullable(language).map(LanguageDescriptor::getLanguage);
     }
 
     /**
@@ -72,13 +91,14 @@ public final class LanguageLoader {
      * @see Language#getIdentifier()
      */
     public static Set<String> getAllAvailableLanguageIdentifiers() {
-        return new TreeSet<>(getAllAvailableLanguages().keySet());
+        return new TreeSet<>(getAllAvailableLanguageDescriptors().keySet());
     }
 
     /**
      * Resets the internal cache of all loaded languages
      */
     public static synchronized void clearCache() {
+        cachedLanguageDescriptors = null;
         cachedLanguageInstances = null;
     }
 }
@@ -2,10 +2,12 @@ package de.jplag.cli;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import de.jplag.JPlagComparison;
 import de.jplag.JPlagResult;
 import de.jplag.csv.comparisons.CsvComparisonOutput;
 
@@ -26,8 +28,10 @@ public final class OutputFileGenerator {
     public static void generateCsvOutput(JPlagResult result, File outputRoot, CliOptions options) {
         if (options.advanced.csvExport) {
             try {
-                CsvComparisonOutput.writeCsvResults(result.getAllComparisons(), false, outputRoot, "results");
-                CsvComparisonOutput.writeCsvResults(result.getAllComparisons(), true, outputRoot, "results-anonymous");
+                List<JPlagComparison> comparisons = result.getAllComparisons();
+                long totalComparisons = result.getNumberOfComparisons();
+                CsvComparisonOutput.writeCsvResults(comparisons, totalComparisons, false, outputRoot, "results");
+                CsvComparisonOutput.writeCsvResults(comparisons, totalComparisons, true, outputRoot, "results-anonymous");
             } catch (IOException e) {
                 logger.warn("Could not write csv results", e);
             }
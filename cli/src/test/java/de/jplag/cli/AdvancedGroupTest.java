@@ -1,16 +1,30 @@
 package de.jplag.cli;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.File;
 import java.util.Arrays;
 
 import org.junit.jupiter.api.Test;
 
+import de.jplag.options.ExecutionOptions;
+
 class AdvancedGroupTest extends CommandLineInterfaceTest {
     private static final String SUFFIXES = ".sc,.scala";
 
     private static final double SIMILARITY_THRESHOLD = 0.5;
 
+    private static final int PARSER_THREADS = 3;
+
+    private static final int THREADS = 5;
+
+    private static final String TOKEN_CACHE = "cache";
+
+    private static final String CORPUS_INDEX = "corpus.index";
+
     /**
      * Verify that it is possible to set multiple options in the "advanced" options group.
      */
@@ -20,4 +34,61 @@ class AdvancedGroupTest extends CommandLineInterfaceTest {
         assertEquals(Arrays.stream(SUFFIXES.split(",")).toList(), options.fileSuffixes());
         assertEquals(0.5, options.similarityThreshold());
     }
+
+    @Test
+    void testParserThreads() throws CliException {
+        buildOptionsFromCLI(defaultArguments().parserThreads(PARSER_THREADS));
+        assertEquals(PARSER_THREADS, options.executionOptions().parserThreads());
+    }
+
+    @Test
+    void testTokenCache() throws CliException {
+        buildOptionsFromCLI(defaultArguments().tokenCache(TOKEN_CACHE));
+        assertEquals(new File(TOKEN_CACHE), options.executionOptions().tokenCacheDirectory());
+        assertEquals(ExecutionOptions.DEFAULT_TOKEN_CACHE_SIZE, options.executionOptions().tokenCacheSize());
+    }
+
+    @Test
+    void testCorpusIndex() throws CliException {
+        buildOptionsFromCLI(defaultArguments().corpusIndex(CORPUS_INDEX, true));
+        assertEquals(new File(CORPUS_INDEX), options.executionOptions().corpusIndex());
+        assertTrue(options.executionOptions().corpusAppend());
+    }
+
+    @Test
+    void testIncremental() throws CliException {
+        buildOptionsFromCLI(defaultArguments().incremental());
+        assertEquals(new File("results.comparisons"), options.executionOptions().comparisonStore());
+    }
+
+    @Test
+    void testPipelined() throws CliException {
+        buildOptionsFromCLI(defaultArguments().pipelined());
+        assertTrue(options.executionOptions().pipelinedExecution());
+    }
+
+    @Test
+    void testThreads() throws CliException {
+        buildOptionsFromCLI(defaultArguments().threads(THREADS));
+        assertEquals(THREADS, options.executionOptions().threads());
+    }
+
+    @Test
+    void testMetrics() throws CliException {
+        buildOptionsFromCLI(defaultArguments().metrics());
+        assertTrue(options.executionOptions().collectMetrics());
+    }
+
+    @Test
+    void testParserThreadsDefault() throws CliException {
+        buildOptionsFromCLI(defaultArguments());
+        assertEquals(ExecutionOptions.DEFAULT_PARSER_THREADS, options.executionOptions().parserThreads());
+        assertNull(options.executionOptions().tokenCacheDirectory());
+        assertNull(options.executionOptions().corpusIndex());
+        assertFalse(options.executionOptions().corpusAppend());
+        assertNull(options.executionOptions().comparisonStore());
+        assertFalse(options.executionOptions().pipelinedExecution());
+        assertEquals(ExecutionOptions.DEFAULT_THREADS, options.executionOptions().threads());
+        assertFalse(options.executionOptions().collectMetrics());
+    }
 }
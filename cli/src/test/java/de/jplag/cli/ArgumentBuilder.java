@@ -177,6 +177,90 @@ public class ArgumentBuilder {
         return shownComparisons(String.valueOf(value));
     }
 
+    /**
+     * Sets the option to only keep the shown comparisons in memory
+     * @return self reference
+     */
+    public ArgumentBuilder boundedResults() {
+        this.arguments.add("--bounded-results");
+        return this;
+    }
+
+    /**
+     * Sets the number of parser threads
+     * @param count The number of threads
+     * @return self reference
+     */
+    public ArgumentBuilder parserThreads(int count) {
+        this.arguments.add("--parser-threads");
+        this.arguments.add(String.valueOf(count));
+        return this;
+    }
+
+    /**
+     * Sets the token cache directory
+     * @param directory The path of the cache directory
+     * @return self reference
+     */
+    public ArgumentBuilder tokenCache(String directory) {
+        this.arguments.add("--token-cache");
+        this.arguments.add(directory);
+        return this;
+    }
+
+    /**
+     * Sets the corpus index file
+     * @param file The path of the index file
+     * @param append Whether the new submissions are added to the index
+     * @return self reference
+     */
+    public ArgumentBuilder corpusIndex(String file, boolean append) {
+        this.arguments.add("--corpus-index");
+        this.arguments.add(file);
+        if (append) {
+            this.arguments.add("--corpus-append");
+        }
+        return this;
+    }
+
+    /**
+     * Stores the comparisons for incremental runs
+     * @return self reference
+     */
+    public ArgumentBuilder incremental() {
+        this.arguments.add("--incremental");
+        return this;
+    }
+
+    /**
+     * Compares submissions while parsing
+     * @return self reference
+     */
+    public ArgumentBuilder pipelined() {
+        this.arguments.add("--pipelined");
+        return this;
+    }
+
+    /**
+     * Sets the number of worker threads
+     * @param count The number of threads
+     * @return self reference
+     */
+    public ArgumentBuilder threads(int count) {
+        this.arguments.add("--threads");
+        this.arguments.add(String.valueOf(count));
+        return this;
+    }
+
+    /**
+     * Collects the metrics of the run
+     * @return self reference
+     */
+    public ArgumentBuilder metrics() {
+        this.arguments.add("--metrics");
+        return this;
+    }
+
     /**
      * @return The list of arguments as a string array
      */
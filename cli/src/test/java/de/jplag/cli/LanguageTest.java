@@ -1,6 +1,7 @@
 package de.jplag.cli;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 import java.util.Arrays;
 import java.util.List;
@@ -9,6 +10,7 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import de.jplag.Language;
+import de.jplag.options.LanguageOption;
 
 class LanguageTest extends CommandLineInterfaceTest {
 
@@ -29,6 +31,19 @@ class LanguageTest extends CommandLineInterfaceTest {
         assertEquals(19, languages.size(), "Loaded Languages: " + languages.keySet());
     }
 
+    @Test
+    void testDescriptorsMatchLanguages() {
+        for (LanguageDescriptor descriptor : LanguageLoader.getAllAvailableLanguageDescriptors().values()) {
+            Language language = descriptor.getLanguage();
+
+            assertEquals(language.getIdentifier(), descriptor.getIdentifier());
+            assertEquals(language.getName(), descriptor.getName());
+            assertEquals(language.getOptions().getOptionsAsList().stream().map(LanguageOption::getName).toList(),
+                    descriptor.getOptions().stream().map(LanguageOption::getName).toList());
+            assertSame(language, LanguageLoader.getLanguage(descriptor.getIdentifier()).orElseThrow());
+        }
+    }
+
     @Test
     void testValidLanguages() throws CliException {
         for (Language language : LanguageLoader.getAllAvailableLanguages().values()) {
@@ -1,7 +1,9 @@
 package de.jplag.cli;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.Test;
 
@@ -39,4 +41,16 @@ class StoredMatchesTest extends CommandLineInterfaceTest {
     void testInvalidThreshold() {
         assertThrowsExactly(CliException.class, () -> buildOptionsFromCLI(defaultArguments().shownComparisons("Not an integer...")));
     }
+
+    @Test
+    void testBoundedResultsDefault() throws CliException {
+        buildOptionsFromCLI(defaultArguments());
+        assertFalse(options.executionOptions().boundedResultCollection());
+    }
+
+    @Test
+    void testBoundedResults() throws CliException {
+        buildOptionsFromCLI(defaultArguments().boundedResults());
+        assertTrue(options.executionOptions().boundedResultCollection());
+    }
 }
@@ -0,0 +1,250 @@
+package de.jplag;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Determines which pairs of submissions can have matches at all, before they are compared. Two submissions can only
+ * have a match if they share at least one window of the minimum match length that is not marked in either of them. The
+ * candidate pairs are found via a global inverted index from window fingerprints to the submissions containing them. A
+ * single pass over the index then counts the shared windows of each pair. Pairs that share no window are not candidates
+ * and do not need to be tiled. For the other pairs, the shared windows bound the number of tokens that can be matched.
+ * The windows are identified by their {@link WindowFingerprints}, as the subsequence hashes of the
+ * {@link SubsequenceHashLookupTable} collide too often to rule out pairs. Immutable once created, thus thread-safe.
+ */
+public final class CandidatePairs {
+    private final Map<Submission, Integer> indexes;
+    private final int windowSize;
+    private final int minimumTokenMatch;
+    private final int[][] candidates; // per submission, the ascending indexes of the later submissions it shares windows with
+    private final int[][] sharedWindows; // per submission, the number of shared window occurrences with each candidate
+
+    /**
+     * Builds the inverted index of the given submissions and counts their shared windows.
+     * @param submissions are the submissions to find the candidate pairs of.
+     * @param values are the token values of each submission.
+     * @param marked are the initially marked tokens of each submission, which are not part of any window.
+     * @param windowSize is the size of the windows, which is the minimum match length.
+     * @param minimumTokenMatch is the minimum length of the matches that count towards the similarity. Must not be smaller
+     * than the window size.
+     */
+    CandidatePairs(List<Submission> submissions, List<int[]> values, List<boolean[]> marked, int windowSize, int minimumTokenMatch) {
+        this.windowSize = windowSize;
+        this.minimumTokenMatch = minimumTokenMatch;
+        int size = submissions.size();
+        indexes = new IdentityHashMap<>();
+        for (int index = 0; index < size; index++) {
+            indexes.put(submissions.get(index), index);
+        }
+        int indexBits = Math.max(1, Integer.SIZE - Integer.numberOfLeadingZeros(size - 1));
+
+        // Keys combine the upper bits of the fingerprint with the submission index, thus sorting groups equal windows
+        long[] keys = IntStream.range(0, size).parallel()
+                .mapToObj(index -> windowKeys(values.get(index), marked.get(index), windowSize, index, indexBits)).flatMapToLong(Arrays::stream)
+                .toArray();
+        Arrays.parallelSort(keys);
+
+        InvertedIndex index = InvertedIndex.of(keys, indexBits, size);
+        candidates = new int[size][];
+        sharedWindows = new int[size][];
+        ThreadLocal<int[]> counters = ThreadLocal.withInitial(() -> new int[size]);
+        IntStream.range(0, size).parallel().forEach(submission -> countSharedWindows(submission, index, counters.get()));
+    }
+
+    /**
+     * Checks whether two submissions share at least one window and thus need to be compared. Submissions that were not
+     * indexed are always candidates.
+     * @param first is the first submission.
+     * @param second is the second submission.
+     * @return true if the submissions can have matches.
+     */
+    public boolean isCandidate(Submission first, Submission second) {
+        Integer firstIndex = indexes.get(first);
+        Integer secondIndex = indexes.get(second);
+        return firstIndex == null || secondIndex == null || positionOf(firstIndex, secondIndex) >= 0;
+    }
+
+    /**
+     * Provides the number of window occurrences two submissions share. A window that occurs a times in the first and b
+     * times in the second submission contributes min(a, b) shared occurrences.
+     * @param first is the first submission.
+     * @param second is the second submission.
+     * @return the number of shared window occurrences, or zero if they share none or one of them was not indexed.
+     */
+    public int sharedWindows(Submission first, Submission second) {
+        Integer firstIndex = indexes.get(first);
+        Integer secondIndex = indexes.get(second);
+        if (firstIndex == null || secondIndex == null) {
+            return 0;
+        }
+        int position = positionOf(firstIndex, secondIndex);
+        return position < 0 ? 0 : sharedWindows[Math.min(firstIndex, secondIndex)][position];
+    }
+
+    /**
+     * Provides an upper bound of the number of tokens that are matched between two submissions. Matches do not overlap,
+     * thus a match of length l covers l - w + 1 of the shared window occurrences, where w is the window size. As each
+     * counted match has at least the minimum token match length m, there are at most s / (m - w + 1) matches for s shared
+     * occurrences, each of which covers w - 1 tokens beyond its windows.
+     * @param first is the first submission.
+     * @param second is the second submission.
+     * @return the maximum number of matched tokens, or {@link Integer#MAX_VALUE} if one of them was not indexed.
+     */
+    public int maximumMatchedTokens(Submission first, Submission second) {
+        if (!indexes.containsKey(first) || !indexes.containsKey(second)) {
+            return Integer.MAX_VALUE;
+        }
+        long windows = sharedWindows(first, second);
+        long matches = windows / (minimumTokenMatch - windowSize + 1);
+        return (int) Math.min(Integer.MAX_VALUE, windows + matches * (windowSize - 1));
+    }
+
+    /**
+     * @return the number of pairs that share at least one window.
+     */
+    public long numberOfCandidatePairs() {
+        return Arrays.stream(candidates).mapToLong(row -> row.length).sum();
+    }
+
+    private int positionOf(int firstIndex, int secondIndex) {
+        if (firstIndex == secondIndex) {
+            return -1;
+        }
+        return Arrays.binarySearch(candidates[Math.min(firstIndex, secondIndex)], Math.max(firstIndex, secondIndex));
+    }
+
+    private void countSharedWindows(int submission, InvertedIndex index, int[] counts) {
+        int numberOfCandidates = 0;
+        int[] touched = new int[Math.min(counts.length, 16)];
+        for (int group : index.groupsOf(submission)) {
+            int occurrences = index.occurrencesIn(group, submission);
+            for (int position = index.groupStart(group); position < index.groupEnd(group); position++) {
+                int other = index.submissionAt(position);
+                if (other <= submission) {
+                    continue;
+                }
+                if (counts[other] == 0) {
+                    if (numberOfCandidates == touched.length) {
+                        touched = Arrays.copyOf(touched, touched.length * 2);
+                    }
+                    touched[numberOfCandidates++] = other;
+                }
+                counts[other] += Math.min(occurrences, index.occurrencesAt(position));
+            }
+        }
+        int[] row = Arrays.copyOf(touched, numberOfCandidates);
+        Arrays.sort(row);
+        int[] rowCounts = new int[numberOfCandidates];
+        for (int i = 0; i < numberOfCandidates; i++) {
+            rowCounts[i] = counts[row[i]];
+            counts[row[i]] = 0;
+        }
+        candidates[submission] = row;
+        sharedWindows[submission] = rowCounts;
+    }
+
+    /**
+     * Computes the keys of all unmarked windows of a submission, see {@link WindowFingerprints}.
+     */
+    private static long[] windowKeys(int[] values, boolean[] marked, int windowSize, int submission, int indexBits) {
+        long[] keys = WindowFingerprints.of(values, marked, windowSize);
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = (keys[i] << indexBits) | submission;
+        }
+        return keys;
+    }
+
+    /**
+     * Groups of submissions that share a window, stored in flat arrays. Windows that occur in a single submission only are
+     * omitted.
+     * @param groupOffsets group g spans the positions groupOffsets[g] to groupOffsets[g + 1].
+     * @param submissions are the ascending submission indexes of each group.
+     * @param occurrences are the number of occurrences of the window in the submission at each position.
+     * @param groupsOfSubmissions are the groups each submission is part of.
+     */
+    private record InvertedIndex(int[] groupOffsets, int[] submissions, int[] occurrences, int[][] groupsOfSubmissions) {
+
+        static InvertedIndex of(long[] sortedKeys, int indexBits, int numberOfSubmissions) {
+            long indexMask = (1L << indexBits) - 1;
+            int[] offsets = new int[16];
+            int[] members = new int[16];
+            int[] occurrences = new int[16];
+            int numberOfGroups = 0;
+            int numberOfMembers = 0;
+            int[] groupCounts = new int[numberOfSubmissions];
+
+            int start = 0;
+            while (start < sortedKeys.length) {
+                long window = sortedKeys[start] >>> indexBits;
+                int end = start;
+                int groupStart = numberOfMembers;
+                for (; end < sortedKeys.length && sortedKeys[end] >>> indexBits == window; end++) {
+                    int submission = (int) (sortedKeys[end] & indexMask);
+                    if (numberOfMembers == groupStart || members[numberOfMembers - 1] != submission) {
+                        if (numberOfMembers == members.length) {
+                            members = Arrays.copyOf(members, members.length * 2);
+                            occurrences = Arrays.copyOf(occurrences, occurrences.length * 2);
+                        }
+                        occurrences[numberOfMembers] = 0;
+                        members[numberOfMembers++] = submission;
+                    }
+                    occurrences[numberOfMembers - 1]++; // windows can repeat within a submission
+                }
+                if (numberOfMembers - groupStart > 1) {
+                    if (numberOfGroups + 1 >= offsets.length) {
+                        offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                    }
+                    offsets[numberOfGroups++] = groupStart;
+                    for (int i = groupStart; i < numberOfMembers; i++) {
+                        groupCounts[members[i]]++;
+                    }
+                } else {
+                    numberOfMembers = groupStart; // not shared
+                }
+                start = end;
+            }
+            offsets[numberOfGroups] = numberOfMembers;
+
+            int[][] groupsOfSubmissions = new int[numberOfSubmissions][];
+            for (int submission = 0; submission < numberOfSubmissions; submission++) {
+                groupsOfSubmissions[submission] = new int[groupCounts[submission]];
+                groupCounts[submission] = 0; // reused as fill position
+            }
+            for (int group = 0; group < numberOfGroups; group++) {
+                for (int position = offsets[group]; position < offsets[group + 1]; position++) {
+                    int submission = members[position];
+                    groupsOfSubmissions[submission][groupCounts[submission]++] = group;
+                }
+            }
+            return new InvertedIndex(Arrays.copyOf(offsets, numberOfGroups + 1), Arrays.copyOf(members, numberOfMembers),
+                    Arrays.copyOf(occurrences, numberOfMembers), groupsOfSubmissions);
+        }
+
+        int[] groupsOf(int submission) {
+            return groupsOfSubmissions[submission];
+        }
+
+        int groupStart(int group) {
+            return groupOffsets[group];
+        }
+
+        int groupEnd(int group) {
+            return groupOffsets[group + 1];
+        }
+
+        int submissionAt(int position) {
+            return submissions[position];
+        }
+
+        int occurrencesAt(int position) {
+            return occurrences[position];
+        }
+
+        int occurrencesIn(int group, int submission) {
+            return occurrences[Arrays.binarySearch(submissions, groupStart(group), groupEnd(group), submission)];
+        }
+    }
+}
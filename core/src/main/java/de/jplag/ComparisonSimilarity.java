@@ -0,0 +1,23 @@
+package de.jplag;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Compact representation of a comparison that only retains its similarity according to a single metric, but not its
+ * matches. Used where many comparisons need to be kept, e.g. for clustering.
+ * @param firstSubmission is the first of the two submissions.
+ * @param secondSubmission is the second of the two submissions.
+ * @param similarity is the similarity of the two submissions according to the metric it was created with.
+ */
+public record ComparisonSimilarity(Submission firstSubmission, Submission secondSubmission, double similarity) {
+
+    /**
+     * Creates the compact representation of a comparison.
+     * @param comparison is the comparison to represent.
+     * @param metric assigns the similarity to the comparison.
+     * @return the similarity of the comparison.
+     */
+    public static ComparisonSimilarity of(JPlagComparison comparison, ToDoubleFunction<JPlagComparison> metric) {
+        return new ComparisonSimilarity(comparison.firstSubmission(), comparison.secondSubmission(), metric.applyAsDouble(comparison));
+    }
+}
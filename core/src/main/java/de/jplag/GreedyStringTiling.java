@@ -1,42 +1,262 @@
 package de.jplag;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import de.jplag.metrics.RunMetrics;
+import de.jplag.metrics.Stage;
+import de.jplag.metrics.StageEvent;
 import de.jplag.options.JPlagOptions;
 
 /**
  * This class implements the Greedy String Tiling algorithm as introduced by Michael Wise. However, it is very specific
  * to the classes {@link Token}, and {@link Match}. Class implementation is thread-safe, i.e. submission can be compared
- * in parallel.
+ * in parallel. For parallel comparisons, call {@link #prepareSubmissions(Collection)} beforehand, which precomputes the
+ * per-submission data such that the comparisons only read immutable data without any locking.
  * @see <a href=
  * "https://www.researchgate.net/publication/262763983_String_Similarity_via_Greedy_String_Tiling_and_Running_Karp-Rabin_Matching">
  * String Similarity via Greedy String Tiling and Running Karp−Rabin Matching </a>
  */
 public class GreedyStringTiling {
 
+    /** The smaller submission is always the left one of a comparison. */
+    private static final Comparator<Submission> SUBMISSION_ORDER = Comparator.comparing(Submission::getNumberOfTokens)
+            .thenComparing(Submission::getName);
+
+    /** Scans of submissions with fewer tokens are not split, as splitting costs more than it saves. */
+    private static final int MINIMUM_SPLIT_SCAN_LENGTH = 1 << 14;
+    private static final int SPLIT_SCAN_PART_LENGTH = 1 << 12;
+
     private final int minimumMatchLength;
+    private final boolean bitsetKernel;
+    private final boolean splitScans;
+    private final ThresholdPruning thresholdPruning;
     private final JPlagOptions options;
-    private final ConcurrentMap<TokenType, Integer> tokenTypeValues;
-    private final Map<Submission, Set<Token>> baseCodeMarkings = new IdentityHashMap<>();
+    private final RunMetrics metrics;
+    private final Map<Submission, boolean[]> baseCodeMarkings = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    private volatile Map<Submission, PreparedSubmission> preparedSubmissions = Collections.emptyMap(); // never modified once published
+    private final Map<Submission, PreparedSubmission> lazilyPreparedSubmissions = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    /**
+     * Per-submission data that is computed once and then shared by all comparisons of the submission.
+     * @param values are the token values of the submission.
+     * @param initiallyMarked are the tokens excluded from matching, either due to their type or due to base code. Must be
+     * copied before marking further tokens.
+     * @param initiallyMarkedBits are the same initial markings as bitset, or null if the bitset kernel is not used.
+     * @param lookupTable is the subsequence hash lookup table based on the initial markings.
+     * @param histogram is the histogram of the unmarked token values, or null if no threshold pruning is used.
+     */
+    private record PreparedSubmission(int[] values, boolean[] initiallyMarked, BitSet initiallyMarkedBits,
+            SubsequenceHashLookupTable lookupTable, TokenHistogram histogram) {
+    }
+
+    /**
+     * Upper bound of the number of matched tokens of a running comparison, which is updated after each tiling iteration.
+     * Each matched token pairs two unmarked tokens of the same value, thus the matches consume the intersection of the
+     * token values of both submissions.
+     */
+    private final class MatchedTokenBound {
+        private final Submission leftSubmission;
+        private final Submission rightSubmission;
+        private final int maximumMatchedTokens;
+        private int remainingIntersection;
+        private int matchedTokens;
+        private boolean onlyIgnoredMatchesRemain;
+
+        MatchedTokenBound(Submission leftSubmission, Submission rightSubmission, int maximumMatchedTokens, int intersection) {
+            this.leftSubmission = leftSubmission;
+            this.rightSubmission = rightSubmission;
+            this.maximumMatchedTokens = maximumMatchedTokens;
+            this.remainingIntersection = intersection;
+        }
 
-    private final Map<Submission, int[]> cachedTokenValueLists = new IdentityHashMap<>();
-    private final Map<Submission, SubsequenceHashLookupTable> cachedHashLookupTables = new IdentityHashMap<>();
+        /**
+         * Accounts for the matches of a tiling iteration. As the matches of later iterations are never longer, no further match
+         * counts towards the similarity once the iterations find only matches below the minimum token match.
+         */
+        void addIterationMatches(List<Match> iterationMatches, int maximumMatchLength) {
+            for (Match match : iterationMatches) {
+                remainingIntersection -= match.length();
+                if (match.length() >= options.minimumTokenMatch()) {
+                    matchedTokens += match.length();
+                }
+            }
+            onlyIgnoredMatchesRemain = maximumMatchLength < options.minimumTokenMatch();
+        }
+
+        boolean canReachThreshold() {
+            int remainingMatchedTokens = onlyIgnoredMatchesRemain ? 0 : remainingIntersection;
+            return thresholdPruning.canReachThreshold(leftSubmission, rightSubmission,
+                    Math.min(matchedTokens + remainingMatchedTokens, maximumMatchedTokens));
+        }
+    }
+
+    /**
+     * Scan of a tiling iteration over a range of left start indexes, which finds the longest matches starting there.
+     */
+    @FunctionalInterface
+    private interface IterationScan {
+        /**
+         * @param leftStart is the first left start index to scan.
+         * @param leftEnd is the left start index after the last one to scan.
+         * @param iterationMatches collects the longest matches in scan order.
+         * @param filterOverlaps determines whether matches that overlap previously collected ones are dropped.
+         * @return the length of the longest matches, at least the minimum match length.
+         */
+        int scan(int leftStart, int leftEnd, List<Match> iterationMatches, boolean filterOverlaps);
+    }
+
+    /**
+     * Longest matches of a part of the left start indexes of an iteration.
+     * @param maximumMatchLength is the length of the matches.
+     * @param matches are all matches of that length in scan order, including overlapping ones.
+     */
+    private record PartialScan(int maximumMatchLength, List<Match> matches) {
+    }
+
+    /**
+     * Markings of a single comparison together with the detection of matches on them. This is the only part of the tiling
+     * that differs between the kernels, see {@link de.jplag.options.ExecutionOptions#bitsetTilingKernel()}.
+     */
+    private interface TilingKernel {
+        /**
+         * @return the first unmarked left index at or after the given index, or an index beyond the left tokens.
+         */
+        int nextUnmarkedLeft(int fromIndex);
+
+        boolean isRightMarked(int index);
+
+        /**
+         * @return the length of the unmarked match at the given start indexes, or 0 if it is shorter than the minimum length.
+         */
+        int matchLength(int leftStartIndex, int rightStartIndex, int minimumLength);
+
+        void mark(Match match);
+    }
+
+    /**
+     * Kernel that keeps the markings in arrays and compares the tokens one by one.
+     */
+    private static final class ArrayKernel implements TilingKernel {
+        private final int[] leftValues;
+        private final int[] rightValues;
+        private final boolean[] leftMarked;
+        private final boolean[] rightMarked;
+
+        ArrayKernel(PreparedSubmission left, PreparedSubmission right) {
+            this.leftValues = left.values();
+            this.rightValues = right.values();
+            this.leftMarked = left.initiallyMarked().clone();
+            this.rightMarked = right.initiallyMarked().clone();
+        }
+
+        @Override
+        public int nextUnmarkedLeft(int fromIndex) {
+            int index = fromIndex;
+            while (index < leftMarked.length && leftMarked[index]) {
+                index++;
+            }
+            return index;
+        }
+
+        @Override
+        public boolean isRightMarked(int index) {
+            return rightMarked[index];
+        }
+
+        @Override
+        public int matchLength(int leftStartIndex, int rightStartIndex, int minimumLength) {
+            return maximalMatchingSubsequenceLengthNotMarked(leftValues, leftStartIndex, leftMarked, rightValues, rightStartIndex, rightMarked,
+                    minimumLength);
+        }
+
+        @Override
+        public void mark(Match match) {
+            Arrays.fill(leftMarked, match.startOfFirst(), match.endOfFirst() + 1, true);
+            Arrays.fill(rightMarked, match.startOfSecond(), match.endOfSecond() + 1, true);
+        }
+    }
+
+    /**
+     * Kernel that keeps the markings in bitsets and compares the token values word-wise. Marking a match and finding the
+     * end of a match thus process 64 tokens per step.
+     */
+    private static final class BitSetKernel implements TilingKernel {
+        private final int[] leftValues;
+        private final int[] rightValues;
+        private final BitSet leftMarked;
+        private final BitSet rightMarked;
+
+        BitSetKernel(PreparedSubmission left, PreparedSubmission right) {
+            this.leftValues = left.values();
+            this.rightValues = right.values();
+            this.leftMarked = (BitSet) left.initiallyMarkedBits().clone();
+            this.rightMarked = (BitSet) right.initiallyMarkedBits().clone();
+        }
+
+        @Override
+        public int nextUnmarkedLeft(int fromIndex) {
+            return leftMarked.nextClearBit(fromIndex);
+        }
+
+        @Override
+        public boolean isRightMarked(int index) {
+            return rightMarked.get(index);
+        }
+
+        @Override
+        public int matchLength(int leftStartIndex, int rightStartIndex, int minimumLength) {
+            return maximalMatchingSubsequenceLengthNotMarked(leftValues, leftStartIndex, leftMarked, rightValues, rightStartIndex, rightMarked,
+                    minimumLength);
+        }
+
+        @Override
+        public void mark(Match match) {
+            leftMarked.set(match.startOfFirst(), match.endOfFirst() + 1);
+            rightMarked.set(match.startOfSecond(), match.endOfSecond() + 1);
+        }
+    }
 
     public GreedyStringTiling(JPlagOptions options) {
+        this(options, RunMetrics.DISABLED);
+    }
+
+    /**
+     * @param metrics record the base code marking, the hashing, and the tiling of each pair.
+     */
+    public GreedyStringTiling(JPlagOptions options, RunMetrics metrics) {
         this.options = options;
+        this.metrics = metrics;
+        this.minimumMatchLength = minimumMatchLengthOf(options);
+        this.bitsetKernel = options.executionOptions().bitsetTilingKernel();
+        this.splitScans = options.executionOptions().costBasedScheduling();
+        this.thresholdPruning = ThresholdPruning.of(options);
+    }
+
+    /**
+     * Determines the length of the shortest matches that are tiled. With match merging, shorter matches than the minimum
+     * token match are tiled to merge them afterwards.
+     * @param options are the options of the comparison.
+     * @return the minimum match length, which is at least one and at most the minimum token match.
+     */
+    public static int minimumMatchLengthOf(JPlagOptions options) {
         // Ensures 1 <= neighborLength <= minimumTokenMatch
         int minimumNeighborLength = Math.min(Math.max(options.mergingOptions().minimumNeighborLength(), 1), options.minimumTokenMatch());
-        this.minimumMatchLength = options.mergingOptions().enabled() ? minimumNeighborLength : options.minimumTokenMatch();
-        this.tokenTypeValues = new ConcurrentHashMap<>();
-        this.tokenTypeValues.put(SharedTokenType.FILE_END, 0);
+        return options.mergingOptions().enabled() ? minimumNeighborLength : options.minimumTokenMatch();
     }
 
     /**
@@ -48,26 +268,47 @@ public class GreedyStringTiling {
      * @return the comparison of the submission with the base code submission.
      */
     public final JPlagComparison generateBaseCodeMarking(Submission submission, Submission baseCodeSubmission) {
-        JPlagComparison comparison = compare(submission, baseCodeSubmission);
+        StageEvent event = metrics.startStage(Stage.BASE_CODE_MARKING);
+        // the preparation without base code markings is only needed for this comparison, thus it is not cached
+        JPlagComparison comparison = compare(submission, prepare(submission), baseCodeSubmission, preparedSubmission(baseCodeSubmission), null);
 
-        List<Token> submissionTokenList = submission.getTokenList();
-        Set<Token> baseCodeMarking = new HashSet<>();
+        boolean[] baseCodeMarking = new boolean[submission.getNumberOfTokens()];
         for (Match match : comparison.matches()) {
             int startIndex = comparison.firstSubmission() == submission ? match.startOfFirst() : match.startOfSecond();
-            baseCodeMarking.addAll(submissionTokenList.subList(startIndex, startIndex + match.length()));
+            Arrays.fill(baseCodeMarking, startIndex, startIndex + match.length(), true);
         }
         baseCodeMarkings.put(submission, baseCodeMarking);
 
-        // Remove the lookup table for the current submission to trigger a regeneration as hashes will change due to the new
-        // baseCodeMarking.
-        // This is a performance optimization to not suggest subsequences with baseCode for the matching.
+        // Discard the prepared data for the current submission to trigger a regeneration as markings and hashes will change
+        // due to the new baseCodeMarking.
+        // For the hashes, this is a performance optimization to not suggest subsequences with baseCode for the matching.
         // Removing this optimization would not change the result as the baseCode matches are additionally checked by validating
         // that no match has a marked token (which baseCode-containing tokens are).
-        cachedHashLookupTables.remove(submission);
+        discardPreparation(submission);
 
+        metrics.finishPairStage(event, submission.getName(), baseCodeSubmission.getName(), submission.getNumberOfTokens());
         return comparison;
     }
 
+    /**
+     * Precomputes the token values, initial markings and subsequence hash lookup tables of the given submissions in
+     * parallel. Afterwards, this data is immutable and comparisons of these submissions read it without locking. Must be
+     * called after generating the base code markings via {@link #generateBaseCodeMarking}. Submissions that are compared
+     * without being prepared are prepared lazily instead.
+     * @param submissions are the submissions to prepare.
+     */
+    public void prepareSubmissions(Collection<Submission> submissions) {
+        StageEvent event = metrics.startStage(Stage.HASHING);
+        Map<Submission, PreparedSubmission> newlyPrepared = submissions.parallelStream()
+                .collect(Collectors.toMap(Function.identity(), this::prepare, (first, second) -> first, IdentityHashMap::new));
+        synchronized (this) {
+            Map<Submission, PreparedSubmission> prepared = new IdentityHashMap<>(preparedSubmissions);
+            prepared.putAll(newlyPrepared);
+            preparedSubmissions = Collections.unmodifiableMap(prepared);
+        }
+        metrics.finishStage(event, "hash tables", submissions.size());
+    }
+
     /**
      * Compares the two submissions and generates matches between them. To exclude base code from the result, call
      * {@link #generateBaseCodeMarking} with each submission beforehand.
@@ -76,85 +317,246 @@ public class GreedyStringTiling {
      * @return the comparison between the two submissions.
      */
     public final JPlagComparison compare(Submission firstSubmission, Submission secondSubmission) {
-        Submission smallerSubmission;
-        Submission largerSubmission;
-        Comparator<Submission> submissionComparator = Comparator.comparing((Submission it) -> it.getTokenList().size())
-                .thenComparing(Submission::getName);
-
-        if (submissionComparator.compare(firstSubmission, secondSubmission) <= 0) {
-            smallerSubmission = firstSubmission;
-            largerSubmission = secondSubmission;
-        } else {
-            smallerSubmission = secondSubmission;
-            largerSubmission = firstSubmission;
+        return tile(firstSubmission, preparedSubmission(firstSubmission), secondSubmission, preparedSubmission(secondSubmission), null);
+    }
+
+    /**
+     * Compares the two submissions like {@link #compare(Submission, Submission)}, unless their similarity provably stays
+     * below the similarity threshold. Before tiling, the number of matched tokens is bounded by the number of unmarked
+     * tokens and by the intersection of the token values of both submissions. During tiling, the comparison is aborted
+     * between two iterations once the matches so far and the remaining intersection cannot reach the threshold.
+     * @param firstSubmission is one of the two submissions.
+     * @param secondSubmission is the other of the two submissions.
+     * @param maximumMatchedTokens is an additional upper bound of the number of matched tokens known to the caller, e.g.
+     * from the {@link CandidatePairs}, or {@link Integer#MAX_VALUE} if there is none.
+     * @return the comparison between the two submissions, or nothing if its similarity is below the threshold. Returned
+     * comparisons may still be below the threshold.
+     */
+    public final Optional<JPlagComparison> compareIfThresholdReachable(Submission firstSubmission, Submission secondSubmission,
+            int maximumMatchedTokens) {
+        PreparedSubmission preparedFirst = preparedSubmission(firstSubmission);
+        PreparedSubmission preparedSecond = preparedSubmission(secondSubmission);
+        if (thresholdPruning == null) {
+            return Optional.of(tile(firstSubmission, preparedFirst, secondSubmission, preparedSecond, null));
+        }
+        // the number of unmarked tokens is checked first, as it is cheaper to compute than the intersection
+        int unmarkedTokens = Math.min(preparedFirst.histogram().size(), preparedSecond.histogram().size());
+        if (!thresholdPruning.canReachThreshold(firstSubmission, secondSubmission, Math.min(unmarkedTokens, maximumMatchedTokens))) {
+            metrics.increment(RunMetrics.PRUNED_PAIRS);
+            return Optional.empty();
+        }
+        int intersection = preparedFirst.histogram().intersectionSize(preparedSecond.histogram());
+        MatchedTokenBound bound = new MatchedTokenBound(firstSubmission, secondSubmission, maximumMatchedTokens, intersection);
+        if (!bound.canReachThreshold()) {
+            metrics.increment(RunMetrics.PRUNED_PAIRS);
+            return Optional.empty();
+        }
+        JPlagComparison comparison = tile(firstSubmission, preparedFirst, secondSubmission, preparedSecond, bound);
+        if (comparison == null) {
+            metrics.increment(RunMetrics.ABORTED_PAIRS);
+        }
+        return Optional.ofNullable(comparison);
+    }
+
+    /**
+     * Creates the comparison of two submissions that are known to have no matches, e.g. because they are no
+     * {@link CandidatePairs candidate pair}. The result equals the result of {@link #compare(Submission, Submission)}, but
+     * no tiling is performed.
+     * @param firstSubmission is one of the two submissions.
+     * @param secondSubmission is the other of the two submissions.
+     * @return the comparison without matches.
+     */
+    public final JPlagComparison createComparisonWithoutMatches(Submission firstSubmission, Submission secondSubmission) {
+        return createComparison(firstSubmission, secondSubmission, List.of(), List.of());
+    }
+
+    /**
+     * Creates the comparison of two submissions from matches that were computed before, e.g. in a previous run. The
+     * comparison is oriented like the comparisons of {@link #compare(Submission, Submission)}, thus the matches are swapped
+     * if the second submission becomes the first one.
+     * @param firstSubmission is one of the two submissions.
+     * @param secondSubmission is the other of the two submissions.
+     * @param matches are the matches, whose first start refers to the first submission.
+     * @param ignoredMatches are the ignored matches, whose first start refers to the first submission.
+     * @return the comparison with the given matches.
+     */
+    public final JPlagComparison createComparison(Submission firstSubmission, Submission secondSubmission, List<Match> matches,
+            List<Match> ignoredMatches) {
+        if (SUBMISSION_ORDER.compare(firstSubmission, secondSubmission) <= 0) {
+            return new JPlagComparison(firstSubmission, secondSubmission, matches, ignoredMatches);
         }
-        return compareInternal(smallerSubmission, largerSubmission);
+        return new JPlagComparison(secondSubmission, firstSubmission, swapped(matches), swapped(ignoredMatches));
+    }
+
+    private static List<Match> swapped(List<Match> matches) {
+        return matches.stream().map(it -> new Match(it.startOfSecond(), it.startOfFirst(), it.length())).toList();
+    }
+
+    /**
+     * Finds the pairs of the given submissions that share at least one window of the minimum match length and thus can have
+     * matches. Uses the same initial markings as the comparisons, thus must be called after generating the base code
+     * markings via {@link #generateBaseCodeMarking}.
+     * @param submissions are the submissions to find the candidate pairs of.
+     * @return the candidate pairs.
+     */
+    public CandidatePairs findCandidatePairs(List<Submission> submissions) {
+        StageEvent event = metrics.startStage(Stage.HASHING);
+        List<PreparedSubmission> prepared = submissions.stream().map(this::preparedSubmission).toList();
+        CandidatePairs candidatePairs = new CandidatePairs(submissions, prepared.stream().map(PreparedSubmission::values).toList(),
+                prepared.stream().map(PreparedSubmission::initiallyMarked).toList(), minimumMatchLength, options.minimumTokenMatch());
+        metrics.finishStage(event, "window index", submissions.size());
+        return candidatePairs;
+    }
+
+    /**
+     * Compares two submissions as a measured tiling stage, see {@link Stage#TILING}.
+     * @param bound is the bound of the matched tokens to abort the comparison with, or null if it is not aborted.
+     * @return the comparison, or null if it was aborted.
+     */
+    private JPlagComparison tile(Submission firstSubmission, PreparedSubmission preparedFirst, Submission secondSubmission,
+            PreparedSubmission preparedSecond, MatchedTokenBound bound) {
+        StageEvent event = metrics.startStage(Stage.TILING);
+        JPlagComparison comparison = compare(firstSubmission, preparedFirst, secondSubmission, preparedSecond, bound);
+        metrics.finishPairStage(event, firstSubmission.getName(), secondSubmission.getName(),
+                (long) firstSubmission.getNumberOfTokens() + secondSubmission.getNumberOfTokens());
+        return comparison;
+    }
+
+    /**
+     * @param bound is the bound of the matched tokens to abort the comparison with, or null if it is not aborted.
+     * @return the comparison, or null if it was aborted.
+     */
+    private JPlagComparison compare(Submission firstSubmission, PreparedSubmission preparedFirst, Submission secondSubmission,
+            PreparedSubmission preparedSecond, MatchedTokenBound bound) {
+        if (SUBMISSION_ORDER.compare(firstSubmission, secondSubmission) <= 0) {
+            return compareInternal(firstSubmission, preparedFirst, secondSubmission, preparedSecond, bound);
+        }
+        return compareInternal(secondSubmission, preparedSecond, firstSubmission, preparedFirst, bound);
+    }
+
+    private JPlagComparison compareInternal(Submission leftSubmission, PreparedSubmission left, Submission rightSubmission,
+            PreparedSubmission right, MatchedTokenBound bound) {
+        TilingKernel kernel = bitsetKernel ? new BitSetKernel(left, right) : new ArrayKernel(left, right);
+        return compareWith(kernel, leftSubmission, left, rightSubmission, right, bound);
     }
 
     /**
      * Compares two submissions. FILE_END is used as pivot
+     * @param kernel keeps the markings of this comparison and detects the matches.
      * @param leftSubmission is the submission with the smaller sequence.
+     * @param left is the prepared data of the left submission.
      * @param rightSubmission is the submission with the larger sequence.
-     * @return the comparison results.
+     * @param right is the prepared data of the right submission.
+     * @param bound is the bound of the matched tokens to abort the comparison with, or null if it is not aborted.
+     * @return the comparison results, or null if the comparison was aborted.
      */
-    private JPlagComparison compareInternal(Submission leftSubmission, Submission rightSubmission) {
-        int[] leftValues = tokenValueListFromSubmission(leftSubmission);
-        int[] rightValues = tokenValueListFromSubmission(rightSubmission);
-
-        boolean[] leftMarked = calculateInitiallyMarked(leftSubmission);
-        boolean[] rightMarked = calculateInitiallyMarked(rightSubmission);
+    private JPlagComparison compareWith(TilingKernel kernel, Submission leftSubmission, PreparedSubmission left, Submission rightSubmission,
+            PreparedSubmission right, MatchedTokenBound bound) {
+        int leftLength = left.values().length;
+        int rightLength = right.values().length;
 
-        SubsequenceHashLookupTable leftLookupTable = subsequenceHashLookupTableForSubmission(leftSubmission, leftMarked);
-        SubsequenceHashLookupTable rightLookupTable = subsequenceHashLookupTableForSubmission(rightSubmission, rightMarked);
+        SubsequenceHashLookupTable leftLookupTable = left.lookupTable();
+        SubsequenceHashLookupTable rightLookupTable = right.lookupTable();
 
-        int maximumMatchLength;
-        List<Match> globalMatches = new ArrayList<>();
-        List<Match> ignoredMatches = new ArrayList<>();
-        do {
-            maximumMatchLength = minimumMatchLength;
-            List<Match> iterationMatches = new ArrayList<>();
-            for (int leftStartIndex = 0; leftStartIndex < leftValues.length - maximumMatchLength; leftStartIndex++) {
+        IterationScan scan = (leftStart, leftEnd, iterationMatches, filterOverlaps) -> {
+            int maximumMatchLength = minimumMatchLength;
+            for (int leftStartIndex = kernel.nextUnmarkedLeft(leftStart); leftStartIndex < Math.min(leftEnd, leftLength - maximumMatchLength);
+                    leftStartIndex = kernel.nextUnmarkedLeft(leftStartIndex + 1)) {
                 int leftSubsequenceHash = leftLookupTable.subsequenceHashForStartIndex(leftStartIndex);
-                if (leftMarked[leftStartIndex] || leftSubsequenceHash == SubsequenceHashLookupTable.NO_HASH) {
+                if (leftSubsequenceHash == SubsequenceHashLookupTable.NO_HASH) {
                     continue;
                 }
-                List<Integer> possiblyMatchingRightStartIndexes = rightLookupTable
-                        .startIndexesOfPossiblyMatchingSubsequencesForSubsequenceHash(leftSubsequenceHash);
-                for (Integer rightStartIndex : possiblyMatchingRightStartIndexes) {
+                int rightBucket = rightLookupTable.bucketForSubsequenceHash(leftSubsequenceHash);
+                if (rightBucket == SubsequenceHashLookupTable.NO_BUCKET) {
+                    continue;
+                }
+                int rightBucketEnd = rightLookupTable.bucketEnd(rightBucket);
+                for (int position = rightLookupTable.bucketStart(rightBucket); position < rightBucketEnd; position++) {
+                    int rightStartIndex = rightLookupTable.startIndexAt(position);
                     // comparison uses >= because it is assumed that the last token is a pivot (FILE_END)
-                    if (rightMarked[rightStartIndex] || maximumMatchLength >= rightValues.length - rightStartIndex) {
+                    if (kernel.isRightMarked(rightStartIndex) || maximumMatchLength >= rightLength - rightStartIndex) {
                         continue;
                     }
 
-                    int subsequenceMatchLength = maximalMatchingSubsequenceLengthNotMarked(leftValues, leftStartIndex, leftMarked, rightValues,
-                            rightStartIndex, rightMarked, maximumMatchLength);
+                    int subsequenceMatchLength = kernel.matchLength(leftStartIndex, rightStartIndex, maximumMatchLength);
                     if (subsequenceMatchLength >= maximumMatchLength) {
                         if (subsequenceMatchLength > maximumMatchLength) {
                             iterationMatches.clear();
                             maximumMatchLength = subsequenceMatchLength;
                         }
-                        Match match = new Match(leftStartIndex, rightStartIndex, subsequenceMatchLength);
-                        addMatchIfNotOverlapping(iterationMatches, match);
+                        addIterationMatch(iterationMatches, new Match(leftStartIndex, rightStartIndex, subsequenceMatchLength), filterOverlaps);
                     }
                 }
             }
+            return maximumMatchLength;
+        };
+
+        int maximumMatchLength;
+        List<Match> globalMatches = new ArrayList<>();
+        List<Match> ignoredMatches = new ArrayList<>();
+        do {
+            List<Match> iterationMatches = new ArrayList<>();
+            maximumMatchLength = scanIteration(scan, leftLength, iterationMatches);
             for (Match match : iterationMatches) {
                 if (match.length() < options.minimumTokenMatch()) {
                     addMatchIfNotOverlapping(ignoredMatches, match);
                 } else {
                     addMatchIfNotOverlapping(globalMatches, match);
                 }
-                int leftStartIndex = match.startOfFirst();
-                int rightStartIndex = match.startOfSecond();
-                for (int offset = 0; offset < match.length(); offset++) {
-                    leftMarked[leftStartIndex + offset] = true;
-                    rightMarked[rightStartIndex + offset] = true;
+                kernel.mark(match);
+            }
+            if (bound != null) {
+                bound.addIterationMatches(iterationMatches, maximumMatchLength);
+                if (!bound.canReachThreshold()) {
+                    return null;
                 }
             }
         } while (maximumMatchLength != minimumMatchLength);
         return new JPlagComparison(leftSubmission, rightSubmission, globalMatches, ignoredMatches);
     }
 
+    /**
+     * Computes the maximal matching subsequence between the two lists starting at their respective indexes like
+     * {@link #maximalMatchingSubsequenceLengthNotMarked(int[], int, boolean[], int[], int, boolean[], int)}. Instead of
+     * checking the markings token by token, the subsequence is limited to the range up to the next marked token in each
+     * list, which is found word-wise. The values within that range are compared via
+     * {@link Arrays#mismatch(int[], int, int, int[], int, int)}, which the JIT compiles to vectorized instructions.
+     * @param leftValues The list of left values.
+     * @param leftStartIndex The start index in the left list.
+     * @param leftMarked Which left values are marked.
+     * @param rightValues The list of right values.
+     * @param rightStartIndex The start index in the right list.
+     * @param rightMarked Which right values are marked.
+     * @param minimumSequenceLength The minimal sequence length for a matching subsequence. Must be not negative.
+     * @return the maximal matching subsequence length, or 0 if there is no subsequence of at least the minimum sequence
+     * length.
+     */
+    private static int maximalMatchingSubsequenceLengthNotMarked(int[] leftValues, int leftStartIndex, BitSet leftMarked, int[] rightValues,
+            int rightStartIndex, BitSet rightMarked, int minimumSequenceLength) {
+        for (int offset = minimumSequenceLength - 1; offset >= 0; offset--) { // short, thus compared directly
+            if (leftValues[leftStartIndex + offset] != rightValues[rightStartIndex + offset]) {
+                return 0;
+            }
+        }
+        int leftUnmarkedLength = nextSetBit(leftMarked, leftStartIndex, leftValues.length) - leftStartIndex;
+        int rightUnmarkedLength = nextSetBit(rightMarked, rightStartIndex, rightValues.length) - rightStartIndex;
+        int unmarkedLength = Math.min(leftUnmarkedLength, rightUnmarkedLength);
+        if (unmarkedLength < minimumSequenceLength) {
+            return 0;
+        }
+        int mismatch = Arrays.mismatch(leftValues, leftStartIndex + minimumSequenceLength, leftStartIndex + unmarkedLength, rightValues,
+                rightStartIndex + minimumSequenceLength, rightStartIndex + unmarkedLength);
+        return mismatch < 0 ? unmarkedLength : minimumSequenceLength + mismatch;
+    }
+
+    /**
+     * @return the index of the first marked token at or after the given index, or the given length if there is none.
+     */
+    private static int nextSetBit(BitSet marked, int fromIndex, int length) {
+        int index = marked.nextSetBit(fromIndex);
+        return index < 0 ? length : index;
+    }
+
     /**
      * Computes the maximal matching subsequence between the two lists starting at their respective indexes. Values are
      * matching if they are equal and not marked. Comparison is performed backwards for the minimum sequence length based on
@@ -169,7 +571,7 @@ public class GreedyStringTiling {
      * @return the maximal matching subsequence length, or 0 if there is no subsequence of at least the minimum sequence
      * length.
      */
-    private int maximalMatchingSubsequenceLengthNotMarked(int[] leftValues, int leftStartIndex, boolean[] leftMarked, int[] rightValues,
+    private static int maximalMatchingSubsequenceLengthNotMarked(int[] leftValues, int leftStartIndex, boolean[] leftMarked, int[] rightValues,
             int rightStartIndex, boolean[] rightMarked, int minimumSequenceLength) {
         for (int offset = minimumSequenceLength - 1; offset >= 0; offset--) {
             int leftIndex = leftStartIndex + offset;
@@ -186,6 +588,45 @@ public class GreedyStringTiling {
         return offset;
     }
 
+    /**
+     * Performs the scan of a tiling iteration. The scans of large submissions are split into parts of the left start
+     * indexes, which idle workers of the fork-join pool can take over, see
+     * {@link de.jplag.options.ExecutionOptions#costBasedScheduling()}. The parts do not modify the markings and keep all
+     * longest matches including overlapping ones. Afterwards, the longest matches of all parts are filtered in scan order,
+     * which yields the same matches as a single scan.
+     * @param scan is the scan of the comparison.
+     * @param leftLength is the number of left tokens.
+     * @param iterationMatches collects the non-overlapping longest matches.
+     * @return the length of the longest matches.
+     */
+    private int scanIteration(IterationScan scan, int leftLength, List<Match> iterationMatches) {
+        if (!splitScans || leftLength < MINIMUM_SPLIT_SCAN_LENGTH || !ForkJoinTask.inForkJoinPool()) {
+            return scan.scan(0, leftLength, iterationMatches, true);
+        }
+        int numberOfParts = (leftLength + SPLIT_SCAN_PART_LENGTH - 1) / SPLIT_SCAN_PART_LENGTH;
+        List<PartialScan> parts = IntStream.range(0, numberOfParts).parallel().mapToObj(part -> {
+            List<Match> partMatches = new ArrayList<>();
+            int partStart = part * SPLIT_SCAN_PART_LENGTH;
+            int partMaximum = scan.scan(partStart, Math.min(partStart + SPLIT_SCAN_PART_LENGTH, leftLength), partMatches, false);
+            return new PartialScan(partMaximum, partMatches);
+        }).toList();
+        int maximumMatchLength = parts.stream().mapToInt(PartialScan::maximumMatchLength).max().orElse(minimumMatchLength);
+        for (PartialScan part : parts) {
+            if (part.maximumMatchLength() == maximumMatchLength) {
+                part.matches().forEach(match -> addMatchIfNotOverlapping(iterationMatches, match));
+            }
+        }
+        return maximumMatchLength;
+    }
+
+    private void addIterationMatch(List<Match> iterationMatches, Match match, boolean filterOverlaps) {
+        if (filterOverlaps) {
+            addMatchIfNotOverlapping(iterationMatches, match);
+        } else {
+            iterationMatches.add(match);
+        }
+    }
+
     private void addMatchIfNotOverlapping(List<Match> matches, Match match) {
         for (int i = matches.size() - 1; i >= 0; i--) { // starting at the end is better(?)
             if (matches.get(i).overlaps(match)) {
@@ -196,36 +637,63 @@ public class GreedyStringTiling {
     }
 
     private boolean[] calculateInitiallyMarked(Submission submission) {
-        Set<Token> baseCodeTokens = baseCodeMarkings.get(submission);
-        List<Token> tokens = submission.getTokenList();
-        boolean[] result = new boolean[tokens.size()];
+        boolean[] baseCodeMarking = baseCodeMarkings.get(submission);
+        int[] values = tokenValueListFromSubmission(submission);
+        boolean[] result = new boolean[values.length];
         for (int i = 0; i < result.length; i++) {
-            result[i] = tokens.get(i).getType().isExcludedFromMatching() || (baseCodeTokens != null && baseCodeTokens.contains(tokens.get(i)));
+            result[i] = TokenTypeRegistry.isExcludedFromMatching(values[i]) || (baseCodeMarking != null && baseCodeMarking[i]);
         }
         return result;
     }
 
-    private SubsequenceHashLookupTable subsequenceHashLookupTableForSubmission(Submission submission, boolean[] marked) {
-        return cachedHashLookupTables.computeIfAbsent(submission,
-                (key -> new SubsequenceHashLookupTable(minimumMatchLength, tokenValueListFromSubmission(key), marked)));
+    private PreparedSubmission preparedSubmission(Submission submission) {
+        PreparedSubmission prepared = preparedSubmissions.get(submission);
+        if (prepared == null) {
+            prepared = lazilyPreparedSubmissions.get(submission);
+        }
+        if (prepared == null) { // prepared outside the lock, concurrent preparations of the same submission are equal
+            PreparedSubmission newlyPrepared = prepare(submission);
+            prepared = Objects.requireNonNullElse(lazilyPreparedSubmissions.putIfAbsent(submission, newlyPrepared), newlyPrepared);
+        }
+        return prepared;
+    }
+
+    private PreparedSubmission prepare(Submission submission) {
+        int[] values = tokenValueListFromSubmission(submission);
+        boolean[] initiallyMarked = calculateInitiallyMarked(submission);
+        BitSet initiallyMarkedBits = bitsetKernel ? toBitSet(initiallyMarked) : null;
+        TokenHistogram histogram = thresholdPruning != null ? TokenHistogram.of(values, initiallyMarked) : null;
+        return new PreparedSubmission(values, initiallyMarked, initiallyMarkedBits,
+                new SubsequenceHashLookupTable(minimumMatchLength, values, initiallyMarked), histogram);
+    }
+
+    private static BitSet toBitSet(boolean[] marked) {
+        BitSet bits = new BitSet(marked.length);
+        for (int i = 0; i < marked.length; i++) {
+            if (marked[i]) {
+                bits.set(i);
+            }
+        }
+        return bits;
+    }
+
+    private void discardPreparation(Submission submission) {
+        lazilyPreparedSubmissions.remove(submission);
+        if (preparedSubmissions.containsKey(submission)) {
+            synchronized (this) {
+                Map<Submission, PreparedSubmission> prepared = new IdentityHashMap<>(preparedSubmissions);
+                prepared.remove(submission);
+                preparedSubmissions = Collections.unmodifiableMap(prepared);
+            }
+        }
     }
 
     /**
-     * Converts the tokens of the submission to a list of values.
-     * @param submission The submission from which to convert the tokens.
+     * Provides the tokens of the submission as a list of values. The values are interned when the token sequence is
+     * created, thus no lookup or synchronization is required here.
+     * @param submission The submission from which to obtain the token values.
      */
     private int[] tokenValueListFromSubmission(Submission submission) {
-        return cachedTokenValueLists.computeIfAbsent(submission, (key -> {
-            List<Token> tokens = key.getTokenList();
-            int[] tokenValueList = new int[tokens.size()];
-            for (int i = 0; i < tokens.size(); i++) {
-                TokenType type = tokens.get(i).getType();
-                synchronized (tokenTypeValues) {
-                    tokenTypeValues.putIfAbsent(type, tokenTypeValues.size());
-                }
-                tokenValueList[i] = tokenTypeValues.get(type);
-            }
-            return tokenValueList;
-        }));
+        return submission.getTokenSequence().tokenValues();
     }
 }
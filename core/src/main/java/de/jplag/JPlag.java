@@ -15,10 +15,18 @@ import de.jplag.exceptions.ExitException;
 import de.jplag.exceptions.RootDirectoryException;
 import de.jplag.exceptions.SubmissionException;
 import de.jplag.merging.MatchMerging;
+import de.jplag.metrics.RunMetrics;
+import de.jplag.metrics.Stage;
+import de.jplag.metrics.StageEvent;
 import de.jplag.options.JPlagOptions;
+import de.jplag.progress.Phase;
+import de.jplag.progress.ProgressListener;
+import de.jplag.progress.ProgressTracker;
 import de.jplag.reporting.reportobject.model.Version;
 import de.jplag.strategy.ComparisonStrategy;
+import de.jplag.strategy.IncrementalComparisonStrategy;
 import de.jplag.strategy.ParallelComparisonStrategy;
+import de.jplag.strategy.PipelinedComparisonStrategy;
 
 /**
  * This class coordinates the whole errorConsumer flow.
@@ -59,39 +67,103 @@ public class JPlag {
     }
 
     /**
-     * Main procedure, executes the comparison of source code submissions.
+     * Main procedure, executes the comparison of source code submissions. Runs on a dedicated executor whose parallelism is
+     * determined by {@link de.jplag.options.ExecutionOptions#threads()}.
      * @param options determines the parameterization.
      * @return the results of the comparison, specifically the submissions whose similarity exceeds a set threshold.
      * @throws ExitException if JPlag exits preemptively.
      */
     public static JPlagResult run(JPlagOptions options) throws ExitException {
+        try (JPlagExecutor executor = new JPlagExecutor(options.executionOptions().threads())) {
+            return run(options, executor);
+        }
+    }
+
+    /**
+     * Main procedure, executes the comparison of source code submissions on the worker threads of the given executor.
+     * @param options determines the parameterization.
+     * @param executor runs the parsing, comparing, and merging. It is not closed by this method.
+     * @return the results of the comparison, specifically the submissions whose similarity exceeds a set threshold.
+     * @throws ExitException if JPlag exits preemptively.
+     * @throws java.util.concurrent.CancellationException if the executor is cancelled.
+     */
+    public static JPlagResult run(JPlagOptions options, JPlagExecutor executor) throws ExitException {
+        return run(options, executor, null);
+    }
+
+    /**
+     * Main procedure, executes the comparison of source code submissions on the worker threads of the given executor and
+     * reports the progress of each phase to the given listener. Each phase checks whether the executor is cancelled, see
+     * {@link JPlagExecutor#cancel()}.
+     * @param options determines the parameterization.
+     * @param executor runs the parsing, comparing, and merging. It is not closed by this method.
+     * @param progressListener is notified about the progress of the run, or null if the progress is only logged.
+     * @return the results of the comparison, specifically the submissions whose similarity exceeds a set threshold.
+     * @throws ExitException if JPlag exits preemptively.
+     * @throws java.util.concurrent.CancellationException if the executor is cancelled.
+     */
+    public static JPlagResult run(JPlagOptions options, JPlagExecutor executor, ProgressListener progressListener) throws ExitException {
+        ProgressTracker progress = new ProgressTracker(progressListener, RunMetrics.of(options.executionOptions()));
+        return executor.invoke(() -> runPhases(options, progress));
+    }
+
+    private static JPlagResult runPhases(JPlagOptions options, ProgressTracker progress) throws ExitException {
         checkForConfigurationConsistency(options);
-        GreedyStringTiling coreAlgorithm = new GreedyStringTiling(options);
-        ComparisonStrategy comparisonStrategy = new ParallelComparisonStrategy(options, coreAlgorithm);
-        // Parse and validate submissions.
+        RunMetrics metrics = progress.metrics();
+        GreedyStringTiling coreAlgorithm = new GreedyStringTiling(options, metrics);
+        ComparisonStrategy comparisonStrategy = createComparisonStrategy(options, coreAlgorithm, progress);
+        // Parse and validate submissions. Pipelined strategies already compare while parsing.
+        JPlagExecutor.checkCancelled();
         SubmissionSetBuilder builder = new SubmissionSetBuilder(options);
-        SubmissionSet submissionSet = builder.buildSubmissionSet();
+        ParsingListener parsingListener = comparisonStrategy instanceof ParsingListener listener ? listener : null;
+        SubmissionSet submissionSet = builder.buildSubmissionSet(parsingListener, progress);
         int submissionCount = submissionSet.numberOfSubmissions();
         if (submissionCount < 2)
             throw new SubmissionException("Not enough valid submissions! (found " + submissionCount + " valid submissions)");
 
         // Compare valid submissions.
+        JPlagExecutor.checkCancelled();
         JPlagResult result = comparisonStrategy.compareSubmissions(submissionSet);
 
-        // Use Match Merging against obfuscation
-        if (options.mergingOptions().enabled()) {
+        // Use Match Merging against obfuscation (bounded collections are already merged while collecting)
+        if (options.mergingOptions().enabled() && !TopComparisonCollection.isUsedFor(options)) {
+            JPlagExecutor.checkCancelled();
+            progress.startPhase(Phase.MERGING, ProgressTracker.UNKNOWN);
+            StageEvent mergingEvent = metrics.startStage(Stage.MERGING);
             result = new MatchMerging(options).mergeMatchesOf(result);
+            metrics.finishStage(mergingEvent, null, result.getNumberOfComparisons());
+            progress.finishPhase(Phase.MERGING);
         }
 
         if (logger.isInfoEnabled())
             logger.info("Total time for comparing submissions: {}", TimeUtil.formatDuration(result.getDuration()));
-        result.setClusteringResult(ClusteringFactory.getClusterings(result.getAllComparisons(), options.clusteringOptions()));
+        JPlagExecutor.checkCancelled();
+        progress.startPhase(Phase.CLUSTERING, ProgressTracker.UNKNOWN);
+        StageEvent clusteringEvent = metrics.startStage(Stage.CLUSTERING);
+        result.setClusteringResult(ClusteringFactory.getClusteringsOfSimilarities(result.getComparisonSimilarities(),
+                result.getSubmissionsWithoutSimilarity(), options.clusteringOptions()));
+        metrics.finishStage(clusteringEvent, String.valueOf(options.clusteringOptions().algorithm()), submissionCount);
+        progress.finishPhase(Phase.CLUSTERING);
+        result.setMetrics(metrics);
 
         logSkippedSubmissions(submissionSet, options);
 
         return result;
     }
 
+    private static ComparisonStrategy createComparisonStrategy(JPlagOptions options, GreedyStringTiling coreAlgorithm, ProgressTracker progress) {
+        if (options.executionOptions().pipelinedExecution()) {
+            if (options.executionOptions().comparisonStore() != null) {
+                logger.warn("The comparison store is not used, as submissions are compared while parsing");
+            }
+            return new PipelinedComparisonStrategy(options, coreAlgorithm, progress);
+        }
+        if (options.executionOptions().comparisonStore() != null) {
+            return new IncrementalComparisonStrategy(options, coreAlgorithm, progress);
+        }
+        return new ParallelComparisonStrategy(options, coreAlgorithm, progress);
+    }
+
     private static void logSkippedSubmissions(SubmissionSet submissionSet, JPlagOptions options) {
         List<Submission> skippedSubmissions = submissionSet.getInvalidSubmissions();
         if (!skippedSubmissions.isEmpty()) {
@@ -0,0 +1,182 @@
+package de.jplag;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor of the concurrent work of JPlag runs, i.e. parsing, comparing, merging, and report writing. The work runs on
+ * a dedicated {@link ForkJoinPool} instead of the common pool of the JVM, thus its parallelism is configurable and it
+ * neither competes with nor is blocked by other users of the common pool. Parallel streams that are evaluated by the
+ * work run on the same pool, as streams use the pool of the calling worker thread. Supports cooperative cancellation:
+ * once {@link #cancel()} is called, the work fails with a {@link CancellationException} at its next check, see
+ * {@link #checkCancelled()}. An executor can be used for multiple runs and must be closed afterwards.
+ */
+public final class JPlagExecutor implements Executor, AutoCloseable {
+    public static final String DEFAULT_THREAD_NAME_PREFIX = "jplag-worker";
+
+    private final WorkerPool pool;
+    private volatile boolean cancelled;
+
+    /**
+     * Creates an executor that uses all available processors.
+     */
+    public JPlagExecutor() {
+        this(0);
+    }
+
+    /**
+     * Creates an executor with the given parallelism.
+     * @param parallelism is the number of worker threads. Values below one use the number of available processors.
+     */
+    public JPlagExecutor(int parallelism) {
+        this(parallelism, DEFAULT_THREAD_NAME_PREFIX);
+    }
+
+    /**
+     * Creates an executor with the given parallelism and thread names.
+     * @param parallelism is the number of worker threads. Values below one use the number of available processors.
+     * @param threadNamePrefix is the prefix of the names of the worker threads, which are numbered consecutively.
+     */
+    public JPlagExecutor(int parallelism, String threadNamePrefix) {
+        int effectiveParallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.pool = new WorkerPool(effectiveParallelism, threadNamePrefix, this);
+    }
+
+    /**
+     * Executes a task on the worker threads and waits for its result. Tasks that are invoked by a worker thread of this
+     * executor run directly on the calling thread. If the calling thread is interrupted while waiting, the executor is
+     * cancelled.
+     * @param task is the task to execute.
+     * @return the result of the task.
+     * @throws E if the task throws it.
+     * @throws CancellationException if the executor is cancelled.
+     */
+    public <T, E extends Exception> T invoke(Task<T, E> task) throws E {
+        checkCancelled(this);
+        if (current() == this) {
+            return task.execute();
+        }
+        FutureTask<T> future = new FutureTask<>(task::execute);
+        pool.execute(future);
+        try {
+            return future.get();
+        } catch (InterruptedException exception) {
+            cancel();
+            Thread.currentThread().interrupt();
+            CancellationException cancellation = new CancellationException("Interrupted while waiting for the JPlag run");
+            cancellation.initCause(exception);
+            throw cancellation;
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            } else if (exception.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw JPlagExecutor.<E>uncheckedCast(exception.getCause()); // tasks only throw checked exceptions of type E
+        }
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        pool.execute(task);
+    }
+
+    /**
+     * @return the number of worker threads.
+     */
+    public int parallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Requests the cancellation of the work of this executor. Running work stops at its next check, work that is started
+     * later fails immediately. Cannot be undone.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * @return whether the cancellation was requested.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Shuts the worker threads down once the submitted work is done.
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /**
+     * @return the executor whose worker thread is the current thread, or null if the current thread belongs to none.
+     */
+    public static JPlagExecutor current() {
+        return ForkJoinTask.getPool() instanceof WorkerPool workerPool ? workerPool.executor : null;
+    }
+
+    /**
+     * Checks whether the executor of the current thread was cancelled. Work that runs on an executor calls this
+     * periodically, e.g. once per submission or comparison, to stop cooperatively.
+     * @throws CancellationException if the executor of the current thread was cancelled.
+     */
+    public static void checkCancelled() {
+        checkCancelled(current());
+    }
+
+    private static void checkCancelled(JPlagExecutor executor) {
+        if (executor != null && executor.cancelled) {
+            throw new CancellationException("The JPlag run was cancelled");
+        }
+    }
+
+    /**
+     * Task that returns a result and may throw a checked exception.
+     * @param <T> is the type of the result.
+     * @param <E> is the type of the checked exception.
+     */
+    @FunctionalInterface
+    public interface Task<T, E extends Exception> {
+        /**
+         * Executes the task.
+         * @return the result.
+         * @throws E if the task fails.
+         */
+        T execute() throws E;
+    }
+
+    /**
+     * Fork-join pool with named worker threads that knows its executor.
+     */
+    private static final class WorkerPool extends ForkJoinPool {
+        private final JPlagExecutor executor;
+
+        WorkerPool(int parallelism, String threadNamePrefix, JPlagExecutor executor) {
+            super(parallelism, namedThreadFactory(threadNamePrefix), null, false);
+            this.executor = executor;
+        }
+
+        private static ForkJoinWorkerThreadFactory namedThreadFactory(String threadNamePrefix) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            return pool -> {
+                ForkJoinWorkerThread thread = defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName(threadNamePrefix + "-" + threadNumber.incrementAndGet());
+                return thread;
+            };
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E extends Exception> E uncheckedCast(Throwable exception) {
+        return (E) exception;
+    }
+}
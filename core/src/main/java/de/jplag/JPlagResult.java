@@ -1,9 +1,11 @@
 package de.jplag;
 
 import java.util.List;
+import java.util.Set;
 import java.util.function.ToDoubleFunction;
 
 import de.jplag.clustering.ClusteringResult;
+import de.jplag.metrics.RunMetrics;
 import de.jplag.options.JPlagOptions;
 import de.jplag.options.SimilarityMetric;
 
@@ -14,6 +16,12 @@ public class JPlagResult {
 
     private List<JPlagComparison> comparisons; // comparisons whose similarity was about the specified threshold
 
+    private UnmatchedPairs unmatchedPairs; // pairs without similarity that are not part of the comparisons
+
+    private final UnmatchedPairs countedUnmatchedPairs; // pairs without similarity, even if already part of the comparisons
+
+    private List<JPlagComparison> allComparisons; // null until the comparisons of the unmatched pairs are created
+
     private final SubmissionSet submissions;
 
     private final JPlagOptions options;
@@ -22,16 +30,63 @@ public class JPlagResult {
 
     private final int[] similarityDistribution; // 10-element array representing the similarity distribution of the detected matches.
 
+    private final int[] maxSimilarityDistribution; // null if calculated from the comparisons
+
+    private final long numberOfDiscardedComparisons; // comparisons above the threshold that were not retained
+
+    private final List<ComparisonSimilarity> comparisonSimilarities; // null if calculated from the comparisons
+
     private List<ClusteringResult<Submission>> clusteringResult;
-    private final int SIMILARITY_DISTRIBUTION_SIZE = 100;
+    private RunMetrics metrics = RunMetrics.DISABLED;
+    static final int SIMILARITY_DISTRIBUTION_SIZE = 100;
 
     public JPlagResult(List<JPlagComparison> comparisons, SubmissionSet submissions, long durationInMillis, JPlagOptions options) {
+        this(comparisons, UnmatchedPairs.NONE, submissions, durationInMillis, options);
+    }
+
+    /**
+     * Creates a result of all comparisons, where the pairs that were not compared are only counted.
+     * @param comparisons are the comparisons that were created.
+     * @param unmatchedPairs are the pairs that were not compared, as they cannot have matches.
+     * @param submissions is the submission set that was compared.
+     * @param durationInMillis is the duration of the comparison.
+     * @param options are the options of the run.
+     */
+    public JPlagResult(List<JPlagComparison> comparisons, UnmatchedPairs unmatchedPairs, SubmissionSet submissions, long durationInMillis,
+            JPlagOptions options) {
         // sort by similarity (descending)
         this.comparisons = comparisons.stream().sorted((first, second) -> Double.compare(second.similarity(), first.similarity())).toList();
+        this.unmatchedPairs = unmatchedPairs;
+        this.countedUnmatchedPairs = unmatchedPairs;
         this.submissions = submissions;
         this.durationInMillis = durationInMillis;
         this.options = options;
         similarityDistribution = calculateSimilarityDistribution(comparisons);
+        addWithoutSimilarity(similarityDistribution, unmatchedPairs.count());
+        maxSimilarityDistribution = null;
+        numberOfDiscardedComparisons = 0;
+        comparisonSimilarities = null;
+    }
+
+    /**
+     * Creates a result that only retains the top comparisons of a bounded collection, while the distributions and the
+     * clustering similarities cover all collected comparisons.
+     * @param collection contains the collected comparisons.
+     * @param submissions is the submission set that was compared.
+     * @param durationInMillis is the duration of the comparison.
+     * @param options are the options of the run.
+     */
+    public JPlagResult(TopComparisonCollection collection, SubmissionSet submissions, long durationInMillis, JPlagOptions options) {
+        this.comparisons = collection.getTopComparisons();
+        this.unmatchedPairs = UnmatchedPairs.NONE; // already part of the collection
+        this.countedUnmatchedPairs = collection.getUnmatchedPairs();
+        this.submissions = submissions;
+        this.durationInMillis = durationInMillis;
+        this.options = options;
+        similarityDistribution = collection.getSimilarityDistribution();
+        maxSimilarityDistribution = collection.getMaxSimilarityDistribution();
+        numberOfDiscardedComparisons = collection.getNumberOfComparisons() - comparisons.size();
+        comparisonSimilarities = collection.getSimilarities();
     }
 
     /**
@@ -41,6 +96,8 @@ public class JPlagResult {
      */
     public void dropComparisons(int limit) {
         this.comparisons = this.getComparisons(limit);
+        this.unmatchedPairs = UnmatchedPairs.NONE;
+        this.allComparisons = null;
     }
 
     public void setClusteringResult(List<ClusteringResult<Submission>> clustering) {
@@ -48,12 +105,36 @@ public class JPlagResult {
     }
 
     /**
-     * @return a list of all comparisons sorted by similarity (descending)
+     * @return a list of all comparisons sorted by similarity (descending). If the comparisons were collected in bounded
+     * memory (see {@link TopComparisonCollection}), this only contains the top comparisons. The comparisons of unmatched
+     * pairs are created on the first call, see {@link #getUnmatchedPairs()}.
      */
     public List<JPlagComparison> getAllComparisons() {
+        if (unmatchedPairs.count() == 0) {
+            return comparisons;
+        }
+        if (allComparisons == null) {
+            allComparisons = unmatchedPairs.mergeInto(comparisons, JPlagOptions.SHOW_ALL_COMPARISONS);
+        }
+        return allComparisons;
+    }
+
+    /**
+     * @return the comparisons that were created while comparing, sorted by similarity (descending). Unlike
+     * {@link #getAllComparisons()}, these do not include the unmatched pairs.
+     */
+    public List<JPlagComparison> getRetainedComparisons() {
         return comparisons;
     }
 
+    /**
+     * @return the pairs without similarity that were not compared, as they cannot have matches. They are counted in the
+     * number of comparisons and the distributions, but their comparisons are only created on demand.
+     */
+    public UnmatchedPairs getUnmatchedPairs() {
+        return unmatchedPairs;
+    }
+
     /**
      * Returns the first n comparisons (sorted by similarity, descending), limited by the specified parameter.
      * @param numberOfComparisons specifies the number of requested comparisons. If set to -1, all comparisons will be
@@ -62,9 +143,44 @@ public class JPlagResult {
      */
     public List<JPlagComparison> getComparisons(int numberOfComparisons) {
         if (numberOfComparisons == JPlagOptions.SHOW_ALL_COMPARISONS) {
-            return comparisons;
+            return getAllComparisons();
         }
-        return comparisons.subList(0, Math.min(numberOfComparisons, comparisons.size()));
+        if (unmatchedPairs.count() > 0 && allComparisons == null) { // only creates the requested comparisons of unmatched pairs
+            return unmatchedPairs.mergeInto(comparisons, numberOfComparisons);
+        }
+        List<JPlagComparison> sortedComparisons = getAllComparisons();
+        return sortedComparisons.subList(0, Math.min(numberOfComparisons, sortedComparisons.size()));
+    }
+
+    /**
+     * @return the number of all comparisons whose similarity was above the specified threshold, including the ones that
+     * were not retained.
+     */
+    public long getNumberOfComparisons() {
+        return comparisons.size() + numberOfDiscardedComparisons + unmatchedPairs.count();
+    }
+
+    /**
+     * Provides the similarities of all comparisons whose similarity was above the specified threshold according to the
+     * similarity metric of the {@link de.jplag.clustering.ClusteringOptions}. Together with
+     * {@link #getSubmissionsWithoutSimilarity()}, this is the input for the clustering.
+     * @return the list of similarities, which is empty if comparisons were collected in bounded memory without clustering.
+     * The unmatched pairs are not included, as their similarity is zero.
+     */
+    public List<ComparisonSimilarity> getComparisonSimilarities() {
+        if (comparisonSimilarities != null) {
+            return comparisonSimilarities;
+        }
+        SimilarityMetric metric = options.clusteringOptions().similarityMetric();
+        return comparisons.stream().map(it -> ComparisonSimilarity.of(it, metric)).toList();
+    }
+
+    /**
+     * @return the submissions of the unmatched pairs, which take part in the clustering without a similarity record per
+     * pair, see {@link UnmatchedPairs#submissions()}.
+     */
+    public Set<Submission> getSubmissionsWithoutSimilarity() {
+        return countedUnmatchedPairs.submissions();
     }
 
     /**
@@ -114,16 +230,33 @@ public class JPlagResult {
      * the same distribution as {@link JPlagResult#getSimilarityDistribution()}
      */
     public int[] getMaxSimilarityDistribution() {
-        return calculateDistributionFor(comparisons, (JPlagComparison::maximalSimilarity));
+        if (maxSimilarityDistribution != null) {
+            return maxSimilarityDistribution;
+        }
+        int[] distribution = calculateDistributionFor(comparisons, (JPlagComparison::maximalSimilarity));
+        addWithoutSimilarity(distribution, countedUnmatchedPairs.count());
+        return distribution;
     }
 
     public List<ClusteringResult<Submission>> getClusteringResult() {
         return this.clusteringResult;
     }
 
+    public void setMetrics(RunMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return the metrics of the run, which are only recorded if enabled, see
+     * {@link de.jplag.options.ExecutionOptions#collectMetrics()}.
+     */
+    public RunMetrics getMetrics() {
+        return metrics;
+    }
+
     @Override
     public String toString() {
-        return String.format("JPlagResult { comparisons: %d, duration: %d ms, language: %s, submissions: %d }", getAllComparisons().size(),
+        return String.format("JPlagResult { comparisons: %d, duration: %d ms, language: %s, submissions: %d }", getNumberOfComparisons(),
                 getDuration(), getOptions().language().getName(), submissions.numberOfSubmissions());
     }
 
@@ -138,11 +271,28 @@ public class JPlagResult {
         int[] similarityDistribution = new int[SIMILARITY_DISTRIBUTION_SIZE];
         for (JPlagComparison comparison : comparisons) {
             double similarity = similarityExtractor.applyAsDouble(comparison); // extract similarity: 0.0 <= similarity <= 1.0
-            int index = (int) (similarity * SIMILARITY_DISTRIBUTION_SIZE); // divide similarity by bucket size to find index of correct bucket.
-            index = Math.min(index, SIMILARITY_DISTRIBUTION_SIZE - 1);// index is out of bounds when similarity is 1.0. decrease by one to count
-                                                                      // towards the highest value bucket
-            similarityDistribution[index]++; // count comparison towards its determined bucket.
+            similarityDistribution[distributionIndexOf(similarity)]++; // count comparison towards its determined bucket.
         }
         return similarityDistribution;
     }
+
+    /**
+     * Counts pairs without similarity towards the lowest bucket of a distribution. The bucket saturates instead of
+     * overflowing, as the number of pairs may exceed the range of the buckets.
+     * @param distribution is the similarity distribution.
+     * @param count is the number of pairs without similarity.
+     */
+    static void addWithoutSimilarity(int[] distribution, long count) {
+        distribution[0] = (int) Math.min(Integer.MAX_VALUE, distribution[0] + count);
+    }
+
+    /**
+     * @param similarity is a similarity in interval [0, 1].
+     * @return the index of the bucket of the similarity distribution the similarity counts towards.
+     */
+    static int distributionIndexOf(double similarity) {
+        int index = (int) (similarity * SIMILARITY_DISTRIBUTION_SIZE); // divide similarity by bucket size to find index of correct bucket.
+        return Math.min(index, SIMILARITY_DISTRIBUTION_SIZE - 1); // index is out of bounds when similarity is 1.0. decrease by one to count
+                                                                  // towards the highest value bucket
+    }
 }
@@ -0,0 +1,30 @@
+package de.jplag;
+
+import java.util.List;
+
+/**
+ * Listener that is notified about parsed submissions while a {@link SubmissionSet} parses them, e.g. to start comparing
+ * submissions before all of them are parsed. Notifications can be sent by multiple parser threads concurrently.
+ */
+public interface ParsingListener {
+
+    /**
+     * Called once before parsing with all submissions in the order of the submission set. Submissions that are added to the
+     * set later, e.g. old submissions of a corpus index, are placed after them.
+     * @param submissions are the submissions to parse.
+     */
+    default void submissionsFound(List<Submission> submissions) {
+    }
+
+    /**
+     * Called once the base code is parsed, before any submission is reported as parsed.
+     * @param baseCode is the parsed base code submission.
+     */
+    void baseCodeParsed(Submission baseCode);
+
+    /**
+     * Called for each submission that was parsed successfully and has enough tokens to be compared.
+     * @param submission is the parsed submission.
+     */
+    void submissionParsed(Submission submission);
+}
@@ -6,7 +6,6 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
@@ -15,6 +14,10 @@ import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import de.jplag.cache.TokenCache;
+import de.jplag.metrics.RunMetrics;
+import de.jplag.metrics.Stage;
+import de.jplag.metrics.StageEvent;
 import de.jplag.normalization.TokenStringNormalizer;
 import de.jplag.options.JPlagOptions;
 
@@ -50,7 +53,12 @@ public class Submission implements Comparable<Submission> {
     private boolean hasErrors;
 
     /**
-     * Parse result, tokens from all files.
+     * Parse result, tokens from all files in packed form.
+     */
+    private TokenSequence tokenSequence;
+
+    /**
+     * Lazily materialized token objects of the token sequence, only created on demand via {@link #getTokenList()}.
      */
     private List<Token> tokenList;
 
@@ -123,10 +131,10 @@ public class Submission implements Comparable<Submission> {
      * @return Number of tokens in the parse result.
      */
     public int getNumberOfTokens() {
-        if (tokenList == null) {
+        if (tokenSequence == null) {
             return 0;
         }
-        return tokenList.size();
+        return tokenSequence.size();
     }
 
     /**
@@ -150,10 +158,26 @@ public class Submission implements Comparable<Submission> {
     }
 
     /**
+     * Provides the tokens as objects. The token objects are materialized from the packed {@link TokenSequence} upon the
+     * first call, thus performance-critical code should use {@link #getTokenSequence()} instead.
      * @return unmodifiable list of tokens generated by parsing the submission.
      */
     public List<Token> getTokenList() {
-        return tokenList == null ? null : Collections.unmodifiableList(tokenList);
+        if (tokenSequence == null) {
+            return null;
+        }
+        if (tokenList == null) {
+            tokenList = tokenSequence.toTokenList();
+        }
+        return tokenList;
+    }
+
+    /**
+     * @return the packed token sequence generated by parsing the submission, or null if the submission was not parsed
+     * successfully.
+     */
+    public TokenSequence getTokenSequence() {
+        return tokenSequence;
     }
 
     /**
@@ -190,7 +214,16 @@ public class Submission implements Comparable<Submission> {
      * @param tokenList is the list of these tokens.
      */
     public void setTokenList(List<Token> tokenList) {
-        this.tokenList = tokenList;
+        setTokenSequence(tokenList == null ? null : TokenSequence.of(tokenList));
+    }
+
+    /**
+     * Sets the packed token sequence that has been parsed from the files this submission consists of.
+     * @param tokenSequence is the packed sequence of these tokens.
+     */
+    public void setTokenSequence(TokenSequence tokenSequence) {
+        this.tokenSequence = tokenSequence;
+        this.tokenList = null;
     }
 
     /**
@@ -198,7 +231,7 @@ public class Submission implements Comparable<Submission> {
      * @return the annotated code as string.
      */
     public String getTokenAnnotatedSourceCode() {
-        return TokenPrinter.printTokens(tokenList, submissionRootFile);
+        return TokenPrinter.printTokens(getTokenList(), submissionRootFile);
     }
 
     @Override
@@ -238,53 +271,140 @@ public class Submission implements Comparable<Submission> {
      * @return Whether parsing was successful.
      */
     /* package-private */ boolean parse(boolean debugParser) {
-        if (files == null || files.isEmpty()) {
-            logger.error("ERROR: nothing to parse for submission \"{}\"", name);
-            tokenList = null;
-            hasErrors = true; // invalidate submission
+        return parse(debugParser, language, null);
+    }
+
+    /**
+     * Parse files of the submission with the given parser of its language. If a token cache is given, the tokens are loaded
+     * from the cache if the files did not change, otherwise they are stored in the cache after parsing.
+     * @param parser is the parser of the language of this submission that is used by the calling thread.
+     * @param tokenCache is the persistent token cache, or null if no cache is used.
+     * @return Whether parsing was successful.
+     */
+    /* package-private */ boolean parse(boolean debugParser, LanguageParser parser, TokenCache tokenCache) {
+        if (!hasFilesToParse()) {
             return false;
         }
 
-        try {
-            tokenList = language.parse(new HashSet<>(files));
-            if (logger.isDebugEnabled()) {
-                for (Token token : tokenList) {
-                    logger.debug(String.join(" | ", token.getType().toString(), Integer.toString(token.getLine()), token.getSemantics().toString()));
-                }
+        TokenCache.Key cacheKey = tokenCache == null ? null : tokenCache.keyOf(this, language);
+        List<Token> parsedTokens = cacheKey == null ? null : tokenCache.load(cacheKey, language);
+        if (parsedTokens == null) {
+            try {
+                parsedTokens = parser.parse(new HashSet<>(files));
+            } catch (ParsingException e) {
+                return parsingFailed(debugParser, e);
+            }
+            if (cacheKey != null) {
+                tokenCache.store(cacheKey, parsedTokens);
+            }
+        }
+        return parsingSucceeded(parsedTokens);
+    }
+
+    /**
+     * Parse files of multiple submissions of the same language in one batch, see {@link LanguageParser#parseBatch(List)}.
+     * Submissions whose tokens are cached are not parsed again, and a failing submission does not affect the others.
+     * @param submissions are the submissions to parse.
+     * @param parser is the parser of the language of the submissions that is used by the calling thread.
+     * @param tokenCache is the persistent token cache, or null if no cache is used.
+     * @return whether parsing was successful, per submission in the order of the given list.
+     */
+    /* package-private */ static boolean[] parse(List<Submission> submissions, boolean debugParser, LanguageParser parser,
+            TokenCache tokenCache) {
+        boolean[] parsed = new boolean[submissions.size()];
+        List<Integer> pending = new ArrayList<>();
+        List<TokenCache.Key> pendingCacheKeys = new ArrayList<>();
+        List<Set<File>> pendingFiles = new ArrayList<>();
+        for (int i = 0; i < submissions.size(); i++) {
+            Submission submission = submissions.get(i);
+            if (!submission.hasFilesToParse()) {
+                continue;
             }
-        } catch (ParsingException e) {
-            logger.warn("Failed to parse submission {} with error {}", this, e.getMessage(), e);
-            tokenList = null;
-            hasErrors = true;
-            if (debugParser) {
-                copySubmission();
+            TokenCache.Key cacheKey = tokenCache == null ? null : tokenCache.keyOf(submission, submission.language);
+            List<Token> cachedTokens = cacheKey == null ? null : tokenCache.load(cacheKey, submission.language);
+            if (cachedTokens != null) {
+                parsed[i] = submission.parsingSucceeded(cachedTokens);
+            } else {
+                pending.add(i);
+                pendingCacheKeys.add(cacheKey);
+                pendingFiles.add(new HashSet<>(submission.files));
             }
+        }
+        if (pending.isEmpty()) {
+            return parsed;
+        }
+
+        List<ParsingResult> results = parser.parseBatch(pendingFiles);
+        for (int j = 0; j < pending.size(); j++) {
+            Submission submission = submissions.get(pending.get(j));
+            ParsingResult result = results.get(j);
+            if (result.exception() != null) {
+                parsed[pending.get(j)] = submission.parsingFailed(debugParser, result.exception());
+                continue;
+            }
+            if (pendingCacheKeys.get(j) != null) {
+                tokenCache.store(pendingCacheKeys.get(j), result.tokens());
+            }
+            parsed[pending.get(j)] = submission.parsingSucceeded(result.tokens());
+        }
+        return parsed;
+    }
+
+    private boolean hasFilesToParse() {
+        if (files == null || files.isEmpty()) {
+            logger.error("ERROR: nothing to parse for submission \"{}\"", name);
+            setTokenSequence(null);
+            hasErrors = true; // invalidate submission
             return false;
         }
+        return true;
+    }
+
+    private boolean parsingFailed(boolean debugParser, ParsingException exception) {
+        logger.warn("Failed to parse submission {} with error {}", this, exception.getMessage(), exception);
+        setTokenSequence(null);
+        hasErrors = true;
+        if (debugParser) {
+            copySubmission();
+        }
+        return false;
+    }
 
-        if (tokenList.size() < 3) {
+    private boolean parsingSucceeded(List<Token> parsedTokens) {
+        if (logger.isDebugEnabled()) {
+            for (Token token : parsedTokens) {
+                logger.debug(String.join(" | ", token.getType().toString(), Integer.toString(token.getLine()), token.getSemantics().toString()));
+            }
+        }
+        if (parsedTokens.size() < 3) {
             logger.error("Submission \"{}\" is too short!", name);
-            tokenList = null;
+            setTokenSequence(null);
             hasErrors = true; // invalidate submission
             return false;
         }
+        setTokenList(parsedTokens);
         return true;
     }
 
     /**
      * Perform token string normalization, which makes the token string invariant to dead code insertion and independent
      * statement reordering.
+     * @param metrics record the normalization, see {@link Stage#NORMALIZATION}.
      */
-    void normalize() {
-        List<Integer> originalOrder = getOrder(tokenList);
-        tokenList = TokenStringNormalizer.normalize(tokenList);
-        List<Integer> normalizedOrder = getOrder(tokenList);
+    void normalize(RunMetrics metrics) {
+        StageEvent event = metrics.startStage(Stage.NORMALIZATION);
+        List<Token> originalTokens = getTokenList();
+        List<Integer> originalOrder = getOrder(originalTokens);
+        List<Token> normalizedTokens = TokenStringNormalizer.normalize(originalTokens);
+        setTokenList(normalizedTokens);
+        List<Integer> normalizedOrder = getOrder(normalizedTokens);
 
         logger.debug("original line order: {}", originalOrder);
         logger.debug("line order after normalization: {}", normalizedOrder);
         Set<Integer> normalizedSet = new HashSet<>(normalizedOrder);
         List<Integer> removed = originalOrder.stream().filter(l -> !normalizedSet.contains(l)).toList();
         logger.debug("removed {} line(s): {}", removed.size(), removed);
+        metrics.finishStage(event, name, normalizedTokens.size());
     }
 
     private List<Integer> getOrder(List<Token> tokenList) {
@@ -301,11 +421,12 @@ public class Submission implements Comparable<Submission> {
     }
 
     /**
-     * @return Submission containing shallow copies of its fields.
+     * @return Submission containing shallow copies of its fields. As token sequences are immutable, the copy shares the
+     * token sequence of this submission.
      */
     public Submission copy() {
         Submission copy = new Submission(name, submissionRootFile, isNew, files, language);
-        copy.setTokenList(new ArrayList<>(tokenList));
+        copy.setTokenSequence(tokenSequence);
         copy.setBaseCodeComparison(baseCodeComparison);
         return copy;
     }
@@ -1,22 +1,41 @@
 package de.jplag;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import de.jplag.cache.TokenCache;
+import de.jplag.corpus.CorpusIndex;
 import de.jplag.exceptions.BasecodeException;
 import de.jplag.exceptions.ExitException;
+import de.jplag.exceptions.RootDirectoryException;
 import de.jplag.exceptions.SubmissionException;
+import de.jplag.metrics.RunMetrics;
+import de.jplag.metrics.Stage;
+import de.jplag.metrics.StageEvent;
+import de.jplag.options.ExecutionOptions;
 import de.jplag.options.JPlagOptions;
+import de.jplag.progress.Phase;
+import de.jplag.progress.ProgressTracker;
 
 /**
  * Collection of all submissions and their basecode if it exists. Parses all submissions upon creation.
  */
 public class SubmissionSet {
     private static final Logger logger = LoggerFactory.getLogger(SubmissionSet.class);
+    private static final long BYTES_PER_MEGABYTE = 1024L * 1024L;
 
     /**
      * Submissions to check for plagiarism.
@@ -31,6 +50,9 @@ public class SubmissionSet {
     private final Submission baseCodeSubmission;
 
     private final JPlagOptions options;
+    private final TokenCache tokenCache; // null if no token cache is used
+    private final ParsingListener parsingListener; // null if there is no listener
+    private final ProgressTracker progress;
     private int errors = 0;
     private String currentSubmissionName;
 
@@ -39,12 +61,42 @@ public class SubmissionSet {
      * @param baseCode Base code submission if it exists or {@code null}.
      */
     public SubmissionSet(List<Submission> submissions, Submission baseCode, JPlagOptions options) throws ExitException {
+        this(submissions, baseCode, options, null);
+    }
+
+    /**
+     * @param submissions Submissions to check for plagiarism.
+     * @param baseCode Base code submission if it exists or {@code null}.
+     * @param parsingListener is notified about each parsed submission while parsing, or {@code null}.
+     */
+    public SubmissionSet(List<Submission> submissions, Submission baseCode, JPlagOptions options, ParsingListener parsingListener)
+            throws ExitException {
+        this(submissions, baseCode, options, parsingListener, new ProgressTracker(null));
+    }
+
+    /**
+     * @param submissions Submissions to check for plagiarism.
+     * @param baseCode Base code submission if it exists or {@code null}.
+     * @param parsingListener is notified about each parsed submission while parsing, or {@code null}.
+     * @param progress tracks the progress of parsing, one step per parsed submission.
+     */
+    public SubmissionSet(List<Submission> submissions, Submission baseCode, JPlagOptions options, ParsingListener parsingListener,
+            ProgressTracker progress) throws ExitException {
         this.allSubmissions = submissions;
         this.baseCodeSubmission = baseCode;
         this.options = options;
+        this.tokenCache = createTokenCache(options.executionOptions());
+        this.parsingListener = parsingListener;
+        this.progress = progress;
+        if (parsingListener != null) {
+            parsingListener.submissionsFound(Collections.unmodifiableList(submissions));
+        }
         parseAllSubmissions();
         this.submissions = filterValidSubmissions();
         invalidSubmissions = filterInvalidSubmissions();
+        if (options.executionOptions().corpusIndex() != null) {
+            updateCorpusIndex(options.executionOptions().corpusIndex());
+        }
     }
 
     /**
@@ -90,8 +142,13 @@ public class SubmissionSet {
         return invalidSubmissions;
     }
 
+    /**
+     * Normalizes the token strings of all valid submissions, each as a measured normalization stage in the metrics of the
+     * run, see {@link Stage#NORMALIZATION}.
+     */
     public void normalizeSubmissions() {
-        submissions.forEach(Submission::normalize);
+        RunMetrics metrics = progress.metrics();
+        submissions.forEach(submission -> submission.normalize(metrics));
     }
 
     private List<Submission> filterValidSubmissions() {
@@ -102,15 +159,90 @@ public class SubmissionSet {
         return allSubmissions.stream().filter(Submission::hasErrors).toList();
     }
 
+    /**
+     * Adds the indexed submissions to the valid submissions, see {@link #loadCorpusCandidates}. Afterwards, the parsed old
+     * submissions, and the new submissions if requested, are added to the index.
+     */
+    private void updateCorpusIndex(File indexFile) throws RootDirectoryException {
+        List<Submission> parsedSubmissions = List.copyOf(submissions);
+        try (CorpusIndex index = indexFile.exists() ? CorpusIndex.open(indexFile, options.language()) : null) {
+            if (index != null) {
+                loadCorpusCandidates(index);
+            }
+            boolean appendNewSubmissions = options.executionOptions().corpusAppend();
+            List<Submission> indexedSubmissions = parsedSubmissions.stream().filter(it -> !it.isNew() || appendNewSubmissions).toList();
+            int added = CorpusIndex.append(indexFile, index, indexedSubmissions, options);
+            logger.info("Added {} submissions to the corpus index {}", added, indexFile);
+        } catch (IOException exception) {
+            throw new RootDirectoryException("Cannot use the corpus index " + indexFile + ": " + exception.getMessage(), exception);
+        }
+    }
+
+    /**
+     * Loads the indexed submissions that can have matches with the new submissions. If comparisons without similarity are
+     * retained due to the similarity threshold, all indexed submissions are loaded, like old submissions that are parsed.
+     * Their pairs without shared windows are not compared, see {@link UnmatchedPairs}. Indexed submissions that are also
+     * part of this set or that are the base code are skipped, they are identified by their root files, see
+     * {@link CorpusIndex#identityOf}. Loaded submissions whose name is taken are renamed.
+     */
+    private void loadCorpusCandidates(CorpusIndex index) throws IOException {
+        List<Submission> newSubmissions = submissions.stream().filter(Submission::isNew).toList();
+        Set<String> identities = new HashSet<>();
+        for (Submission submission : allSubmissions) {
+            identities.add(CorpusIndex.identityOf(submission.getRoot()));
+        }
+        if (hasBaseCode()) {
+            identities.add(CorpusIndex.identityOf(baseCodeSubmission.getRoot()));
+        }
+        Set<String> names = allSubmissions.stream().map(Submission::getName).collect(Collectors.toCollection(HashSet::new));
+        BitSet candidates;
+        if (options.similarityThreshold() <= 0) {
+            candidates = new BitSet(index.numberOfSubmissions());
+            candidates.set(0, index.numberOfSubmissions());
+        } else {
+            candidates = index.findCandidates(newSubmissions, GreedyStringTiling.minimumMatchLengthOf(options));
+        }
+        int loaded = 0;
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            if (identities.contains(index.getIdentity(i))) {
+                continue;
+            }
+            Submission submission = index.loadSubmission(i, uniqueName(index.getName(i), names), options.language());
+            if (submission.getNumberOfTokens() >= options.minimumTokenMatch()) {
+                submissions.add(submission);
+                names.add(submission.getName());
+                loaded++;
+            }
+        }
+        logger.info("Loaded {} of {} indexed submissions", loaded, index.numberOfSubmissions());
+    }
+
+    /**
+     * @return the given name, or the first free variant of it if it is taken.
+     */
+    private static String uniqueName(String name, Set<String> takenNames) {
+        String uniqueName = name;
+        for (int i = 2; takenNames.contains(uniqueName); i++) {
+            uniqueName = name + " (" + i + ")";
+        }
+        return uniqueName;
+    }
+
     private void parseAllSubmissions() throws ExitException {
+        progress.startPhase(Phase.PARSING, allSubmissions.size() + (baseCodeSubmission != null ? 1 : 0));
         try {
-            parseSubmissions(allSubmissions);
-            if (baseCodeSubmission != null) {
+            if (baseCodeSubmission != null) { // parsed first, as the submissions are compared with it
                 parseBaseCodeSubmission(baseCodeSubmission);
+                progress.step(Phase.PARSING);
+            }
+            parseSubmissions(allSubmissions);
+            if (tokenCache != null) {
+                tokenCache.evict();
             }
         } catch (OutOfMemoryError exception) {
             throw new SubmissionException("Out of memory during parsing of submission \"" + currentSubmissionName + "\"", exception);
         }
+        progress.finishPhase(Phase.PARSING);
     }
 
     /**
@@ -119,13 +251,16 @@ public class SubmissionSet {
     private void parseBaseCodeSubmission(Submission baseCode) throws BasecodeException {
         long startTime = System.currentTimeMillis();
         logger.trace("----- Parsing basecode submission: " + baseCode.getName());
-        if (!baseCode.parse(options.debugParser())) {
+        if (!parseMeasured(baseCode, options.language())) {
             throw new BasecodeException("Could not successfully parse basecode submission!");
         } else if (baseCode.getNumberOfTokens() < options.minimumTokenMatch()) {
             throw new BasecodeException(String.format("Basecode submission contains %d token(s), which is less than the minimum match length (%d)!",
                     baseCode.getNumberOfTokens(), options.minimumTokenMatch()));
         }
         logger.trace("Basecode submission parsed!");
+        if (parsingListener != null) {
+            parsingListener.baseCodeParsed(baseCode);
+        }
         long duration = System.currentTimeMillis() - startTime;
         logger.trace("Time for parsing Basecode: " + TimeUtil.formatDuration(duration));
 
@@ -134,7 +269,7 @@ public class SubmissionSet {
     /**
      * Parse all given submissions.
      */
-    private void parseSubmissions(List<Submission> submissions) {
+    private void parseSubmissions(List<Submission> submissions) throws SubmissionException {
         if (submissions.isEmpty()) {
             logger.warn("No submissions to parse!");
             return;
@@ -142,22 +277,19 @@ public class SubmissionSet {
 
         long startTime = System.currentTimeMillis();
 
+        boolean[] parsed = parse(submissions);
         int tooShort = 0;
-        for (Submission submission : submissions) {
-            logger.info("Parsing submission {}", submission.getName());
-            boolean ok;
-
-            logger.trace("------ Parsing submission: " + submission.getName());
-            currentSubmissionName = submission.getName();
-
-            if (!(ok = submission.parse(options.debugParser()))) {
+        for (int i = 0; i < submissions.size(); i++) {
+            Submission submission = submissions.get(i);
+            boolean ok = parsed[i];
+            if (!ok) {
                 errors++;
             }
 
-            if (submission.getTokenList() != null && submission.getNumberOfTokens() < options.minimumTokenMatch()) {
-                logger.error("Submission {} contains {} token(s), which is less than the minimum match length ({})!", currentSubmissionName,
+            if (submission.getTokenSequence() != null && submission.getNumberOfTokens() < options.minimumTokenMatch()) {
+                logger.error("Submission {} contains {} token(s), which is less than the minimum match length ({})!", submission.getName(),
                         submission.getNumberOfTokens(), options.minimumTokenMatch());
-                submission.setTokenList(null);
+                submission.setTokenSequence(null);
                 tooShort++;
                 ok = false;
                 submission.markAsErroneous();
@@ -166,7 +298,7 @@ public class SubmissionSet {
             if (ok) {
                 logger.trace("OK");
             } else {
-                logger.error("ERROR -> Submission {} removed", currentSubmissionName);
+                logger.error("ERROR -> Submission {} removed", submission.getName());
             }
         }
 
@@ -177,6 +309,145 @@ public class SubmissionSet {
         printDetails(submissions, startTime, tooShort);
     }
 
+    /**
+     * Parses the given submissions, concurrently if multiple parser threads are configured and the language supports it.
+     * Concurrent parser threads are workers of the executor of the run, see {@link JPlagExecutor}, and each of them uses
+     * its own parser, see {@link Language#createParser()}. If the language prefers to parse batches of submissions, see
+     * {@link Language#batchSize()}, each thread parses a batch at a time.
+     * @return whether parsing was successful, per submission in the order of the given list.
+     */
+    private boolean[] parse(List<Submission> submissions) throws SubmissionException {
+        Language language = options.language();
+        int threads = Math.min(options.executionOptions().effectiveParserThreads(), submissions.size());
+        LanguageParser firstParser = threads <= 1 ? language : language.createParser();
+        if (firstParser == language) {
+            boolean[] parsed = new boolean[submissions.size()];
+            int batchSize = Math.max(1, language.batchSize());
+            for (int i = 0; i < submissions.size(); i += batchSize) {
+                JPlagExecutor.checkCancelled();
+                currentSubmissionName = submissions.get(i).getName();
+                parse(submissions, i, Math.min(i + batchSize, submissions.size()), language, parsed);
+            }
+            return parsed;
+        }
+
+        JPlagExecutor executor = JPlagExecutor.current();
+        if (executor == null) { // not called by a run, thus there is no executor to parse on
+            try (JPlagExecutor parsingExecutor = new JPlagExecutor(threads)) {
+                return parsingExecutor.invoke(() -> parseConcurrently(submissions, threads, firstParser));
+            }
+        }
+        return parseConcurrently(submissions, threads, firstParser);
+    }
+
+    /**
+     * Parses the given submissions with the given number of workers of the current executor.
+     * @param firstParser is the parser of the first worker, the other workers create their own parsers.
+     * @return whether parsing was successful, per submission in the order of the given list.
+     */
+    private boolean[] parseConcurrently(List<Submission> submissions, int threads, LanguageParser firstParser) throws SubmissionException {
+        Language language = options.language();
+        boolean[] parsed = new boolean[submissions.size()];
+        // batches are limited so that every thread gets a share of the submissions
+        int batchSize = Math.max(1, Math.min(language.batchSize(), Math.ceilDiv(submissions.size(), threads)));
+        logger.debug("Parsing submissions with {} threads in batches of {}", threads, batchSize);
+        AtomicInteger nextSubmission = new AtomicInteger();
+        AtomicReference<SubmissionException> failure = new AtomicReference<>();
+        IntStream.range(0, threads).parallel().forEach(worker -> {
+            LanguageParser parser = worker == 0 ? firstParser : language.createParser();
+            for (int i = nextSubmission.getAndAdd(batchSize); i < submissions.size(); i = nextSubmission.getAndAdd(batchSize)) {
+                JPlagExecutor.checkCancelled();
+                try {
+                    parse(submissions, i, Math.min(i + batchSize, submissions.size()), parser, parsed);
+                } catch (OutOfMemoryError error) {
+                    failure.compareAndSet(null,
+                            new SubmissionException("Out of memory during parsing of submission \"" + submissions.get(i).getName() + "\"", error));
+                    nextSubmission.set(submissions.size()); // stops the other workers
+                }
+            }
+        });
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        return parsed;
+    }
+
+    /**
+     * Parses a range of the given submissions, as a batch if it contains more than one submission.
+     * @param parsed receives whether parsing was successful, per submission in the order of the given list.
+     */
+    private void parse(List<Submission> submissions, int from, int to, LanguageParser parser, boolean[] parsed) {
+        if (to - from == 1) {
+            parsed[from] = parse(submissions.get(from), parser);
+            return;
+        }
+        List<Submission> batch = submissions.subList(from, to);
+        batch.forEach(submission -> logger.info("Parsing submission {}", submission.getName()));
+        boolean[] batchParsed = parseMeasured(batch, parser);
+        for (int i = 0; i < batch.size(); i++) {
+            parsed[from + i] = batchParsed[i];
+            submissionParsed(batch.get(i), batchParsed[i]);
+        }
+    }
+
+    private boolean parse(Submission submission, LanguageParser parser) {
+        logger.info("Parsing submission {}", submission.getName());
+        logger.trace("------ Parsing submission: " + submission.getName());
+        boolean parsed = parseMeasured(submission, parser);
+        submissionParsed(submission, parsed);
+        return parsed;
+    }
+
+    private void submissionParsed(Submission submission, boolean parsed) {
+        if (parsed && parsingListener != null && submission.getTokenSequence() != null
+                && submission.getNumberOfTokens() >= options.minimumTokenMatch()) {
+            parsingListener.submissionParsed(submission);
+        }
+        progress.step(Phase.PARSING);
+    }
+
+    /**
+     * Parses a submission as a measured parsing stage, see {@link Stage#PARSING}.
+     */
+    private boolean parseMeasured(Submission submission, LanguageParser parser) {
+        RunMetrics metrics = progress.metrics();
+        StageEvent event = metrics.startStage(Stage.PARSING);
+        boolean parsed = submission.parse(options.debugParser(), parser, tokenCache);
+        int tokens = submission.getTokenSequence() == null ? 0 : submission.getNumberOfTokens();
+        metrics.finishStage(event, options.language().getName(), tokens);
+        if (parsed) {
+            metrics.recordSubmissionTokens(tokens);
+        }
+        return parsed;
+    }
+
+    /**
+     * Parses a batch of submissions as one measured parsing stage, see {@link Stage#PARSING}.
+     */
+    private boolean[] parseMeasured(List<Submission> batch, LanguageParser parser) {
+        RunMetrics metrics = progress.metrics();
+        StageEvent event = metrics.startStage(Stage.PARSING);
+        boolean[] parsed = Submission.parse(batch, options.debugParser(), parser, tokenCache);
+        int totalTokens = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            Submission submission = batch.get(i);
+            int tokens = submission.getTokenSequence() == null ? 0 : submission.getNumberOfTokens();
+            totalTokens += tokens;
+            if (parsed[i]) {
+                metrics.recordSubmissionTokens(tokens);
+            }
+        }
+        metrics.finishStage(event, options.language().getName(), totalTokens);
+        return parsed;
+    }
+
+    private static TokenCache createTokenCache(ExecutionOptions executionOptions) {
+        if (executionOptions.tokenCacheDirectory() == null) {
+            return null;
+        }
+        return new TokenCache(executionOptions.tokenCacheDirectory(), executionOptions.tokenCacheSize() * BYTES_PER_MEGABYTE);
+    }
+
     private void printDetails(List<Submission> submissions, long startTime, int tooShort) {
         if (tooShort == 1) {
             logger.trace(tooShort + " submission is not valid because it contains fewer tokens than minimum match length allows.");
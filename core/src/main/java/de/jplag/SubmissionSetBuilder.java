@@ -21,7 +21,10 @@ import de.jplag.exceptions.BasecodeException;
 import de.jplag.exceptions.ExitException;
 import de.jplag.exceptions.RootDirectoryException;
 import de.jplag.exceptions.SubmissionException;
+import de.jplag.metrics.Stage;
+import de.jplag.metrics.StageEvent;
 import de.jplag.options.JPlagOptions;
+import de.jplag.progress.ProgressTracker;
 
 /**
  * Builder class for the creation of a {@link SubmissionSet}.
@@ -58,13 +61,36 @@ public class SubmissionSetBuilder {
      * @throws ExitException if the directory cannot be read.
      */
     public SubmissionSet buildSubmissionSet() throws ExitException {
+        return buildSubmissionSet(null);
+    }
+
+    /**
+     * Builds a submission set for all submissions of a specific directory.
+     * @param parsingListener is notified about each parsed submission while parsing, or {@code null}.
+     * @return the newly built submission set.
+     * @throws ExitException if the directory cannot be read.
+     */
+    public SubmissionSet buildSubmissionSet(ParsingListener parsingListener) throws ExitException {
+        return buildSubmissionSet(parsingListener, new ProgressTracker(null));
+    }
+
+    /**
+     * Builds a submission set for all submissions of a specific directory.
+     * @param parsingListener is notified about each parsed submission while parsing, or {@code null}.
+     * @param progress tracks the progress of parsing the submissions.
+     * @return the newly built submission set.
+     * @throws ExitException if the directory cannot be read.
+     */
+    public SubmissionSet buildSubmissionSet(ParsingListener parsingListener, ProgressTracker progress) throws ExitException {
+        StageEvent discoveryEvent = progress.metrics().startStage(Stage.DISCOVERY);
         Set<File> submissionDirectories = verifyRootDirectories(options.submissionDirectories(), true);
         Set<File> oldSubmissionDirectories = verifyRootDirectories(options.oldSubmissionDirectories(), false);
         checkForNonOverlappingRootDirectories(submissionDirectories, oldSubmissionDirectories);
 
         // For backward compatibility, don't prefix submission names with their root directory
-        // if there is only one root directory.
-        int numberOfRootDirectories = submissionDirectories.size() + oldSubmissionDirectories.size();
+        // if there is only one root directory. A corpus index counts as a root directory, as its submissions are named so.
+        boolean hasCorpusIndex = options.executionOptions().corpusIndex() != null;
+        int numberOfRootDirectories = submissionDirectories.size() + oldSubmissionDirectories.size() + (hasCorpusIndex ? 1 : 0);
         boolean multipleRoots = (numberOfRootDirectories > 1);
 
         // Collect valid looking entries from the root directories.
@@ -88,7 +114,8 @@ public class SubmissionSetBuilder {
             rootFiles = options.language().customizeSubmissionOrder(rootFiles);
             submissions = new ArrayList<>(rootFiles.stream().map(foundSubmissions::get).toList());
         }
-        return new SubmissionSet(submissions, baseCodeSubmission.orElse(null), options);
+        progress.metrics().finishStage(discoveryEvent, null, submissions.size() + baseCodeSubmission.stream().count());
+        return new SubmissionSet(submissions, baseCodeSubmission.orElse(null), options, parsingListener, progress);
     }
 
     /**
@@ -1,13 +1,12 @@
 package de.jplag;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.Arrays;
 
 /**
  * A class to generate and store hashes over a fixed length subsequence of a given list of values. Hash generation is
- * optimized to work in O(n).
+ * optimized to work in O(n). The start indexes per hash are stored in a compressed, primitive layout: an
+ * open-addressing table maps each hash to a bucket, and each bucket is a contiguous range in one flat array of start
+ * indexes. Within a bucket, start indexes are stored in ascending order.
  */
 class SubsequenceHashLookupTable {
     /**
@@ -20,10 +19,21 @@ class SubsequenceHashLookupTable {
     /** Indicator that the subsequence should not be considered for comparison matching */
     public static final int NO_HASH = -1;
 
+    /** Indicator that no bucket exists for a given hash, see {@link #bucketForSubsequenceHash(int)}. */
+    public static final int NO_BUCKET = -1;
+
+    private static final int EMPTY_SLOT = NO_HASH; // valid hashes are never negative
+    private static final int HASH_MIXING_CONSTANT = 0x9E3779B9;
+
     private final int windowSize;
     private final int[] values;
     private int[] subsequenceHashes;
-    private Map<Integer, List<Integer>> startIndexToSubsequenceHashesMap;
+
+    private int[] slotHashes; // open-addressing keys, EMPTY_SLOT if unused
+    private int[] slotBuckets; // bucket of the hash in the same slot
+    private int slotMask;
+    private int[] bucketOffsets; // bucket b spans startIndexes[bucketOffsets[b]] to startIndexes[bucketOffsets[b + 1]]
+    private int[] startIndexes;
 
     /**
      * Generates a new subsequence hash lookup table. Performance is optimized to compute hashes in O(n).
@@ -42,8 +52,8 @@ class SubsequenceHashLookupTable {
         }
 
         subsequenceHashes = new int[values.length - windowSize];
-        startIndexToSubsequenceHashesMap = new HashMap<>(subsequenceHashes.length);
         computeSubsequenceHashes(marked);
+        buildStartIndexBuckets();
     }
 
     /** Returns the size of the subsequences used for hashing */
@@ -66,15 +76,63 @@ class SubsequenceHashLookupTable {
     }
 
     /**
-     * Returns a list of all start indexes of possible subsequences for the given subsequence hash.
+     * Looks up the bucket of start indexes of possibly matching subsequences for the given subsequence hash. Iterate the
+     * bucket from {@link #bucketStart(int)} (inclusive) to {@link #bucketEnd(int)} (exclusive) via
+     * {@link #startIndexAt(int)}. This does not allocate.
+     * @param subsequenceHash the hash value to obtain the bucket for.
+     * @return the bucket, or {@link #NO_BUCKET} if no subsequence has the given hash.
+     */
+    int bucketForSubsequenceHash(int subsequenceHash) {
+        if (slotHashes == null || subsequenceHash == NO_HASH) {
+            return NO_BUCKET;
+        }
+        for (int slot = slotFor(subsequenceHash);; slot = (slot + 1) & slotMask) {
+            int slotHash = slotHashes[slot];
+            if (slotHash == subsequenceHash) {
+                return slotBuckets[slot];
+            }
+            if (slotHash == EMPTY_SLOT) {
+                return NO_BUCKET;
+            }
+        }
+    }
+
+    /**
+     * @param bucket is a bucket obtained via {@link #bucketForSubsequenceHash(int)}.
+     * @return the first position of the bucket (inclusive).
+     */
+    int bucketStart(int bucket) {
+        return bucketOffsets[bucket];
+    }
+
+    /**
+     * @param bucket is a bucket obtained via {@link #bucketForSubsequenceHash(int)}.
+     * @return the last position of the bucket (exclusive).
+     */
+    int bucketEnd(int bucket) {
+        return bucketOffsets[bucket + 1];
+    }
+
+    /**
+     * @param position is a position between {@link #bucketStart(int)} and {@link #bucketEnd(int)} of a bucket.
+     * @return the start index of the subsequence stored at that position.
+     */
+    int startIndexAt(int position) {
+        return startIndexes[position];
+    }
+
+    /**
+     * Returns all start indexes of possible subsequences for the given subsequence hash in ascending order. Prefer the
+     * allocation-free bucket access in hot loops.
      * @param subsequenceHash the hash value to obtain possibly matching subsequence start indexes for.
-     * @return a list with possible matching start indexes.
+     * @return an array with possible matching start indexes.
      */
-    List<Integer> startIndexesOfPossiblyMatchingSubsequencesForSubsequenceHash(int subsequenceHash) {
-        if (startIndexToSubsequenceHashesMap.containsKey(subsequenceHash)) {
-            return startIndexToSubsequenceHashesMap.get(subsequenceHash);
+    int[] startIndexesOfPossiblyMatchingSubsequencesForSubsequenceHash(int subsequenceHash) {
+        int bucket = bucketForSubsequenceHash(subsequenceHash);
+        if (bucket == NO_BUCKET) {
+            return new int[0];
         }
-        return List.of();
+        return Arrays.copyOfRange(startIndexes, bucketStart(bucket), bucketEnd(bucket));
     }
 
     /**
@@ -93,7 +151,6 @@ class SubsequenceHashLookupTable {
             if (windowStartIndex >= 0) {
                 if (hashedLength >= windowSize) {
                     subsequenceHashes[windowStartIndex] = hash;
-                    addToStartIndexesToHashesMap(windowStartIndex, hash);
                 } else {
                     subsequenceHashes[windowStartIndex] = NO_HASH;
                 }
@@ -108,17 +165,63 @@ class SubsequenceHashLookupTable {
         }
     }
 
-    private int hashValueForValue(int value) {
-        return value % HASH_MODULO;
-    }
+    /**
+     * Groups the start indexes by their hash in two linear passes. The first pass assigns buckets to hashes in order of
+     * their first occurrence and counts the bucket sizes, the second pass fills the buckets. As start indexes are visited
+     * in ascending order, each bucket is sorted.
+     */
+    private void buildStartIndexBuckets() {
+        int capacity = Integer.highestOneBit(Math.max(2, subsequenceHashes.length) * 2 - 1) << 1;
+        slotHashes = new int[capacity];
+        Arrays.fill(slotHashes, EMPTY_SLOT);
+        slotBuckets = new int[capacity];
+        slotMask = capacity - 1;
 
-    private void addToStartIndexesToHashesMap(int startIndex, int subsequenceHash) {
-        if (startIndexToSubsequenceHashesMap.containsKey(subsequenceHash)) {
-            startIndexToSubsequenceHashesMap.get(subsequenceHash).add(startIndex);
-        } else {
-            List<Integer> startIndexes = new ArrayList<>();
-            startIndexes.add(startIndex);
-            startIndexToSubsequenceHashesMap.put(subsequenceHash, startIndexes);
+        int[] startIndexBuckets = new int[subsequenceHashes.length];
+        int[] bucketSizes = new int[subsequenceHashes.length + 1];
+        int numberOfBuckets = 0;
+        int numberOfStartIndexes = 0;
+        for (int startIndex = 0; startIndex < subsequenceHashes.length; startIndex++) {
+            int hash = subsequenceHashes[startIndex];
+            if (hash == NO_HASH) {
+                startIndexBuckets[startIndex] = NO_BUCKET;
+                continue;
+            }
+            int slot = slotFor(hash);
+            while (slotHashes[slot] != EMPTY_SLOT && slotHashes[slot] != hash) {
+                slot = (slot + 1) & slotMask;
+            }
+            if (slotHashes[slot] == EMPTY_SLOT) {
+                slotHashes[slot] = hash;
+                slotBuckets[slot] = numberOfBuckets++;
+            }
+            int bucket = slotBuckets[slot];
+            startIndexBuckets[startIndex] = bucket;
+            bucketSizes[bucket]++;
+            numberOfStartIndexes++;
         }
+
+        bucketOffsets = new int[numberOfBuckets + 1];
+        for (int bucket = 0; bucket < numberOfBuckets; bucket++) {
+            bucketOffsets[bucket + 1] = bucketOffsets[bucket] + bucketSizes[bucket];
+        }
+
+        startIndexes = new int[numberOfStartIndexes];
+        int[] fillPositions = Arrays.copyOf(bucketOffsets, numberOfBuckets); // reuses the offsets as write cursors
+        for (int startIndex = 0; startIndex < subsequenceHashes.length; startIndex++) {
+            int bucket = startIndexBuckets[startIndex];
+            if (bucket != NO_BUCKET) {
+                startIndexes[fillPositions[bucket]++] = startIndex;
+            }
+        }
+    }
+
+    private int slotFor(int hash) {
+        int mixed = hash * HASH_MIXING_CONSTANT;
+        return (mixed ^ (mixed >>> 16)) & slotMask;
+    }
+
+    private int hashValueForValue(int value) {
+        return value % HASH_MODULO;
     }
 }
@@ -0,0 +1,65 @@
+package de.jplag;
+
+import de.jplag.options.JPlagOptions;
+import de.jplag.options.SimilarityMetric;
+
+/**
+ * Decides whether a pair of submissions can still reach the similarity threshold, given an upper bound of the number of
+ * tokens that can be matched between them. All similarity metrics grow with the number of matched tokens, thus the
+ * similarity of the bound is an upper bound of the actual similarity. It is computed exactly like in
+ * {@link JPlagComparison}, so a pair is only pruned if its comparison would be discarded anyway.
+ */
+final class ThresholdPruning {
+    private final SimilarityMetric metric;
+    private final double threshold;
+
+    private ThresholdPruning(SimilarityMetric metric, double threshold) {
+        this.metric = metric;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Creates the pruning for the given options.
+     * @param options are the options that specify the similarity metric and threshold.
+     * @return the pruning, or null if pruning is disabled or no pair can be pruned as every similarity reaches the
+     * threshold.
+     */
+    static ThresholdPruning of(JPlagOptions options) {
+        if (!options.executionOptions().thresholdPruning() || options.similarityThreshold() <= 0) {
+            return null;
+        }
+        return new ThresholdPruning(options.similarityMetric(), options.similarityThreshold());
+    }
+
+    /**
+     * Checks whether the similarity of two submissions can reach the threshold.
+     * @param first is the first submission.
+     * @param second is the second submission.
+     * @param maximumMatchedTokens is an upper bound of the number of tokens that are matched between the submissions.
+     * @return false if the similarity is guaranteed to be below the threshold.
+     */
+    boolean canReachThreshold(Submission first, Submission second, int maximumMatchedTokens) {
+        return maximumSimilarity(first, second, maximumMatchedTokens) >= threshold;
+    }
+
+    private double maximumSimilarity(Submission first, Submission second, int maximumMatchedTokens) {
+        return switch (metric) {
+            case AVG -> {
+                boolean subtractBaseCode = first.hasBaseCodeMatches() && second.hasBaseCodeMatches();
+                int divisor = first.getSimilarityDivisor(subtractBaseCode) + second.getSimilarityDivisor(subtractBaseCode);
+                yield divisor <= 0 ? Double.POSITIVE_INFINITY : 2 * (maximumMatchedTokens / (double) divisor);
+            }
+            case MIN, MAX -> {
+                int firstDivisor = first.getSimilarityDivisor(true);
+                int secondDivisor = second.getSimilarityDivisor(true);
+                if (firstDivisor <= 0 || secondDivisor <= 0) {
+                    yield Double.POSITIVE_INFINITY; // degenerate submissions are never pruned
+                }
+                double firstSimilarity = maximumMatchedTokens / (double) firstDivisor;
+                double secondSimilarity = maximumMatchedTokens / (double) secondDivisor;
+                yield metric == SimilarityMetric.MIN ? Math.min(firstSimilarity, secondSimilarity) : Math.max(firstSimilarity, secondSimilarity);
+            }
+            case INTERSECTION -> maximumMatchedTokens;
+        };
+    }
+}
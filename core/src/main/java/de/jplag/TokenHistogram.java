@@ -0,0 +1,63 @@
+package de.jplag;
+
+import java.util.Arrays;
+
+/**
+ * Multiset of the token values of a submission that are available for matching, i.e. not marked. Stored as sorted
+ * distinct values with their number of occurrences.
+ * @param values are the distinct token values in ascending order.
+ * @param counts are the number of occurrences of each value.
+ * @param size is the total number of occurrences.
+ */
+record TokenHistogram(int[] values, int[] counts, int size) {
+
+    /**
+     * Builds the histogram of the unmarked token values.
+     * @param tokenValues are the token values of a submission.
+     * @param marked are the tokens that are excluded from matching.
+     * @return the histogram of the remaining token values.
+     */
+    static TokenHistogram of(int[] tokenValues, boolean[] marked) {
+        int[] unmarkedValues = new int[tokenValues.length];
+        int size = 0;
+        for (int i = 0; i < tokenValues.length; i++) {
+            if (!marked[i]) {
+                unmarkedValues[size++] = tokenValues[i];
+            }
+        }
+        Arrays.sort(unmarkedValues, 0, size);
+
+        int[] values = new int[size];
+        int[] counts = new int[size];
+        int distinct = 0;
+        for (int i = 0; i < size; i++) {
+            if (distinct == 0 || values[distinct - 1] != unmarkedValues[i]) {
+                values[distinct++] = unmarkedValues[i];
+            }
+            counts[distinct - 1]++;
+        }
+        return new TokenHistogram(Arrays.copyOf(values, distinct), Arrays.copyOf(counts, distinct), size);
+    }
+
+    /**
+     * Computes the size of the multiset intersection, which is the maximum number of tokens that can be matched between the
+     * two submissions, as each matched token pairs two tokens of the same value.
+     * @param other is the histogram of the other submission.
+     * @return the sum of the minimum number of occurrences of each value.
+     */
+    int intersectionSize(TokenHistogram other) {
+        int intersection = 0;
+        int i = 0;
+        int j = 0;
+        while (i < values.length && j < other.values.length) {
+            if (values[i] < other.values[j]) {
+                i++;
+            } else if (values[i] > other.values[j]) {
+                j++;
+            } else {
+                intersection += Math.min(counts[i++], other.counts[j++]);
+            }
+        }
+        return intersection;
+    }
+}
@@ -0,0 +1,269 @@
+package de.jplag;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import de.jplag.semantics.CodeSemantics;
+
+/**
+ * Compact, immutable representation of the token sequence of a submission. Instead of one {@link Token} object per
+ * token, the token attributes are stored column-wise in parallel primitive arrays. Token types are stored as their
+ * values interned in the {@link TokenTypeRegistry}, which directly serve as the token values for comparisons. Files are
+ * stored once in a per-sequence table and referenced by their index in that table. Semantics are only stored if at
+ * least one token carries semantic information. Token types that are not enum constants are only interned while they
+ * are used, thus the sequence keeps their registered instances.
+ */
+public final class TokenSequence {
+    private final File[] files;
+
+    private final int[] tokenValues;
+    private final int[] fileIndexes;
+    private final int[] lines;
+    private final int[] columns;
+    private final int[] lengths;
+    private final CodeSemantics[] semantics; // null if no token has semantics
+    private final TokenType[] retainedTypes; // keeps the token types that are not enum constants interned
+
+    private TokenSequence(File[] files, int[] tokenValues, int[] fileIndexes, int[] lines, int[] columns, int[] lengths, CodeSemantics[] semantics,
+            TokenType[] retainedTypes) {
+        this.files = files;
+        this.tokenValues = tokenValues;
+        this.fileIndexes = fileIndexes;
+        this.lines = lines;
+        this.columns = columns;
+        this.lengths = lengths;
+        this.semantics = semantics;
+        this.retainedTypes = retainedTypes;
+    }
+
+    /**
+     * Packs a list of tokens into a token sequence.
+     * @param tokens is the list of tokens, e.g. the result of parsing a submission.
+     * @return the packed token sequence.
+     */
+    public static TokenSequence of(List<Token> tokens) {
+        int size = tokens.size();
+        Map<File, Integer> fileTable = new HashMap<>();
+        int[] tokenValues = new int[size];
+        int[] fileIndexes = new int[size];
+        int[] lines = new int[size];
+        int[] columns = new int[size];
+        int[] lengths = new int[size];
+        CodeSemantics[] semantics = null;
+        Map<TokenType, Integer> dynamicValues = new HashMap<>();
+        List<TokenType> retainedTypes = new ArrayList<>();
+
+        for (int i = 0; i < size; i++) {
+            Token token = tokens.get(i);
+            TokenType type = token.getType();
+            if (type instanceof Enum<?>) {
+                tokenValues[i] = TokenTypeRegistry.intern(type);
+            } else {
+                tokenValues[i] = dynamicValues.computeIfAbsent(type, key -> TokenTypeRegistry.intern(key, retainedTypes::add));
+            }
+            fileIndexes[i] = fileTable.computeIfAbsent(token.getFile(), key -> fileTable.size());
+            lines[i] = token.getLine();
+            columns[i] = token.getColumn();
+            lengths[i] = token.getLength();
+            if (token.getSemantics() != null) {
+                if (semantics == null) {
+                    semantics = new CodeSemantics[size];
+                }
+                semantics[i] = token.getSemantics();
+            }
+        }
+
+        File[] files = new File[fileTable.size()];
+        fileTable.forEach((file, index) -> files[index] = file);
+        return new TokenSequence(files, tokenValues, fileIndexes, lines, columns, lengths, semantics, retainedTypes.toArray(TokenType[]::new));
+    }
+
+    /**
+     * Creates a token sequence from its columns, e.g. when it was stored before. The arrays are not copied, thus must not
+     * be modified afterwards. The token types of the values must still be interned, e.g. because they are enum constants.
+     * @param files is the file table, which may contain null for tokens without a file.
+     * @param tokenValues are the token type values as interned in the {@link TokenTypeRegistry}.
+     * @param fileIndexes are the indexes of the files of the tokens in the file table.
+     * @param lines are the lines of the tokens.
+     * @param columns are the columns of the tokens.
+     * @param lengths are the lengths of the tokens.
+     * @return the token sequence without semantics.
+     */
+    public static TokenSequence of(File[] files, int[] tokenValues, int[] fileIndexes, int[] lines, int[] columns, int[] lengths) {
+        int size = tokenValues.length;
+        if (fileIndexes.length != size || lines.length != size || columns.length != size || lengths.length != size) {
+            throw new IllegalArgumentException("All columns of a token sequence must have the same length");
+        }
+        Set<TokenType> retainedTypes = new LinkedHashSet<>();
+        for (int value : tokenValues) {
+            if (TokenTypeRegistry.isDynamic(value)) {
+                retainedTypes.add(TokenTypeRegistry.typeOf(value));
+            }
+        }
+        return new TokenSequence(files, tokenValues, fileIndexes, lines, columns, lengths, null, retainedTypes.toArray(TokenType[]::new));
+    }
+
+    /**
+     * @return the number of tokens in the sequence.
+     */
+    public int size() {
+        return tokenValues.length;
+    }
+
+    /**
+     * @param index is the position of the token in the sequence.
+     * @return the value of the token type as interned in the {@link TokenTypeRegistry}.
+     */
+    public int getTokenValue(int index) {
+        return tokenValues[index];
+    }
+
+    /**
+     * Provides direct access to the token values for comparisons. The returned array must not be modified.
+     * @return the token type values of all tokens, see {@link #getTokenValue(int)}.
+     */
+    int[] tokenValues() {
+        return tokenValues;
+    }
+
+    /**
+     * @param index is the position of the token in the sequence.
+     * @return the type of the token.
+     */
+    public TokenType getType(int index) {
+        return TokenTypeRegistry.typeOf(tokenValues[index]);
+    }
+
+    /**
+     * @param index is the position of the token in the sequence.
+     * @return the file of the token.
+     */
+    public File getFile(int index) {
+        return files[fileIndexes[index]];
+    }
+
+    /**
+     * @param index is the position of the token in the sequence.
+     * @return the index of the file of the token in the file table of this sequence.
+     */
+    public int getFileIndex(int index) {
+        return fileIndexes[index];
+    }
+
+    /**
+     * @param index is the position of the token in the sequence.
+     * @return the 1-based line index of the token.
+     */
+    public int getLine(int index) {
+        return lines[index];
+    }
+
+    /**
+     * @param index is the position of the token in the sequence.
+     * @return the 1-based column index of the token.
+     */
+    public int getColumn(int index) {
+        return columns[index];
+    }
+
+    /**
+     * @param index is the position of the token in the sequence.
+     * @return the length of the token in characters.
+     */
+    public int getLength(int index) {
+        return lengths[index];
+    }
+
+    /**
+     * @param index is the position of the token in the sequence.
+     * @return the semantics of the token, or null if it has none.
+     */
+    public CodeSemantics getSemantics(int index) {
+        return semantics == null ? null : semantics[index];
+    }
+
+    /**
+     * Materializes a single token. The token is created anew with each call.
+     * @param index is the position of the token in the sequence.
+     * @return the token at that position.
+     */
+    public Token getToken(int index) {
+        return new Token(getType(index), getFile(index), lines[index], columns[index], lengths[index], getSemantics(index));
+    }
+
+    /**
+     * Materializes all tokens of the sequence.
+     * @return an unmodifiable list of newly created tokens.
+     */
+    public List<Token> toTokenList() {
+        return IntStream.range(0, size()).mapToObj(this::getToken).toList();
+    }
+
+    /**
+     * Creates a copy of this sequence without the tokens in the given range. The file table is shared.
+     * @param fromIndex is the first removed position (inclusive).
+     * @param toIndex is the last removed position (exclusive).
+     * @return the shortened token sequence.
+     */
+    public TokenSequence withoutRange(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > size() || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("Invalid range [" + fromIndex + ", " + toIndex + ") for size " + size());
+        }
+        CodeSemantics[] remainingSemantics = semantics == null ? null : without(semantics, fromIndex, toIndex);
+        return new TokenSequence(files, without(tokenValues, fromIndex, toIndex), without(fileIndexes, fromIndex, toIndex),
+                without(lines, fromIndex, toIndex), without(columns, fromIndex, toIndex), without(lengths, fromIndex, toIndex), remainingSemantics,
+                retainedTypes);
+    }
+
+    /**
+     * Creates a copy of this sequence without the tokens at the given positions in a single pass. The file table is shared.
+     * @param removedIndexes are the removed positions.
+     * @return the shortened token sequence.
+     */
+    public TokenSequence withoutTokens(BitSet removedIndexes) {
+        if (removedIndexes.length() > size()) {
+            throw new IndexOutOfBoundsException("Invalid position " + (removedIndexes.length() - 1) + " for size " + size());
+        }
+        int remaining = size() - removedIndexes.cardinality();
+        int[] remainingValues = new int[remaining];
+        int[] remainingFileIndexes = new int[remaining];
+        int[] remainingLines = new int[remaining];
+        int[] remainingColumns = new int[remaining];
+        int[] remainingLengths = new int[remaining];
+        CodeSemantics[] remainingSemantics = semantics == null ? null : new CodeSemantics[remaining];
+        int target = 0;
+        for (int index = removedIndexes.nextClearBit(0); index < size(); index = removedIndexes.nextClearBit(index + 1)) {
+            remainingValues[target] = tokenValues[index];
+            remainingFileIndexes[target] = fileIndexes[index];
+            remainingLines[target] = lines[index];
+            remainingColumns[target] = columns[index];
+            remainingLengths[target] = lengths[index];
+            if (remainingSemantics != null) {
+                remainingSemantics[target] = semantics[index];
+            }
+            target++;
+        }
+        return new TokenSequence(files, remainingValues, remainingFileIndexes, remainingLines, remainingColumns, remainingLengths,
+                remainingSemantics, retainedTypes);
+    }
+
+    private static int[] without(int[] values, int fromIndex, int toIndex) {
+        int[] result = Arrays.copyOf(values, values.length - (toIndex - fromIndex));
+        System.arraycopy(values, toIndex, result, fromIndex, values.length - toIndex);
+        return result;
+    }
+
+    private static <T> T[] without(T[] values, int fromIndex, int toIndex) {
+        T[] result = Arrays.copyOf(values, values.length - (toIndex - fromIndex));
+        System.arraycopy(values, toIndex, result, fromIndex, values.length - toIndex);
+        return result;
+    }
+}
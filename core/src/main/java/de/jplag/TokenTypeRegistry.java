@@ -0,0 +1,202 @@
+package de.jplag;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Global registry that interns token types as dense integer values, which are used to store and compare token
+ * sequences. Lookups of already interned enum token types are lock-free. Registering a new token type takes a lock, but
+ * this only happens once per token type enum: When a token type is an enum constant, all constants of its enum are
+ * interned at once and in declaration order. Thus, the values of a language are contiguous and independent of the order
+ * in which submissions are parsed. {@link SharedTokenType#FILE_END} is always interned as value zero.
+ * <p>
+ * Token types that are not enum constants, e.g. the types of dynamic metamodels or the words of texts, are only held
+ * weakly: A token sequence keeps the registered instances of the types it uses, see
+ * {@link #intern(TokenType, Consumer)}. Once no sequence uses such a type anymore, it is garbage collected and its
+ * value is reused, so the registry does not grow without bound in long-running processes.
+ */
+public final class TokenTypeRegistry {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private static final Map<TokenType, Integer> enumValues = new ConcurrentHashMap<>();
+    private static final Map<TokenType, DynamicType> dynamicValues = new WeakHashMap<>(); // guarded by the class lock
+    private static final ReferenceQueue<TokenType> collectedTypes = new ReferenceQueue<>();
+    private static final Deque<Integer> freeValues = new ArrayDeque<>(); // guarded by the class lock
+
+    private static volatile TokenType[] enumTypes = new TokenType[INITIAL_CAPACITY];
+    private static volatile DynamicType[] dynamicTypes = new DynamicType[INITIAL_CAPACITY];
+    private static volatile boolean[] excludedFromMatching = new boolean[INITIAL_CAPACITY];
+    private static volatile int size;
+
+    static {
+        intern(SharedTokenType.FILE_END);
+    }
+
+    private TokenTypeRegistry() {
+        // private constructor to prevent instantiation
+    }
+
+    /**
+     * Returns the value of a token type, interning the token type (and all constants of its enum) if necessary. The value
+     * of a token type that is not an enum constant is only valid as long as its registered instance is reachable, thus
+     * token sequences use {@link #intern(TokenType, Consumer)} instead.
+     * @param type is the token type to intern.
+     * @return the dense integer value of the token type.
+     */
+    public static int intern(TokenType type) {
+        return intern(type, registered -> {
+        });
+    }
+
+    /**
+     * Returns the value of a token type, interning the token type if necessary. If the token type is not an enum constant,
+     * its registered instance is passed to the given consumer, which has to keep it reachable as long as the value is used.
+     * @param type is the token type to intern.
+     * @param retainer receives the registered instance of a token type that is not an enum constant.
+     * @return the dense integer value of the token type.
+     */
+    static int intern(TokenType type, Consumer<TokenType> retainer) {
+        if (!(type instanceof Enum<?>)) {
+            synchronized (TokenTypeRegistry.class) {
+                return internDynamic(type, retainer);
+            }
+        }
+        Integer value = enumValues.get(type);
+        if (value != null) {
+            return value;
+        }
+        synchronized (TokenTypeRegistry.class) {
+            if (!enumValues.containsKey(type)) {
+                registerEnum((Enum<?>) type);
+            }
+            return enumValues.get(type);
+        }
+    }
+
+    /**
+     * Resolves a token type enum constant by its names, e.g. when reading persisted tokens.
+     * @param className is the binary name of the enum class.
+     * @param constantName is the name of the constant.
+     * @param language is the language whose class loader loads the enum class.
+     * @return the enum constant.
+     * @throws ReflectiveOperationException if the class is no token type enum or does not declare the constant.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static TokenType resolveEnumConstant(String className, String constantName, Language language) throws ReflectiveOperationException {
+        Class<?> typeClass = Class.forName(className, false, language.getClass().getClassLoader());
+        if (!typeClass.isEnum() || !TokenType.class.isAssignableFrom(typeClass)) {
+            throw new ClassNotFoundException(className + " is not a token type enum");
+        }
+        return (TokenType) Enum.valueOf((Class<? extends Enum>) typeClass, constantName);
+    }
+
+    /**
+     * @param value is an interned token type value.
+     * @return the token type the value was assigned to, or null if the value is currently unused.
+     */
+    public static TokenType typeOf(int value) {
+        TokenType type = enumTypes[value];
+        if (type == null) {
+            DynamicType dynamicType = dynamicTypes[value];
+            type = dynamicType == null ? null : dynamicType.get();
+        }
+        return type;
+    }
+
+    /**
+     * @param value is an interned token type value.
+     * @return whether the value belongs to a token type that is not an enum constant, see
+     * {@link #intern(TokenType, Consumer)}.
+     */
+    static boolean isDynamic(int value) {
+        return enumTypes[value] == null;
+    }
+
+    /**
+     * @param value is an interned token type value.
+     * @return whether the token type of the value is excluded from matching.
+     */
+    public static boolean isExcludedFromMatching(int value) {
+        return excludedFromMatching[value];
+    }
+
+    /**
+     * @return the number of values that were assigned so far, which is an exclusive upper bound for the values.
+     */
+    public static int size() {
+        return size;
+    }
+
+    private static int internDynamic(TokenType type, Consumer<TokenType> retainer) {
+        DynamicType dynamicType = dynamicValues.get(type);
+        TokenType registered = dynamicType == null ? null : dynamicType.get();
+        if (registered == null) {
+            releaseCollectedTypes();
+            int value = freeValues.isEmpty() ? nextValue() : freeValues.pop();
+            dynamicType = new DynamicType(type, value);
+            registered = type;
+            // publish the lookup arrays before the value, so that every published value can be resolved
+            dynamicTypes[value] = dynamicType;
+            excludedFromMatching[value] = type.isExcludedFromMatching();
+            dynamicValues.put(type, dynamicType);
+        }
+        retainer.accept(registered);
+        return dynamicType.value;
+    }
+
+    private static void registerEnum(Enum<?> type) {
+        for (Object constant : type.getDeclaringClass().getEnumConstants()) {
+            TokenType constantType = (TokenType) constant;
+            if (!enumValues.containsKey(constantType)) {
+                int value = nextValue();
+                enumTypes[value] = constantType;
+                excludedFromMatching[value] = constantType.isExcludedFromMatching();
+                enumValues.put(constantType, value);
+            }
+        }
+    }
+
+    /**
+     * Frees the values of collected token types. A collected type is not used by any token sequence anymore.
+     */
+    private static void releaseCollectedTypes() {
+        for (Object reference = collectedTypes.poll(); reference != null; reference = collectedTypes.poll()) {
+            DynamicType dynamicType = (DynamicType) reference;
+            if (dynamicTypes[dynamicType.value] == dynamicType) {
+                dynamicTypes[dynamicType.value] = null;
+                freeValues.push(dynamicType.value);
+            }
+        }
+    }
+
+    private static int nextValue() {
+        int value = size;
+        if (value == enumTypes.length) {
+            int capacity = 2 * value;
+            enumTypes = Arrays.copyOf(enumTypes, capacity);
+            dynamicTypes = Arrays.copyOf(dynamicTypes, capacity);
+            excludedFromMatching = Arrays.copyOf(excludedFromMatching, capacity);
+        }
+        size = value + 1;
+        return value;
+    }
+
+    /**
+     * Weak reference to a token type that is not an enum constant, which remembers the value of the type.
+     */
+    private static final class DynamicType extends WeakReference<TokenType> {
+        private final int value;
+
+        DynamicType(TokenType type, int value) {
+            super(type, collectedTypes);
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package de.jplag;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+
+import de.jplag.options.JPlagOptions;
+
+/**
+ * Collects comparisons in bounded memory: Only the top comparisons that are shown in the report are retained with their
+ * matches, see {@link JPlagOptions#maximumNumberOfComparisons()}. The similarity distributions are aggregated over all
+ * collected comparisons, and if clustering is enabled, the compact {@link ComparisonSimilarity} of each comparison is
+ * kept. Pairs that were not compared as they cannot have matches are only counted, see {@link UnmatchedPairs}. Not
+ * thread-safe, but collections of different threads can be combined via {@link #addAll}. This allows using it as the
+ * container of a parallel stream collection.
+ */
+public final class TopComparisonCollection {
+    private final int limit;
+    private final Comparator<RankedComparison> ranking;
+    private final PriorityQueue<RankedComparison> topComparisons; // head is the least similar retained comparison
+    private final int[] similarityDistribution;
+    private final int[] maxSimilarityDistribution;
+    private final ToDoubleFunction<JPlagComparison> clusteringMetric; // null if clustering is disabled
+    private final List<ComparisonSimilarity> similarities;
+    private UnmatchedPairs unmatchedPairs = UnmatchedPairs.NONE;
+    private long numberOfComparisons;
+
+    /**
+     * Creates an empty collection. The comparisons are ranked from the most to the least similar ones. Ties are broken by
+     * the positions of the submissions, like in the row-major order of all comparisons, which makes the retained
+     * comparisons independent of the order in which they are collected.
+     * @param options determine the number of retained comparisons and whether similarities for clustering are kept.
+     * @param positions provides the positions of the submissions in the submission set.
+     */
+    public TopComparisonCollection(JPlagOptions options, ToIntFunction<Submission> positions) {
+        this.limit = options.maximumNumberOfComparisons();
+        ToIntFunction<RankedComparison> firstPosition = it -> Math.min(positions.applyAsInt(it.comparison().firstSubmission()),
+                positions.applyAsInt(it.comparison().secondSubmission()));
+        ToIntFunction<RankedComparison> secondPosition = it -> Math.max(positions.applyAsInt(it.comparison().firstSubmission()),
+                positions.applyAsInt(it.comparison().secondSubmission()));
+        this.ranking = Comparator.comparingDouble(RankedComparison::similarity).reversed().thenComparingInt(firstPosition)
+                .thenComparingInt(secondPosition);
+        this.topComparisons = new PriorityQueue<>(ranking.reversed());
+        this.similarityDistribution = new int[JPlagResult.SIMILARITY_DISTRIBUTION_SIZE];
+        this.maxSimilarityDistribution = new int[JPlagResult.SIMILARITY_DISTRIBUTION_SIZE];
+        this.clusteringMetric = options.clusteringOptions().enabled() ? options.clusteringOptions().similarityMetric() : null;
+        this.similarities = new ArrayList<>();
+    }
+
+    /**
+     * Checks whether comparisons are collected in bounded memory for the given options, which is the case if it is enabled
+     * in the {@link de.jplag.options.ExecutionOptions} and not all comparisons are shown.
+     * @param options are the options of the run.
+     * @return true if a {@link TopComparisonCollection} is used instead of retaining all comparisons.
+     */
+    public static boolean isUsedFor(JPlagOptions options) {
+        return options.executionOptions().boundedResultCollection() && options.maximumNumberOfComparisons() != JPlagOptions.SHOW_ALL_COMPARISONS;
+    }
+
+    /**
+     * Adds a comparison to the collection. The comparison is only retained if it is among the top comparisons.
+     * @param comparison is the comparison to add.
+     */
+    public void add(JPlagComparison comparison) {
+        double similarity = comparison.similarity();
+        numberOfComparisons++;
+        similarityDistribution[JPlagResult.distributionIndexOf(similarity)]++;
+        maxSimilarityDistribution[JPlagResult.distributionIndexOf(comparison.maximalSimilarity())]++;
+        if (clusteringMetric != null) {
+            similarities.add(ComparisonSimilarity.of(comparison, clusteringMetric));
+        }
+        offer(new RankedComparison(comparison, similarity));
+    }
+
+    /**
+     * Adds all comparisons of another collection to this collection.
+     * @param other is the other collection, which must have been created with the same options and positions.
+     */
+    public void addAll(TopComparisonCollection other) {
+        numberOfComparisons += other.numberOfComparisons;
+        for (int i = 0; i < similarityDistribution.length; i++) {
+            similarityDistribution[i] += other.similarityDistribution[i];
+            maxSimilarityDistribution[i] += other.maxSimilarityDistribution[i];
+        }
+        similarities.addAll(other.similarities);
+        other.topComparisons.forEach(this::offer);
+    }
+
+    /**
+     * Adds the pairs that were not compared. They count towards the lowest bucket of the distributions, and their
+     * comparisons are only created if fewer comparisons than shown are retained.
+     * @param unmatchedPairs are the unmatched pairs of all collected comparisons.
+     */
+    public void addUnmatchedPairs(UnmatchedPairs unmatchedPairs) {
+        this.unmatchedPairs = unmatchedPairs;
+        numberOfComparisons += unmatchedPairs.count();
+        JPlagResult.addWithoutSimilarity(similarityDistribution, unmatchedPairs.count());
+        JPlagResult.addWithoutSimilarity(maxSimilarityDistribution, unmatchedPairs.count());
+    }
+
+    /**
+     * @return the retained comparisons, sorted by similarity (descending).
+     */
+    public List<JPlagComparison> getTopComparisons() {
+        return unmatchedPairs.mergeInto(topComparisons.stream().sorted(ranking).map(RankedComparison::comparison).toList(), limit);
+    }
+
+    /**
+     * @return the number of all collected comparisons, including the ones that were not retained.
+     */
+    public long getNumberOfComparisons() {
+        return numberOfComparisons;
+    }
+
+    /**
+     * @return the distribution of the average similarity over all collected comparisons, see
+     * {@link JPlagResult#getSimilarityDistribution()}.
+     */
+    public int[] getSimilarityDistribution() {
+        return similarityDistribution;
+    }
+
+    /**
+     * @return the distribution of the maximal similarity over all collected comparisons, see
+     * {@link JPlagResult#getMaxSimilarityDistribution()}.
+     */
+    public int[] getMaxSimilarityDistribution() {
+        return maxSimilarityDistribution;
+    }
+
+    /**
+     * @return the similarities of all collected comparisons according to the clustering metric, or an empty list if
+     * clustering is disabled. The unmatched pairs are not included, see {@link #getUnmatchedPairs()}.
+     */
+    public List<ComparisonSimilarity> getSimilarities() {
+        return similarities;
+    }
+
+    /**
+     * @return the pairs that were not compared, which are counted in the distributions.
+     */
+    public UnmatchedPairs getUnmatchedPairs() {
+        return unmatchedPairs;
+    }
+
+    private void offer(RankedComparison comparison) {
+        if (topComparisons.size() < limit) {
+            topComparisons.add(comparison);
+        } else if (ranking.compare(comparison, topComparisons.peek()) < 0) {
+            topComparisons.poll();
+            topComparisons.add(comparison);
+        }
+    }
+
+    /**
+     * Caches the similarity of a comparison, as it is computed from all matches on each call.
+     */
+    private record RankedComparison(JPlagComparison comparison, double similarity) {
+    }
+}
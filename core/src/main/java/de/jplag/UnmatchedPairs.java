@@ -0,0 +1,147 @@
+package de.jplag;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.jplag.options.JPlagOptions;
+
+/**
+ * Pairs of submissions that were not compared, as they share no window and thus cannot have matches, see
+ * {@link CandidatePairs}. Their similarity is zero under every metric. Instead of creating a comparison for each of
+ * them, they are counted, and their comparisons without matches are only created on demand, ordered by the positions of
+ * their submissions. Immutable, thus thread-safe.
+ */
+public final class UnmatchedPairs {
+    /**
+     * No unmatched pairs, e.g. if all pairs are compared or if pairs without similarity are not retained.
+     */
+    public static final UnmatchedPairs NONE = new UnmatchedPairs(List.of(), null, null, 0);
+
+    private final List<Submission> submissions;
+    private final CandidatePairs candidatePairs;
+    private final GreedyStringTiling greedyStringTiling;
+    private final long count;
+
+    /**
+     * @param submissions are the compared submissions in the order of the submission set.
+     * @param candidatePairs are the candidate pairs of the submissions. Pairs of new submissions with any submission that
+     * are no candidates are unmatched.
+     * @param greedyStringTiling creates the comparisons of the pairs.
+     * @param count is the number of unmatched pairs, as counted while comparing.
+     */
+    public UnmatchedPairs(List<Submission> submissions, CandidatePairs candidatePairs, GreedyStringTiling greedyStringTiling, long count) {
+        this.submissions = List.copyOf(submissions);
+        this.candidatePairs = candidatePairs;
+        this.greedyStringTiling = greedyStringTiling;
+        this.count = count;
+    }
+
+    /**
+     * @return the number of unmatched pairs.
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Provides the submissions that are part of at least one unmatched pair. As the similarity of these pairs is zero, this
+     * suffices to include them in the clustering, without a record for each pair.
+     * @return the submissions, ordered by their first occurrence in the row-major order of the pairs.
+     */
+    public Set<Submission> submissions() {
+        Set<Submission> pairedSubmissions = new LinkedHashSet<>();
+        PairCursor cursor = new PairCursor();
+        while (pairedSubmissions.size() < submissions.size() && cursor.advance()) {
+            pairedSubmissions.add(cursor.first());
+            pairedSubmissions.add(cursor.second());
+        }
+        return pairedSubmissions;
+    }
+
+    /**
+     * Adds the comparisons of the unmatched pairs to other comparisons, but only as many as requested. All comparisons
+     * without similarity, including the given ones, are ordered by the positions of their submissions.
+     * @param comparisons are the other comparisons, sorted by similarity (descending).
+     * @param limit is the number of requested comparisons, or {@link JPlagOptions#SHOW_ALL_COMPARISONS}.
+     * @return the first comparisons of both, sorted by similarity (descending).
+     */
+    public List<JPlagComparison> mergeInto(List<JPlagComparison> comparisons, int limit) {
+        int size = limit == JPlagOptions.SHOW_ALL_COMPARISONS ? Integer.MAX_VALUE : limit;
+        int firstWithoutSimilarity = comparisons.size();
+        while (firstWithoutSimilarity > 0 && comparisons.get(firstWithoutSimilarity - 1).similarity() <= 0) {
+            firstWithoutSimilarity--;
+        }
+        if (count == 0 || size <= firstWithoutSimilarity) {
+            return comparisons.subList(0, Math.min(size, comparisons.size()));
+        }
+
+        Map<Submission, Integer> positions = new IdentityHashMap<>();
+        for (Submission submission : submissions) {
+            positions.put(submission, positions.size());
+        }
+        Comparator<JPlagComparison> order = Comparator.comparingInt(it -> Math.min(positions.get(it.firstSubmission()),
+                positions.get(it.secondSubmission())));
+        order = order.thenComparingInt(it -> Math.max(positions.get(it.firstSubmission()), positions.get(it.secondSubmission())));
+        List<JPlagComparison> withoutSimilarity = comparisons.subList(firstWithoutSimilarity, comparisons.size()).stream().sorted(order).toList();
+
+        List<JPlagComparison> merged = new ArrayList<>(comparisons.subList(0, firstWithoutSimilarity));
+        PairCursor cursor = new PairCursor();
+        boolean hasPair = cursor.advance();
+        int next = 0;
+        while (merged.size() < size && (hasPair || next < withoutSimilarity.size())) {
+            if (!hasPair || next < withoutSimilarity.size() && isBefore(withoutSimilarity.get(next), cursor, positions)) {
+                merged.add(withoutSimilarity.get(next++));
+            } else {
+                merged.add(greedyStringTiling.createComparisonWithoutMatches(cursor.first(), cursor.second()));
+                hasPair = cursor.advance();
+            }
+        }
+        return Collections.unmodifiableList(merged);
+    }
+
+    private static boolean isBefore(JPlagComparison comparison, PairCursor cursor, Map<Submission, Integer> positions) {
+        int firstPosition = positions.get(comparison.firstSubmission());
+        int secondPosition = positions.get(comparison.secondSubmission());
+        int lowerPosition = Math.min(firstPosition, secondPosition);
+        int upperPosition = Math.max(firstPosition, secondPosition);
+        return lowerPosition < cursor.firstIndex || lowerPosition == cursor.firstIndex && upperPosition < cursor.secondIndex;
+    }
+
+    /**
+     * Iterates over the unmatched pairs in row-major order of the positions of their submissions.
+     */
+    private final class PairCursor {
+        private int firstIndex;
+        private int secondIndex;
+
+        /**
+         * @return whether there is a next pair.
+         */
+        boolean advance() {
+            while (firstIndex < submissions.size()) {
+                secondIndex++;
+                if (secondIndex >= submissions.size()) {
+                    firstIndex++;
+                    secondIndex = firstIndex;
+                } else if ((first().isNew() || second().isNew()) && !candidatePairs.isCandidate(first(), second())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        Submission first() {
+            return submissions.get(firstIndex);
+        }
+
+        Submission second() {
+            return submissions.get(secondIndex);
+        }
+    }
+}
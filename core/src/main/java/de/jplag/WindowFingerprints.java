@@ -0,0 +1,61 @@
+package de.jplag;
+
+import java.util.Arrays;
+
+/**
+ * Computes 64-bit fingerprints of the windows of a token value sequence, i.e. of all subsequences of a fixed length.
+ * Equal windows have equal fingerprints. The fingerprints are polynomial rolling hashes whose bits are distributed by a
+ * finalization step, thus distinct windows have distinct fingerprints with high probability.
+ */
+public final class WindowFingerprints {
+    private static final long FINGERPRINT_BASE = 0x100000001B3L; // odd multiplier of the polynomial rolling hash
+
+    private WindowFingerprints() {
+        // private constructor to prevent instantiation
+    }
+
+    /**
+     * Computes the fingerprints of all unmarked windows. A window starting at index i spans the values from i to i +
+     * windowSize, like the windows that are tiled, see {@link GreedyStringTiling}. Thus, the window starting at the last
+     * possible index is omitted, as the last token is assumed to be a pivot.
+     * @param values are the token values.
+     * @param marked are the tokens that cannot be part of a window.
+     * @param windowSize is the number of tokens of each window.
+     * @return the fingerprints of the unmarked windows in the order of their start index.
+     */
+    public static long[] of(int[] values, boolean[] marked, int windowSize) {
+        int numberOfWindows = values.length - windowSize;
+        if (numberOfWindows <= 0) {
+            return new long[0];
+        }
+        long[] fingerprints = new long[numberOfWindows];
+        int numberOfFingerprints = 0;
+        long removalFactor = 1;
+        for (int i = 0; i < windowSize; i++) {
+            removalFactor *= FINGERPRINT_BASE;
+        }
+        long hash = 0;
+        int unmarkedLength = 0;
+        for (int windowEnd = 0; windowEnd < numberOfWindows + windowSize - 1; windowEnd++) {
+            hash = hash * FINGERPRINT_BASE + values[windowEnd];
+            int windowStart = windowEnd - windowSize + 1;
+            if (windowStart > 0) {
+                hash -= removalFactor * values[windowStart - 1];
+            }
+            unmarkedLength = marked[windowEnd] ? 0 : unmarkedLength + 1;
+            if (windowStart >= 0 && unmarkedLength >= windowSize) {
+                fingerprints[numberOfFingerprints++] = mix(hash);
+            }
+        }
+        return Arrays.copyOf(fingerprints, numberOfFingerprints);
+    }
+
+    /**
+     * Finalization step of the 64-bit MurmurHash3, which distributes the bits of the polynomial hash.
+     */
+    private static long mix(long hash) {
+        hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+        hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+}
@@ -0,0 +1,319 @@
+package de.jplag.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.jplag.JPlag;
+import de.jplag.Language;
+import de.jplag.Submission;
+import de.jplag.Token;
+import de.jplag.TokenType;
+import de.jplag.TokenTypeRegistry;
+import de.jplag.options.LanguageOption;
+import de.jplag.semantics.CodeSemantics;
+import de.jplag.semantics.CodeSemanticsCodec;
+import de.jplag.util.FileUtils;
+
+/**
+ * Persistent cache of parsed token streams, which avoids re-parsing unchanged submissions across runs. An entry is
+ * keyed by the JPlag version, the identifier and options of the language, and the relative path and content hash of
+ * each file of the submission. Entries are stored in a compact, checksummed binary format, one file per entry. Entries
+ * that cannot be read, e.g. because they are corrupted or refer to unknown token types, are treated as missing. The
+ * cache is bounded in size by evicting the least recently used entries. Can be used by multiple threads concurrently.
+ */
+public final class TokenCache {
+    private static final Logger logger = LoggerFactory.getLogger(TokenCache.class);
+
+    private static final int MAGIC_NUMBER = 0x4A504C54; // "JPLT"
+    private static final int FORMAT_VERSION = 1;
+    private static final String ENTRY_SUFFIX = ".tokens";
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final int NO_FILE = -1;
+
+    private final Path directory;
+    private final long maximumSize;
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    /**
+     * Creates a token cache, which uses the given directory.
+     * @param directory is the cache directory, which is created if it does not exist.
+     * @param maximumSize is the maximum size of all entries in bytes, see {@link #evict()}.
+     */
+    public TokenCache(File directory, long maximumSize) {
+        this.directory = directory.toPath();
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Computes the key of the cache entry of a submission.
+     * @param submission is the submission to parse.
+     * @param language is the language the submission is parsed with.
+     * @return the key, or null if the files of the submission cannot be read. Then, the submission cannot be cached.
+     */
+    public Key keyOf(Submission submission, Language language) {
+        Path root = submission.getRoot().toPath();
+        List<File> files = submission.getFiles().stream().sorted(Comparator.comparing(file -> relativePath(root, file))).toList();
+        try {
+            MessageDigest digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+            update(digest, Integer.toString(FORMAT_VERSION));
+            update(digest, JPlag.JPLAG_VERSION.toString());
+            update(digest, language.getIdentifier());
+            for (LanguageOption<?> option : language.getOptions().getOptionsAsList()) {
+                update(digest, option.getName() + "=" + option.getValue());
+            }
+            for (File file : files) {
+                update(digest, relativePath(root, file));
+                digest.update(MessageDigest.getInstance(DIGEST_ALGORITHM).digest(Files.readAllBytes(file.toPath())));
+            }
+            return new Key(HexFormat.of().formatHex(digest.digest()), files);
+        } catch (IOException exception) {
+            logger.debug("Could not compute token cache key of submission {}", submission.getName(), exception);
+            return null;
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception); // every Java platform supports SHA-256
+        }
+    }
+
+    /**
+     * Loads the tokens of a cache entry.
+     * @param key is the key of the entry.
+     * @param language is the language the token types of the entry belong to.
+     * @return the tokens, or null if there is no readable entry for the key.
+     */
+    public List<Token> load(Key key, Language language) {
+        Path entry = entryPath(key);
+        if (!Files.exists(entry)) {
+            misses.incrementAndGet();
+            return null;
+        }
+        try {
+            List<Token> tokens = readEntry(Files.readAllBytes(entry), key, language);
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            hits.incrementAndGet();
+            return tokens;
+        } catch (IOException | RuntimeException | ReflectiveOperationException exception) {
+            logger.warn("Discarding unreadable token cache entry {}: {}", entry, exception.getMessage());
+            delete(entry);
+            misses.incrementAndGet();
+            return null;
+        }
+    }
+
+    /**
+     * Stores tokens in a cache entry. Tokens with token types that are not enum constants or that belong to files outside
+     * the submission are not stored.
+     * @param key is the key of the entry.
+     * @param tokens are the tokens parsed from the files of the key.
+     */
+    public void store(Key key, List<Token> tokens) {
+        Path temporaryEntry = null;
+        try {
+            byte[] content = writeEntry(key, tokens);
+            if (content == null) {
+                return;
+            }
+            Files.createDirectories(directory);
+            temporaryEntry = Files.createTempFile(directory, key.digest(), ".tmp");
+            Files.write(temporaryEntry, content);
+            FileUtils.moveAtomically(temporaryEntry, entryPath(key));
+        } catch (IOException exception) {
+            logger.debug("Could not store token cache entry {}", key.digest(), exception);
+            if (temporaryEntry != null) {
+                delete(temporaryEntry);
+            }
+        }
+    }
+
+    /**
+     * Evicts the least recently used entries until the size of all entries is within the maximum size.
+     */
+    public void evict() {
+        logger.info("Token cache: {} hits, {} misses", hits.get(), misses.get());
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        List<Path> entries;
+        try (Stream<Path> files = Files.list(directory)) {
+            entries = new ArrayList<>(files.filter(it -> it.getFileName().toString().endsWith(ENTRY_SUFFIX)).toList());
+        } catch (IOException exception) {
+            logger.warn("Could not list token cache entries in {}", directory, exception);
+            return;
+        }
+        Map<Path, FileTime> accessTimes = new HashMap<>();
+        Map<Path, Long> sizes = new HashMap<>();
+        for (Path entry : entries) {
+            try {
+                accessTimes.put(entry, Files.getLastModifiedTime(entry));
+                sizes.put(entry, Files.size(entry));
+            } catch (IOException exception) {
+                accessTimes.put(entry, FileTime.fromMillis(0)); // entry was removed concurrently
+                sizes.put(entry, 0L);
+            }
+        }
+        entries.sort(Comparator.comparing(accessTimes::get));
+        long size = sizes.values().stream().mapToLong(Long::longValue).sum();
+        for (int i = 0; i < entries.size() && size > maximumSize; i++) {
+            size -= sizes.get(entries.get(i));
+            delete(entries.get(i));
+        }
+    }
+
+    private byte[] writeEntry(Key key, List<Token> tokens) throws IOException {
+        Map<Path, Integer> fileIndexes = new HashMap<>();
+        for (File file : key.files()) {
+            fileIndexes.put(normalizedPath(file), fileIndexes.size());
+        }
+        Map<TokenType, Integer> typeIndexes = new HashMap<>();
+        List<Enum<?>> types = new ArrayList<>();
+        boolean hasSemantics = false;
+        for (Token token : tokens) {
+            if (!(token.getType() instanceof Enum<?> type) || token.getFile() != null && !fileIndexes.containsKey(normalizedPath(token.getFile()))) {
+                return null;
+            }
+            typeIndexes.computeIfAbsent(token.getType(), it -> {
+                types.add(type);
+                return types.size() - 1;
+            });
+            hasSemantics |= token.getSemantics() != null;
+        }
+
+        ByteArrayOutputStream compressedPayload = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(new DeflaterOutputStream(compressedPayload))) {
+            output.writeInt(types.size());
+            for (Enum<?> type : types) {
+                output.writeUTF(type.getDeclaringClass().getName());
+                output.writeUTF(type.name());
+            }
+            output.writeBoolean(hasSemantics);
+            output.writeInt(tokens.size());
+            CodeSemanticsCodec semanticsCodec = new CodeSemanticsCodec();
+            for (Token token : tokens) {
+                output.writeInt(typeIndexes.get(token.getType()));
+                output.writeInt(token.getFile() == null ? NO_FILE : fileIndexes.get(normalizedPath(token.getFile())));
+                output.writeInt(token.getLine());
+                output.writeInt(token.getColumn());
+                output.writeInt(token.getLength());
+                if (hasSemantics) {
+                    output.writeBoolean(token.getSemantics() != null);
+                    if (token.getSemantics() != null) {
+                        semanticsCodec.write(token.getSemantics(), output);
+                    }
+                }
+            }
+        }
+        byte[] payload = compressedPayload.toByteArray();
+        byte[] digest = key.digest().getBytes(StandardCharsets.US_ASCII);
+
+        ByteBuffer entry = ByteBuffer.allocate(4 * Integer.BYTES + digest.length + payload.length + Long.BYTES);
+        entry.putInt(MAGIC_NUMBER).putInt(FORMAT_VERSION);
+        entry.putInt(digest.length).put(digest);
+        entry.putInt(payload.length).put(payload);
+        entry.putLong(checksumOf(payload));
+        return entry.array();
+    }
+
+    private static List<Token> readEntry(byte[] content, Key key, Language language) throws IOException, ReflectiveOperationException {
+        ByteBuffer entry = ByteBuffer.wrap(content);
+        if (entry.getInt() != MAGIC_NUMBER || entry.getInt() != FORMAT_VERSION) {
+            throw new IOException("unknown format");
+        }
+        byte[] digest = new byte[entry.getInt()];
+        entry.get(digest);
+        if (!key.digest().equals(new String(digest, StandardCharsets.US_ASCII))) {
+            throw new IOException("key mismatch");
+        }
+        byte[] payload = new byte[entry.getInt()];
+        entry.get(payload);
+        if (entry.getLong() != checksumOf(payload) || entry.hasRemaining()) {
+            throw new IOException("checksum mismatch");
+        }
+
+        try (DataInputStream input = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(payload)))) {
+            TokenType[] types = new TokenType[input.readInt()];
+            for (int i = 0; i < types.length; i++) {
+                types[i] = TokenTypeRegistry.resolveEnumConstant(input.readUTF(), input.readUTF(), language);
+            }
+            boolean hasSemantics = input.readBoolean();
+            int size = input.readInt();
+            List<Token> tokens = new ArrayList<>(size);
+            CodeSemanticsCodec semanticsCodec = new CodeSemanticsCodec();
+            for (int i = 0; i < size; i++) {
+                TokenType type = types[input.readInt()];
+                int fileIndex = input.readInt();
+                File file = fileIndex == NO_FILE ? null : key.files().get(fileIndex);
+                int line = input.readInt();
+                int column = input.readInt();
+                int length = input.readInt();
+                CodeSemantics semantics = hasSemantics && input.readBoolean() ? semanticsCodec.read(input) : null;
+                tokens.add(new Token(type, file, line, column, length, semantics));
+            }
+            return tokens;
+        }
+    }
+
+    private Path entryPath(Key key) {
+        return directory.resolve(key.digest() + ENTRY_SUFFIX);
+    }
+
+    private static void delete(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException exception) {
+            logger.debug("Could not delete {}", path, exception);
+        }
+    }
+
+    private static long checksumOf(byte[] payload) {
+        CRC32 checksum = new CRC32();
+        checksum.update(payload);
+        return checksum.getValue();
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+        digest.update(bytes);
+    }
+
+    private static Path normalizedPath(File file) {
+        return file.toPath().toAbsolutePath().normalize();
+    }
+
+    private static String relativePath(Path root, File file) {
+        return root.relativize(file.toPath()).toString().replace(File.separatorChar, '/');
+    }
+
+    /**
+     * Key of a cache entry.
+     * @param digest is the hash of all properties that determine the tokens of a submission.
+     * @param files are the files of the submission in the order in which tokens refer to them.
+     */
+    public record Key(String digest, List<File> files) {
+    }
+}
@@ -8,6 +8,7 @@ import java.util.function.ToDoubleFunction;
 import org.apache.commons.math3.linear.Array2DRowRealMatrix;
 import org.apache.commons.math3.linear.RealMatrix;
 
+import de.jplag.ComparisonSimilarity;
 import de.jplag.JPlagComparison;
 import de.jplag.Submission;
 import de.jplag.clustering.algorithm.GenericClusteringAlgorithm;
@@ -31,20 +32,40 @@ public class ClusteringAdapter {
      * @param metric function that assigns a similarity to each comparison
      */
     public ClusteringAdapter(Collection<JPlagComparison> comparisons, ToDoubleFunction<JPlagComparison> metric) {
-        mapping = new IntegerMapping<>(comparisons.size());
-        for (JPlagComparison comparison : comparisons) {
-            mapping.map(comparison.firstSubmission());
-            mapping.map(comparison.secondSubmission());
+        this(comparisons.stream().map(it -> ComparisonSimilarity.of(it, metric)).toList());
+    }
+
+    /**
+     * Creates the clustering adapter. Only submissions that appear in those similarities might also appear in
+     * {@link ClusteringResult}s obtained from this adapter.
+     * @param similarities of the comparisons that should be included in the process of clustering
+     */
+    public ClusteringAdapter(Collection<ComparisonSimilarity> similarities) {
+        this(similarities, List.of());
+    }
+
+    /**
+     * Creates the clustering adapter. Only submissions that appear in those similarities or in the submissions without
+     * similarity might also appear in {@link ClusteringResult}s obtained from this adapter.
+     * @param similarities of the comparisons that should be included in the process of clustering
+     * @param submissionsWithoutSimilarity are further submissions that should be included. Pairs without a given similarity
+     * have zero similarity
+     */
+    public ClusteringAdapter(Collection<ComparisonSimilarity> similarities, Collection<Submission> submissionsWithoutSimilarity) {
+        mapping = new IntegerMapping<>(similarities.size() + submissionsWithoutSimilarity.size());
+        for (ComparisonSimilarity similarity : similarities) {
+            mapping.map(similarity.firstSubmission());
+            mapping.map(similarity.secondSubmission());
         }
+        submissionsWithoutSimilarity.forEach(mapping::map);
         int size = mapping.size();
 
         similarityMatrix = new Array2DRowRealMatrix(size, size);
-        for (JPlagComparison comparison : comparisons) {
-            int firstIndex = mapping.map(comparison.firstSubmission());
-            int secondIndex = mapping.map(comparison.secondSubmission());
-            double similarity = metric.applyAsDouble(comparison);
-            similarityMatrix.setEntry(firstIndex, secondIndex, similarity);
-            similarityMatrix.setEntry(secondIndex, firstIndex, similarity);
+        for (ComparisonSimilarity similarity : similarities) {
+            int firstIndex = mapping.map(similarity.firstSubmission());
+            int secondIndex = mapping.map(similarity.secondSubmission());
+            similarityMatrix.setEntry(firstIndex, secondIndex, similarity.similarity());
+            similarityMatrix.setEntry(secondIndex, firstIndex, similarity.similarity());
         }
     }
 
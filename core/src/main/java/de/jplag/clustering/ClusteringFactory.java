@@ -9,6 +9,7 @@ import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import de.jplag.ComparisonSimilarity;
 import de.jplag.JPlagComparison;
 import de.jplag.Submission;
 import de.jplag.clustering.algorithm.GenericClusteringAlgorithm;
@@ -31,7 +32,33 @@ public class ClusteringFactory {
     private static final Logger logger = LoggerFactory.getLogger(ClusteringFactory.class);
 
     public static List<ClusteringResult<Submission>> getClusterings(Collection<JPlagComparison> comparisons, ClusteringOptions options) {
-        if (comparisons.isEmpty()) {
+        List<ComparisonSimilarity> similarities = comparisons.stream().map(it -> ComparisonSimilarity.of(it, options.similarityMetric())).toList();
+        return getClusteringsOfSimilarities(similarities, options);
+    }
+
+    /**
+     * Runs the clustering on the compact similarities of the comparisons.
+     * @param similarities are the similarities according to the similarity metric of the options.
+     * @param options determine the clustering.
+     * @return the clustering results, which are empty if clustering is disabled.
+     */
+    public static List<ClusteringResult<Submission>> getClusteringsOfSimilarities(Collection<ComparisonSimilarity> similarities,
+            ClusteringOptions options) {
+        return getClusteringsOfSimilarities(similarities, List.of(), options);
+    }
+
+    /**
+     * Runs the clustering on the compact similarities of the comparisons and on further submissions without similarity,
+     * e.g. the submissions of {@link de.jplag.UnmatchedPairs}.
+     * @param similarities are the similarities according to the similarity metric of the options.
+     * @param submissionsWithoutSimilarity are further submissions to cluster. Pairs without a given similarity have zero
+     * similarity.
+     * @param options determine the clustering.
+     * @return the clustering results, which are empty if clustering is disabled.
+     */
+    public static List<ClusteringResult<Submission>> getClusteringsOfSimilarities(Collection<ComparisonSimilarity> similarities,
+            Collection<Submission> submissionsWithoutSimilarity, ClusteringOptions options) {
+        if (similarities.isEmpty() && submissionsWithoutSimilarity.isEmpty()) {
             return Collections.emptyList();
         }
 
@@ -54,7 +81,7 @@ public class ClusteringFactory {
         }
 
         // init adapter
-        ClusteringAdapter adapter = new ClusteringAdapter(comparisons, options.similarityMetric());
+        ClusteringAdapter adapter = new ClusteringAdapter(similarities, submissionsWithoutSimilarity);
 
         // run clustering
         ClusteringResult<Submission> result = adapter.doClustering(clusteringAlgorithm);
@@ -0,0 +1,475 @@
+package de.jplag.corpus;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.jplag.GreedyStringTiling;
+import de.jplag.Language;
+import de.jplag.Submission;
+import de.jplag.TokenSequence;
+import de.jplag.TokenType;
+import de.jplag.TokenTypeRegistry;
+import de.jplag.WindowFingerprints;
+import de.jplag.options.JPlagOptions;
+
+/**
+ * Persistent index of old submissions, which allows comparing new submissions against them without parsing them again.
+ * The index stores the token sequences of the submissions and an inverted index from the {@link WindowFingerprints} of
+ * their windows to the submissions that contain them. New submissions look up their windows to find the indexed
+ * submissions they share code with, thus only these need to be loaded. The index is a single file, in which the token
+ * columns and the postings are stored as flat arrays that are memory-mapped when the index is opened. Token types are
+ * stored by the names of their enum constants, thus the index stays valid across runs. Submissions are added via
+ * {@link #append}, which rewrites the file atomically. An index is only valid for the language and the language options
+ * it was built with, which are verified when it is opened. Closed indexes cannot be used anymore, but their mappings
+ * are only released by the garbage collector, as the public API offers no safe way to unmap them earlier.
+ */
+public final class CorpusIndex implements Closeable {
+    static final int MAGIC_NUMBER = 0x4A504349; // "JPCI"
+    static final int FORMAT_VERSION = 3;
+    static final int HEADER_SIZE = 8 * Integer.BYTES;
+    static final int NO_FILE = -1;
+    private static final int UNKNOWN_TYPE = -1;
+
+    static final int VALUE_COLUMN = 0;
+    static final int FILE_COLUMN = 1;
+    static final int LINE_COLUMN = 2;
+    static final int COLUMN_COLUMN = 3;
+    static final int LENGTH_COLUMN = 4;
+    static final int NUMBER_OF_COLUMNS = 5;
+
+    private final Path path;
+    private final String languageIdentifier;
+    private final int windowSize;
+    private final List<TokenType> types;
+    private final Map<TokenType, Integer> typeIndexes;
+    private final List<Entry> entries;
+    private final Layout layout;
+    private final IntBuffer[] tokenColumns;
+    private final LongBuffer postingFingerprints; // ascending
+    private final IntBuffer postingSubmissions; // ascending per fingerprint
+    private boolean closed;
+
+    private CorpusIndex(Path path, String languageIdentifier, int windowSize, List<TokenType> types, List<Entry> entries, Layout layout,
+            IntBuffer[] tokenColumns, LongBuffer postingFingerprints, IntBuffer postingSubmissions) {
+        this.path = path;
+        this.languageIdentifier = languageIdentifier;
+        this.windowSize = windowSize;
+        this.types = types;
+        this.entries = entries;
+        this.layout = layout;
+        this.tokenColumns = tokenColumns;
+        this.postingFingerprints = postingFingerprints;
+        this.postingSubmissions = postingSubmissions;
+        typeIndexes = new HashMap<>();
+        for (int i = 0; i < types.size(); i++) {
+            typeIndexes.put(types.get(i), i);
+        }
+    }
+
+    /**
+     * Opens an existing index. Only the metadata of the submissions is read, the tokens and postings are memory-mapped
+     * until the index is closed.
+     * @param file is the index file.
+     * @param language is the language of the submissions, which must be the language the index was built with, with the
+     * same language options.
+     * @return the opened index.
+     * @throws IOException if the file cannot be read, is no valid index, or was built for another language or other
+     * language options.
+     */
+    public static CorpusIndex open(File file, Language language) throws IOException {
+        Path path = file.toPath();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(channel, header, 0);
+            header.flip();
+            if (header.getInt() != MAGIC_NUMBER || header.getInt() != FORMAT_VERSION) {
+                throw new IOException(file + " is no corpus index of this version");
+            }
+            int windowSize = header.getInt();
+            int numberOfSubmissions = header.getInt();
+            int numberOfTokens = header.getInt();
+            int numberOfPostings = header.getInt();
+            int metadataLength = header.getInt();
+            Layout layout = new Layout(metadataLength, numberOfTokens, numberOfPostings);
+            if (channel.size() != layout.size()) {
+                throw new IOException(file + " is truncated");
+            }
+
+            ByteBuffer metadata = ByteBuffer.allocate(metadataLength);
+            readFully(channel, metadata, HEADER_SIZE);
+            DataInputStream input = new DataInputStream(new ByteArrayInputStream(metadata.array()));
+            String languageIdentifier = input.readUTF();
+            if (!languageIdentifier.equals(language.getIdentifier())) {
+                throw new IOException(file + " indexes submissions of language " + languageIdentifier + ", not " + language.getIdentifier());
+            }
+            List<String> languageOptions = new ArrayList<>();
+            int numberOfLanguageOptions = input.readInt();
+            for (int i = 0; i < numberOfLanguageOptions; i++) {
+                languageOptions.add(input.readUTF());
+            }
+            if (!languageOptions.equals(languageOptionsOf(language))) {
+                throw new IOException(file + " indexes submissions parsed with language options " + languageOptions + ", not "
+                        + languageOptionsOf(language));
+            }
+            List<TokenType> types = new ArrayList<>();
+            int numberOfTypes = input.readInt();
+            for (int i = 0; i < numberOfTypes; i++) {
+                types.add(TokenTypeRegistry.resolveEnumConstant(input.readUTF(), input.readUTF(), language));
+            }
+            List<Entry> entries = new ArrayList<>(numberOfSubmissions);
+            for (int i = 0; i < numberOfSubmissions; i++) {
+                entries.add(Entry.read(input));
+            }
+
+            IntBuffer[] tokenColumns = new IntBuffer[NUMBER_OF_COLUMNS];
+            for (int column = 0; column < NUMBER_OF_COLUMNS; column++) {
+                tokenColumns[column] = map(channel, layout.columnOffset(column), layout.columnSize()).asIntBuffer();
+            }
+            LongBuffer postingFingerprints = map(channel, layout.fingerprintOffset(), (long) numberOfPostings * Long.BYTES).asLongBuffer();
+            IntBuffer postingSubmissions = map(channel, layout.submissionOffset(), (long) numberOfPostings * Integer.BYTES).asIntBuffer();
+            return new CorpusIndex(path, languageIdentifier, windowSize, Collections.unmodifiableList(types), Collections.unmodifiableList(entries),
+                    layout, tokenColumns, postingFingerprints, postingSubmissions);
+        } catch (ReflectiveOperationException exception) {
+            throw new IOException(file + " refers to unknown token types", exception);
+        }
+    }
+
+    /**
+     * Adds submissions to an index, which is created if the file does not exist. Submissions without tokens and submissions
+     * that are already indexed are skipped, see {@link #identityOf}. The file is replaced atomically.
+     * @param file is the index file.
+     * @param submissions are the parsed submissions to add.
+     * @param options are the options the submissions were parsed with. For new indexes, they determine the window size, see
+     * {@link GreedyStringTiling#minimumMatchLengthOf}.
+     * @return the number of added submissions.
+     * @throws IOException if the index cannot be read or written.
+     */
+    public static int append(File file, List<Submission> submissions, JPlagOptions options) throws IOException {
+        try (CorpusIndex existing = file.exists() ? open(file, options.language()) : null) {
+            return append(file, existing, submissions, options);
+        }
+    }
+
+    /**
+     * Adds submissions to an index that is already opened, see {@link #append(File, List, JPlagOptions)}. The opened index
+     * is read instead of mapping the file again, and it is closed before the file is replaced.
+     * @param file is the index file.
+     * @param existing is the opened index of that file, or null if the file does not exist.
+     * @param submissions are the parsed submissions to add.
+     * @param options are the options the submissions were parsed with.
+     * @return the number of added submissions.
+     * @throws IOException if the index cannot be read or written.
+     */
+    public static int append(File file, CorpusIndex existing, List<Submission> submissions, JPlagOptions options) throws IOException {
+        if (existing != null) {
+            existing.checkOpen();
+        }
+        int windowSize = existing == null ? GreedyStringTiling.minimumMatchLengthOf(options) : existing.windowSize;
+        return new CorpusIndexWriter(file.toPath(), existing, options.language(), windowSize).append(submissions);
+    }
+
+    /**
+     * @return the options of the language, which determine the tokens of the submissions, by their names and values.
+     */
+    static List<String> languageOptionsOf(Language language) {
+        return language.getOptions().getOptionsAsList().stream().map(option -> option.getName() + "=" + option.getValue()).toList();
+    }
+
+    /**
+     * Closes the index. Afterwards, no submissions can be loaded or looked up. The mappings of the index file are released
+     * once the index and the buffers read from it are garbage collected. Closing an index more than once has no effect.
+     */
+    @Override
+    public void close() {
+        closed = true;
+    }
+
+    /**
+     * @return the number of indexed submissions.
+     */
+    public int numberOfSubmissions() {
+        return entries.size();
+    }
+
+    /**
+     * @param index is the index of an indexed submission.
+     * @return the name of the submission.
+     */
+    public String getName(int index) {
+        return entries.get(index).name();
+    }
+
+    /**
+     * @param index is the index of an indexed submission.
+     * @return the root file of the submission.
+     */
+    public File getRoot(int index) {
+        return entries.get(index).root();
+    }
+
+    /**
+     * @param index is the index of an indexed submission.
+     * @return the identity of the submission, see {@link #identityOf}.
+     */
+    public String getIdentity(int index) {
+        return entries.get(index).identity();
+    }
+
+    /**
+     * Determines the identity of a submission in an index. Submissions are identified by the canonical path of their root
+     * file, as their names depend on the root directories of a run.
+     * @param root is the root file of the submission.
+     * @return the identity of the submission.
+     * @throws IOException if the canonical path cannot be determined.
+     */
+    public static String identityOf(File root) throws IOException {
+        return root.getCanonicalPath();
+    }
+
+    /**
+     * @return the number of tokens of the windows of the postings.
+     */
+    public int windowSize() {
+        return windowSize;
+    }
+
+    /**
+     * Finds the indexed submissions that share at least one window with any of the given submissions, and thus can have
+     * matches with them. Windows containing tokens that are excluded from matching are ignored, like in the comparisons.
+     * @param submissions are the submissions to look up.
+     * @param minimumMatchLength is the length of the shortest matches of the comparison. If it is shorter than the windows
+     * of the index, matches can be shorter than the windows, thus all indexed submissions are candidates.
+     * @return the indexes of the indexed submissions that share code with the given submissions.
+     */
+    public BitSet findCandidates(Collection<Submission> submissions, int minimumMatchLength) {
+        checkOpen();
+        BitSet candidates = new BitSet(entries.size());
+        if (minimumMatchLength < windowSize) {
+            candidates.set(0, entries.size());
+            return candidates;
+        }
+        int[] typeIndexOfValue = new int[TokenTypeRegistry.size()];
+        for (int value = 0; value < typeIndexOfValue.length; value++) {
+            typeIndexOfValue[value] = typeIndexes.getOrDefault(TokenTypeRegistry.typeOf(value), UNKNOWN_TYPE);
+        }
+        submissions.parallelStream().filter(it -> it.getTokenSequence() != null).map(it -> candidatesOf(it.getTokenSequence(), typeIndexOfValue))
+                .sequential().forEach(candidates::or);
+        return candidates;
+    }
+
+    /**
+     * Loads an indexed submission with its tokens.
+     * @param index is the index of the indexed submission.
+     * @param language is the language of the submission.
+     * @return the old submission, which does not need to be parsed.
+     */
+    public Submission loadSubmission(int index, Language language) {
+        return loadSubmission(index, getName(index), language);
+    }
+
+    /**
+     * Loads an indexed submission with its tokens under another name, e.g. if its name is taken by another submission.
+     * @param index is the index of the indexed submission.
+     * @param name is the name of the loaded submission.
+     * @param language is the language of the submission.
+     * @return the old submission, which does not need to be parsed.
+     */
+    public Submission loadSubmission(int index, String name, Language language) {
+        checkOpen();
+        Entry entry = entries.get(index);
+        int[][] columns = new int[NUMBER_OF_COLUMNS][];
+        for (int column = 0; column < NUMBER_OF_COLUMNS; column++) {
+            columns[column] = new int[entry.numberOfTokens()];
+            tokenColumns[column].get(entry.tokenOffset(), columns[column]);
+        }
+        for (int i = 0; i < entry.numberOfTokens(); i++) {
+            columns[VALUE_COLUMN][i] = TokenTypeRegistry.intern(types.get(columns[VALUE_COLUMN][i]));
+            if (columns[FILE_COLUMN][i] == NO_FILE) {
+                columns[FILE_COLUMN][i] = entry.tokenFiles().size(); // the last entry of the file table is null
+            }
+        }
+        File[] files = entry.tokenFiles().toArray(new File[entry.tokenFiles().size() + 1]);
+
+        Submission submission = new Submission(name, entry.root(), false, entry.files(), language);
+        submission.setTokenSequence(TokenSequence.of(files, columns[VALUE_COLUMN], columns[FILE_COLUMN], columns[LINE_COLUMN],
+                columns[COLUMN_COLUMN], columns[LENGTH_COLUMN]));
+        return submission;
+    }
+
+    String languageIdentifier() {
+        return languageIdentifier;
+    }
+
+    List<TokenType> types() {
+        return types;
+    }
+
+    List<Entry> entries() {
+        return entries;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    Layout layout() {
+        return layout;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("The corpus index " + path + " is closed");
+        }
+    }
+
+    LongBuffer postingFingerprints() {
+        return postingFingerprints.duplicate();
+    }
+
+    IntBuffer postingSubmissions() {
+        return postingSubmissions.duplicate();
+    }
+
+    /**
+     * Translates the token values of a sequence to the type indexes of this index, with tokens whose type is not indexed
+     * marked like excluded tokens, as they cannot match any indexed token.
+     */
+    private BitSet candidatesOf(TokenSequence sequence, int[] typeIndexOfValue) {
+        int[] values = new int[sequence.size()];
+        boolean[] marked = new boolean[sequence.size()];
+        for (int i = 0; i < values.length; i++) {
+            int value = sequence.getTokenValue(i);
+            values[i] = value < typeIndexOfValue.length ? typeIndexOfValue[value] : UNKNOWN_TYPE;
+            marked[i] = values[i] == UNKNOWN_TYPE || TokenTypeRegistry.isExcludedFromMatching(value);
+        }
+        long[] fingerprints = WindowFingerprints.of(values, marked, windowSize);
+        Arrays.sort(fingerprints);
+
+        BitSet candidates = new BitSet(entries.size());
+        for (int i = 0; i < fingerprints.length; i++) {
+            if (i > 0 && fingerprints[i] == fingerprints[i - 1]) {
+                continue;
+            }
+            for (int position = firstPosting(fingerprints[i]); position < postingFingerprints.limit()
+                    && postingFingerprints.get(position) == fingerprints[i]; position++) {
+                candidates.set(postingSubmissions.get(position));
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * @return the position of the first posting whose fingerprint is not smaller than the given one.
+     */
+    private int firstPosting(long fingerprint) {
+        int low = 0;
+        int high = postingFingerprints.limit();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (postingFingerprints.get(middle) < fingerprint) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of corpus index");
+            }
+        }
+    }
+
+    /**
+     * Metadata of an indexed submission.
+     * @param name is the name of the submission.
+     * @param identity is the identity of the submission, see {@link #identityOf}.
+     * @param root is the root file of the submission.
+     * @param files are the files of the submission.
+     * @param tokenFiles is the file table the tokens refer to.
+     * @param tokenOffset is the position of the first token of the submission in the token columns.
+     * @param numberOfTokens is the number of tokens of the submission.
+     */
+    record Entry(String name, String identity, File root, List<File> files, List<File> tokenFiles, int tokenOffset, int numberOfTokens) {
+
+        static Entry read(DataInputStream input) throws IOException {
+            String name = input.readUTF();
+            String identity = input.readUTF();
+            File root = new File(input.readUTF());
+            List<File> files = readFiles(input);
+            List<File> tokenFiles = readFiles(input);
+            return new Entry(name, identity, root, files, tokenFiles, input.readInt(), input.readInt());
+        }
+
+        private static List<File> readFiles(DataInputStream input) throws IOException {
+            File[] files = new File[input.readInt()];
+            for (int i = 0; i < files.length; i++) {
+                files[i] = new File(input.readUTF());
+            }
+            return List.of(files);
+        }
+    }
+
+    /**
+     * Positions of the sections of an index file. The header is followed by the metadata, the token columns and the
+     * postings. The token columns and the postings are aligned to eight bytes.
+     * @param metadataLength is the length of the metadata in bytes.
+     * @param numberOfTokens is the number of tokens of all submissions.
+     * @param numberOfPostings is the number of distinct windows of all submissions.
+     */
+    record Layout(int metadataLength, int numberOfTokens, int numberOfPostings) {
+
+        long columnOffset(int column) {
+            return align(HEADER_SIZE + (long) metadataLength) + column * columnSize();
+        }
+
+        long columnSize() {
+            return (long) numberOfTokens * Integer.BYTES;
+        }
+
+        long fingerprintOffset() {
+            return align(columnOffset(NUMBER_OF_COLUMNS));
+        }
+
+        long submissionOffset() {
+            return fingerprintOffset() + (long) numberOfPostings * Long.BYTES;
+        }
+
+        long size() {
+            return submissionOffset() + (long) numberOfPostings * Integer.BYTES;
+        }
+
+        private static long align(long position) {
+            return (position + Long.BYTES - 1) / Long.BYTES * Long.BYTES;
+        }
+    }
+}
@@ -0,0 +1,436 @@
+package de.jplag.corpus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.jplag.Language;
+import de.jplag.Submission;
+import de.jplag.TokenSequence;
+import de.jplag.TokenType;
+import de.jplag.TokenTypeRegistry;
+import de.jplag.WindowFingerprints;
+import de.jplag.corpus.CorpusIndex.Entry;
+import de.jplag.corpus.CorpusIndex.Layout;
+import de.jplag.util.FileUtils;
+
+/**
+ * Writes a corpus index that consists of the submissions of an existing index and additional submissions. The tokens
+ * and postings of the existing index are copied without decoding them, and the postings of the additional submissions
+ * are merged into the existing postings. The new file is written next to the index, and after the existing index is
+ * closed, it is moved over it. On platforms that cannot replace mapped files, e.g. Windows, the move may fail until the
+ * mappings of the existing index are garbage collected.
+ */
+final class CorpusIndexWriter {
+    private static final Logger logger = LoggerFactory.getLogger(CorpusIndexWriter.class);
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Path path;
+    private final CorpusIndex existing; // null if the index is created
+    private final Language language;
+    private final int windowSize;
+
+    /**
+     * @param path is the path of the index file.
+     * @param existing is the existing index at that path, or null if the index is created.
+     * @param language is the language of the submissions, whose identifier and options are stored in the index.
+     * @param windowSize is the number of tokens of the windows of the postings.
+     */
+    CorpusIndexWriter(Path path, CorpusIndex existing, Language language, int windowSize) {
+        this.path = path;
+        this.existing = existing;
+        this.language = language;
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Writes the index with the given additional submissions, see {@link CorpusIndex#append}.
+     * @return the number of added submissions.
+     */
+    int append(List<Submission> submissions) throws IOException {
+        List<TokenType> types = new ArrayList<>(existing == null ? List.of() : existing.types());
+        Map<TokenType, Integer> typeIndexes = new HashMap<>();
+        for (int i = 0; i < types.size(); i++) {
+            typeIndexes.put(types.get(i), i);
+        }
+        List<Entry> entries = new ArrayList<>(existing == null ? List.of() : existing.entries());
+        Set<String> identities = new HashSet<>(entries.stream().map(Entry::identity).toList());
+
+        List<AddedSubmission> addedSubmissions = new ArrayList<>();
+        long numberOfTokens = existing == null ? 0 : existing.layout().numberOfTokens();
+        for (Submission submission : submissions) {
+            TokenSequence sequence = submission.getTokenSequence();
+            String identity = CorpusIndex.identityOf(submission.getRoot());
+            if (sequence == null || identities.contains(identity)) {
+                logger.debug("Submission {} is not added to the corpus index", submission.getName());
+                continue;
+            }
+            if (!hasOnlyEnumTypes(sequence)) {
+                logger.warn("Submission {} cannot be added to the corpus index, as it has token types that are no enum constants", submission);
+                continue;
+            }
+            identities.add(identity);
+            AddedSubmission added = AddedSubmission.of(submission, identity, entries.size(), (int) numberOfTokens, types, typeIndexes, windowSize);
+            entries.add(added.entry());
+            addedSubmissions.add(added);
+            numberOfTokens += sequence.size();
+        }
+        if (addedSubmissions.isEmpty()) {
+            return 0;
+        }
+
+        long numberOfPostings = existing == null ? 0 : existing.layout().numberOfPostings();
+        numberOfPostings += addedSubmissions.stream().mapToLong(it -> it.fingerprints().length).sum();
+        if (numberOfTokens * Integer.BYTES > Integer.MAX_VALUE || numberOfPostings * Long.BYTES > Integer.MAX_VALUE) {
+            throw new IOException("The corpus index " + path + " would exceed the maximum size of its sections");
+        }
+        byte[] metadata = writeMetadata(types, entries);
+        Layout layout = new Layout(metadata.length, (int) numberOfTokens, (int) numberOfPostings);
+
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporaryFile = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            write(temporaryFile, layout, metadata, entries.size(), addedSubmissions);
+            if (existing != null) {
+                existing.close(); // its buffers refer to the replaced file
+            }
+            FileUtils.moveAtomically(temporaryFile, path);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+        return addedSubmissions.size();
+    }
+
+    private void write(Path file, Layout layout, byte[] metadata, int numberOfSubmissions, List<AddedSubmission> addedSubmissions)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                FileChannel existingChannel = existing == null ? null : FileChannel.open(existing.path(), StandardOpenOption.READ)) {
+            ChannelWriter writer = new ChannelWriter(channel);
+            writer.putInt(CorpusIndex.MAGIC_NUMBER);
+            writer.putInt(CorpusIndex.FORMAT_VERSION);
+            writer.putInt(windowSize);
+            writer.putInt(numberOfSubmissions);
+            writer.putInt(layout.numberOfTokens());
+            writer.putInt(layout.numberOfPostings());
+            writer.putInt(layout.metadataLength());
+            writer.putInt(0); // reserved
+            writer.putBytes(metadata);
+
+            for (int column = 0; column < CorpusIndex.NUMBER_OF_COLUMNS; column++) {
+                writer.padTo(layout.columnOffset(column));
+                if (existingChannel != null) {
+                    writer.transferFrom(existingChannel, existing.layout().columnOffset(column), existing.layout().columnSize());
+                }
+                for (AddedSubmission added : addedSubmissions) {
+                    for (int value : added.columns()[column]) {
+                        writer.putInt(value);
+                    }
+                }
+            }
+
+            writer.padTo(layout.fingerprintOffset());
+            mergePostings(addedSubmissions, cursor -> writer.putLong(cursor.fingerprint()));
+            mergePostings(addedSubmissions, cursor -> writer.putInt(cursor.submission()));
+            writer.flush();
+            if (writer.position() != layout.size()) {
+                throw new IOException("Corpus index has unexpected size " + writer.position() + " instead of " + layout.size());
+            }
+        }
+    }
+
+    /**
+     * Merges the postings of the existing index and the added submissions in ascending order of their fingerprints and
+     * submissions.
+     */
+    private void mergePostings(List<AddedSubmission> addedSubmissions, PostingSink sink) throws IOException {
+        PriorityQueue<PostingCursor> queue = new PriorityQueue<>(
+                Comparator.comparingLong(PostingCursor::fingerprint).thenComparingInt(PostingCursor::submission));
+        if (existing != null) {
+            addIfNotExhausted(queue, new ExistingPostings(existing.postingFingerprints(), existing.postingSubmissions()));
+        }
+        for (AddedSubmission added : addedSubmissions) {
+            addIfNotExhausted(queue, new AddedPostings(added.fingerprints(), added.index()));
+        }
+        while (!queue.isEmpty()) {
+            PostingCursor cursor = queue.poll();
+            sink.accept(cursor);
+            if (cursor.advance()) {
+                queue.add(cursor);
+            }
+        }
+    }
+
+    private static void addIfNotExhausted(PriorityQueue<PostingCursor> queue, PostingCursor cursor) {
+        if (cursor.hasPosting()) {
+            queue.add(cursor);
+        }
+    }
+
+    private byte[] writeMetadata(List<TokenType> types, List<Entry> entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeUTF(language.getIdentifier());
+            List<String> languageOptions = CorpusIndex.languageOptionsOf(language);
+            output.writeInt(languageOptions.size());
+            for (String option : languageOptions) {
+                output.writeUTF(option);
+            }
+            output.writeInt(types.size());
+            for (TokenType type : types) {
+                Enum<?> constant = (Enum<?>) type;
+                output.writeUTF(constant.getDeclaringClass().getName());
+                output.writeUTF(constant.name());
+            }
+            for (Entry entry : entries) {
+                output.writeUTF(entry.name());
+                output.writeUTF(entry.identity());
+                output.writeUTF(entry.root().getPath());
+                writeFiles(output, entry.files());
+                writeFiles(output, entry.tokenFiles());
+                output.writeInt(entry.tokenOffset());
+                output.writeInt(entry.numberOfTokens());
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeFiles(DataOutputStream output, List<File> files) throws IOException {
+        output.writeInt(files.size());
+        for (File file : files) {
+            output.writeUTF(file.getPath());
+        }
+    }
+
+    private static boolean hasOnlyEnumTypes(TokenSequence sequence) {
+        for (int i = 0; i < sequence.size(); i++) {
+            if (!(sequence.getType(i) instanceof Enum<?>)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A submission that is added to the index.
+     * @param entry is its metadata.
+     * @param index is its index in the index.
+     * @param columns are its token columns, with the token values replaced by the type indexes of the index.
+     * @param fingerprints are the ascending distinct fingerprints of its unmarked windows.
+     */
+    private record AddedSubmission(Entry entry, int index, int[][] columns, long[] fingerprints) {
+
+        static AddedSubmission of(Submission submission, String identity, int index, int tokenOffset, List<TokenType> types,
+                Map<TokenType, Integer> typeIndexes, int windowSize) {
+            TokenSequence sequence = submission.getTokenSequence();
+            int size = sequence.size();
+            int[][] columns = new int[CorpusIndex.NUMBER_OF_COLUMNS][size];
+            boolean[] marked = new boolean[size];
+            List<File> tokenFiles = new ArrayList<>();
+            Map<File, Integer> fileIndexes = new HashMap<>();
+            for (int i = 0; i < size; i++) {
+                TokenType type = sequence.getType(i);
+                columns[CorpusIndex.VALUE_COLUMN][i] = typeIndexes.computeIfAbsent(type, it -> {
+                    types.add(it);
+                    return types.size() - 1;
+                });
+                File file = sequence.getFile(i);
+                columns[CorpusIndex.FILE_COLUMN][i] = file == null ? CorpusIndex.NO_FILE : fileIndexes.computeIfAbsent(file, it -> {
+                    tokenFiles.add(it);
+                    return tokenFiles.size() - 1;
+                });
+                columns[CorpusIndex.LINE_COLUMN][i] = sequence.getLine(i);
+                columns[CorpusIndex.COLUMN_COLUMN][i] = sequence.getColumn(i);
+                columns[CorpusIndex.LENGTH_COLUMN][i] = sequence.getLength(i);
+                marked[i] = TokenTypeRegistry.isExcludedFromMatching(sequence.getTokenValue(i));
+            }
+
+            long[] fingerprints = WindowFingerprints.of(columns[CorpusIndex.VALUE_COLUMN], marked, windowSize);
+            fingerprints = Arrays.stream(fingerprints).sorted().distinct().toArray();
+            Entry entry = new Entry(submission.getName(), identity, submission.getRoot(), List.copyOf(submission.getFiles()), List.copyOf(tokenFiles),
+                    tokenOffset, size);
+            return new AddedSubmission(entry, index, columns, fingerprints);
+        }
+    }
+
+    /**
+     * Position in a list of postings that are sorted by fingerprint and submission.
+     */
+    private interface PostingCursor {
+        boolean hasPosting();
+
+        long fingerprint();
+
+        int submission();
+
+        /**
+         * @return whether there is a next posting.
+         */
+        boolean advance();
+    }
+
+    private static final class ExistingPostings implements PostingCursor {
+        private final LongBuffer fingerprints;
+        private final IntBuffer submissions;
+        private int position;
+
+        ExistingPostings(LongBuffer fingerprints, IntBuffer submissions) {
+            this.fingerprints = fingerprints;
+            this.submissions = submissions;
+        }
+
+        @Override
+        public boolean hasPosting() {
+            return position < fingerprints.limit();
+        }
+
+        @Override
+        public long fingerprint() {
+            return fingerprints.get(position);
+        }
+
+        @Override
+        public int submission() {
+            return submissions.get(position);
+        }
+
+        @Override
+        public boolean advance() {
+            position++;
+            return hasPosting();
+        }
+    }
+
+    private static final class AddedPostings implements PostingCursor {
+        private final long[] fingerprints;
+        private final int submission;
+        private int position;
+
+        AddedPostings(long[] fingerprints, int submission) {
+            this.fingerprints = fingerprints;
+            this.submission = submission;
+        }
+
+        @Override
+        public boolean hasPosting() {
+            return position < fingerprints.length;
+        }
+
+        @Override
+        public long fingerprint() {
+            return fingerprints[position];
+        }
+
+        @Override
+        public int submission() {
+            return submission;
+        }
+
+        @Override
+        public boolean advance() {
+            position++;
+            return hasPosting();
+        }
+    }
+
+    @FunctionalInterface
+    private interface PostingSink {
+        void accept(PostingCursor cursor) throws IOException;
+    }
+
+    /**
+     * Buffered sequential writer of a file channel.
+     */
+    private static final class ChannelWriter {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        private long position;
+
+        ChannelWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void putInt(int value) throws IOException {
+            ensureRemaining(Integer.BYTES);
+            buffer.putInt(value);
+            position += Integer.BYTES;
+        }
+
+        void putLong(long value) throws IOException {
+            ensureRemaining(Long.BYTES);
+            buffer.putLong(value);
+            position += Long.BYTES;
+        }
+
+        void putBytes(byte[] bytes) throws IOException {
+            flush();
+            ByteBuffer source = ByteBuffer.wrap(bytes);
+            while (source.hasRemaining()) {
+                channel.write(source);
+            }
+            position += bytes.length;
+        }
+
+        void padTo(long targetPosition) throws IOException {
+            while (position < targetPosition) {
+                ensureRemaining(1);
+                buffer.put((byte) 0);
+                position++;
+            }
+        }
+
+        /**
+         * Copies a section of another file without reading it into memory.
+         */
+        void transferFrom(FileChannel source, long offset, long length) throws IOException {
+            flush();
+            long transferred = 0;
+            while (transferred < length) {
+                long count = source.transferTo(offset + transferred, length - transferred, channel);
+                if (count <= 0) {
+                    throw new IOException("Could not copy the existing corpus index");
+                }
+                transferred += count;
+            }
+            position += length;
+        }
+
+        long position() {
+            return position;
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private void ensureRemaining(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+    }
+}
@@ -24,12 +24,14 @@ public class CsvPrinter<T> {
     private static final char DEFAULT_SEPARATOR = ',';
     private static final String DEFAULT_LINE_END = "\r\n"; // not System.lineSeparator(), because of csv specification
     private static final char LITERAL = '"';
+    private static final String COMMENT_PREFIX = "# ";
 
     private final CsvDataMapper<T> dataSource;
     private final List<String[]> data;
 
     private char separator;
     private String lineEnd;
+    private String comment;
 
     /**
      * @param dataSource The data source used to map the given object to rows.
@@ -74,6 +76,15 @@ public class CsvPrinter<T> {
         this.lineEnd = lineEnd;
     }
 
+    /**
+     * Sets a comment that is printed as the first line, prefixed with "# ". Comments are not part of the csv specification,
+     * but are skipped by common csv readers if configured.
+     * @param comment the comment, or null for no comment
+     */
+    public void setComment(String comment) {
+        this.comment = comment;
+    }
+
     /**
      * Prints this csv with all current data to a file
      * @param file The file to write
@@ -100,6 +111,10 @@ public class CsvPrinter<T> {
     }
 
     private void printCsv(Writer writer) throws IOException {
+        if (this.comment != null) {
+            writer.write(COMMENT_PREFIX + this.comment);
+            writer.write(this.lineEnd);
+        }
         this.writeTitleRow(writer);
 
         for (String[] datum : this.data) {
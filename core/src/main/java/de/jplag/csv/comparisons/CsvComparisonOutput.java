@@ -6,6 +6,7 @@ import java.util.List;
 import java.util.Map;
 
 import de.jplag.JPlagComparison;
+import de.jplag.JPlagResult;
 import de.jplag.csv.CsvDataMapper;
 import de.jplag.csv.CsvPrinter;
 import de.jplag.csv.HardcodedCsvDataMapper;
@@ -16,6 +17,7 @@ import de.jplag.options.SimilarityMetric;
  * Frontend for writing the result comparisons as a csv.
  */
 public class CsvComparisonOutput {
+    private static final String TRUNCATION_COMMENT = "Contains only the %d most similar of %d comparisons, the others were not retained";
     private static final String[] titles = new String[] {"submissionName1", "submissionName2", "averageSimilarity", "maxSimilarity"};
 
     private CsvComparisonOutput() {
@@ -29,6 +31,20 @@ public class CsvComparisonOutput {
      * @param fileName The base name for the file without ".csv"
      */
     public static void writeCsvResults(List<JPlagComparison> comparisons, boolean anonymize, File directory, String fileName) throws IOException {
+        writeCsvResults(comparisons, comparisons.size(), anonymize, directory, fileName);
+    }
+
+    /**
+     * Writes the comparisons as a csv. If not all comparisons of the result are given, e.g. as only the top comparisons
+     * were retained, the csv starts with a comment that states how many comparisons are missing.
+     * @param comparisons The list of comparisons
+     * @param totalComparisons The number of all comparisons of the result, see {@link JPlagResult#getNumberOfComparisons()}
+     * @param anonymize If true only random ids will be printed and an additional file will contain the actual names
+     * @param directory The directory to write into
+     * @param fileName The base name for the file without ".csv"
+     */
+    public static void writeCsvResults(List<JPlagComparison> comparisons, long totalComparisons, boolean anonymize, File directory, String fileName)
+            throws IOException {
         NameMapper mapper = new NameMapper.IdentityMapper();
         directory.mkdirs();
 
@@ -38,6 +54,9 @@ public class CsvComparisonOutput {
 
         CsvDataMapper<CsvComparisonData> dataMapper = new ReflectiveCsvDataMapper<>(CsvComparisonData.class, titles);
         CsvPrinter<CsvComparisonData> printer = new CsvPrinter<>(dataMapper);
+        if (comparisons.size() < totalComparisons) {
+            printer.setComment(String.format(TRUNCATION_COMMENT, comparisons.size(), totalComparisons));
+        }
 
         for (JPlagComparison comparison : comparisons) {
             double average = SimilarityMetric.AVG.applyAsDouble(comparison);
@@ -1,17 +1,18 @@
 package de.jplag.merging;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
 
 import de.jplag.JPlagComparison;
+import de.jplag.JPlagExecutor;
 import de.jplag.JPlagResult;
 import de.jplag.Match;
 import de.jplag.SharedTokenType;
 import de.jplag.Submission;
-import de.jplag.Token;
+import de.jplag.TokenSequence;
 import de.jplag.options.JPlagOptions;
 
 /**
@@ -24,7 +25,7 @@ import de.jplag.options.JPlagOptions;
  * {@link JPlagOptions} as {@link MergingOptions} and default to (2,6).
  */
 public class MatchMerging {
-    private JPlagOptions options;
+    private final JPlagOptions options;
 
     /**
      * Instantiates the match merging algorithm for a comparison result and a set of specific options.
@@ -36,139 +37,169 @@ public class MatchMerging {
 
     /**
      * Runs the internal match merging pipeline. It computes neighboring matches, merges them based on
-     * {@link MergingOptions} and removes remaining too short matches afterwards.
+     * {@link MergingOptions} and removes remaining too short matches afterwards. Comparisons are independent of each other
+     * and thus merged in parallel, the order of the comparisons is retained. Unmatched pairs have no matches to merge and
+     * are kept, see {@link JPlagResult#getUnmatchedPairs()}.
      * @param result is the initially computed result object
      * @return JPlagResult containing the merged matches
      */
     public JPlagResult mergeMatchesOf(JPlagResult result) {
         long timeBeforeStartInMillis = System.currentTimeMillis();
 
-        List<JPlagComparison> comparisons = new ArrayList<>(result.getAllComparisons());
-        List<JPlagComparison> comparisonsMerged = new ArrayList<>();
-
-        for (JPlagComparison comparison : comparisons) {
-            Submission leftSubmission = comparison.firstSubmission().copy();
-            Submission rightSubmission = comparison.secondSubmission().copy();
-            List<Match> globalMatches = new ArrayList<>(comparison.matches());
-            globalMatches.addAll(comparison.ignoredMatches());
-            globalMatches = mergeNeighbors(globalMatches, leftSubmission, rightSubmission);
-            globalMatches = globalMatches.stream().filter(it -> it.length() >= options.minimumTokenMatch()).toList();
-            comparisonsMerged.add(new JPlagComparison(leftSubmission, rightSubmission, globalMatches, new ArrayList<>()));
-        }
+        List<JPlagComparison> comparisonsMerged = result.getRetainedComparisons().parallelStream().map(comparison -> {
+            JPlagExecutor.checkCancelled();
+            return mergeMatchesOf(comparison);
+        }).toList();
 
         long durationInMillis = System.currentTimeMillis() - timeBeforeStartInMillis;
-        return new JPlagResult(comparisonsMerged, result.getSubmissions(), result.getDuration() + durationInMillis, options);
+        return new JPlagResult(comparisonsMerged, result.getUnmatchedPairs(), result.getSubmissions(), result.getDuration() + durationInMillis,
+                options);
     }
 
     /**
-     * Computes neighbors by sorting based on order of matches in the left and right submissions and then checking which are
-     * next to each other in both.
-     * @param globalMatches
-     * @return neighbors containing a list of pairs of neighboring matches
+     * Runs the internal match merging pipeline for a single comparison. This allows merging the comparisons while they are
+     * collected, e.g. when only the top comparisons are retained. Submissions are only copied if tokens were removed from
+     * them, in that case the shortened token sequence is created once.
+     * @param comparison is the initially computed comparison
+     * @return the comparison containing the merged matches
      */
-    private List<Neighbor> computeNeighbors(List<Match> globalMatches) {
-        List<Neighbor> neighbors = new ArrayList<>();
-
-        Map<Integer, List<Match>> matchesByLeft = new HashMap<>();
-        Map<Integer, List<Match>> matchesByRight = new HashMap<>();
-
-        // Group matches by their left and right positions
-        for (Match match : globalMatches) {
-            matchesByLeft.computeIfAbsent(match.startOfFirst(), key -> new ArrayList<>()).add(match);
-            matchesByRight.computeIfAbsent(match.startOfSecond(), key -> new ArrayList<>()).add(match);
+    public JPlagComparison mergeMatchesOf(JPlagComparison comparison) {
+        Submission leftSubmission = comparison.firstSubmission();
+        Submission rightSubmission = comparison.secondSubmission();
+        TokenGaps leftGaps = new TokenGaps();
+        TokenGaps rightGaps = new TokenGaps();
+        List<Match> globalMatches = new ArrayList<>(comparison.matches());
+        globalMatches.addAll(comparison.ignoredMatches());
+        if (hasNeighbors(globalMatches)) {
+            mergeNeighbors(globalMatches, leftSubmission, rightSubmission, leftGaps, rightGaps);
         }
+        globalMatches = globalMatches.stream().filter(it -> it.length() >= options.minimumTokenMatch()).toList();
+        return new JPlagComparison(leftGaps.applyTo(leftSubmission), rightGaps.applyTo(rightSubmission), globalMatches, new ArrayList<>());
+    }
 
-        // Iterate through the matches and find neighbors
-        for (List<Match> matches : matchesByLeft.values()) {
-            for (Match match : matches) {
-                List<Match> rightMatches = matchesByRight.getOrDefault(match.startOfSecond(), Collections.emptyList());
-                for (Match rightMatch : rightMatches) {
-                    if (rightMatch != match) {
-                        neighbors.add(new Neighbor(match, rightMatch));
-                    }
-                }
+    /**
+     * Checks whether any two matches are neighbors without building the neighbor groups, which is the common case.
+     * @param globalMatches are the matches of the comparison
+     * @return true if at least one pair of neighbors exists
+     */
+    private boolean hasNeighbors(List<Match> globalMatches) {
+        int[] startsOfSecond = new int[globalMatches.size()];
+        for (int i = 0; i < startsOfSecond.length; i++) {
+            startsOfSecond[i] = globalMatches.get(i).startOfSecond();
+        }
+        Arrays.sort(startsOfSecond);
+        for (int i = 1; i < startsOfSecond.length; i++) {
+            if (startsOfSecond[i] == startsOfSecond[i - 1]) {
+                return true;
             }
         }
+        return false;
+    }
 
-        return neighbors;
+    /**
+     * Groups the matches into neighbors, sorted by their start in the right submission. Matches are neighbors if they share
+     * their start in the right submission. Groups without a pair of neighbors are omitted. As match positions are kept in
+     * the original token sequences during merging, the groups stay valid and are only updated for the merged matches.
+     * @param globalMatches are the matches of the comparison
+     * @return the neighbor groups by start in the right submission
+     */
+    private NavigableMap<Integer, List<Match>> groupNeighbors(List<Match> globalMatches) {
+        NavigableMap<Integer, List<Match>> neighborGroups = new TreeMap<>();
+        for (Match match : globalMatches) {
+            neighborGroups.computeIfAbsent(match.startOfSecond(), key -> new ArrayList<>()).add(match);
+        }
+        neighborGroups.values().removeIf(group -> group.size() < 2);
+        return neighborGroups;
     }
 
     /**
      * This function iterates through the neighboring matches and checks which fit the merging criteria. Those who do are
      * merged and the original matches are removed. This is done, until there are either no neighbors left, or none fit the
-     * criteria
-     * @return globalMatches containing merged matches.
+     * criteria. The scan continues at the group of the merged match instead of starting again at the first group, as a
+     * merge only changes its own group. While merging, matches keep their positions in the original token sequences and the
+     * removed tokens are tracked as gaps. Afterwards, the matches are translated to the shortened token sequences.
+     * @param globalMatches are the matches of the comparison, which are replaced by the merged matches
+     * @param leftGaps collects the removed tokens of the left submission
+     * @param rightGaps collects the removed tokens of the right submission
      */
-    private List<Match> mergeNeighbors(List<Match> globalMatches, Submission leftSubmission, Submission rightSubmission) {
-        int i = 0;
-        List<Neighbor> neighbors = computeNeighbors(globalMatches);
-
-        while (i < neighbors.size()) {
-            Match upperNeighbor = neighbors.get(i).upperMatch();
-            Match lowerNeighbor = neighbors.get(i).lowerMatch();
-
-            int lengthUpper = upperNeighbor.length();
-            int lengthLower = lowerNeighbor.length();
-            int tokenBetweenLeft = lowerNeighbor.startOfFirst() - upperNeighbor.endOfFirst() - 1;
-            int tokensBetweenRight = lowerNeighbor.startOfSecond() - upperNeighbor.endOfSecond() - 1;
-            double averageTokensBetweenMatches = (tokenBetweenLeft + tokensBetweenRight) / 2.0;
-            // Checking length is not necessary as GST already checked length while computing matches
-            if (averageTokensBetweenMatches <= options.mergingOptions().maximumGapSize()
-                    && !mergeOverlapsFiles(leftSubmission, rightSubmission, upperNeighbor, tokenBetweenLeft, tokensBetweenRight)) {
-                globalMatches.remove(upperNeighbor);
-                globalMatches.remove(lowerNeighbor);
-                globalMatches.add(new Match(upperNeighbor.startOfFirst(), upperNeighbor.startOfSecond(), lengthUpper + lengthLower));
-                globalMatches = removeToken(globalMatches, leftSubmission, rightSubmission, upperNeighbor, tokenBetweenLeft, tokensBetweenRight);
-                neighbors = computeNeighbors(globalMatches);
-                i = 0;
-            } else {
-                i++;
+    private void mergeNeighbors(List<Match> globalMatches, Submission leftSubmission, Submission rightSubmission, TokenGaps leftGaps,
+            TokenGaps rightGaps) {
+        NavigableMap<Integer, List<Match>> neighborGroups = groupNeighbors(globalMatches);
+        NavigableMap<Integer, List<Match>> remainingGroups = neighborGroups;
+        Neighbor neighbor;
+        while ((neighbor = findMergeableNeighbor(remainingGroups, leftSubmission, rightSubmission, leftGaps, rightGaps)) != null) {
+            Match upperNeighbor = neighbor.upperMatch();
+            Match lowerNeighbor = neighbor.lowerMatch();
+            leftGaps.remove(leftGaps.toCurrent(upperNeighbor.startOfFirst()) + upperNeighbor.length(), tokensBetweenLeft(neighbor, leftGaps));
+            rightGaps.remove(rightGaps.toCurrent(upperNeighbor.startOfSecond()) + upperNeighbor.length(), tokensBetweenRight(neighbor, rightGaps));
+
+            int mergedLength = upperNeighbor.length() + lowerNeighbor.length();
+            Match mergedMatch = new Match(upperNeighbor.startOfFirst(), upperNeighbor.startOfSecond(), mergedLength);
+            globalMatches.remove(upperNeighbor);
+            globalMatches.remove(lowerNeighbor);
+            globalMatches.add(mergedMatch);
+            List<Match> group = neighborGroups.get(upperNeighbor.startOfSecond());
+            group.remove(upperNeighbor);
+            group.remove(lowerNeighbor);
+            group.add(mergedMatch);
+            if (group.size() < 2) {
+                neighborGroups.remove(upperNeighbor.startOfSecond());
             }
+            remainingGroups = neighborGroups.tailMap(upperNeighbor.startOfSecond(), true);
         }
-        return globalMatches;
+        globalMatches.replaceAll(
+                match -> new Match(leftGaps.toCurrent(match.startOfFirst()), rightGaps.toCurrent(match.startOfSecond()), match.length()));
     }
 
     /**
-     * This function checks if a merge would go over file boundaries.
-     * @param leftSubmission is the left submission
-     * @param rightSubmission is the right submission
-     * @param upperNeighbor is the upper neighboring match
-     * @param tokensBetweenLeft amount of token that separate the neighboring matches in the left submission and need to be
-     * removed
-     * @param tokensBetweenRight amount token that separate the neighboring matches in the send submission and need to be
-     * removed
-     * @return true if the merge goes over file boundaries.
+     * Finds the first pair of neighbors that fits the merging criteria.
+     * @param neighborGroups are the groups to scan, starting at the group of the previous merge
+     * @return the neighbors to merge or null if no neighbors fit the criteria
      */
-    private boolean mergeOverlapsFiles(Submission leftSubmission, Submission rightSubmission, Match upperNeighbor, int tokensBetweenLeft,
-            int tokensBetweenRight) {
-        if (leftSubmission.getFiles().size() == 1 && rightSubmission.getFiles().size() == 1) {
-            return false;
+    private Neighbor findMergeableNeighbor(NavigableMap<Integer, List<Match>> neighborGroups, Submission leftSubmission,
+            Submission rightSubmission, TokenGaps leftGaps, TokenGaps rightGaps) {
+        for (List<Match> group : neighborGroups.values()) {
+            for (Match upperNeighbor : group) {
+                for (Match lowerNeighbor : group) {
+                    if (upperNeighbor != lowerNeighbor) {
+                        Neighbor neighbor = new Neighbor(upperNeighbor, lowerNeighbor);
+                        if (isMergeable(neighbor, leftSubmission, rightSubmission, leftGaps, rightGaps)) {
+                            return neighbor;
+                        }
+                    }
+                }
+            }
         }
-        int startLeft = upperNeighbor.startOfFirst();
-        int startRight = upperNeighbor.startOfSecond();
-        int lengthUpper = upperNeighbor.length();
+        return null;
+    }
 
-        List<Token> tokenLeft = new ArrayList<>(leftSubmission.getTokenList());
-        List<Token> tokenRight = new ArrayList<>(rightSubmission.getTokenList());
-        tokenLeft = tokenLeft.subList(startLeft + lengthUpper, startLeft + lengthUpper + tokensBetweenLeft);
-        tokenRight = tokenRight.subList(startRight + lengthUpper, startRight + lengthUpper + tokensBetweenRight);
+    private boolean isMergeable(Neighbor neighbor, Submission leftSubmission, Submission rightSubmission, TokenGaps leftGaps, TokenGaps rightGaps) {
+        int tokensBetweenLeft = tokensBetweenLeft(neighbor, leftGaps);
+        int tokensBetweenRight = tokensBetweenRight(neighbor, rightGaps);
+        if (tokensBetweenLeft < 0 || tokensBetweenRight < 0) {
+            return false; // overlapping matches cannot be merged
+        }
+        double averageTokensBetweenMatches = (tokensBetweenLeft + tokensBetweenRight) / 2.0;
+        // Checking length is not necessary as GST already checked length while computing matches
+        return averageTokensBetweenMatches <= options.mergingOptions().maximumGapSize()
+                && !mergeOverlapsFiles(leftSubmission, rightSubmission, neighbor.upperMatch(), tokensBetweenLeft, tokensBetweenRight, leftGaps,
+                        rightGaps);
+    }
 
-        return containsFileEndToken(tokenLeft) || containsFileEndToken(tokenRight);
+    private static int tokensBetweenLeft(Neighbor neighbor, TokenGaps leftGaps) {
+        Match upperNeighbor = neighbor.upperMatch();
+        return leftGaps.toCurrent(neighbor.lowerMatch().startOfFirst()) - leftGaps.toCurrent(upperNeighbor.startOfFirst())
+                - upperNeighbor.length();
     }
 
-    /**
-     * This function checks whether a list of token contains FILE_END
-     * @param token is the list of token
-     * @return true if FILE_END is in token
-     */
-    private boolean containsFileEndToken(List<Token> token) {
-        return token.stream().map(Token::getType).anyMatch(it -> it.equals(SharedTokenType.FILE_END));
+    private static int tokensBetweenRight(Neighbor neighbor, TokenGaps rightGaps) {
+        Match upperNeighbor = neighbor.upperMatch();
+        return rightGaps.toCurrent(neighbor.lowerMatch().startOfSecond()) - rightGaps.toCurrent(upperNeighbor.startOfSecond())
+                - upperNeighbor.length();
     }
 
     /**
-     * This function removes token from both submissions after a merge has been performed. Additionally it moves the
-     * starting positions from matches, that occur after the merged neighboring matches, by the amount of removed token.
-     * @param globalMatches
+     * This function checks if a merge would go over file boundaries.
      * @param leftSubmission is the left submission
      * @param rightSubmission is the right submission
      * @param upperNeighbor is the upper neighboring match
@@ -176,29 +207,37 @@ public class MatchMerging {
      * removed
      * @param tokensBetweenRight amount token that separate the neighboring matches in the send submission and need to be
      * removed
-     * @return shiftedMatches with the mentioned changes.
+     * @param leftGaps are the tokens already removed from the left submission
+     * @param rightGaps are the tokens already removed from the right submission
+     * @return true if the merge goes over file boundaries.
      */
-    private List<Match> removeToken(List<Match> globalMatches, Submission leftSubmission, Submission rightSubmission, Match upperNeighbor,
-            int tokensBetweenLeft, int tokensBetweenRight) {
-        int startLeft = upperNeighbor.startOfFirst();
-        int startRight = upperNeighbor.startOfSecond();
+    private boolean mergeOverlapsFiles(Submission leftSubmission, Submission rightSubmission, Match upperNeighbor, int tokensBetweenLeft,
+            int tokensBetweenRight, TokenGaps leftGaps, TokenGaps rightGaps) {
+        if (leftSubmission.getFiles().size() == 1 && rightSubmission.getFiles().size() == 1) {
+            return false;
+        }
+        int startLeft = leftGaps.toCurrent(upperNeighbor.startOfFirst());
+        int startRight = rightGaps.toCurrent(upperNeighbor.startOfSecond());
         int lengthUpper = upperNeighbor.length();
 
-        List<Token> tokenLeft = new ArrayList<>(leftSubmission.getTokenList());
-        List<Token> tokenRight = new ArrayList<>(rightSubmission.getTokenList());
-        tokenLeft.subList(startLeft + lengthUpper, startLeft + lengthUpper + tokensBetweenLeft).clear();
-        tokenRight.subList(startRight + lengthUpper, startRight + lengthUpper + tokensBetweenRight).clear();
-        leftSubmission.setTokenList(tokenLeft);
-        rightSubmission.setTokenList(tokenRight);
+        return containsFileEndToken(leftSubmission.getTokenSequence(), leftGaps, startLeft + lengthUpper, tokensBetweenLeft)
+                || containsFileEndToken(rightSubmission.getTokenSequence(), rightGaps, startRight + lengthUpper, tokensBetweenRight);
+    }
 
-        List<Match> shiftedMatches = new ArrayList<>();
-        for (Match match : globalMatches) {
-            int leftShift = match.startOfFirst() > startLeft ? tokensBetweenLeft : 0;
-            int rightShift = match.startOfSecond() > startRight ? tokensBetweenRight : 0;
-            Match alteredMatch = new Match(match.startOfFirst() - leftShift, match.startOfSecond() - rightShift, match.length());
-            shiftedMatches.add(alteredMatch);
+    /**
+     * This function checks whether a range of the shortened token sequence contains FILE_END
+     * @param tokens is the original token sequence
+     * @param gaps are the tokens already removed from the sequence
+     * @param fromIndex is the start of the range in the shortened sequence (inclusive)
+     * @param count is the length of the range
+     * @return true if FILE_END is in the range
+     */
+    private boolean containsFileEndToken(TokenSequence tokens, TokenGaps gaps, int fromIndex, int count) {
+        for (int i = fromIndex; i < fromIndex + count; i++) {
+            if (tokens.getType(gaps.toOriginal(i)).equals(SharedTokenType.FILE_END)) {
+                return true;
+            }
         }
-
-        return shiftedMatches;
+        return false;
     }
-}
\ No newline at end of file
+}
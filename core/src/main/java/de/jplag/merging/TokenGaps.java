@@ -0,0 +1,94 @@
+package de.jplag.merging;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import de.jplag.Submission;
+
+/**
+ * Tracks the tokens that match merging removed from one submission of a comparison. Instead of copying the token
+ * sequence for every merge, the removed positions are kept as a sorted index of original positions. Positions in the
+ * shortened sequence are translated on demand and the shortened sequence is materialized at most once.
+ */
+final class TokenGaps {
+    private static final int[] NO_POSITIONS = new int[0];
+
+    private int[] removed = NO_POSITIONS; // sorted original positions
+    private int size;
+
+    /**
+     * @return true if no token was removed.
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Translates an original position into the corresponding position of the shortened sequence.
+     * @param originalIndex is a retained position in the original sequence.
+     * @return the position in the shortened sequence.
+     */
+    int toCurrent(int originalIndex) {
+        return originalIndex - countBelow(originalIndex);
+    }
+
+    /**
+     * Translates a position of the shortened sequence into the corresponding position of the original sequence.
+     * @param currentIndex is the position in the shortened sequence.
+     * @return the retained position in the original sequence.
+     */
+    int toOriginal(int currentIndex) {
+        int originalIndex = currentIndex;
+        while (true) {
+            int candidate = currentIndex + countBelow(originalIndex + 1);
+            if (candidate == originalIndex) {
+                return originalIndex;
+            }
+            originalIndex = candidate;
+        }
+    }
+
+    /**
+     * Removes a range of the shortened sequence.
+     * @param currentFrom is the first removed position in the shortened sequence.
+     * @param count is the number of removed tokens.
+     */
+    void remove(int currentFrom, int count) {
+        for (int i = 0; i < count; i++) {
+            insert(toOriginal(currentFrom));
+        }
+    }
+
+    /**
+     * Applies the removed tokens to a submission.
+     * @param submission is the submission whose token sequence is shortened.
+     * @return the submission itself if no token was removed, otherwise a copy with the shortened token sequence.
+     */
+    Submission applyTo(Submission submission) {
+        if (isEmpty()) {
+            return submission;
+        }
+        BitSet removedIndexes = new BitSet();
+        for (int i = 0; i < size; i++) {
+            removedIndexes.set(removed[i]);
+        }
+        Submission copy = submission.copy();
+        copy.setTokenSequence(submission.getTokenSequence().withoutTokens(removedIndexes));
+        return copy;
+    }
+
+    private int countBelow(int originalIndex) {
+        int position = Arrays.binarySearch(removed, 0, size, originalIndex);
+        return position >= 0 ? position : -position - 1;
+    }
+
+    private void insert(int originalIndex) {
+        if (size == removed.length) {
+            removed = Arrays.copyOf(removed, Math.max(8, size * 2));
+        }
+        int position = countBelow(originalIndex);
+        System.arraycopy(removed, position, removed, position + 1, size - position);
+        removed[position] = originalIndex;
+        size++;
+    }
+}
@@ -0,0 +1,52 @@
+package de.jplag.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of non-negative values in buckets of powers of two. Recording a value is lock-free and does not allocate.
+ * Percentiles are approximated by the upper bound of their bucket.
+ */
+final class Histogram {
+    private static final int BUCKETS = Long.SIZE + 1; // bucket i holds values below 2^i
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator maximum = new LongAccumulator(Math::max, 0);
+
+    void record(long value) {
+        long nonNegativeValue = Math.max(0, value);
+        counts.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(nonNegativeValue));
+        sum.add(nonNegativeValue);
+        maximum.accumulate(nonNegativeValue);
+    }
+
+    MetricsSummary.HistogramSummary summarize() {
+        long[] bucketCounts = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            bucketCounts[i] = counts.get(i);
+            count += bucketCounts[i];
+        }
+        long max = maximum.get();
+        double mean = count == 0 ? 0 : sum.sum() / (double) count;
+        return new MetricsSummary.HistogramSummary(count, mean, percentile(bucketCounts, count, 0.5, max),
+                percentile(bucketCounts, count, 0.9, max), percentile(bucketCounts, count, 0.99, max), max);
+    }
+
+    /**
+     * @return the upper bound of the bucket that contains the given percentile, at most the maximum.
+     */
+    private static long percentile(long[] bucketCounts, long count, double percentile, long max) {
+        long rank = (long) Math.ceil(count * percentile);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += bucketCounts[i];
+            if (seen >= rank && seen > 0) {
+                return i == 0 ? 0 : Math.min(max, i == Long.SIZE ? Long.MAX_VALUE : (1L << i) - 1);
+            }
+        }
+        return max;
+    }
+}
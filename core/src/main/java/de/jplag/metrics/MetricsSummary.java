@@ -0,0 +1,42 @@
+package de.jplag.metrics;
+
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Summary of the {@link RunMetrics} of a run, which is written as JSON next to the report.
+ * @param stages are the timers of the executed stages by their identifier, see {@link Stage#getIdentifier()}.
+ * @param counters are the counters by their name.
+ * @param histograms are the histograms by their name.
+ * @param peakHeapBytes is the highest heap usage observed during the run.
+ */
+public record MetricsSummary(@JsonProperty("stages") Map<String, StageSummary> stages, @JsonProperty("counters") Map<String, Long> counters,
+        @JsonProperty("histograms") Map<String, HistogramSummary> histograms, @JsonProperty("peak_heap_bytes") long peakHeapBytes) {
+
+    /**
+     * Timer of a stage.
+     * @param count is the number of executions, e.g. the number of tiled pairs.
+     * @param items is the total number of processed items, e.g. tokens.
+     * @param totalMillis is the total duration of all executions. Concurrent executions are summed up, thus it can exceed
+     * the wall-clock time.
+     * @param maximumMillis is the duration of the longest execution.
+     */
+    public record StageSummary(@JsonProperty("count") long count, @JsonProperty("items") long items,
+            @JsonProperty("total_millis") double totalMillis, @JsonProperty("maximum_millis") double maximumMillis) {
+    }
+
+    /**
+     * Distribution of recorded values. The percentiles are approximated by powers of two.
+     * @param count is the number of recorded values.
+     * @param mean is the mean value.
+     * @param median is the approximate median.
+     * @param percentile90 is the approximate 90th percentile.
+     * @param percentile99 is the approximate 99th percentile.
+     * @param maximum is the maximum value.
+     */
+    public record HistogramSummary(@JsonProperty("count") long count, @JsonProperty("mean") double mean, @JsonProperty("median") long median,
+            @JsonProperty("percentile_90") long percentile90, @JsonProperty("percentile_99") long percentile99,
+            @JsonProperty("maximum") long maximum) {
+    }
+}
@@ -0,0 +1,215 @@
+package de.jplag.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import de.jplag.options.ExecutionOptions;
+
+import jdk.jfr.EventType;
+
+/**
+ * In-process registry of the metrics of a single JPlag run: a timer per pipeline {@link Stage}, named counters,
+ * histograms of the pair costs and the tokens per submission, and the peak heap usage sampled by the
+ * {@link de.jplag.progress.ProgressTracker} at the phase boundaries. Each stage execution additionally emits a
+ * {@link StageEvent} to the JDK Flight Recorder if a recording enables the event. If neither the metrics nor the event
+ * are enabled, no event is created and no clock is read, thus the instrumentation of the hot paths is free. Can be used
+ * by multiple threads concurrently.
+ */
+public final class RunMetrics {
+    /** Metrics that record nothing but the flight recorder events. */
+    public static final RunMetrics DISABLED = new RunMetrics(false);
+
+    /** Histogram of the tiling time of a pair in microseconds. */
+    public static final String PAIR_COST = "pair_cost_micros";
+    /** Histogram of the number of tokens per parsed submission. */
+    public static final String SUBMISSION_TOKENS = "tokens_per_submission";
+    /** Counter of the pairs that were skipped without tiling, as they provably cannot reach the similarity threshold. */
+    public static final String PRUNED_PAIRS = "pruned_pairs";
+    /** Counter of the pairs whose tiling was aborted, as they provably cannot reach the similarity threshold. */
+    public static final String ABORTED_PAIRS = "aborted_pairs";
+    /** Counter of the pairs that were skipped without tiling, as they do not share a single window. */
+    public static final String FILTERED_PAIRS = "filtered_pairs";
+
+    private static final EventType STAGE_EVENT_TYPE = EventType.getEventType(StageEvent.class);
+
+    private final boolean enabled;
+    private final Map<Stage, Timer> timers = new EnumMap<>(Stage.class); // never modified after construction
+    private final ConcurrentMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Histogram pairCost = new Histogram();
+    private final Histogram submissionTokens = new Histogram();
+    private final LongAccumulator peakHeapBytes = new LongAccumulator(Math::max, 0);
+
+    private RunMetrics(boolean enabled) {
+        this.enabled = enabled;
+        for (Stage stage : Stage.values()) {
+            timers.put(stage, new Timer());
+        }
+    }
+
+    /**
+     * Creates the metrics of a run.
+     * @param options determine whether the metrics are collected, see {@link ExecutionOptions#collectMetrics()}.
+     * @return new metrics, or {@link #DISABLED} if they are not collected.
+     */
+    public static RunMetrics of(ExecutionOptions options) {
+        return options.collectMetrics() ? new RunMetrics(true) : DISABLED;
+    }
+
+    /**
+     * @return whether the metrics are collected.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts an execution of a stage.
+     * @param stage is the stage.
+     * @return the event of the execution, which must be passed to {@link #finishStage} or {@link #finishPairStage}. Null if
+     * neither the metrics nor the flight recorder event are enabled, which the finishing methods ignore.
+     */
+    public StageEvent startStage(Stage stage) {
+        if (!enabled && !STAGE_EVENT_TYPE.isEnabled()) {
+            return null;
+        }
+        StageEvent event = new StageEvent(stage);
+        event.begin();
+        if (enabled) {
+            event.startNanos = System.nanoTime();
+        }
+        return event;
+    }
+
+    /**
+     * Finishes an execution of a stage.
+     * @param event is the event returned by {@link #startStage}, may be null.
+     * @param detail describes the subject of the execution for the flight recorder, e.g. the language.
+     * @param items is the number of processed items, e.g. tokens.
+     */
+    public void finishStage(StageEvent event, String detail, long items) {
+        if (finish(event, items)) {
+            event.detail = detail;
+            event.commit();
+        }
+    }
+
+    /**
+     * Finishes an execution of a stage that processed a pair of submissions. The detail of the flight recorder event is
+     * only built if the event is recorded.
+     * @param event is the event returned by {@link #startStage}, may be null.
+     * @param firstName is the name of the first submission.
+     * @param secondName is the name of the second submission.
+     * @param items is the number of processed items, e.g. tokens.
+     */
+    public void finishPairStage(StageEvent event, String firstName, String secondName, long items) {
+        if (finish(event, items)) {
+            event.detail = firstName + "-" + secondName;
+            event.commit();
+        }
+    }
+
+    /**
+     * Records the execution of a stage.
+     * @return whether the event must be committed.
+     */
+    private boolean finish(StageEvent event, long items) {
+        if (event == null) {
+            return false;
+        }
+        event.end();
+        Stage stage = event.measuredStage;
+        if (enabled) {
+            long durationNanos = System.nanoTime() - event.startNanos;
+            timers.get(stage).record(durationNanos, items);
+            if (stage == Stage.TILING) {
+                pairCost.record(TimeUnit.NANOSECONDS.toMicros(durationNanos));
+            }
+        }
+        if (!event.shouldCommit()) {
+            return false;
+        }
+        event.stage = stage.getIdentifier();
+        event.items = items;
+        return true;
+    }
+
+    /**
+     * Increments a counter.
+     * @param counter is the name of the counter.
+     */
+    public void increment(String counter) {
+        if (enabled) {
+            counters.computeIfAbsent(counter, it -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * Records a sample of the heap usage. Called at the phase boundaries and progress reports instead of per stage
+     * execution, as reading the heap usage is too costly for every tiled pair.
+     * @param usedHeapBytes is the currently used heap.
+     */
+    public void recordHeapUsage(long usedHeapBytes) {
+        if (enabled) {
+            peakHeapBytes.accumulate(usedHeapBytes);
+        }
+    }
+
+    /**
+     * Records the number of tokens of a parsed submission.
+     * @param tokens is the number of tokens.
+     */
+    public void recordSubmissionTokens(int tokens) {
+        if (enabled) {
+            submissionTokens.record(tokens);
+        }
+    }
+
+    /**
+     * @return the summary of the metrics recorded so far. Only contains the stages that were executed.
+     */
+    public MetricsSummary summarize() {
+        Map<String, MetricsSummary.StageSummary> stages = new TreeMap<>();
+        timers.forEach((stage, timer) -> {
+            if (timer.count.sum() > 0) {
+                stages.put(stage.getIdentifier(), timer.summarize());
+            }
+        });
+        Map<String, Long> counterValues = new TreeMap<>();
+        counters.forEach((name, counter) -> counterValues.put(name, counter.sum()));
+        Map<String, MetricsSummary.HistogramSummary> histograms = new TreeMap<>();
+        histograms.put(PAIR_COST, pairCost.summarize());
+        histograms.put(SUBMISSION_TOKENS, submissionTokens.summarize());
+        return new MetricsSummary(stages, counterValues, histograms, peakHeapBytes.get());
+    }
+
+    /**
+     * Timer of the executions of a stage.
+     */
+    private static final class Timer {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder items = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maximumNanos = new LongAccumulator(Math::max, 0);
+
+        void record(long durationNanos, long processedItems) {
+            count.increment();
+            items.add(processedItems);
+            totalNanos.add(durationNanos);
+            maximumNanos.accumulate(durationNanos);
+        }
+
+        MetricsSummary.StageSummary summarize() {
+            return new MetricsSummary.StageSummary(count.sum(), items.sum(), toMillis(totalNanos.sum()), toMillis(maximumNanos.get()));
+        }
+
+        private static double toMillis(long nanos) {
+            return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package de.jplag.metrics;
+
+/**
+ * Stages of the pipeline of a JPlag run that are measured by {@link RunMetrics}. Unlike the phases of the progress, see
+ * {@link de.jplag.progress.Phase}, stages are fine-grained and are measured per item, e.g. per parsed submission or per
+ * tiled pair.
+ */
+public enum Stage {
+    /** Finding the submissions in the root directories, once per run. */
+    DISCOVERY("discovery"),
+    /** Parsing a submission with its language. */
+    PARSING("parsing"),
+    /** Normalizing the token string of a submission. */
+    NORMALIZATION("normalization"),
+    /** Marking the base code in a submission. */
+    BASE_CODE_MARKING("base_code_marking"),
+    /** Building the hash tables of the submissions and the index of their shared windows. */
+    HASHING("hashing"),
+    /** Tiling a pair of submissions. */
+    TILING("tiling"),
+    /** Merging the matches of the comparisons. */
+    MERGING("merging"),
+    /** Clustering the submissions. */
+    CLUSTERING("clustering"),
+    /** Writing the report. */
+    REPORTING("reporting");
+
+    private final String identifier;
+
+    Stage(String identifier) {
+        this.identifier = identifier;
+    }
+
+    /**
+     * @return the identifier of the stage in the metrics summary and the flight recorder events.
+     */
+    public String getIdentifier() {
+        return identifier;
+    }
+}
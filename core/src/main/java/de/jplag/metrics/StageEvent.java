@@ -0,0 +1,39 @@
+package de.jplag.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JDK Flight Recorder event of a single execution of a pipeline {@link Stage}. Only short executions, e.g. of quickly
+ * tiled pairs, are below the default threshold. Created by {@link RunMetrics#startStage(Stage)}.
+ */
+@Name("de.jplag.Stage")
+@Label("JPlag Stage")
+@Category("JPlag")
+@Description("Execution of a stage of the JPlag pipeline")
+@StackTrace(false)
+@Threshold("1 ms")
+public final class StageEvent extends Event {
+    @Label("Stage")
+    String stage;
+
+    @Label("Detail")
+    @Description("Subject of the stage, e.g. the language or the submission")
+    String detail;
+
+    @Label("Items")
+    @Description("Number of processed items, e.g. tokens or submissions")
+    long items;
+
+    transient Stage measuredStage;
+    transient long startNanos; // zero unless the metrics are collected
+
+    StageEvent(Stage stage) {
+        this.measuredStage = stage;
+    }
+}
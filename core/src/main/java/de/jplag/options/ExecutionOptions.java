@@ -0,0 +1,286 @@
+package de.jplag.options;
+
+import java.io.File;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Collection of parameters that describe how a run is executed. Most of these parameters only affect performance. The
+ * following ones also change what {@link de.jplag.JPlagResult#getAllComparisons()} returns: With
+ * {@code boundedResultCollection}, only the shown comparisons are retained. With {@code candidatePairFiltering}, the
+ * comparisons of pairs without matches are only created on demand. With {@code corpusIndex}, all indexed submissions
+ * are compared, even if they are not part of the old submission directories. With {@code comparisonStore}, the
+ * comparisons of unchanged pairs are restored from the store instead of being tiled again.
+ * @param comparisonBlockSize is the edge length of the tiles in which the matrix of submission pairs is compared. Each
+ * worker processes one tile at a time and thus only works on a small set of submissions, which improves cache locality.
+ * A block size of one yields the plain row-major order (Defaults to 32).
+ * @param boundedResultCollection determines whether only the top comparisons that are shown in the report are retained
+ * (see {@link JPlagOptions#maximumNumberOfComparisons()}). The similarity distributions and the similarities required
+ * for clustering are still computed over all comparisons, thus the report stays the same while the memory usage no
+ * longer grows with the number of comparisons. Has no effect if all comparisons are shown (Defaults to false).
+ * @param bitsetTilingKernel determines whether the greedy string tiling keeps the token markings in bitsets and
+ * compares token values word-wise instead of token by token (Defaults to false).
+ * @param parserThreads is the number of threads that parse submissions concurrently. Values below one use the number of
+ * available processors. Languages that do not provide independent parsers, see
+ * {@link de.jplag.Language#createParser()}, are always parsed by a single thread (Defaults to zero).
+ * @param tokenCacheDirectory is the directory of the persistent token cache, which stores the tokens of parsed
+ * submissions to skip parsing unchanged submissions in later runs. If null, no cache is used (Defaults to null).
+ * @param tokenCacheSize is the maximum size of the token cache in megabytes. The least recently used entries are
+ * evicted after parsing (Defaults to 1024).
+ * @param candidatePairFiltering determines whether pairs of submissions that do not share a single window of the
+ * minimum match length are skipped instead of being tiled, as they cannot have matches (Defaults to true).
+ * @param thresholdPruning determines whether pairs of submissions that provably cannot reach the similarity threshold
+ * are skipped or aborted early instead of being tiled completely. Uses upper bounds of the number of matched tokens,
+ * thus the retained comparisons stay the same (Defaults to true).
+ * @param corpusIndex is the file of a persistent index of old submissions, see {@link de.jplag.corpus.CorpusIndex}. The
+ * old submissions of the index are compared without parsing them again, and all of them are part of the result, even if
+ * they are not in the old submission directories. If the similarity threshold is above zero, only the indexed
+ * submissions that share code with a new submission are loaded, the others cannot have matches. Old submissions from
+ * the old submission directories are added to the index, which creates the index if it does not exist. If null, no
+ * index is used (Defaults to null).
+ * @param corpusAppend determines whether the new submissions are added to the corpus index as well, e.g. to add a
+ * finished cohort to the index for later runs (Defaults to false).
+ * @param comparisonStore is the file of a persistent store of the pairwise comparisons, see
+ * {@link de.jplag.strategy.IncrementalComparisonStrategy}. Pairs of submissions whose tokens did not change since the
+ * previous run are not tiled again, but their stored matches are reused. The store is replaced by the comparisons of
+ * the current run. If null, all pairs are compared (Defaults to null).
+ * @param pipelinedExecution determines whether the submissions are compared while parsing, see
+ * {@link de.jplag.strategy.PipelinedComparisonStrategy}. Each submission is compared with the previously parsed
+ * submissions as soon as it is parsed, thus parsing and comparing overlap. Pairs are not filtered by shared windows and
+ * no comparison store is used, as these require all submissions to be parsed (Defaults to false).
+ * @param threads is the parallelism of the dedicated thread pool that runs parsing, comparing, merging, and report
+ * writing, see {@link de.jplag.JPlagExecutor}. Values below one use the number of available processors. The pool is
+ * used when no executor is passed to {@link de.jplag.JPlag#run(JPlagOptions, de.jplag.JPlagExecutor)} (Defaults to
+ * zero).
+ * @param costBasedScheduling determines whether the pairs of submissions are compared in descending order of their
+ * estimated cost, which is derived from the token counts and the shared windows of both submissions. Expensive pairs
+ * thus start first instead of finishing long after all others. Additionally, the tiling of a single large pair is split
+ * across idle worker threads (Defaults to true).
+ * @param collectMetrics determines whether the duration of each pipeline stage, e.g. parsing, tiling, or report
+ * writing, and the distributions of the pair costs and the tokens per submission are recorded, see
+ * {@link de.jplag.metrics.RunMetrics}. A summary of these metrics is written next to the report. The stages
+ * additionally emit JDK Flight Recorder events, independent of this option (Defaults to false).
+ */
+public record ExecutionOptions(@JsonProperty("comparison_block_size") int comparisonBlockSize,
+        @JsonProperty("bounded_result_collection") boolean boundedResultCollection,
+        @JsonProperty("bitset_tiling_kernel") boolean bitsetTilingKernel, @JsonProperty("parser_threads") int parserThreads,
+        @JsonProperty("token_cache_directory") File tokenCacheDirectory, @JsonProperty("token_cache_size") int tokenCacheSize,
+        @JsonProperty("candidate_pair_filtering") boolean candidatePairFiltering, @JsonProperty("threshold_pruning") boolean thresholdPruning,
+        @JsonProperty("corpus_index") File corpusIndex, @JsonProperty("corpus_append") boolean corpusAppend,
+        @JsonProperty("comparison_store") File comparisonStore, @JsonProperty("pipelined_execution") boolean pipelinedExecution,
+        @JsonProperty("threads") int threads, @JsonProperty("cost_based_scheduling") boolean costBasedScheduling,
+        @JsonProperty("collect_metrics") boolean collectMetrics) {
+
+    public static final int DEFAULT_COMPARISON_BLOCK_SIZE = 32;
+    public static final int DEFAULT_PARSER_THREADS = 0;
+    public static final int DEFAULT_TOKEN_CACHE_SIZE = 1024;
+    public static final int DEFAULT_THREADS = 0;
+
+    public ExecutionOptions(int comparisonBlockSize, boolean boundedResultCollection, boolean bitsetTilingKernel, int parserThreads,
+            File tokenCacheDirectory, int tokenCacheSize, boolean candidatePairFiltering, boolean thresholdPruning, File corpusIndex,
+            boolean corpusAppend, File comparisonStore, boolean pipelinedExecution, int threads, boolean costBasedScheduling,
+            boolean collectMetrics) {
+        this.comparisonBlockSize = Math.max(1, comparisonBlockSize);
+        this.boundedResultCollection = boundedResultCollection;
+        this.bitsetTilingKernel = bitsetTilingKernel;
+        this.parserThreads = Math.max(0, parserThreads);
+        this.tokenCacheDirectory = tokenCacheDirectory;
+        this.tokenCacheSize = Math.max(0, tokenCacheSize);
+        this.candidatePairFiltering = candidatePairFiltering;
+        this.thresholdPruning = thresholdPruning;
+        this.corpusIndex = corpusIndex;
+        this.corpusAppend = corpusAppend;
+        this.comparisonStore = comparisonStore;
+        this.pipelinedExecution = pipelinedExecution;
+        this.threads = Math.max(0, threads);
+        this.costBasedScheduling = costBasedScheduling;
+        this.collectMetrics = collectMetrics;
+    }
+
+    /**
+     * Creates execution options with the default values.
+     */
+    public ExecutionOptions() {
+        this(DEFAULT_COMPARISON_BLOCK_SIZE, false, false, DEFAULT_PARSER_THREADS, null, DEFAULT_TOKEN_CACHE_SIZE, true, true, null, false, null,
+                false, DEFAULT_THREADS, true, false);
+    }
+
+    /**
+     * Builder pattern method for setting comparisonBlockSize
+     * @param comparisonBlockSize containing the new value
+     * @return ExecutionOptions with specified comparisonBlockSize
+     */
+    public ExecutionOptions withComparisonBlockSize(int comparisonBlockSize) {
+        return new ExecutionOptions(comparisonBlockSize, boundedResultCollection, bitsetTilingKernel, parserThreads, tokenCacheDirectory,
+                tokenCacheSize, candidatePairFiltering, thresholdPruning, corpusIndex, corpusAppend, comparisonStore, pipelinedExecution, threads,
+                costBasedScheduling, collectMetrics);
+    }
+
+    /**
+     * Builder pattern method for setting boundedResultCollection
+     * @param boundedResultCollection containing the new value
+     * @return ExecutionOptions with specified boundedResultCollection
+     */
+    public ExecutionOptions withBoundedResultCollection(boolean boundedResultCollection) {
+        return new ExecutionOptions(comparisonBlockSize, boundedResultCollection, bitsetTilingKernel, parserThreads, tokenCacheDirectory,
+                tokenCacheSize, candidatePairFiltering, thresholdPruning, corpusIndex, corpusAppend, comparisonStore, pipelinedExecution, threads,
+                costBasedScheduling, collectMetrics);
+    }
+
+    /**
+     * Builder pattern method for setting bitsetTilingKernel
+     * @param bitsetTilingKernel containing the new value
+     * @return ExecutionOptions with specified bitsetTilingKernel
+     */
+    public ExecutionOptions withBitsetTilingKernel(boolean bitsetTilingKernel) {
+        return new ExecutionOptions(comparisonBlockSize, boundedResultCollection, bitsetTilingKernel, parserThreads, tokenCacheDirectory,
+                tokenCacheSize, candidatePairFiltering, thresholdPruning, corpusIndex, corpusAppend, comparisonStore, pipelinedExecution, threads,
+                costBasedScheduling, collectMetrics);
+    }
+
+    /**
+     * Builder pattern method for setting parserThreads
+     * @param parserThreads containing the new value
+     * @return ExecutionOptions with specified parserThreads
+     */
+    public ExecutionOptions withParserThreads(int parserThreads) {
+        return new ExecutionOptions(comparisonBlockSize, boundedResultCollection, bitsetTilingKernel, parserThreads, tokenCacheDirectory,
+                tokenCacheSize, candidatePairFiltering, thresholdPruning, corpusIndex, corpusAppend, comparisonStore, pipelinedExecution, threads,
+                costBasedScheduling, collectMetrics);
+    }
+
+    /**
+     * Builder pattern method for setting tokenCacheDirectory
+     * @param tokenCacheDirectory containing the new value
+     * @return ExecutionOptions with specified tokenCacheDirectory
+     */
+    public ExecutionOptions withTokenCacheDirectory(File tokenCacheDirectory) {
+        return new ExecutionOptions(comparisonBlockSize, boundedResultCollection, bitsetTilingKernel, parserThreads, tokenCacheDirectory,
+                tokenCacheSize, candidatePairFiltering, thresholdPruning, corpusIndex, corpusAppend, comparisonStore, pipelinedExecution, threads,
+                costBasedScheduling, collectMetrics);
+    }
+
+    /**
+     * Builder pattern method for setting tokenCacheSize
+     * @param tokenCacheSize containing the new value
+     * @return ExecutionOptions with specified tokenCacheSize
+     */
+    public ExecutionOptions withTokenCacheSize(int tokenCacheSize) {
+        return new ExecutionOptions(comparisonBlockSize, boundedResultCollection, bitsetTilingKernel, parserThreads, tokenCacheDirectory,
+                tokenCacheSize, candidatePairFiltering, thresholdPruning, corpusIndex, corpusAppend, comparisonStore, pipelinedExecution, threads,
+                costBasedScheduling, collectMetrics);
+    }
+
+    /**
+     * Builder pattern method for setting candidatePairFiltering
+     * @param candidatePairFiltering containing the new value
+     * @return ExecutionOptions with specified candidatePairFiltering
+     */
+    public ExecutionOptions withCandidatePairFiltering(boolean candidatePairFiltering) {
+        return new ExecutionOptions(comparisonBlockSize, boundedResultCollection, bitsetTilingKernel, parserThreads, tokenCacheDirectory,
+                tokenCacheSize, candidatePairFiltering, thresholdPruning, corpusIndex, corpusAppend, comparisonStore, pipelinedExecution, threads,
+                costBasedScheduling, collectMetrics);
+    }
+
+    /**
+     * Builder pattern method for setting thresholdPruning
+     * @param thresholdPruning containing the new value
+     * @return ExecutionOptions with specified thresholdPruning
+     */
+    public ExecutionOptions withThresholdPruning(boolean thresholdPruning) {
+        return new ExecutionOptions(comparisonBlockSize, boundedResultCollection, bitsetTilingKernel, parserThreads, tokenCacheDirectory,
+                tokenCacheSize, candidatePairFiltering, thresholdPruning, corpusIndex, corpusAppend, comparisonStore, pipelinedExecution, threads,
+                costBasedScheduling, collectMetrics);
+    }
+
+    /**
+     * Builder pattern method for setting corpusIndex
+     * @param corpusIndex containing the new value
+     * @return ExecutionOptions with specified corpusIndex
+     */
+    public ExecutionOptions withCorpusIndex(File corpusIndex) {
+        return new ExecutionOptions(comparisonBlockSize, boundedResultCollection, bitsetTilingKernel, parserThreads, tokenCacheDirectory,
+                tokenCacheSize, candidatePairFiltering, thresholdPruning, corpusIndex, corpusAppend, comparisonStore, pipelinedExecution, threads,
+                costBasedScheduling, collectMetrics);
+    }
+
+    /**
+     * Builder pattern method for setting corpusAppend
+     * @param corpusAppend containing the new value
+     * @return ExecutionOptions with specified corpusAppend
+     */
+    public ExecutionOptions withCorpusAppend(boolean corpusAppend) {
+        return new ExecutionOptions(comparisonBlockSize, boundedResultCollection, bitsetTilingKernel, parserThreads, tokenCacheDirectory,
+                tokenCacheSize, candidatePairFiltering, thresholdPruning, corpusIndex, corpusAppend, comparisonStore, pipelinedExecution, threads,
+                costBasedScheduling, collectMetrics);
+    }
+
+    /**
+     * Builder pattern method for setting comparisonStore
+     * @param comparisonStore containing the new value
+     * @return ExecutionOptions with specified comparisonStore
+     */
+    public ExecutionOptions withComparisonStore(File comparisonStore) {
+        return new ExecutionOptions(comparisonBlockSize, boundedResultCollection, bitsetTilingKernel, parserThreads, tokenCacheDirectory,
+                tokenCacheSize, candidatePairFiltering, thresholdPruning, corpusIndex, corpusAppend, comparisonStore, pipelinedExecution, threads,
+                costBasedScheduling, collectMetrics);
+    }
+
+    /**
+     * Builder pattern method for setting pipelinedExecution
+     * @param pipelinedExecution containing the new value
+     * @return ExecutionOptions with specified pipelinedExecution
+     */
+    public ExecutionOptions withPipelinedExecution(boolean pipelinedExecution) {
+        return new ExecutionOptions(comparisonBlockSize, boundedResultCollection, bitsetTilingKernel, parserThreads, tokenCacheDirectory,
+                tokenCacheSize, candidatePairFiltering, thresholdPruning, corpusIndex, corpusAppend, comparisonStore, pipelinedExecution, threads,
+                costBasedScheduling, collectMetrics);
+    }
+
+    /**
+     * Builder pattern method for setting threads
+     * @param threads containing the new value
+     * @return ExecutionOptions with specified threads
+     */
+    public ExecutionOptions withThreads(int threads) {
+        return new ExecutionOptions(comparisonBlockSize, boundedResultCollection, bitsetTilingKernel, parserThreads, tokenCacheDirectory,
+                tokenCacheSize, candidatePairFiltering, thresholdPruning, corpusIndex, corpusAppend, comparisonStore, pipelinedExecution, threads,
+                costBasedScheduling, collectMetrics);
+    }
+
+    /**
+     * Builder pattern method for setting costBasedScheduling
+     * @param costBasedScheduling containing the new value
+     * @return ExecutionOptions with specified costBasedScheduling
+     */
+    public ExecutionOptions withCostBasedScheduling(boolean costBasedScheduling) {
+        return new ExecutionOptions(comparisonBlockSize, boundedResultCollection, bitsetTilingKernel, parserThreads, tokenCacheDirectory,
+                tokenCacheSize, candidatePairFiltering, thresholdPruning, corpusIndex, corpusAppend, comparisonStore, pipelinedExecution, threads,
+                costBasedScheduling, collectMetrics);
+    }
+
+    /**
+     * Builder pattern method for setting collectMetrics
+     * @param collectMetrics containing the new value
+     * @return ExecutionOptions with specified collectMetrics
+     */
+    public ExecutionOptions withCollectMetrics(boolean collectMetrics) {
+        return new ExecutionOptions(comparisonBlockSize, boundedResultCollection, bitsetTilingKernel, parserThreads, tokenCacheDirectory,
+                tokenCacheSize, candidatePairFiltering, thresholdPruning, corpusIndex, corpusAppend, comparisonStore, pipelinedExecution, threads,
+                costBasedScheduling, collectMetrics);
+    }
+
+    /**
+     * @return the number of threads that parse submissions, resolving the number of available processors.
+     */
+    public int effectiveParserThreads() {
+        return parserThreads > 0 ? parserThreads : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * @return the parallelism of the thread pool of a run, resolving the number of available processors.
+     */
+    public int effectiveThreads() {
+        return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+}
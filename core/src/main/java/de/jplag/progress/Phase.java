@@ -0,0 +1,29 @@
+package de.jplag.progress;
+
+/**
+ * Phases of a JPlag run. Phases usually follow each other, but comparing overlaps with parsing if submissions are
+ * compared while parsing, see {@link de.jplag.options.ExecutionOptions#pipelinedExecution()}.
+ */
+public enum Phase {
+    /** Parsing the submissions, one step per submission. */
+    PARSING("Parsing submissions"),
+    /** Comparing the pairs of submissions, one step per pair. */
+    COMPARING("Comparing submission pairs"),
+    /** Merging neighboring matches, without steps. */
+    MERGING("Merging matches"),
+    /** Clustering the submissions by their similarity, without steps. */
+    CLUSTERING("Clustering submissions");
+
+    private final String description;
+
+    Phase(String description) {
+        this.description = description;
+    }
+
+    /**
+     * @return a human-readable description of the phase.
+     */
+    public String getDescription() {
+        return description;
+    }
+}
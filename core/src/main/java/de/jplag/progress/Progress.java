@@ -0,0 +1,24 @@
+package de.jplag.progress;
+
+/**
+ * Snapshot of the progress of a phase of a JPlag run.
+ * @param phase is the phase.
+ * @param completedSteps is the number of completed steps, e.g. parsed submissions or compared pairs.
+ * @param totalSteps is the total number of steps, or {@link ProgressTracker#UNKNOWN} if it is not known yet.
+ * @param elapsedMillis is the time since the phase started.
+ * @param stepsPerSecond is the recent rate of completed steps. Once the phase is finished, it is the average rate of
+ * the whole phase.
+ * @param estimatedRemainingMillis is the estimated time to completion based on the recent rate, or
+ * {@link ProgressTracker#UNKNOWN} if it cannot be estimated yet.
+ * @param peakHeapBytes is the highest heap usage observed during the run so far.
+ */
+public record Progress(Phase phase, long completedSteps, long totalSteps, long elapsedMillis, double stepsPerSecond,
+        long estimatedRemainingMillis, long peakHeapBytes) {
+
+    /**
+     * @return the number of remaining steps, or {@link ProgressTracker#UNKNOWN} if the total number is not known yet.
+     */
+    public long remainingSteps() {
+        return totalSteps == ProgressTracker.UNKNOWN ? ProgressTracker.UNKNOWN : Math.max(0, totalSteps - completedSteps);
+    }
+}
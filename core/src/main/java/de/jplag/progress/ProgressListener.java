@@ -0,0 +1,30 @@
+package de.jplag.progress;
+
+/**
+ * Listener that is notified about the progress of a JPlag run, e.g. to drive a dashboard. To abort a run, cancel the
+ * executor it runs on, see {@link de.jplag.JPlagExecutor#cancel()}. Notifications can be sent by multiple worker
+ * threads concurrently and should return quickly, as they delay the run.
+ */
+public interface ProgressListener {
+
+    /**
+     * Called once a phase starts.
+     * @param phase is the started phase.
+     */
+    default void phaseStarted(Phase phase) {
+    }
+
+    /**
+     * Called periodically while a phase with steps is running, at most about once per second and phase.
+     * @param progress is the current progress of the phase.
+     */
+    default void progressUpdated(Progress progress) {
+    }
+
+    /**
+     * Called once a phase is finished.
+     * @param progress is the final progress of the phase.
+     */
+    default void phaseFinished(Progress progress) {
+    }
+}
@@ -0,0 +1,194 @@
+package de.jplag.progress;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.jplag.TimeUtil;
+import de.jplag.metrics.RunMetrics;
+
+/**
+ * Tracks the progress of the phases of a single JPlag run and reports it to a {@link ProgressListener} and the log.
+ * Steps are counted without locking, and the progress is only reported by the thread that completes the first step
+ * after the report interval has passed, thus tracking each compared pair is cheap even for millions of pairs. The
+ * progress is logged at most every ten seconds per phase. Additionally holds the fine-grained metrics of the run, see
+ * {@link RunMetrics}. Can be used by multiple threads concurrently.
+ */
+public final class ProgressTracker {
+    /** Marks an unknown number of steps or an unknown remaining time. */
+    public static final long UNKNOWN = -1;
+
+    private static final Logger logger = LoggerFactory.getLogger(ProgressTracker.class);
+    private static final long REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final double RATE_SMOOTHING = 0.3; // weight of the latest interval in the rolling rate
+
+    private final ProgressListener listener; // null if there is none
+    private final RunMetrics metrics;
+    private final Map<Phase, PhaseProgress> phases = new EnumMap<>(Phase.class); // never modified after construction
+    private final AtomicLong peakHeapBytes = new AtomicLong();
+
+    /**
+     * Creates a tracker for a run.
+     * @param listener is notified about the progress, or null if the progress is only logged.
+     */
+    public ProgressTracker(ProgressListener listener) {
+        this(listener, RunMetrics.DISABLED);
+    }
+
+    /**
+     * Creates a tracker for a run.
+     * @param listener is notified about the progress, or null if the progress is only logged.
+     * @param metrics are the metrics of the run.
+     */
+    public ProgressTracker(ProgressListener listener, RunMetrics metrics) {
+        this.listener = listener;
+        this.metrics = metrics;
+        for (Phase phase : Phase.values()) {
+            phases.put(phase, new PhaseProgress(phase));
+        }
+    }
+
+    /**
+     * Starts a phase. Starting a phase that was already started only updates its total number of steps, e.g. once it
+     * becomes known.
+     * @param phase is the phase.
+     * @param totalSteps is the total number of steps, or {@link #UNKNOWN} if it is not known yet.
+     */
+    public void startPhase(Phase phase, long totalSteps) {
+        PhaseProgress progress = phases.get(phase);
+        progress.totalSteps = totalSteps;
+        if (progress.started.compareAndSet(false, true)) {
+            long now = System.nanoTime();
+            progress.startNanos = now;
+            progress.lastReportNanos.set(now);
+            progress.lastLogNanos = now;
+            sampleHeap();
+            logger.debug("{} started", phase.getDescription());
+            if (listener != null) {
+                listener.phaseStarted(phase);
+            }
+        }
+    }
+
+    /**
+     * Completes a step of a phase, e.g. a parsed submission or a compared pair. Steps are only reported once the phase is
+     * started.
+     * @param phase is the phase.
+     */
+    public void step(Phase phase) {
+        PhaseProgress progress = phases.get(phase);
+        progress.completedSteps.increment();
+        long now = System.nanoTime();
+        long lastReport = progress.lastReportNanos.get();
+        if (now - lastReport >= REPORT_INTERVAL_NANOS && progress.started.get() && progress.lastReportNanos.compareAndSet(lastReport, now)) {
+            report(progress, now, lastReport);
+        }
+    }
+
+    /**
+     * Finishes a phase. Phases that were not started are ignored.
+     * @param phase is the phase.
+     */
+    public void finishPhase(Phase phase) {
+        PhaseProgress progress = phases.get(phase);
+        if (!progress.started.get() || !progress.finished.compareAndSet(false, true)) {
+            return;
+        }
+        long elapsedNanos = System.nanoTime() - progress.startNanos;
+        long completedSteps = progress.completedSteps.sum();
+        double averageRate = elapsedNanos > 0 ? completedSteps * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos : 0;
+        long totalSteps = progress.totalSteps == UNKNOWN ? completedSteps : progress.totalSteps;
+        Progress finalProgress = new Progress(phase, completedSteps, totalSteps, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), averageRate, 0,
+                sampleHeap());
+        if (logger.isDebugEnabled()) {
+            logger.debug("{} finished after {}", phase.getDescription(), TimeUtil.formatDuration(finalProgress.elapsedMillis()));
+        }
+        if (listener != null) {
+            listener.phaseFinished(finalProgress);
+        }
+    }
+
+    /**
+     * @return the metrics of the run.
+     */
+    public RunMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * @return the highest heap usage observed so far.
+     */
+    public long peakHeapBytes() {
+        return peakHeapBytes.get();
+    }
+
+    /**
+     * Reports the progress of a phase. Only called by the thread that advanced the report time, thus the rolling rate is
+     * not updated concurrently.
+     */
+    private void report(PhaseProgress progress, long now, long lastReport) {
+        long completedSteps = progress.completedSteps.sum();
+        double intervalRate = (completedSteps - progress.lastReportSteps) * (double) TimeUnit.SECONDS.toNanos(1) / (now - lastReport);
+        progress.lastReportSteps = completedSteps;
+        progress.rate = progress.rate < 0 ? intervalRate : RATE_SMOOTHING * intervalRate + (1 - RATE_SMOOTHING) * progress.rate;
+
+        long totalSteps = progress.totalSteps;
+        long remainingMillis = UNKNOWN;
+        if (totalSteps != UNKNOWN && progress.rate > 0) {
+            remainingMillis = (long) (Math.max(0, totalSteps - completedSteps) / progress.rate * 1000);
+        }
+        Progress current = new Progress(progress.phase, completedSteps, totalSteps, TimeUnit.NANOSECONDS.toMillis(now - progress.startNanos),
+                progress.rate, remainingMillis, sampleHeap());
+        if (now - progress.lastLogNanos >= LOG_INTERVAL_NANOS) {
+            progress.lastLogNanos = now;
+            log(current);
+        }
+        if (listener != null) {
+            listener.progressUpdated(current);
+        }
+    }
+
+    private static void log(Progress progress) {
+        if (!logger.isInfoEnabled()) {
+            return;
+        }
+        String total = progress.totalSteps() == UNKNOWN ? "?" : Long.toString(progress.totalSteps());
+        String remaining = progress.estimatedRemainingMillis() == UNKNOWN ? "unknown" : TimeUtil.formatDuration(progress.estimatedRemainingMillis());
+        logger.info("{}: {} of {} done ({} per second, {} remaining)", progress.phase().getDescription(), progress.completedSteps(), total,
+                Math.round(progress.stepsPerSecond()), remaining);
+    }
+
+    private long sampleHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        long usedHeap = runtime.totalMemory() - runtime.freeMemory();
+        metrics.recordHeapUsage(usedHeap);
+        return peakHeapBytes.accumulateAndGet(usedHeap, Math::max);
+    }
+
+    /**
+     * Mutable progress of a phase.
+     */
+    private static final class PhaseProgress {
+        private final Phase phase;
+        private final AtomicBoolean started = new AtomicBoolean();
+        private final AtomicBoolean finished = new AtomicBoolean();
+        private final LongAdder completedSteps = new LongAdder();
+        private final AtomicLong lastReportNanos = new AtomicLong();
+        private volatile long totalSteps = UNKNOWN;
+        private volatile long startNanos;
+        private volatile long lastLogNanos; // only modified by the reporting thread
+        private volatile long lastReportSteps; // only modified by the reporting thread
+        private volatile double rate = -1; // only modified by the reporting thread, negative until the first report
+
+        PhaseProgress(Phase phase) {
+            this.phase = phase;
+        }
+    }
+}
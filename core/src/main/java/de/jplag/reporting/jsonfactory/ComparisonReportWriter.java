@@ -1,17 +1,16 @@
 package de.jplag.reporting.jsonfactory;
 
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
 import de.jplag.JPlagComparison;
+import de.jplag.JPlagExecutor;
 import de.jplag.JPlagResult;
 import de.jplag.Submission;
-import de.jplag.Token;
+import de.jplag.TokenSequence;
 import de.jplag.options.SimilarityMetric;
 import de.jplag.reporting.FilePathUtil;
 import de.jplag.reporting.reportobject.model.ComparisonReport;
@@ -53,6 +52,7 @@ public class ComparisonReportWriter {
 
     private void writeComparisons(String path, List<JPlagComparison> comparisons) {
         comparisons.parallelStream().forEach(comparison -> {
+            JPlagExecutor.checkCancelled();
             String firstSubmissionId = submissionToIdFunction.apply(comparison.firstSubmission());
             String secondSubmissionId = submissionToIdFunction.apply(comparison.secondSubmission());
             String fileName = generateComparisonName(firstSubmissionId, secondSubmissionId);
@@ -96,23 +96,50 @@ public class ComparisonReportWriter {
     }
 
     private Match convertMatchToReportMatch(JPlagComparison comparison, de.jplag.Match match) {
-        List<Token> tokensFirst = comparison.firstSubmission().getTokenList().subList(match.startOfFirst(), match.endOfFirst() + 1);
-        List<Token> tokensSecond = comparison.secondSubmission().getTokenList().subList(match.startOfSecond(), match.endOfSecond() + 1);
-
-        Comparator<? super Token> lineComparator = (first, second) -> first.getLine() - second.getLine();
-
-        Token startOfFirst = tokensFirst.stream().min(lineComparator).orElseThrow();
-        Token endOfFirst = tokensFirst.stream().max(lineComparator).orElseThrow();
-        Token startOfSecond = tokensSecond.stream().min(lineComparator).orElseThrow();
-        Token endOfSecond = tokensSecond.stream().max(lineComparator).orElseThrow();
+        TokenSequence tokensFirst = comparison.firstSubmission().getTokenSequence();
+        TokenSequence tokensSecond = comparison.secondSubmission().getTokenSequence();
+
+        int startOfFirst = indexOfFirstExtremeLine(tokensFirst, match.startOfFirst(), match.endOfFirst(), true);
+        int endOfFirst = indexOfFirstExtremeLine(tokensFirst, match.startOfFirst(), match.endOfFirst(), false);
+        int startOfSecond = indexOfFirstExtremeLine(tokensSecond, match.startOfSecond(), match.endOfSecond(), true);
+        int endOfSecond = indexOfFirstExtremeLine(tokensSecond, match.startOfSecond(), match.endOfSecond(), false);
+
+        int firstTotalTokens = countTokensInFileOf(tokensFirst, match.startOfFirst(), match.endOfFirst(), startOfFirst);
+        int secondTotalTokens = countTokensInFileOf(tokensSecond, match.startOfSecond(), match.endOfSecond(), startOfSecond);
+
+        return new Match(
+                FilePathUtil.getRelativeSubmissionPath(tokensFirst.getFile(startOfFirst), comparison.firstSubmission(), submissionToIdFunction),
+                FilePathUtil.getRelativeSubmissionPath(tokensSecond.getFile(startOfSecond), comparison.secondSubmission(), submissionToIdFunction),
+                tokensFirst.getLine(startOfFirst), tokensFirst.getLine(endOfFirst), tokensSecond.getLine(startOfSecond),
+                tokensSecond.getLine(endOfSecond), match.length(), firstTotalTokens, secondTotalTokens);
+    }
 
-        List<Token> firstTotalTokens = tokensFirst.stream().filter(x -> Objects.equals(x.getFile(), startOfFirst.getFile())).toList();
-        List<Token> secondTotalTokens = tokensSecond.stream().filter(x -> Objects.equals(x.getFile(), startOfSecond.getFile())).toList();
+    /**
+     * Finds the first token with the lowest or highest line index in an inclusive range of a token sequence.
+     */
+    private static int indexOfFirstExtremeLine(TokenSequence tokens, int start, int end, boolean lowest) {
+        int result = start;
+        for (int i = start + 1; i <= end; i++) {
+            int line = tokens.getLine(i);
+            if (lowest ? line < tokens.getLine(result) : line > tokens.getLine(result)) {
+                result = i;
+            }
+        }
+        return result;
+    }
 
-        return new Match(FilePathUtil.getRelativeSubmissionPath(startOfFirst.getFile(), comparison.firstSubmission(), submissionToIdFunction),
-                FilePathUtil.getRelativeSubmissionPath(startOfSecond.getFile(), comparison.secondSubmission(), submissionToIdFunction),
-                startOfFirst.getLine(), endOfFirst.getLine(), startOfSecond.getLine(), endOfSecond.getLine(), match.length(), firstTotalTokens.size(),
-                secondTotalTokens.size());
+    /**
+     * Counts the tokens in an inclusive range of a token sequence that reside in the same file as the reference token.
+     */
+    private static int countTokensInFileOf(TokenSequence tokens, int start, int end, int referenceIndex) {
+        int referenceFile = tokens.getFileIndex(referenceIndex);
+        int count = 0;
+        for (int i = start; i <= end; i++) {
+            if (tokens.getFileIndex(i) == referenceFile) {
+                count++;
+            }
+        }
+        return count;
     }
 
 }
@@ -25,9 +25,13 @@ import org.slf4j.LoggerFactory;
 
 import de.jplag.JPlag;
 import de.jplag.JPlagComparison;
+import de.jplag.JPlagExecutor;
 import de.jplag.JPlagResult;
 import de.jplag.Language;
 import de.jplag.Submission;
+import de.jplag.metrics.RunMetrics;
+import de.jplag.metrics.Stage;
+import de.jplag.metrics.StageEvent;
 import de.jplag.options.JPlagOptions;
 import de.jplag.reporting.FilePathUtil;
 import de.jplag.reporting.jsonfactory.ComparisonReportWriter;
@@ -53,6 +57,7 @@ public class ReportObjectFactory {
 
     public static final String README_FILE_NAME = "README.txt";
     public static final String OPTIONS_FILE_NAME = "options.json";
+    public static final String METRICS_FILE_SUFFIX = "-metrics.json";
     private static final String[] README_CONTENT = new String[] {"This is a software plagiarism report generated by JPlag.",
             "To view the report go to https://jplag.github.io/JPlag/ and drag the generated zip file onto the page."};
 
@@ -60,17 +65,45 @@ public class ReportObjectFactory {
     public static final String SUBMISSION_FILE_INDEX_FILE_NAME = "submissionFileIndex.json";
     public static final Version REPORT_VIEWER_VERSION = JPlag.JPLAG_VERSION;
 
+    private final JPlagExecutor executor; // null if each report is written on a dedicated executor
     private Map<String, String> submissionNameToIdMap;
     private Function<Submission, String> submissionToIdFunction;
     private Map<String, Map<String, String>> submissionNameToNameToComparisonFileName;
 
     /**
-     * Creates all necessary report viewer files, writes them to the disk as zip.
+     * Creates a factory that writes each report on a dedicated executor, whose parallelism is determined by the execution
+     * options of the result.
+     */
+    public ReportObjectFactory() {
+        this(null);
+    }
+
+    /**
+     * Creates a factory that writes reports on the given executor, e.g. the one of the run.
+     * @param executor runs the concurrent report writing. It is not closed by this factory.
+     */
+    public ReportObjectFactory(JPlagExecutor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Creates all necessary report viewer files, writes them to the disk as zip. If the metrics of the run are collected,
+     * their summary is written next to the zip file, see {@link #METRICS_FILE_SUFFIX}.
      * @param result The JPlagResult to be converted into a report.
      * @param path The Path to save the report to
      */
     public void createAndSaveReport(JPlagResult result, String path) {
+        RunMetrics metrics = result.getMetrics();
+        StageEvent event = metrics.startStage(Stage.REPORTING);
+        writeReport(result, path);
+        metrics.finishStage(event, path, result.getComparisons(result.getOptions().maximumNumberOfComparisons()).size());
+        if (metrics.isEnabled()) {
+            File reportFile = new File(path).getAbsoluteFile();
+            jsonFileWriter.writeFile(metrics.summarize(), reportFile.getParent(), reportFile.getName() + METRICS_FILE_SUFFIX);
+        }
+    }
 
+    private void writeReport(JPlagResult result, String path) {
         try {
             logger.info("Start writing report files...");
             createDirectory(path);
@@ -169,8 +202,19 @@ public class ReportObjectFactory {
     }
 
     private void writeComparisons(JPlagResult result, String path) {
+        if (executor == null) {
+            try (JPlagExecutor reportExecutor = new JPlagExecutor(result.getOptions().executionOptions().threads())) {
+                writeComparisons(result, path, reportExecutor);
+            }
+        } else {
+            writeComparisons(result, path, executor);
+        }
+    }
+
+    private void writeComparisons(JPlagResult result, String path, JPlagExecutor reportExecutor) {
         ComparisonReportWriter comparisonReportWriter = new ComparisonReportWriter(submissionToIdFunction, jsonFileWriter);
-        submissionNameToNameToComparisonFileName = comparisonReportWriter.writeComparisonReports(result, path);
+        submissionNameToNameToComparisonFileName = reportExecutor
+                .invoke(() -> comparisonReportWriter.writeComparisonReports(result, path));
     }
 
     private void writeOverview(JPlagResult result, String path) {
@@ -182,10 +226,10 @@ public class ReportObjectFactory {
         String baseCodePath = result.getOptions().hasBaseCode() ? result.getOptions().baseCodeSubmissionDirectory().getName() : "";
         ClusteringResultMapper clusteringResultMapper = new ClusteringResultMapper(submissionToIdFunction);
 
-        int totalComparisons = result.getAllComparisons().size();
+        long totalComparisons = result.getNumberOfComparisons();
         int numberOfMaximumComparisons = result.getOptions().maximumNumberOfComparisons();
-        int shownComparisons = Math.min(totalComparisons, numberOfMaximumComparisons);
-        int missingComparisons = totalComparisons > numberOfMaximumComparisons ? (totalComparisons - numberOfMaximumComparisons) : 0;
+        long shownComparisons = Math.min(totalComparisons, numberOfMaximumComparisons);
+        long missingComparisons = totalComparisons > numberOfMaximumComparisons ? (totalComparisons - numberOfMaximumComparisons) : 0;
         logger.info("Total Comparisons: {}. Comparisons in Report: {}. Omitted Comparisons: {}.", totalComparisons, shownComparisons,
                 missingComparisons);
         OverviewReport overviewReport = new OverviewReport(REPORT_VIEWER_VERSION, folders.stream().map(File::getPath).toList(), // submissionFolderPath
@@ -37,5 +37,5 @@ public record OverviewReport(
 
         @JsonProperty("clusters") List<Cluster> clusters,
 
-        @JsonProperty("total_comparisons") int totalComparisons) {
+        @JsonProperty("total_comparisons") long totalComparisons) {
 }
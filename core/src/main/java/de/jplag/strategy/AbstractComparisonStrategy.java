@@ -1,17 +1,31 @@
 package de.jplag.strategy;
 
-import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import de.jplag.CandidatePairs;
 import de.jplag.GreedyStringTiling;
 import de.jplag.JPlagComparison;
+import de.jplag.JPlagExecutor;
 import de.jplag.Submission;
 import de.jplag.SubmissionSet;
+import de.jplag.UnmatchedPairs;
+import de.jplag.metrics.RunMetrics;
 import de.jplag.options.JPlagOptions;
+import de.jplag.progress.Phase;
+import de.jplag.progress.ProgressTracker;
 
 public abstract class AbstractComparisonStrategy implements ComparisonStrategy {
 
@@ -21,9 +35,19 @@ public abstract class AbstractComparisonStrategy implements ComparisonStrategy {
 
     protected final JPlagOptions options;
 
+    protected final ProgressTracker progress;
+
     protected AbstractComparisonStrategy(JPlagOptions options, GreedyStringTiling greedyStringTiling) {
+        this(options, greedyStringTiling, new ProgressTracker(null));
+    }
+
+    /**
+     * @param progress tracks the progress of comparing, one step per compared pair.
+     */
+    protected AbstractComparisonStrategy(JPlagOptions options, GreedyStringTiling greedyStringTiling, ProgressTracker progress) {
         this.greedyStringTiling = greedyStringTiling;
         this.options = options;
+        this.progress = progress;
     }
 
     /**
@@ -35,41 +59,202 @@ public abstract class AbstractComparisonStrategy implements ComparisonStrategy {
      */
     protected void compareSubmissionsToBaseCode(SubmissionSet submissionSet) {
         Submission baseCodeSubmission = submissionSet.getBaseCode();
-        for (Submission currentSubmission : submissionSet.getSubmissions()) {
+        greedyStringTiling.prepareSubmissions(List.of(baseCodeSubmission));
+        submissionSet.getSubmissions().parallelStream().forEach(currentSubmission -> {
             JPlagComparison baseCodeComparison = greedyStringTiling.generateBaseCodeMarking(currentSubmission, baseCodeSubmission);
             currentSubmission.setBaseCodeComparison(baseCodeComparison);
-        }
+        });
+    }
+
+    /**
+     * Precomputes the per-submission data required for comparing the given submissions in parallel, see
+     * {@link GreedyStringTiling#prepareSubmissions}. Must be called after {@link #compareSubmissionsToBaseCode}.
+     * @param submissionSet Submissions to prepare.
+     */
+    protected void prepareSubmissions(SubmissionSet submissionSet) {
+        greedyStringTiling.prepareSubmissions(submissionSet.getSubmissions());
     }
 
     /**
      * Compares two submissions and optionally returns the results if similarity is high enough.
      */
     protected Optional<JPlagComparison> compareSubmissions(Submission first, Submission second) {
-        JPlagComparison comparison = greedyStringTiling.compare(first, second);
-        logger.info("Comparing {}-{}: {}", first.getName(), second.getName(), comparison.similarity());
+        progress.step(Phase.COMPARING);
+        return compareSubmissions(first, second, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Compares two submissions and optionally returns the results if similarity is high enough. Pairs that provably do not
+     * reach the similarity threshold are not compared completely, see
+     * {@link GreedyStringTiling#compareIfThresholdReachable}.
+     * @param maximumMatchedTokens is an upper bound of the number of matched tokens.
+     */
+    private Optional<JPlagComparison> compareSubmissions(Submission first, Submission second, int maximumMatchedTokens) {
+        JPlagExecutor.checkCancelled();
+        Optional<JPlagComparison> comparison = tileSubmissions(first, second, maximumMatchedTokens);
+        return comparison.filter(it -> options.similarityMetric().isAboveThreshold(it, options.similarityThreshold()));
+    }
 
-        if (options.similarityMetric().isAboveThreshold(comparison, options.similarityThreshold())) {
-            return Optional.of(comparison);
+    /**
+     * Tiles two submissions unless they provably do not reach the similarity threshold, see
+     * {@link GreedyStringTiling#compareIfThresholdReachable}. Strategies can override this to obtain the comparison
+     * differently, e.g. from a previous run.
+     * @param maximumMatchedTokens is an upper bound of the number of matched tokens.
+     * @return the comparison, or nothing if its similarity is below the threshold.
+     */
+    protected Optional<JPlagComparison> tileSubmissions(Submission first, Submission second, int maximumMatchedTokens) {
+        return greedyStringTiling.compareIfThresholdReachable(first, second, maximumMatchedTokens);
+    }
+
+    /**
+     * Finds the pairs of submissions that can have matches, see {@link CandidatePairs}. Must be called after
+     * {@link #compareSubmissionsToBaseCode}.
+     * @param submissionSet Submissions to find the candidate pairs of.
+     * @return the candidate pairs, or null if candidate pair filtering is disabled.
+     */
+    protected CandidatePairs findCandidatePairs(SubmissionSet submissionSet) {
+        if (!options.executionOptions().candidatePairFiltering()) {
+            return null;
         }
+        List<Submission> submissions = submissionSet.getSubmissions().stream().filter(s -> s.getTokenSequence() != null).toList();
+        CandidatePairs candidatePairs = greedyStringTiling.findCandidatePairs(submissions);
+        long numberOfPairs = (long) submissions.size() * (submissions.size() - 1) / 2;
+        logger.info("{} of {} submission pairs share code and are compared", candidatePairs.numberOfCandidatePairs(), numberOfPairs);
+        return candidatePairs;
+    }
+
+    /**
+     * Compares two submissions like {@link #compareSubmissions(Submission, Submission)} if they are a candidate pair, using
+     * their shared windows to bound their similarity. Otherwise, they cannot have matches and their similarity is zero.
+     * Then, they are not compared but only counted, see {@link #collectUnmatchedPairs}.
+     * @param candidatePairs are the candidate pairs, or null if all pairs are compared.
+     * @param unmatchedPairs counts the pairs that are not compared.
+     */
+    protected Optional<JPlagComparison> compareSubmissions(Submission first, Submission second, CandidatePairs candidatePairs,
+            LongAdder unmatchedPairs) {
+        progress.step(Phase.COMPARING);
+        if (candidatePairs == null) {
+            return compareSubmissions(first, second, Integer.MAX_VALUE);
+        }
+        if (candidatePairs.isCandidate(first, second)) {
+            return compareSubmissions(first, second, candidatePairs.maximumMatchedTokens(first, second));
+        }
+        progress.metrics().increment(RunMetrics.FILTERED_PAIRS);
+        unmatchedPairs.increment();
         return Optional.empty();
     }
 
+    /**
+     * Collects the pairs that were not compared as they cannot have matches. They are only part of the result if
+     * comparisons without similarity are retained due to the similarity threshold.
+     * @param submissionSet contains the compared submissions.
+     * @param candidatePairs are the candidate pairs, or null if all pairs are compared.
+     * @param unmatchedPairs is the number of pairs that were not compared.
+     * @return the unmatched pairs of the result.
+     */
+    protected UnmatchedPairs collectUnmatchedPairs(SubmissionSet submissionSet, CandidatePairs candidatePairs, LongAdder unmatchedPairs) {
+        if (candidatePairs == null || options.similarityThreshold() > 0) { // every similarity metric is zero without matches
+            return UnmatchedPairs.NONE;
+        }
+        List<Submission> submissions = submissionSet.getSubmissions().stream().filter(s -> s.getTokenSequence() != null).toList();
+        return new UnmatchedPairs(submissions, candidatePairs, greedyStringTiling, unmatchedPairs.sum());
+    }
+
+    /**
+     * Counts the submission tuples to be processed, i.e. all pairs of valid submissions except pairs of two old
+     * submissions.
+     * @param submissions are the submissions to count the tuples of.
+     * @return the number of tuples.
+     */
+    protected static long countComparisonTuples(List<Submission> submissions) {
+        long validSubmissions = submissions.stream().filter(s -> s.getTokenSequence() != null).count();
+        long oldSubmissions = submissions.stream().filter(s -> s.getTokenSequence() != null && !s.isNew()).count();
+        return validSubmissions * (validSubmissions - 1) / 2 - oldSubmissions * (oldSubmissions - 1) / 2;
+    }
+
     /**
      * @return a list of all submission tuples to be processed.
      */
     protected static List<SubmissionTuple> buildComparisonTuples(List<Submission> submissions) {
-        List<SubmissionTuple> tuples = new ArrayList<>();
-        List<Submission> validSubmissions = submissions.stream().filter(s -> s.getTokenList() != null).toList();
-
-        for (int i = 0; i < (validSubmissions.size() - 1); i++) {
-            Submission first = validSubmissions.get(i);
-            for (int j = (i + 1); j < validSubmissions.size(); j++) {
-                Submission second = validSubmissions.get(j);
-                if (first.isNew() || second.isNew()) {
-                    tuples.add(new SubmissionTuple(first, second));
-                }
-            }
+        return streamComparisonTuples(submissions, 1).toList();
+    }
+
+    /**
+     * Lazily generates all submission tuples to be processed, without materializing them. The tuples are generated tile by
+     * tile, see {@link de.jplag.options.ExecutionOptions#comparisonBlockSize()}. Splitting the stream for parallel
+     * processing hands out whole tiles.
+     * @param submissions are the submissions to build the tuples of.
+     * @param blockSize is the edge length of the tiles of the pair matrix.
+     * @return a sequential stream of all submission tuples to be processed.
+     */
+    protected static Stream<SubmissionTuple> streamComparisonTuples(List<Submission> submissions, int blockSize) {
+        List<Submission> validSubmissions = submissions.stream().filter(s -> s.getTokenSequence() != null).toList();
+        return StreamSupport.stream(new TiledPairSpliterator(validSubmissions, blockSize), false);
+    }
+
+    /**
+     * Generates all submission tuples to be processed in the configured order. With cost-based scheduling, the tuples are
+     * handed out in descending order of their estimated cost, see {@link #estimateComparisonCost}. Otherwise, they are
+     * generated tile by tile, see {@link #streamComparisonTuples(List, int)}.
+     * @param submissions are the submissions to build the tuples of.
+     * @param candidatePairs are the candidate pairs, or null if all pairs are compared.
+     * @return a sequential stream of all submission tuples to be processed. With cost-based scheduling, the order of a
+     * parallel traversal is not deterministic.
+     */
+    protected Stream<SubmissionTuple> streamScheduledComparisonTuples(List<Submission> submissions, CandidatePairs candidatePairs) {
+        int blockSize = options.executionOptions().comparisonBlockSize();
+        if (!options.executionOptions().costBasedScheduling()) {
+            return streamComparisonTuples(submissions, blockSize);
+        }
+        List<Submission> validSubmissions = submissions.stream().filter(s -> s.getTokenSequence() != null).toList();
+        int parallelism = ForkJoinTask.inForkJoinPool() ? ForkJoinTask.getPool().getParallelism() : ForkJoinPool.getCommonPoolParallelism();
+        return StreamSupport.stream(CostOrderedPairSpliterator.of(validSubmissions, blockSize,
+                (first, second) -> estimateComparisonCost(first, second, candidatePairs), parallelism), false);
+    }
+
+    /**
+     * Estimates the relative cost of comparing two submissions. Without candidate pairs, the tiling compares each token of
+     * one submission with each token of the other in the worst case. With candidate pairs, pairs without shared windows are
+     * not tiled at all. The tiling of the other pairs scans both submissions and extends each shared window, i.e. each
+     * collision of window hashes, to a match.
+     * @param candidatePairs are the candidate pairs, or null if all pairs are compared.
+     * @return the estimated cost, which is only comparable to the costs of other pairs of the same run.
+     */
+    protected long estimateComparisonCost(Submission first, Submission second, CandidatePairs candidatePairs) {
+        if (candidatePairs == null) {
+            return (long) first.getNumberOfTokens() * second.getNumberOfTokens();
+        }
+        if (!candidatePairs.isCandidate(first, second)) {
+            return 1;
+        }
+        long sharedWindowTokens = (long) candidatePairs.sharedWindows(first, second) * options.minimumTokenMatch();
+        return first.getNumberOfTokens() + second.getNumberOfTokens() + sharedWindowTokens;
+    }
+
+    /**
+     * Sorts comparisons by the positions of their submissions in the submission set. Makes the order of comparisons that
+     * were collected concurrently deterministic.
+     * @param comparisons are the comparisons to sort.
+     * @param submissionSet contains the submissions of the comparisons.
+     * @return the sorted comparisons.
+     */
+    protected static List<JPlagComparison> sortByPositions(Collection<JPlagComparison> comparisons, SubmissionSet submissionSet) {
+        Map<Submission, Integer> positions = positionsOf(submissionSet);
+        Comparator<JPlagComparison> order = Comparator.comparingInt(it -> Math.min(positions.get(it.firstSubmission()),
+                positions.get(it.secondSubmission())));
+        order = order.thenComparingInt(it -> Math.max(positions.get(it.firstSubmission()), positions.get(it.secondSubmission())));
+        return comparisons.stream().sorted(order).toList();
+    }
+
+    /**
+     * @param submissionSet contains the submissions.
+     * @return the positions of the submissions in the submission set, by identity.
+     */
+    protected static Map<Submission, Integer> positionsOf(SubmissionSet submissionSet) {
+        Map<Submission, Integer> positions = new IdentityHashMap<>();
+        for (Submission submission : submissionSet.getSubmissions()) {
+            positions.put(submission, positions.size());
         }
-        return tuples;
+        return positions;
     }
 }
@@ -0,0 +1,242 @@
+package de.jplag.strategy;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.jplag.Match;
+import de.jplag.util.FileUtils;
+
+/**
+ * Persistent store of the outcomes of pairwise comparisons, keyed by the token digests of both submissions. The store
+ * belongs to the digest of the settings that affect the outcomes, a store with other settings is discarded. Each digest
+ * is written once to a table, and the outcomes refer to the digests of their pairs by their indexes in the table.
+ * Outcomes that are looked up or added during a run are retained and written back afterwards, the others are dropped.
+ * Can be used by multiple threads concurrently.
+ */
+final class ComparisonStore {
+    private static final Logger logger = LoggerFactory.getLogger(ComparisonStore.class);
+
+    private static final int MAGIC_NUMBER = 0x4A504352; // "JPCR"
+    private static final int FORMAT_VERSION = 2;
+
+    private final Path file;
+    private final String settingsDigest;
+    private final Map<PairKey, Outcome> previousOutcomes;
+    private final Map<PairKey, Outcome> currentOutcomes = new ConcurrentHashMap<>();
+    private final AtomicInteger reused = new AtomicInteger();
+
+    private ComparisonStore(Path file, String settingsDigest, Map<PairKey, Outcome> previousOutcomes) {
+        this.file = file;
+        this.settingsDigest = settingsDigest;
+        this.previousOutcomes = previousOutcomes;
+    }
+
+    /**
+     * Opens the store in the given file. If the file does not exist, cannot be read, or belongs to other settings, the
+     * store is empty.
+     * @param file is the file of the store.
+     * @param settingsDigest is the digest of the settings that affect the outcomes of the comparisons.
+     * @return the store.
+     */
+    static ComparisonStore open(File file, String settingsDigest) {
+        Map<PairKey, Outcome> outcomes = new HashMap<>();
+        if (file.exists()) {
+            try (InputStream stream = new BufferedInputStream(Files.newInputStream(file.toPath()))) {
+                outcomes = read(new DataInputStream(stream), settingsDigest);
+            } catch (IOException exception) {
+                logger.warn("Discarding unreadable comparison store {}: {}", file, exception.getMessage());
+            }
+        }
+        return new ComparisonStore(file.toPath(), settingsDigest, outcomes);
+    }
+
+    /**
+     * Looks up the outcome of a comparison of a previous run.
+     * @param firstDigest is the token digest of the first submission.
+     * @param secondDigest is the token digest of the second submission.
+     * @return the outcome with matches oriented towards the first submission, or null if there is none.
+     */
+    Outcome get(String firstDigest, String secondDigest) {
+        PairKey key = PairKey.of(firstDigest, secondDigest);
+        Outcome outcome = previousOutcomes.get(key);
+        if (outcome == null) {
+            return null;
+        }
+        currentOutcomes.put(key, outcome);
+        reused.incrementAndGet();
+        return key.isSwapped(firstDigest) ? outcome.swapped() : outcome;
+    }
+
+    /**
+     * Adds the outcome of a comparison of the current run.
+     * @param firstDigest is the token digest of the first submission.
+     * @param secondDigest is the token digest of the second submission.
+     * @param outcome is the outcome with matches oriented towards the first submission.
+     */
+    void put(String firstDigest, String secondDigest, Outcome outcome) {
+        PairKey key = PairKey.of(firstDigest, secondDigest);
+        currentOutcomes.put(key, key.isSwapped(firstDigest) ? outcome.swapped() : outcome);
+    }
+
+    /**
+     * @return the number of outcomes that were reused from a previous run.
+     */
+    int numberOfReusedOutcomes() {
+        return reused.get();
+    }
+
+    /**
+     * Replaces the file of the store with the outcomes of the current run.
+     * @throws IOException if the file cannot be written.
+     */
+    void write() throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporaryFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream stream = new BufferedOutputStream(Files.newOutputStream(temporaryFile))) {
+                write(new DataOutputStream(stream));
+            }
+            FileUtils.moveAtomically(temporaryFile, file);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    private void write(DataOutputStream output) throws IOException {
+        output.writeInt(MAGIC_NUMBER);
+        output.writeInt(FORMAT_VERSION);
+        output.writeUTF(settingsDigest);
+        Map<String, Integer> digestIndexes = new HashMap<>();
+        List<String> digests = new ArrayList<>();
+        for (PairKey key : currentOutcomes.keySet()) {
+            for (String digest : List.of(key.first(), key.second())) {
+                if (digestIndexes.putIfAbsent(digest, digests.size()) == null) {
+                    digests.add(digest);
+                }
+            }
+        }
+        output.writeInt(digests.size());
+        for (String digest : digests) {
+            output.writeUTF(digest);
+        }
+        output.writeInt(currentOutcomes.size());
+        for (Map.Entry<PairKey, Outcome> entry : currentOutcomes.entrySet()) {
+            output.writeInt(digestIndexes.get(entry.getKey().first()));
+            output.writeInt(digestIndexes.get(entry.getKey().second()));
+            Outcome outcome = entry.getValue();
+            output.writeBoolean(outcome.pruned());
+            writeMatches(output, outcome.matches());
+            writeMatches(output, outcome.ignoredMatches());
+        }
+        output.flush();
+    }
+
+    private static Map<PairKey, Outcome> read(DataInputStream input, String settingsDigest) throws IOException {
+        if (input.readInt() != MAGIC_NUMBER || input.readInt() != FORMAT_VERSION) {
+            throw new IOException("Unknown format");
+        }
+        Map<PairKey, Outcome> outcomes = new HashMap<>();
+        if (!input.readUTF().equals(settingsDigest)) {
+            logger.info("Comparison store was written with other settings, all pairs are compared again");
+            return outcomes;
+        }
+        int numberOfDigests = readCount(input);
+        List<String> digests = new ArrayList<>(Math.min(numberOfDigests, 1024));
+        for (int i = 0; i < numberOfDigests; i++) {
+            digests.add(input.readUTF());
+        }
+        int numberOfOutcomes = readCount(input);
+        for (int i = 0; i < numberOfOutcomes; i++) {
+            PairKey key = new PairKey(readDigest(input, digests), readDigest(input, digests));
+            boolean pruned = input.readBoolean();
+            outcomes.put(key, new Outcome(pruned, readMatches(input), readMatches(input)));
+        }
+        return outcomes;
+    }
+
+    private static int readCount(DataInputStream input) throws IOException {
+        int count = input.readInt();
+        if (count < 0) {
+            throw new IOException("Negative count");
+        }
+        return count;
+    }
+
+    private static String readDigest(DataInputStream input, List<String> digests) throws IOException {
+        int index = input.readInt();
+        if (index < 0 || index >= digests.size()) {
+            throw new IOException("Invalid digest index " + index);
+        }
+        return digests.get(index);
+    }
+
+    private static void writeMatches(DataOutputStream output, List<Match> matches) throws IOException {
+        output.writeInt(matches.size());
+        for (Match match : matches) {
+            output.writeInt(match.startOfFirst());
+            output.writeInt(match.startOfSecond());
+            output.writeInt(match.length());
+        }
+    }
+
+    private static List<Match> readMatches(DataInputStream input) throws IOException {
+        int numberOfMatches = input.readInt();
+        if (numberOfMatches < 0) {
+            throw new IOException("Negative number of matches");
+        }
+        List<Match> matches = new ArrayList<>(Math.min(numberOfMatches, 1024));
+        for (int i = 0; i < numberOfMatches; i++) {
+            matches.add(new Match(input.readInt(), input.readInt(), input.readInt()));
+        }
+        return matches;
+    }
+
+    /**
+     * Outcome of a comparison.
+     * @param pruned is whether the comparison was skipped as it cannot reach the similarity threshold.
+     * @param matches are the matches of the comparison.
+     * @param ignoredMatches are the ignored matches of the comparison.
+     */
+    record Outcome(boolean pruned, List<Match> matches, List<Match> ignoredMatches) {
+        static final Outcome PRUNED = new Outcome(true, List.of(), List.of());
+
+        Outcome swapped() {
+            return new Outcome(pruned, swapped(matches), swapped(ignoredMatches));
+        }
+
+        private static List<Match> swapped(List<Match> matches) {
+            return matches.stream().map(it -> new Match(it.startOfSecond(), it.startOfFirst(), it.length())).toList();
+        }
+    }
+
+    /**
+     * Unordered pair of token digests, stored in ascending order.
+     */
+    private record PairKey(String first, String second) {
+        static PairKey of(String firstDigest, String secondDigest) {
+            return firstDigest.compareTo(secondDigest) <= 0 ? new PairKey(firstDigest, secondDigest) : new PairKey(secondDigest, firstDigest);
+        }
+
+        boolean isSwapped(String firstDigest) {
+            return !first.equals(firstDigest);
+        }
+    }
+}
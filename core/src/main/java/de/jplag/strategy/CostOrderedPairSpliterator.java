@@ -0,0 +1,166 @@
+package de.jplag.strategy;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.ToLongBiFunction;
+import java.util.stream.IntStream;
+
+import de.jplag.Submission;
+
+/**
+ * Generates the submission tuples to compare in descending order of their estimated cost. The matrix of submission
+ * pairs is divided into the same square tiles as by {@link TiledPairSpliterator}. Tiles that are more expensive than a
+ * fair share of the total cost are divided into single pairs, as one worker would otherwise compare them long after all
+ * others are done. The resulting work units are handed out in descending order of their cost via a cursor that is
+ * shared by all splits, thus the most expensive units start first and workers that finish early take the next unit. The
+ * order of the tuples depends on the timing of the workers. Pairs of two old submissions are skipped.
+ */
+final class CostOrderedPairSpliterator implements Spliterator<SubmissionTuple> {
+    private static final int UNITS_PER_WORKER = 8; // the fair share of the total cost is the cost of one of them
+    private static final int SPLITS_PER_WORKER = 2;
+
+    private final List<Submission> submissions;
+    private final List<WorkUnit> units;
+    private final AtomicInteger nextUnit;
+    private int splits; // number of spliterators this one can still be split into
+
+    private WorkUnit unit; // current work unit, or null if a new one has to be taken
+    private int row;
+    private int column;
+
+    private CostOrderedPairSpliterator(List<Submission> submissions, List<WorkUnit> units, AtomicInteger nextUnit, int splits) {
+        this.submissions = submissions;
+        this.units = units;
+        this.nextUnit = nextUnit;
+        this.splits = splits;
+    }
+
+    /**
+     * Creates a spliterator over all pairs of the given submissions.
+     * @param submissions are the valid submissions. Must not be modified during the traversal.
+     * @param blockSize is the edge length of the tiles.
+     * @param costEstimate estimates the cost of comparing two submissions.
+     * @param parallelism is the number of workers that process the tuples.
+     * @return the spliterator.
+     */
+    static CostOrderedPairSpliterator of(List<Submission> submissions, int blockSize, ToLongBiFunction<Submission, Submission> costEstimate,
+            int parallelism) {
+        int blocksPerSide = (submissions.size() + blockSize - 1) / blockSize;
+        List<WorkUnit> tiles = IntStream.range(0, blocksPerSide).parallel().boxed().flatMap(blockRow -> IntStream
+                .range(blockRow, blocksPerSide).mapToObj(blockColumn -> tile(submissions, blockSize, blockRow, blockColumn, costEstimate)))
+                .toList();
+        long totalCost = tiles.stream().mapToLong(WorkUnit::cost).sum();
+        long fairShare = Math.max(1, totalCost / ((long) Math.max(1, parallelism) * UNITS_PER_WORKER));
+
+        List<WorkUnit> units = new ArrayList<>(tiles.size());
+        for (WorkUnit tile : tiles) {
+            if (tile.cost() > fairShare) {
+                addPairs(units, tile, submissions, costEstimate);
+            } else if (tile.cost() > 0) {
+                units.add(tile);
+            }
+        }
+        units.sort(Comparator.comparingLong(WorkUnit::cost).reversed());
+        return new CostOrderedPairSpliterator(submissions, units, new AtomicInteger(), Math.max(1, parallelism) * SPLITS_PER_WORKER);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super SubmissionTuple> action) {
+        while (unit != null || takeUnit()) {
+            while (row < unit.rowEnd()) {
+                while (column < unit.columnEnd()) {
+                    Submission first = submissions.get(row);
+                    Submission second = submissions.get(column++);
+                    if (first.isNew() || second.isNew()) {
+                        action.accept(new SubmissionTuple(first, second));
+                        return true;
+                    }
+                }
+                row++;
+                column = Math.max(unit.columnStart(), row + 1);
+            }
+            unit = null;
+        }
+        return false;
+    }
+
+    @Override
+    public Spliterator<SubmissionTuple> trySplit() {
+        if (splits < 2 || nextUnit.get() >= units.size()) {
+            return null;
+        }
+        int prefixSplits = splits / 2;
+        splits -= prefixSplits;
+        return new CostOrderedPairSpliterator(submissions, units, nextUnit, prefixSplits);
+    }
+
+    @Override
+    public long estimateSize() {
+        return Math.max(0, units.size() - nextUnit.get());
+    }
+
+    @Override
+    public int characteristics() {
+        return NONNULL | IMMUTABLE;
+    }
+
+    private boolean takeUnit() {
+        int index = nextUnit.getAndIncrement();
+        if (index >= units.size()) {
+            return false;
+        }
+        unit = units.get(index);
+        row = unit.rowStart();
+        column = Math.max(unit.columnStart(), row + 1);
+        return true;
+    }
+
+    private static WorkUnit tile(List<Submission> submissions, int blockSize, int blockRow, int blockColumn,
+            ToLongBiFunction<Submission, Submission> costEstimate) {
+        int rowStart = blockRow * blockSize;
+        int rowEnd = Math.min(rowStart + blockSize, submissions.size());
+        int columnStart = blockColumn * blockSize;
+        int columnEnd = Math.min(columnStart + blockSize, submissions.size());
+        long cost = 0;
+        for (int row = rowStart; row < rowEnd; row++) {
+            for (int column = Math.max(columnStart, row + 1); column < columnEnd; column++) {
+                cost += pairCost(submissions.get(row), submissions.get(column), costEstimate);
+            }
+        }
+        return new WorkUnit(rowStart, rowEnd, columnStart, columnEnd, cost);
+    }
+
+    private static void addPairs(List<WorkUnit> units, WorkUnit tile, List<Submission> submissions,
+            ToLongBiFunction<Submission, Submission> costEstimate) {
+        for (int row = tile.rowStart(); row < tile.rowEnd(); row++) {
+            for (int column = Math.max(tile.columnStart(), row + 1); column < tile.columnEnd(); column++) {
+                long cost = pairCost(submissions.get(row), submissions.get(column), costEstimate);
+                if (cost > 0) {
+                    units.add(new WorkUnit(row, row + 1, column, column + 1, cost));
+                }
+            }
+        }
+    }
+
+    private static long pairCost(Submission first, Submission second, ToLongBiFunction<Submission, Submission> costEstimate) {
+        if (!first.isNew() && !second.isNew()) {
+            return 0;
+        }
+        return Math.max(1, costEstimate.applyAsLong(first, second));
+    }
+
+    /**
+     * Rectangular part of the upper triangle of the pair matrix.
+     * @param rowStart is the first row.
+     * @param rowEnd is the row after the last one.
+     * @param columnStart is the first column, columns at or below the diagonal are skipped.
+     * @param columnEnd is the column after the last one.
+     * @param cost is the estimated cost of all pairs of the unit.
+     */
+    private record WorkUnit(int rowStart, int rowEnd, int columnStart, int columnEnd, long cost) {
+    }
+}
@@ -0,0 +1,165 @@
+package de.jplag.strategy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.jplag.GreedyStringTiling;
+import de.jplag.JPlag;
+import de.jplag.JPlagComparison;
+import de.jplag.JPlagResult;
+import de.jplag.Submission;
+import de.jplag.SubmissionSet;
+import de.jplag.TokenSequence;
+import de.jplag.TokenType;
+import de.jplag.options.JPlagOptions;
+import de.jplag.progress.ProgressTracker;
+import de.jplag.strategy.ComparisonStore.Outcome;
+
+/**
+ * Strategy for the incremental comparison of submissions. Compares like {@link ParallelComparisonStrategy}, but keeps
+ * the outcomes of all tiled pairs in a persistent store, see
+ * {@link de.jplag.options.ExecutionOptions#comparisonStore()}. A pair is identified by the digests of the token
+ * sequences of both submissions, thus in later runs only pairs with at least one changed submission are tiled, while
+ * the outcomes of the other pairs are loaded. The store is discarded if any option that affects the outcomes changes,
+ * i.e. the language, the minimum match length, the match merging, the base code, or the similarity threshold that
+ * decides which pairs are pruned. Not meant to be used by multiple runs concurrently.
+ */
+public class IncrementalComparisonStrategy extends ParallelComparisonStrategy {
+    private static final Logger logger = LoggerFactory.getLogger(IncrementalComparisonStrategy.class);
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final int DIGEST_BUFFER_SIZE = 4096;
+
+    private final GreedyStringTiling greedyStringTiling;
+    private ComparisonStore store; // of the current run
+    private Map<Submission, String> tokenDigests; // of the current run, never modified once published
+
+    public IncrementalComparisonStrategy(JPlagOptions options, GreedyStringTiling greedyStringTiling) {
+        super(options, greedyStringTiling);
+        this.greedyStringTiling = greedyStringTiling;
+    }
+
+    public IncrementalComparisonStrategy(JPlagOptions options, GreedyStringTiling greedyStringTiling, ProgressTracker progress) {
+        super(options, greedyStringTiling, progress);
+        this.greedyStringTiling = greedyStringTiling;
+    }
+
+    @Override
+    public JPlagResult compareSubmissions(SubmissionSet submissionSet) {
+        List<Submission> submissions = submissionSet.getSubmissions().stream().filter(it -> it.getTokenSequence() != null).toList();
+        List<String> digests = submissions.parallelStream().map(IncrementalComparisonStrategy::tokenDigestOf).toList();
+        Map<Submission, String> submissionDigests = new IdentityHashMap<>();
+        for (int i = 0; i < submissions.size(); i++) {
+            submissionDigests.put(submissions.get(i), digests.get(i));
+        }
+        tokenDigests = submissionDigests;
+        store = ComparisonStore.open(options.executionOptions().comparisonStore(), settingsDigestOf(submissionSet));
+
+        JPlagResult result = super.compareSubmissions(submissionSet);
+        logger.info("Reused {} comparisons of the previous run", store.numberOfReusedOutcomes());
+        try {
+            store.write();
+        } catch (IOException exception) {
+            logger.error("Could not write the comparison store {}", options.executionOptions().comparisonStore(), exception);
+        }
+        return result;
+    }
+
+    @Override
+    protected Optional<JPlagComparison> tileSubmissions(Submission first, Submission second, int maximumMatchedTokens) {
+        String firstDigest = tokenDigests.get(first);
+        String secondDigest = tokenDigests.get(second);
+        Outcome outcome = store.get(firstDigest, secondDigest);
+        if (outcome != null) {
+            if (outcome.pruned()) {
+                return Optional.empty();
+            }
+            return Optional.of(greedyStringTiling.createComparison(first, second, outcome.matches(), outcome.ignoredMatches()));
+        }
+        Optional<JPlagComparison> comparison = super.tileSubmissions(first, second, maximumMatchedTokens);
+        store.put(firstDigest, secondDigest, comparison.map(it -> outcomeOf(it, first)).orElse(Outcome.PRUNED));
+        return comparison;
+    }
+
+    private static Outcome outcomeOf(JPlagComparison comparison, Submission first) {
+        Outcome outcome = new Outcome(false, comparison.matches(), comparison.ignoredMatches());
+        return comparison.firstSubmission() == first ? outcome : outcome.swapped();
+    }
+
+    /**
+     * Computes the digest of all options that affect the outcome of a comparison.
+     */
+    private String settingsDigestOf(SubmissionSet submissionSet) {
+        MessageDigest digest = createDigest();
+        update(digest, JPlag.JPLAG_VERSION.toString());
+        update(digest, options.language().getIdentifier());
+        update(digest, Integer.toString(options.minimumTokenMatch()));
+        update(digest, options.mergingOptions().toString());
+        update(digest, submissionSet.hasBaseCode() ? tokenDigestOf(submissionSet.getBaseCode()) : "");
+        update(digest, options.similarityMetric().name());
+        update(digest, Double.toString(options.similarityThreshold()));
+        update(digest, Boolean.toString(options.executionOptions().thresholdPruning()));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Computes the digest of the token types of a submission and its number of files, which determine its matches. Token
+     * types are identified by name, as their token values differ between runs.
+     */
+    private static String tokenDigestOf(Submission submission) {
+        MessageDigest digest = createDigest();
+        update(digest, Integer.toString(submission.getFiles().size()));
+        TokenSequence sequence = submission.getTokenSequence();
+        Map<Integer, Integer> localTypeIndexes = new HashMap<>();
+        ByteBuffer buffer = ByteBuffer.allocate(DIGEST_BUFFER_SIZE);
+        for (int i = 0; i < sequence.size(); i++) {
+            Integer typeIndex = localTypeIndexes.get(sequence.getTokenValue(i));
+            if (typeIndex == null) { // the name of each type is added on its first occurrence
+                typeIndex = localTypeIndexes.size();
+                localTypeIndexes.put(sequence.getTokenValue(i), typeIndex);
+                digest.update(buffer.flip());
+                buffer.clear();
+                update(digest, nameOf(sequence.getType(i)));
+            }
+            if (buffer.remaining() < Integer.BYTES) {
+                digest.update(buffer.flip());
+                buffer.clear();
+            }
+            buffer.putInt(typeIndex);
+        }
+        digest.update(buffer.flip());
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static String nameOf(TokenType type) {
+        if (type instanceof Enum<?> constant) {
+            return constant.getDeclaringClass().getName() + "." + constant.name();
+        }
+        return type.getClass().getName() + ":" + type.getDescription();
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception); // every Java platform supports SHA-256
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+        digest.update(bytes);
+    }
+}
@@ -1,16 +1,27 @@
 package de.jplag.strategy;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
 
+import de.jplag.CandidatePairs;
 import de.jplag.GreedyStringTiling;
 import de.jplag.JPlagComparison;
 import de.jplag.JPlagResult;
+import de.jplag.Submission;
 import de.jplag.SubmissionSet;
+import de.jplag.TopComparisonCollection;
+import de.jplag.UnmatchedPairs;
+import de.jplag.merging.MatchMerging;
 import de.jplag.options.JPlagOptions;
+import de.jplag.progress.Phase;
+import de.jplag.progress.ProgressTracker;
 
 /**
- * Strategy for the parallel comparison of submissions. Uses all available cores.
+ * Strategy for the parallel comparison of submissions. Uses all available cores. Unless disabled, the pairs are
+ * scheduled by their estimated cost, see {@link de.jplag.options.ExecutionOptions#costBasedScheduling()}.
  * @author Timur Saglam
  */
 public class ParallelComparisonStrategy extends AbstractComparisonStrategy {
@@ -18,20 +29,45 @@ public class ParallelComparisonStrategy extends AbstractComparisonStrategy {
         super(options, greedyStringTiling);
     }
 
+    public ParallelComparisonStrategy(JPlagOptions options, GreedyStringTiling greedyStringTiling, ProgressTracker progress) {
+        super(options, greedyStringTiling, progress);
+    }
+
     @Override
     public JPlagResult compareSubmissions(SubmissionSet submissionSet) {
         // Initialize:
         long timeBeforeStartInMillis = System.currentTimeMillis();
+        progress.startPhase(Phase.COMPARING, countComparisonTuples(submissionSet.getSubmissions()));
         boolean withBaseCode = submissionSet.hasBaseCode();
         if (withBaseCode) {
             compareSubmissionsToBaseCode(submissionSet);
         }
+        prepareSubmissions(submissionSet);
+        CandidatePairs candidatePairs = findCandidatePairs(submissionSet);
+        LongAdder numberOfUnmatchedPairs = new LongAdder();
 
-        List<SubmissionTuple> tuples = buildComparisonTuples(submissionSet.getSubmissions());
-        List<JPlagComparison> comparisons = tuples.stream().parallel().map(tuple -> compareSubmissions(tuple.left(), tuple.right()))
-                .flatMap(Optional::stream).toList();
+        Stream<JPlagComparison> comparisons = streamScheduledComparisonTuples(submissionSet.getSubmissions(), candidatePairs).parallel()
+                .map(tuple -> compareSubmissions(tuple.left(), tuple.right(), candidatePairs, numberOfUnmatchedPairs)).flatMap(Optional::stream);
+
+        if (TopComparisonCollection.isUsedFor(options)) {
+            if (options.mergingOptions().enabled()) { // merge before ranking, as merging changes the similarity
+                MatchMerging matchMerging = new MatchMerging(options);
+                comparisons = comparisons.map(matchMerging::mergeMatchesOf);
+            }
+            Map<Submission, Integer> positions = positionsOf(submissionSet);
+            TopComparisonCollection collection = comparisons.collect(() -> new TopComparisonCollection(options, positions::get),
+                    TopComparisonCollection::add, TopComparisonCollection::addAll);
+            collection.addUnmatchedPairs(collectUnmatchedPairs(submissionSet, candidatePairs, numberOfUnmatchedPairs));
+            long durationInMillis = System.currentTimeMillis() - timeBeforeStartInMillis;
+            progress.finishPhase(Phase.COMPARING);
+            return new JPlagResult(collection, submissionSet, durationInMillis, options);
+        }
 
+        // neither the tiles nor the cost-based schedule yield the row-major order of the pairs, which decides between ties
+        List<JPlagComparison> retainedComparisons = sortByPositions(comparisons.toList(), submissionSet);
         long durationInMillis = System.currentTimeMillis() - timeBeforeStartInMillis;
-        return new JPlagResult(comparisons, submissionSet, durationInMillis, options);
+        progress.finishPhase(Phase.COMPARING);
+        UnmatchedPairs unmatchedPairs = collectUnmatchedPairs(submissionSet, candidatePairs, numberOfUnmatchedPairs);
+        return new JPlagResult(retainedComparisons, unmatchedPairs, submissionSet, durationInMillis, options);
     }
 }
@@ -0,0 +1,218 @@
+package de.jplag.strategy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+import de.jplag.GreedyStringTiling;
+import de.jplag.JPlagComparison;
+import de.jplag.JPlagExecutor;
+import de.jplag.JPlagResult;
+import de.jplag.ParsingListener;
+import de.jplag.Submission;
+import de.jplag.SubmissionSet;
+import de.jplag.TopComparisonCollection;
+import de.jplag.merging.MatchMerging;
+import de.jplag.options.JPlagOptions;
+import de.jplag.progress.Phase;
+import de.jplag.progress.ProgressTracker;
+
+/**
+ * Strategy that compares submissions while they are parsed. As a {@link ParsingListener}, it compares each parsed
+ * submission with all previously parsed submissions on the worker threads of the executor of the run, see
+ * {@link JPlagExecutor}. The number of queued tasks is bounded. If the bound is reached, the parser thread compares
+ * itself, which keeps parsing and comparing balanced. Submissions that were not reported while parsing, e.g. old
+ * submissions of a corpus index, are compared once {@link #compareSubmissions(SubmissionSet)} is called, which then
+ * waits for all comparisons. The comparisons are ordered by the positions of their submissions in the submission set,
+ * thus the result does not depend on the order in which submissions are parsed. The positions are known before parsing,
+ * see {@link #submissionsFound}. Each instance executes a single run.
+ */
+public class PipelinedComparisonStrategy extends AbstractComparisonStrategy implements ParsingListener {
+    private static final int QUEUED_TASKS_PER_THREAD = 4;
+
+    private final GreedyStringTiling greedyStringTiling;
+    private final Executor executor;
+    private final Semaphore queueCapacity;
+    private final Phaser pendingTasks = new Phaser(1); // the strategy is registered until it awaits the comparisons
+    private final Set<Submission> claimedSubmissions = Collections.newSetFromMap(new IdentityHashMap<>()); // guarded by this
+    private final List<Submission> comparedSubmissions = new ArrayList<>(); // guarded by this
+    private final Map<Submission, Integer> positions = Collections.synchronizedMap(new IdentityHashMap<>());
+    private final Queue<JPlagComparison> comparisons = new ConcurrentLinkedQueue<>();
+    private final TopComparisonCollection topComparisons; // null unless bounded, guarded by itself
+    private final MatchMerging matchMerging; // null unless merged before ranking
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private volatile Submission baseCode;
+    private long timeOfFirstComparison; // zero until the first comparison, guarded by this
+
+    /**
+     * Creates the strategy. It compares on the executor of the calling thread, or on the common pool if there is none.
+     */
+    public PipelinedComparisonStrategy(JPlagOptions options, GreedyStringTiling greedyStringTiling) {
+        this(options, greedyStringTiling, new ProgressTracker(null));
+    }
+
+    /**
+     * Creates the strategy. It compares on the executor of the calling thread, or on the common pool if there is none.
+     * @param progress tracks the progress of comparing. The total number of pairs is only known once all submissions are
+     * parsed.
+     */
+    public PipelinedComparisonStrategy(JPlagOptions options, GreedyStringTiling greedyStringTiling, ProgressTracker progress) {
+        super(options, greedyStringTiling, progress);
+        this.greedyStringTiling = greedyStringTiling;
+        JPlagExecutor runExecutor = JPlagExecutor.current();
+        this.executor = runExecutor != null ? runExecutor : ForkJoinPool.commonPool();
+        int numberOfThreads = runExecutor != null ? runExecutor.parallelism() : ForkJoinPool.getCommonPoolParallelism();
+        this.queueCapacity = new Semaphore(numberOfThreads * QUEUED_TASKS_PER_THREAD);
+        boolean bounded = TopComparisonCollection.isUsedFor(options);
+        this.topComparisons = bounded ? new TopComparisonCollection(options, positions::get) : null;
+        this.matchMerging = bounded && options.mergingOptions().enabled() ? new MatchMerging(options) : null;
+    }
+
+    @Override
+    public void submissionsFound(List<Submission> submissions) {
+        submissions.forEach(this::assignPosition);
+    }
+
+    @Override
+    public void baseCodeParsed(Submission baseCode) {
+        greedyStringTiling.prepareSubmissions(List.of(baseCode));
+        this.baseCode = baseCode;
+    }
+
+    @Override
+    public void submissionParsed(Submission submission) {
+        synchronized (this) {
+            if (!claimedSubmissions.add(submission)) {
+                return;
+            }
+        }
+        if (baseCode != null) { // must be marked before other submissions are compared with it
+            submission.setBaseCodeComparison(greedyStringTiling.generateBaseCodeMarking(submission, baseCode));
+        }
+        List<Submission> previousSubmissions;
+        synchronized (this) {
+            previousSubmissions = List.copyOf(comparedSubmissions);
+            comparedSubmissions.add(submission);
+            if (previousSubmissions.isEmpty()) {
+                return;
+            }
+            if (timeOfFirstComparison == 0) {
+                timeOfFirstComparison = System.currentTimeMillis();
+                progress.startPhase(Phase.COMPARING, ProgressTracker.UNKNOWN);
+            }
+        }
+        int blockSize = options.executionOptions().comparisonBlockSize();
+        for (int start = 0; start < previousSubmissions.size(); start += blockSize) {
+            List<Submission> partners = previousSubmissions.subList(start, Math.min(start + blockSize, previousSubmissions.size()));
+            dispatch(() -> compareWithPartners(submission, partners));
+        }
+    }
+
+    /**
+     * Queues a comparison task, or runs it on the calling thread if the bound of queued tasks is reached.
+     */
+    private void dispatch(Runnable task) {
+        if (!queueCapacity.tryAcquire()) {
+            task.run();
+            return;
+        }
+        pendingTasks.register();
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    queueCapacity.release();
+                    pendingTasks.arriveAndDeregister();
+                }
+            });
+        } catch (RejectedExecutionException exception) {
+            queueCapacity.release();
+            pendingTasks.arriveAndDeregister();
+            throw exception;
+        }
+    }
+
+    @Override
+    public JPlagResult compareSubmissions(SubmissionSet submissionSet) {
+        if (baseCode == null && submissionSet.hasBaseCode()) {
+            baseCodeParsed(submissionSet.getBaseCode());
+        }
+        submissionSet.getSubmissions().forEach(this::assignPosition); // placed after the found submissions
+        for (Submission submission : submissionSet.getSubmissions()) {
+            if (submission.getTokenSequence() != null) {
+                submissionParsed(submission); // only compares submissions that were not reported while parsing
+            }
+        }
+        progress.startPhase(Phase.COMPARING, countComparisonTuples(submissionSet.getSubmissions()));
+        long startTime = awaitComparisons();
+        progress.finishPhase(Phase.COMPARING);
+        Throwable firstFailure = failure.get();
+        if (firstFailure instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        } else if (firstFailure instanceof Error error) {
+            throw error;
+        }
+
+        long durationInMillis = System.currentTimeMillis() - startTime;
+        if (topComparisons != null) {
+            return new JPlagResult(topComparisons, submissionSet, durationInMillis, options);
+        }
+        return new JPlagResult(sortByPositions(comparisons, submissionSet), submissionSet, durationInMillis, options);
+    }
+
+    private void assignPosition(Submission submission) {
+        synchronized (positions) {
+            positions.putIfAbsent(submission, positions.size());
+        }
+    }
+
+    private void compareWithPartners(Submission submission, List<Submission> partners) {
+        if (failure.get() != null) {
+            return;
+        }
+        try {
+            JPlagExecutor.checkCancelled();
+            for (Submission partner : partners) {
+                if (submission.isNew() || partner.isNew()) {
+                    compareSubmissions(partner, submission).ifPresent(this::collect);
+                }
+            }
+        } catch (RuntimeException | Error throwable) {
+            failure.compareAndSet(null, throwable);
+        }
+    }
+
+    private void collect(JPlagComparison comparison) {
+        if (topComparisons == null) {
+            comparisons.add(comparison);
+            return;
+        }
+        JPlagComparison rankedComparison = matchMerging == null ? comparison : matchMerging.mergeMatchesOf(comparison);
+        synchronized (topComparisons) {
+            topComparisons.add(rankedComparison);
+        }
+    }
+
+    /**
+     * Waits until all comparisons are done. Waiting worker threads are compensated by the fork-join pool.
+     * @return the time at which the first comparison was started.
+     */
+    private long awaitComparisons() {
+        pendingTasks.arriveAndAwaitAdvance();
+        synchronized (this) {
+            return timeOfFirstComparison == 0 ? System.currentTimeMillis() : timeOfFirstComparison;
+        }
+    }
+}
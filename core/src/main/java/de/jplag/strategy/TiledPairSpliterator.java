@@ -0,0 +1,139 @@
+package de.jplag.strategy;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+import de.jplag.Submission;
+
+/**
+ * Lazily generates the submission tuples to compare, i.e. the upper triangle of the matrix of submission pairs, without
+ * materializing them. The matrix is traversed in square tiles of a given block size, row-major over the tiles and
+ * row-major within each tile. Splitting hands out whole tiles, thus each worker compares a small set of submissions at
+ * a time and keeps their token values and hash tables in the cache. Pairs of two old submissions are skipped.
+ */
+final class TiledPairSpliterator implements Spliterator<SubmissionTuple> {
+    private final List<Submission> submissions;
+    private final int blockSize;
+    private final int blocksPerSide;
+
+    private long tileIndex; // linear index of the current tile
+    private final long endTile; // exclusive
+    private int blockRow;
+    private int blockColumn;
+
+    private boolean inTile;
+    private int row;
+    private int rowEnd;
+    private int column;
+    private int columnStart;
+    private int columnEnd;
+
+    /**
+     * Creates a spliterator over all pairs of the given submissions.
+     * @param submissions are the valid submissions. Must not be modified during the traversal.
+     * @param blockSize is the edge length of the tiles.
+     */
+    TiledPairSpliterator(List<Submission> submissions, int blockSize) {
+        this(submissions, blockSize, 0, numberOfTiles(submissions.size(), blockSize));
+    }
+
+    private TiledPairSpliterator(List<Submission> submissions, int blockSize, long tileIndex, long endTile) {
+        this.submissions = submissions;
+        this.blockSize = blockSize;
+        this.blocksPerSide = blocksPerSide(submissions.size(), blockSize);
+        this.endTile = endTile;
+        moveToTile(tileIndex);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super SubmissionTuple> action) {
+        while (inTile || tileIndex < endTile) {
+            if (!inTile) {
+                enterTile();
+            }
+            while (row < rowEnd) {
+                while (column < columnEnd) {
+                    Submission first = submissions.get(row);
+                    Submission second = submissions.get(column++);
+                    if (first.isNew() || second.isNew()) {
+                        action.accept(new SubmissionTuple(first, second));
+                        return true;
+                    }
+                }
+                row++;
+                column = Math.max(columnStart, row + 1);
+            }
+            inTile = false;
+            nextTile();
+        }
+        return false;
+    }
+
+    @Override
+    public Spliterator<SubmissionTuple> trySplit() {
+        long remainingTiles = endTile - tileIndex;
+        if (inTile || remainingTiles < 2) {
+            return null;
+        }
+        long middle = tileIndex + remainingTiles / 2;
+        TiledPairSpliterator prefix = new TiledPairSpliterator(submissions, blockSize, tileIndex, middle);
+        moveToTile(middle);
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        long remainingTiles = endTile - tileIndex;
+        return remainingTiles > Long.MAX_VALUE / ((long) blockSize * blockSize) ? Long.MAX_VALUE : remainingTiles * blockSize * blockSize;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL | IMMUTABLE;
+    }
+
+    private void enterTile() {
+        inTile = true;
+        row = blockRow * blockSize;
+        rowEnd = Math.min(row + blockSize, submissions.size());
+        columnStart = blockColumn * blockSize;
+        columnEnd = Math.min(columnStart + blockSize, submissions.size());
+        column = Math.max(columnStart, row + 1);
+    }
+
+    private void nextTile() {
+        tileIndex++;
+        blockColumn++;
+        if (blockColumn == blocksPerSide) {
+            blockRow++;
+            blockColumn = blockRow;
+        }
+    }
+
+    /**
+     * Sets the position to the start of the tile with the given linear index. Row r of the upper triangle of tiles contains
+     * (blocksPerSide - r) tiles.
+     */
+    private void moveToTile(long targetTileIndex) {
+        tileIndex = targetTileIndex;
+        inTile = false;
+        long remaining = targetTileIndex;
+        int targetRow = 0;
+        while (targetRow < blocksPerSide && remaining >= blocksPerSide - targetRow) {
+            remaining -= blocksPerSide - targetRow;
+            targetRow++;
+        }
+        blockRow = targetRow;
+        blockColumn = targetRow + (int) remaining;
+    }
+
+    private static int blocksPerSide(int numberOfSubmissions, int blockSize) {
+        return (numberOfSubmissions + blockSize - 1) / blockSize;
+    }
+
+    private static long numberOfTiles(int numberOfSubmissions, int blockSize) {
+        long blocks = blocksPerSide(numberOfSubmissions, blockSize);
+        return blocks * (blocks + 1) / 2;
+    }
+}
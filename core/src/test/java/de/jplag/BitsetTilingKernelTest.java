@@ -0,0 +1,42 @@
+package de.jplag;
+
+import java.io.File;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import de.jplag.exceptions.ExitException;
+import de.jplag.merging.MergingOptions;
+import de.jplag.options.ExecutionOptions;
+import de.jplag.options.JPlagOptions;
+
+/**
+ * Ensures that the bitset kernel of the {@link GreedyStringTiling} yields exactly the same matches as the default
+ * kernel.
+ */
+class BitsetTilingKernelTest extends TestBase {
+
+    @Test
+    @DisplayName("test bitset kernel with low minimum token match")
+    void testPartialPlagiarism() throws ExitException {
+        assertSameMatches("PartialPlagiarism", it -> it.withMinimumTokenMatch(3));
+    }
+
+    @Test
+    @DisplayName("test bitset kernel with match merging")
+    void testMerging() throws ExitException {
+        assertSameMatches("PartialPlagiarism", it -> it.withMergingOptions(new MergingOptions(true, 2, 6)));
+    }
+
+    @Test
+    @DisplayName("test bitset kernel with basecode")
+    void testBasecode() throws ExitException {
+        assertSameMatches("basecode", it -> it.withBaseCodeSubmissionDirectory(new File(it.submissionDirectories().iterator().next(), "base")));
+    }
+
+    private void assertSameMatches(String sampleName, Function<JPlagOptions, JPlagOptions> customization) throws ExitException {
+        JPlagOptions options = getOptions(sampleName, customization);
+        assertSameComparisons(options, options.withExecutionOptions(new ExecutionOptions().withBitsetTilingKernel(true)));
+    }
+}
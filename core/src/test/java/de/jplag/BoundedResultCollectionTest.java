@@ -0,0 +1,66 @@
+package de.jplag;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import de.jplag.clustering.ClusteringOptions;
+import de.jplag.exceptions.ExitException;
+import de.jplag.merging.MergingOptions;
+import de.jplag.options.ExecutionOptions;
+import de.jplag.options.JPlagOptions;
+
+/**
+ * Ensures that collecting only the top comparisons yields the same report data as retaining all comparisons.
+ */
+class BoundedResultCollectionTest extends TestBase {
+    private static final int SHOWN_COMPARISONS = 3;
+
+    @Test
+    @DisplayName("test bounded collection retains top comparisons and aggregates all")
+    void testBoundedCollection() throws ExitException {
+        assertSameReportData(it -> it.withMinimumTokenMatch(3));
+    }
+
+    @Test
+    @DisplayName("test bounded collection with match merging")
+    void testBoundedCollectionWithMerging() throws ExitException {
+        assertSameReportData(it -> it.withMergingOptions(new MergingOptions(true, 2, 6)));
+    }
+
+    private void assertSameReportData(Function<JPlagOptions, JPlagOptions> customization) throws ExitException {
+        JPlagOptions options = getOptions("PartialPlagiarism", customization).withMaximumNumberOfComparisons(SHOWN_COMPARISONS)
+                .withClusteringOptions(new ClusteringOptions().withEnabled(true)); // similarities are only kept for clustering
+        JPlagResult complete = JPlag.run(options);
+        JPlagResult bounded = JPlag.run(options.withExecutionOptions(new ExecutionOptions().withBoundedResultCollection(true)));
+
+        assertTrue(complete.getNumberOfComparisons() > SHOWN_COMPARISONS);
+        assertEquals(SHOWN_COMPARISONS, bounded.getAllComparisons().size());
+        assertEquals(complete.getNumberOfComparisons(), bounded.getNumberOfComparisons());
+        assertEquals(similarities(complete.getComparisons(SHOWN_COMPARISONS)), similarities(bounded.getAllComparisons()));
+        assertEquals(names(complete.getComparisons(SHOWN_COMPARISONS)), names(bounded.getAllComparisons()));
+        assertArrayEquals(complete.getSimilarityDistribution(), bounded.getSimilarityDistribution());
+        assertArrayEquals(complete.getMaxSimilarityDistribution(), bounded.getMaxSimilarityDistribution());
+        assertEquals(fingerprint(complete.getComparisonSimilarities()), fingerprint(bounded.getComparisonSimilarities()));
+        assertEquals(complete.getSubmissionsWithoutSimilarity(), bounded.getSubmissionsWithoutSimilarity());
+    }
+
+    private static List<Double> similarities(List<JPlagComparison> comparisons) {
+        return comparisons.stream().map(JPlagComparison::similarity).toList();
+    }
+
+    private static List<String> names(List<JPlagComparison> comparisons) {
+        return comparisons.stream().map(it -> it.firstSubmission().getName() + "-" + it.secondSubmission().getName()).toList();
+    }
+
+    private static List<String> fingerprint(List<ComparisonSimilarity> similarities) {
+        return similarities.stream().map(it -> it.firstSubmission().getName() + "-" + it.secondSubmission().getName() + ":" + it.similarity())
+                .sorted().toList();
+    }
+}
@@ -0,0 +1,61 @@
+package de.jplag;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import de.jplag.exceptions.ExitException;
+import de.jplag.options.ExecutionOptions;
+import de.jplag.options.JPlagOptions;
+
+/**
+ * Ensures that skipping the pairs without shared windows via the {@link CandidatePairs} does not change the result.
+ */
+class CandidatePairsTest extends TestBase {
+
+    @Test
+    @DisplayName("test candidate pair filtering retains comparisons without similarity")
+    void testWithoutThreshold() throws ExitException {
+        assertSameComparisons("PartialPlagiarism", it -> it.withMinimumTokenMatch(40).withSimilarityThreshold(0));
+    }
+
+    @Test
+    @DisplayName("test candidate pair filtering with similarity threshold")
+    void testWithThreshold() throws ExitException {
+        assertSameComparisons("PartialPlagiarism", it -> it.withMinimumTokenMatch(40).withSimilarityThreshold(0.1));
+    }
+
+    @Test
+    @DisplayName("test candidate pair filtering with basecode")
+    void testBasecode() throws ExitException {
+        assertSameComparisons("basecode", it -> it.withBaseCodeSubmissionDirectory(new File(it.submissionDirectories().iterator().next(), "base")));
+    }
+
+    @Test
+    @DisplayName("test pairs without shared windows are counted instead of compared")
+    void testUnmatchedPairs() throws ExitException {
+        JPlagOptions options = getDefaultOptions("NoDuplicate").withSimilarityThreshold(0);
+        JPlagResult result = JPlag.run(options.withExecutionOptions(new ExecutionOptions().withCandidatePairFiltering(true)));
+
+        assertTrue(result.getRetainedComparisons().isEmpty());
+        assertEquals(3, result.getUnmatchedPairs().count());
+        assertEquals(3, result.getNumberOfComparisons());
+        assertEquals(3, result.getSimilarityDistribution()[0]);
+        assertEquals(3, result.getMaxSimilarityDistribution()[0]);
+        assertTrue(result.getComparisonSimilarities().isEmpty());
+        assertEquals(3, result.getSubmissionsWithoutSimilarity().size());
+        assertEquals(3, result.getAllComparisons().size());
+        assertEquals(1, result.getComparisons(1).size());
+    }
+
+    private void assertSameComparisons(String sampleName, Function<JPlagOptions, JPlagOptions> customization) throws ExitException {
+        JPlagOptions options = getOptions(sampleName, customization);
+        assertSameComparisons(options.withExecutionOptions(new ExecutionOptions().withCandidatePairFiltering(false)),
+                options.withExecutionOptions(new ExecutionOptions().withCandidatePairFiltering(true)));
+    }
+}
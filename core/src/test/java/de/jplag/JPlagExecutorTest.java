@@ -0,0 +1,72 @@
+package de.jplag;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import de.jplag.exceptions.ExitException;
+import de.jplag.exceptions.SubmissionException;
+import de.jplag.options.JPlagOptions;
+
+/**
+ * Tests the dedicated executor of JPlag runs.
+ */
+class JPlagExecutorTest extends TestBase {
+    private static final String SAMPLE_NAME = "PartialPlagiarism";
+    private static final String THREAD_NAME_PREFIX = "test-worker";
+
+    @Test
+    @DisplayName("test parallel streams run on the named worker threads")
+    void testParallelStreamsUseWorkerThreads() {
+        try (JPlagExecutor executor = new JPlagExecutor(2, THREAD_NAME_PREFIX)) {
+            Set<String> threadNames = executor
+                    .invoke(() -> IntStream.range(0, 1000).parallel().mapToObj(it -> Thread.currentThread().getName()).collect(Collectors.toSet()));
+            assertFalse(threadNames.isEmpty());
+            assertTrue(threadNames.stream().allMatch(it -> it.startsWith(THREAD_NAME_PREFIX + "-")), threadNames::toString);
+            assertEquals(2, executor.parallelism());
+        }
+    }
+
+    @Test
+    @DisplayName("test checked exceptions of tasks are passed to the caller")
+    void testCheckedException() {
+        try (JPlagExecutor executor = new JPlagExecutor(1)) {
+            SubmissionException exception = new SubmissionException("test");
+            assertEquals(exception, assertThrows(SubmissionException.class, () -> executor.invoke(() -> {
+                throw exception;
+            })));
+        }
+    }
+
+    @Test
+    @DisplayName("test run on a given executor equals run on a dedicated executor")
+    void testRunOnExecutor() throws ExitException {
+        JPlagOptions options = getDefaultOptions(SAMPLE_NAME);
+        List<String> expected = fingerprint(JPlag.run(options));
+        try (JPlagExecutor executor = new JPlagExecutor(3)) {
+            assertEquals(expected, fingerprint(JPlag.run(options, executor)));
+            assertEquals(expected, fingerprint(JPlag.run(options, executor))); // executors can be reused
+        }
+    }
+
+    @Test
+    @DisplayName("test cancelled executor aborts the run")
+    void testCancelledRun() {
+        JPlagOptions options = getDefaultOptions(SAMPLE_NAME);
+        try (JPlagExecutor executor = new JPlagExecutor()) {
+            executor.cancel();
+            assertTrue(executor.isCancelled());
+            assertThrows(CancellationException.class, () -> JPlag.run(options, executor));
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package de.jplag;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.jplag.exceptions.ExitException;
+import de.jplag.merging.MergingOptions;
+import de.jplag.options.JPlagOptions;
+
+/**
+ * Compares a large cohort of synthetic submissions in parallel and sequentially, to ensure that the shared
+ * per-submission data of the {@link GreedyStringTiling} does not cause races under sustained contention, which would
+ * show as results that differ from the sequential run.
+ */
+class ParallelComparisonStressTest extends TestBase {
+    private static final int SUBMISSIONS = 200;
+    private static final int SHARED_METHODS = 80;
+    private static final int METHODS_PER_SUBMISSION = 12;
+    private static final int BASE_CODE_METHODS = 4;
+    private static final int REPETITIONS = 2;
+    private static final int MINIMUM_THREADS = 4;
+    private static final long SEED = 2024;
+
+    @TempDir
+    static Path directory;
+    private static Path submissionDirectory;
+    private static Path baseCodeDirectory;
+
+    @BeforeAll
+    static void createSubmissions() throws IOException {
+        Random random = new Random(SEED);
+        List<String> sharedMethods = new ArrayList<>();
+        for (int i = 0; i < SHARED_METHODS; i++) {
+            sharedMethods.add(createMethod("shared" + i, random));
+        }
+
+        submissionDirectory = Files.createDirectory(directory.resolve("submissions"));
+        for (int submission = 0; submission < SUBMISSIONS; submission++) {
+            StringBuilder methods = new StringBuilder();
+            for (int i = 0; i < BASE_CODE_METHODS; i++) {
+                methods.append(sharedMethods.get(i));
+            }
+            for (int i = 0; i < METHODS_PER_SUBMISSION; i++) {
+                // submissions either copy a shared method or write their own, so pairs share varying amounts of code
+                methods.append(random.nextBoolean() ? sharedMethods.get(random.nextInt(SHARED_METHODS)) : createMethod("own" + i, random));
+            }
+            writeClass(submissionDirectory.resolve("Submission" + submission + ".java"), "Submission" + submission, methods);
+        }
+
+        baseCodeDirectory = Files.createDirectory(directory.resolve("base"));
+        StringBuilder baseCodeMethods = new StringBuilder();
+        for (int i = 0; i < BASE_CODE_METHODS; i++) {
+            baseCodeMethods.append(sharedMethods.get(i));
+        }
+        writeClass(baseCodeDirectory.resolve("Base.java"), "Base", baseCodeMethods);
+    }
+
+    @Test
+    @DisplayName("test parallel comparisons of a large cohort yield the sequential results")
+    void testParallelComparisons() throws ExitException {
+        assertSequentialResults(it -> it.withMinimumTokenMatch(6));
+    }
+
+    @Test
+    @DisplayName("test parallel comparisons of a large cohort with match merging yield the sequential results")
+    void testParallelComparisonsWithMerging() throws ExitException {
+        assertSequentialResults(it -> it.withMergingOptions(new MergingOptions(true, 6, 6)));
+    }
+
+    @Test
+    @DisplayName("test parallel comparisons of a large cohort with basecode yield the sequential results")
+    void testParallelComparisonsWithBasecode() throws ExitException {
+        assertSequentialResults(it -> it.withBaseCodeSubmissionDirectory(baseCodeDirectory.toFile()));
+    }
+
+    private void assertSequentialResults(Function<JPlagOptions, JPlagOptions> customization) throws ExitException {
+        JPlagOptions options = getOptions(List.of(submissionDirectory.toString()), customization);
+        List<String> expected = fingerprintInOrder(JPlag.run(options.withExecutionOptions(options.executionOptions().withThreads(1))));
+        // several threads even on machines with few processors, so that the workers preempt each other
+        int threads = Math.max(MINIMUM_THREADS, Runtime.getRuntime().availableProcessors());
+        for (int i = 0; i < REPETITIONS; i++) {
+            assertEquals(expected, fingerprintInOrder(JPlag.run(options.withExecutionOptions(options.executionOptions().withThreads(threads)))));
+        }
+    }
+
+    private static void writeClass(Path file, String name, CharSequence methods) throws IOException {
+        Files.writeString(file, "public class " + name + " {\n" + methods + "}\n");
+    }
+
+    private static String createMethod(String name, Random random) {
+        StringBuilder body = new StringBuilder();
+        int statements = 4 + random.nextInt(8);
+        for (int i = 0; i < statements; i++) {
+            body.append(createStatement(random, 2));
+        }
+        return "    int " + name + "(int a, int b) {\n        int x = a;\n" + body + "        return x;\n    }\n";
+    }
+
+    private static String createStatement(Random random, int depth) {
+        int kind = random.nextInt(depth > 0 ? 6 : 3);
+        return switch (kind) {
+            case 0 -> "        x = x * " + random.nextInt(10) + " + b;\n";
+            case 1 -> "        b = Math.max(a, x - " + random.nextInt(10) + ");\n";
+            case 2 -> "        System.out.println(x + b);\n";
+            case 3 -> "        if (x > b) {\n" + createStatement(random, depth - 1) + "        } else {\n" + createStatement(random, depth - 1)
+                    + "        }\n";
+            case 4 -> "        for (int i = 0; i < a; i++) {\n" + createStatement(random, depth - 1) + createStatement(random, depth - 1)
+                    + "        }\n";
+            default -> "        while (x < b) {\n" + createStatement(random, depth - 1) + "            x++;\n        }\n";
+        };
+    }
+}
@@ -0,0 +1,35 @@
+package de.jplag;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import de.jplag.exceptions.ExitException;
+import de.jplag.options.ExecutionOptions;
+import de.jplag.options.JPlagOptions;
+
+/**
+ * Ensures that parsing submissions concurrently yields the same submission set as parsing them sequentially.
+ */
+class ParallelParsingTest extends TestBase {
+    private static final int PARSER_THREADS = 4;
+
+    @Test
+    @DisplayName("test parallel parsing yields the same submissions in the same order")
+    void testParallelParsing() throws ExitException {
+        JPlagOptions options = getDefaultOptions("PartialPlagiarism");
+        SubmissionSet sequential = parse(options.withExecutionOptions(new ExecutionOptions().withParserThreads(1)));
+        SubmissionSet parallel = parse(options.withExecutionOptions(new ExecutionOptions().withParserThreads(PARSER_THREADS)));
+
+        assertFalse(sequential.getSubmissions().isEmpty());
+        assertEquals(fingerprint(sequential), fingerprint(parallel));
+        assertEquals(sequential.getInvalidSubmissions().stream().map(Submission::getName).toList(),
+                parallel.getInvalidSubmissions().stream().map(Submission::getName).toList());
+    }
+
+    private static SubmissionSet parse(JPlagOptions options) throws ExitException {
+        return new SubmissionSetBuilder(options).buildSubmissionSet();
+    }
+}
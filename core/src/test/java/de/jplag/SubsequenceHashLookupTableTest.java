@@ -0,0 +1,47 @@
+package de.jplag;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Checks the primitive bucket layout of the {@link SubsequenceHashLookupTable} against a straightforward map of lists.
+ */
+class SubsequenceHashLookupTableTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 3, 9, 25, 40})
+    void testBucketsMatchReferenceMap(int windowSize) {
+        Random random = new Random(windowSize);
+        int[] values = new int[2000];
+        boolean[] marked = new boolean[values.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(12);
+            marked[i] = random.nextInt(50) == 0;
+        }
+
+        SubsequenceHashLookupTable table = new SubsequenceHashLookupTable(windowSize, values, marked);
+        Map<Integer, List<Integer>> reference = new HashMap<>();
+        for (int startIndex = 0; startIndex < values.length - table.getWindowSize(); startIndex++) {
+            int hash = table.subsequenceHashForStartIndex(startIndex);
+            if (hash != SubsequenceHashLookupTable.NO_HASH) {
+                reference.computeIfAbsent(hash, key -> new ArrayList<>()).add(startIndex);
+            }
+        }
+
+        for (Map.Entry<Integer, List<Integer>> entry : reference.entrySet()) {
+            int[] expected = entry.getValue().stream().mapToInt(Integer::intValue).toArray();
+            assertArrayEquals(expected, table.startIndexesOfPossiblyMatchingSubsequencesForSubsequenceHash(entry.getKey()));
+        }
+        assertEquals(SubsequenceHashLookupTable.NO_BUCKET, table.bucketForSubsequenceHash(SubsequenceHashLookupTable.NO_HASH));
+        assertEquals(SubsequenceHashLookupTable.NO_BUCKET, table.bucketForSubsequenceHash(Integer.MAX_VALUE));
+    }
+}
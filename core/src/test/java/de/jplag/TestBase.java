@@ -1,5 +1,7 @@
 package de.jplag;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 import java.io.File;
 import java.nio.file.Path;
 import java.util.List;
@@ -12,6 +14,8 @@ import de.jplag.clustering.ClusteringOptions;
 import de.jplag.exceptions.ExitException;
 import de.jplag.java.JavaLanguage;
 import de.jplag.options.JPlagOptions;
+import de.jplag.semantics.CodeSemantics;
+import de.jplag.semantics.Variable;
 
 /**
  * Shared base class for all core test cases. Provides functionality regarding executing JPlag and checking the results.
@@ -136,6 +140,75 @@ public abstract class TestBase {
                 .findFirst();
     }
 
+    /**
+     * Runs JPlag with two sets of options that are expected to yield the same comparisons, e.g. with and without an
+     * optimization.
+     * @param expectedOptions are the options of the reference run.
+     * @param actualOptions are the options of the checked run.
+     */
+    protected static void assertSameComparisons(JPlagOptions expectedOptions, JPlagOptions actualOptions) throws ExitException {
+        List<String> expected = fingerprint(JPlag.run(expectedOptions));
+        assertEquals(expected, fingerprint(JPlag.run(actualOptions)));
+    }
+
+    /**
+     * Describes the comparisons of a result by the names of their submissions and their matches, independent of the order
+     * of the comparisons.
+     * @param result is the result object.
+     * @return the sorted descriptions of the comparisons.
+     */
+    protected static List<String> fingerprint(JPlagResult result) {
+        return fingerprintInOrder(result).stream().sorted().toList();
+    }
+
+    /**
+     * Describes the comparisons of a result by the names of their submissions and their matches, in the order of the
+     * result.
+     * @param result is the result object.
+     * @return the descriptions of the comparisons.
+     */
+    protected static List<String> fingerprintInOrder(JPlagResult result) {
+        return result.getAllComparisons().stream().map(it -> it.firstSubmission().getName() + "-" + it.secondSubmission().getName() + ":"
+                + it.matches() + it.ignoredMatches()).toList();
+    }
+
+    /**
+     * Describes the parsed submissions of a submission set, see {@link #fingerprint(Submission, boolean)}.
+     * @param submissionSet is the submission set.
+     * @return the descriptions of the submissions including the token semantics, in the order of the set.
+     */
+    protected static List<String> fingerprint(SubmissionSet submissionSet) {
+        return submissionSet.getSubmissions().stream().map(it -> fingerprint(it, true)).toList();
+    }
+
+    /**
+     * Describes a parsed submission by its name and the type and position of each token.
+     * @param submission is the parsed submission.
+     * @param withSemantics determines whether the semantics of the tokens are described as well.
+     * @return the description of the submission.
+     */
+    protected static String fingerprint(Submission submission, boolean withSemantics) {
+        return submission.getName() + ":" + submission.getTokenList().stream().map(it -> fingerprint(it, withSemantics)).toList();
+    }
+
+    private static String fingerprint(Token token, boolean withSemantics) {
+        String file = token.getFile() == null ? "" : token.getFile().getName();
+        String position = String.join("|", token.getType().getDescription(), file, Integer.toString(token.getLine()),
+                Integer.toString(token.getColumn()), Integer.toString(token.getLength()));
+        return withSemantics ? position + "|" + fingerprint(token.getSemantics()) : position;
+    }
+
+    private static String fingerprint(CodeSemantics semantics) {
+        if (semantics == null) {
+            return "none";
+        }
+        // variables are unordered, thus only their sorted descriptions are compared
+        return String.join("|", Boolean.toString(semantics.keep()), Boolean.toString(semantics.hasPartialPositionSignificance()),
+                Boolean.toString(semantics.hasFullPositionSignificance()), Integer.toString(semantics.bidirectionalBlockDepthChange()),
+                semantics.reads().stream().map(Variable::toString).sorted().toList().toString(),
+                semantics.writes().stream().map(Variable::toString).sorted().toList().toString());
+    }
+
     /**
      * Deletes a directory with all its file, all its subdirectories and their files.
      * @param directory is the directory to delete.
@@ -0,0 +1,49 @@
+package de.jplag;
+
+import java.io.File;
+import java.util.function.Function;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import de.jplag.exceptions.ExitException;
+import de.jplag.merging.MergingOptions;
+import de.jplag.options.ExecutionOptions;
+import de.jplag.options.JPlagOptions;
+import de.jplag.options.SimilarityMetric;
+
+/**
+ * Ensures that pruning the comparisons that cannot reach the similarity threshold does not change the result.
+ */
+class ThresholdPruningTest extends TestBase {
+
+    @ParameterizedTest
+    @EnumSource(SimilarityMetric.class)
+    void testThreshold(SimilarityMetric metric) throws ExitException {
+        assertSameComparisons("PartialPlagiarism", it -> it.withSimilarityMetric(metric).withSimilarityThreshold(thresholdOf(metric)));
+    }
+
+    @ParameterizedTest
+    @EnumSource(SimilarityMetric.class)
+    void testThresholdWithMerging(SimilarityMetric metric) throws ExitException {
+        assertSameComparisons("PartialPlagiarism", it -> it.withSimilarityMetric(metric).withSimilarityThreshold(thresholdOf(metric))
+                .withMergingOptions(new MergingOptions(true, 2, 6)));
+    }
+
+    @ParameterizedTest
+    @EnumSource(SimilarityMetric.class)
+    void testThresholdWithBasecode(SimilarityMetric metric) throws ExitException {
+        assertSameComparisons("basecode", it -> it.withSimilarityMetric(metric).withSimilarityThreshold(thresholdOf(metric))
+                .withBaseCodeSubmissionDirectory(new File(it.submissionDirectories().iterator().next(), "base")));
+    }
+
+    private static double thresholdOf(SimilarityMetric metric) {
+        return metric == SimilarityMetric.INTERSECTION ? 50 : 0.5;
+    }
+
+    private void assertSameComparisons(String sampleName, Function<JPlagOptions, JPlagOptions> customization) throws ExitException {
+        JPlagOptions options = getOptions(sampleName, customization);
+        assertSameComparisons(options.withExecutionOptions(new ExecutionOptions().withThresholdPruning(false)),
+                options.withExecutionOptions(new ExecutionOptions().withThresholdPruning(true)));
+    }
+}
@@ -0,0 +1,129 @@
+package de.jplag;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.File;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class TokenSequenceTest {
+    private static final File FIRST_FILE = new File("A.java");
+    private static final File SECOND_FILE = new File("B.java");
+
+    private enum TestTokenType implements TokenType {
+        ALPHA,
+        BETA;
+
+        @Override
+        public String getDescription() {
+            return name();
+        }
+    }
+
+    @Test
+    void testRoundTrip() {
+        List<Token> tokens = createTokens();
+        TokenSequence sequence = TokenSequence.of(tokens);
+
+        assertEquals(tokens.size(), sequence.size());
+        assertEquals(0, sequence.getTokenValue(3));
+        assertEquals(sequence.getTokenValue(0), sequence.getTokenValue(2));
+        assertEquals(sequence.getTokenValue(0) + 1, sequence.getTokenValue(1));
+        List<Token> materialized = sequence.toTokenList();
+        for (int i = 0; i < tokens.size(); i++) {
+            assertTokenEquals(tokens.get(i), materialized.get(i));
+        }
+        assertNull(sequence.getSemantics(0));
+        assertSame(tokens.get(tokens.size() - 1).getSemantics(), sequence.getSemantics(tokens.size() - 1));
+    }
+
+    private record WordTokenType(String getDescription) implements TokenType {
+    }
+
+    @Test
+    void testDynamicTypesShareValues() {
+        TokenSequence sequence = TokenSequence.of(List.of(new Token(new WordTokenType("first"), FIRST_FILE, 1, 1, 5),
+                new Token(new WordTokenType("second"), FIRST_FILE, 1, 7, 6), new Token(new WordTokenType("first"), FIRST_FILE, 2, 1, 5)));
+        TokenSequence otherSequence = TokenSequence.of(List.of(new Token(new WordTokenType("first"), SECOND_FILE, 1, 1, 5)));
+
+        assertEquals(sequence.getTokenValue(0), sequence.getTokenValue(2));
+        assertNotEquals(sequence.getTokenValue(0), sequence.getTokenValue(1));
+        assertEquals(sequence.getTokenValue(0), otherSequence.getTokenValue(0));
+        assertEquals(new WordTokenType("second"), sequence.getType(1));
+    }
+
+    @Test
+    void testDynamicTypesAreReleased() throws InterruptedException {
+        WeakReference<TokenType> registeredType = new WeakReference<>(internUnusedType());
+        for (int i = 0; i < 100 && registeredType.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(registeredType.get());
+    }
+
+    /**
+     * Interns a token type in a sequence that is unreachable afterwards.
+     * @return the registered instance of the token type.
+     */
+    private static TokenType internUnusedType() {
+        TokenSequence sequence = TokenSequence.of(List.of(new Token(new WordTokenType("unused"), FIRST_FILE, 1, 1, 6)));
+        return sequence.getType(0);
+    }
+
+    @Test
+    void testWithoutRange() {
+        List<Token> tokens = createTokens();
+        TokenSequence sequence = TokenSequence.of(tokens).withoutRange(1, 3);
+
+        List<Token> expected = new ArrayList<>(tokens);
+        expected.subList(1, 3).clear();
+        assertEquals(expected.size(), sequence.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertTokenEquals(expected.get(i), sequence.getToken(i));
+        }
+    }
+
+    @Test
+    void testWithoutTokens() {
+        List<Token> tokens = createTokens();
+        BitSet removed = new BitSet();
+        removed.set(0);
+        removed.set(2);
+        TokenSequence sequence = TokenSequence.of(tokens).withoutTokens(removed);
+
+        List<Token> expected = new ArrayList<>(tokens);
+        expected.remove(2);
+        expected.remove(0);
+        assertEquals(expected.size(), sequence.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertTokenEquals(expected.get(i), sequence.getToken(i));
+        }
+    }
+
+    private static List<Token> createTokens() {
+        List<Token> tokens = new ArrayList<>();
+        tokens.add(new Token(TestTokenType.ALPHA, FIRST_FILE, 1, 1, 5));
+        tokens.add(new Token(TestTokenType.BETA, FIRST_FILE, 1, 7, 2));
+        tokens.add(new Token(TestTokenType.ALPHA, FIRST_FILE, 2, 3, 4));
+        tokens.add(Token.fileEnd(FIRST_FILE));
+        tokens.add(new Token(TestTokenType.BETA, SECOND_FILE, 4, 1, 1));
+        tokens.add(Token.semanticFileEnd(SECOND_FILE));
+        return tokens;
+    }
+
+    private static void assertTokenEquals(Token expected, Token actual) {
+        assertEquals(expected.getType(), actual.getType());
+        assertEquals(expected.getFile(), actual.getFile());
+        assertEquals(expected.getLine(), actual.getLine());
+        assertEquals(expected.getColumn(), actual.getColumn());
+        assertEquals(expected.getLength(), actual.getLength());
+    }
+}
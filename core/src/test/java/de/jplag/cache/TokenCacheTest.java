@@ -0,0 +1,84 @@
+package de.jplag.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.jplag.SubmissionSet;
+import de.jplag.SubmissionSetBuilder;
+import de.jplag.TestBase;
+import de.jplag.exceptions.ExitException;
+import de.jplag.options.ExecutionOptions;
+import de.jplag.options.JPlagOptions;
+
+/**
+ * Ensures that submissions loaded from the token cache are identical to parsed submissions.
+ */
+class TokenCacheTest extends TestBase {
+    private static final String SAMPLE_NAME = "PartialPlagiarism";
+
+    @TempDir
+    private Path cacheDirectory;
+
+    @Test
+    @DisplayName("test cached submissions equal parsed submissions")
+    void testCachedSubmissions() throws ExitException, IOException {
+        JPlagOptions options = getDefaultOptions(SAMPLE_NAME);
+        List<String> parsed = fingerprint(parse(options));
+
+        JPlagOptions cachedOptions = getCachedOptions();
+        assertEquals(parsed, fingerprint(parse(cachedOptions)));
+        assertEquals(parsed.size(), entries().size());
+        assertEquals(parsed, fingerprint(parse(cachedOptions)));
+    }
+
+    @Test
+    @DisplayName("test corrupted cache entries are parsed again")
+    void testCorruptedEntries() throws ExitException, IOException {
+        JPlagOptions options = getCachedOptions();
+        List<String> parsed = fingerprint(parse(options));
+
+        List<Path> entries = entries();
+        Files.write(entries.get(0), new byte[] {1, 2, 3});
+        byte[] content = Files.readAllBytes(entries.get(1));
+        content[content.length / 2] ^= 1;
+        Files.write(entries.get(1), content);
+
+        assertEquals(parsed, fingerprint(parse(options)));
+    }
+
+    @Test
+    @DisplayName("test eviction bounds the cache size")
+    void testEviction() throws ExitException, IOException {
+        JPlagOptions options = getCachedOptions();
+        parse(options);
+        assertFalse(entries().isEmpty());
+
+        parse(options.withExecutionOptions(options.executionOptions().withTokenCacheSize(0)));
+        assertTrue(entries().isEmpty());
+    }
+
+    private JPlagOptions getCachedOptions() {
+        return getOptions(SAMPLE_NAME, it -> it.withExecutionOptions(new ExecutionOptions().withTokenCacheDirectory(cacheDirectory.toFile())));
+    }
+
+    private static SubmissionSet parse(JPlagOptions options) throws ExitException {
+        return new SubmissionSetBuilder(options).buildSubmissionSet();
+    }
+
+    private List<Path> entries() throws IOException {
+        try (Stream<Path> files = Files.list(cacheDirectory)) {
+            return files.sorted().toList();
+        }
+    }
+}
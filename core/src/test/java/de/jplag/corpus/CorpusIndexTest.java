@@ -0,0 +1,112 @@
+package de.jplag.corpus;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.jplag.GreedyStringTiling;
+import de.jplag.JPlagResult;
+import de.jplag.Submission;
+import de.jplag.SubmissionSetBuilder;
+import de.jplag.TestBase;
+import de.jplag.exceptions.ExitException;
+import de.jplag.options.ExecutionOptions;
+import de.jplag.options.JPlagOptions;
+
+/**
+ * Ensures that indexed submissions are identical to parsed submissions and that comparisons against the index yield the
+ * same matches as comparisons against the parsed old submissions.
+ */
+class CorpusIndexTest extends TestBase {
+    private static final String SAMPLE_NAME = "PartialPlagiarism";
+    private static final String NEW_ROOT = "SimpleDuplicate";
+    private static final String OLD_ROOT = "basecode";
+    private static final String OTHER_ROOT = "NoDuplicate";
+
+    @TempDir
+    private Path indexDirectory;
+
+    @Test
+    @DisplayName("test indexed submissions equal parsed submissions")
+    void testLoadedSubmissions() throws ExitException, IOException {
+        JPlagOptions options = getDefaultOptions(SAMPLE_NAME);
+        List<Submission> submissions = new SubmissionSetBuilder(options).buildSubmissionSet().getSubmissions();
+        File indexFile = indexDirectory.resolve("corpus.index").toFile();
+        assertEquals(submissions.size(), CorpusIndex.append(indexFile, submissions, options));
+        assertEquals(0, CorpusIndex.append(indexFile, submissions, options));
+
+        try (CorpusIndex index = CorpusIndex.open(indexFile, options.language())) {
+            assertEquals(submissions.size(), index.numberOfSubmissions());
+            for (int i = 0; i < index.numberOfSubmissions(); i++) {
+                Submission loaded = index.loadSubmission(i, options.language());
+                Submission parsed = submissions.stream().filter(it -> it.getName().equals(loaded.getName())).findAny().orElseThrow();
+                assertFalse(loaded.isNew());
+                assertEquals(fingerprint(parsed, false), fingerprint(loaded, false)); // the index does not keep semantics
+                assertTrue(index.findCandidates(List.of(parsed), GreedyStringTiling.minimumMatchLengthOf(options)).get(i));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("test indexed submissions are identified by their root files")
+    void testSubmissionIdentity() throws ExitException, IOException {
+        File indexFile = indexDirectory.resolve("corpus.index").toFile();
+        JPlagOptions options = getDefaultOptions(NEW_ROOT);
+        assertEquals(2, CorpusIndex.append(indexFile, new SubmissionSetBuilder(options).buildSubmissionSet().getSubmissions(), options));
+
+        JPlagOptions otherOptions = getDefaultOptions(OTHER_ROOT); // reuses the names of the indexed submissions
+        List<Submission> otherSubmissions = new SubmissionSetBuilder(otherOptions).buildSubmissionSet().getSubmissions();
+        assertEquals(otherSubmissions.size(), CorpusIndex.append(indexFile, otherSubmissions, otherOptions));
+
+        JPlagOptions renamingOptions = getOptions(List.of(getBasePath(NEW_ROOT), getBasePath(OTHER_ROOT)), it -> it); // prefixes the names
+        List<Submission> renamedSubmissions = new SubmissionSetBuilder(renamingOptions).buildSubmissionSet().getSubmissions();
+        assertEquals(0, CorpusIndex.append(indexFile, renamedSubmissions, renamingOptions));
+    }
+
+    @Test
+    @DisplayName("test opened indexes are closed before they are replaced")
+    void testAppendToOpenedIndex() throws ExitException, IOException {
+        File indexFile = indexDirectory.resolve("corpus.index").toFile();
+        JPlagOptions options = getDefaultOptions(NEW_ROOT);
+        assertEquals(2, CorpusIndex.append(indexFile, new SubmissionSetBuilder(options).buildSubmissionSet().getSubmissions(), options));
+
+        JPlagOptions otherOptions = getDefaultOptions(OTHER_ROOT);
+        List<Submission> otherSubmissions = new SubmissionSetBuilder(otherOptions).buildSubmissionSet().getSubmissions();
+        try (CorpusIndex index = CorpusIndex.open(indexFile, options.language())) {
+            assertEquals(0, CorpusIndex.append(indexFile, index, List.of(), options));
+            assertFalse(index.isClosed());
+            assertEquals(otherSubmissions.size(), CorpusIndex.append(indexFile, index, otherSubmissions, otherOptions));
+            assertTrue(index.isClosed());
+            assertThrows(IllegalStateException.class, () -> index.loadSubmission(0, options.language()));
+        }
+        try (CorpusIndex index = CorpusIndex.open(indexFile, options.language())) {
+            assertEquals(2 + otherSubmissions.size(), index.numberOfSubmissions());
+        }
+    }
+
+    @Test
+    @DisplayName("test comparisons against indexed old submissions")
+    void testComparisonsWithIndex() throws ExitException {
+        File indexFile = indexDirectory.resolve("corpus.index").toFile();
+        Function<JPlagOptions, JPlagOptions> withIndex = it -> it.withExecutionOptions(new ExecutionOptions().withCorpusIndex(indexFile));
+        JPlagResult parsedResult = runJPlag(List.of(getBasePath(NEW_ROOT)), List.of(getBasePath(OLD_ROOT)), withIndex);
+        assertTrue(indexFile.exists());
+
+        JPlagResult indexedResult = runJPlag(List.of(getBasePath(NEW_ROOT)), withIndex);
+        assertEquals(parsedResult.getNumberOfComparisons(), indexedResult.getNumberOfComparisons());
+        assertArrayEquals(parsedResult.getSimilarityDistribution(), indexedResult.getSimilarityDistribution());
+        assertEquals(fingerprint(parsedResult), fingerprint(indexedResult));
+    }
+}
@@ -30,6 +30,17 @@ class CsvPrinterTest {
         Assertions.assertEquals(EXPECTED_CSV_TEXT, printer.printToString());
     }
 
+    @Test
+    void testPrintWithComment() throws IOException {
+        CsvDataMapper<CsvTestItem> mapper = new ReflectiveCsvDataMapper<>(CsvTestItem.class);
+        CsvPrinter<CsvTestItem> printer = new CsvPrinter<>(mapper);
+
+        printer.setComment("truncated");
+        printer.addRows(TEST_ITEMS);
+
+        Assertions.assertEquals("# truncated\r\n" + EXPECTED_CSV_TEXT, printer.printToString());
+    }
+
     private record CsvTestItem(@CsvValue(1) int number, @CsvValue(2) String text) {
     }
 }
@@ -0,0 +1,54 @@
+package de.jplag.csv.comparisons;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.jplag.JPlag;
+import de.jplag.JPlagResult;
+import de.jplag.TestBase;
+import de.jplag.exceptions.ExitException;
+import de.jplag.options.ExecutionOptions;
+
+class CsvComparisonOutputTest extends TestBase {
+    private static final int SHOWN_COMPARISONS = 3;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    @DisplayName("test csv of all comparisons has no comment")
+    void testCompleteResults() throws ExitException, IOException {
+        JPlagResult result = JPlag.run(getDefaultOptions("PartialPlagiarism"));
+        List<String> lines = writeCsv(result);
+
+        assertEquals("submissionName1,submissionName2,averageSimilarity,maxSimilarity", lines.get(0));
+        assertEquals(result.getNumberOfComparisons() + 1, lines.size());
+    }
+
+    @Test
+    @DisplayName("test csv of bounded results states that comparisons are missing")
+    void testBoundedResults() throws ExitException, IOException {
+        JPlagResult result = JPlag.run(getDefaultOptions("PartialPlagiarism").withMaximumNumberOfComparisons(SHOWN_COMPARISONS)
+                .withExecutionOptions(new ExecutionOptions().withBoundedResultCollection(true)));
+        List<String> lines = writeCsv(result);
+
+        assertEquals("# Contains only the " + SHOWN_COMPARISONS + " most similar of " + result.getNumberOfComparisons()
+                + " comparisons, the others were not retained", lines.get(0));
+        assertEquals(SHOWN_COMPARISONS + 2, lines.size());
+    }
+
+    private List<String> writeCsv(JPlagResult result) throws IOException {
+        File outputDirectory = directory.toFile();
+        CsvComparisonOutput.writeCsvResults(result.getAllComparisons(), result.getNumberOfComparisons(), false, outputDirectory, "results");
+        return Files.readAllLines(directory.resolve("results.csv"));
+    }
+}
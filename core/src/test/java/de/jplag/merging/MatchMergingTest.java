@@ -0,0 +1,145 @@
+package de.jplag.merging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import de.jplag.JPlagComparison;
+import de.jplag.Match;
+import de.jplag.Submission;
+import de.jplag.Token;
+import de.jplag.TokenSequence;
+import de.jplag.TokenType;
+import de.jplag.options.JPlagOptions;
+
+/**
+ * Tests {@link MatchMerging} and {@link TokenGaps} with hand-written matches. Neighbors are matches that share their
+ * start in the right submission, thus they always overlap there, and neighbors that overlap in the right submission are
+ * never merged.
+ */
+class MatchMergingTest {
+    private static final File FILE = new File("A.java");
+    private static final int NUMBER_OF_TOKENS = 40;
+    private static final int MINIMUM_TOKEN_MATCH = 3;
+    private static final int MAXIMUM_GAP_SIZE = 6;
+
+    private enum TestTokenType implements TokenType {
+        ALPHA,
+        BETA,
+        GAMMA,
+        DELTA;
+
+        @Override
+        public String getDescription() {
+            return name();
+        }
+    }
+
+    private final MatchMerging matchMerging = new MatchMerging(new JPlagOptions(null, Set.of(), Set.of()).withMinimumTokenMatch(MINIMUM_TOKEN_MATCH)
+            .withMergingOptions(new MergingOptions(true, 2, MAXIMUM_GAP_SIZE)));
+
+    @Test
+    @DisplayName("Test matches without neighbors")
+    void testMatchesWithoutNeighbors() {
+        List<Match> matches = List.of(new Match(0, 0, 5), new Match(7, 8, 5));
+        List<Match> ignoredMatches = List.of(new Match(13, 14, 2));
+
+        assertMergedMatches(matches, ignoredMatches, matches);
+    }
+
+    @Test
+    @DisplayName("Test overlapping neighbors within the maximum gap size")
+    void testOverlappingNeighbors() {
+        List<Match> matches = List.of(new Match(0, 0, 4), new Match(6, 0, 3));
+
+        assertMergedMatches(matches, List.of(), matches);
+    }
+
+    @Test
+    @DisplayName("Test overlapping neighbors beyond the maximum gap size")
+    void testDistantNeighbors() {
+        List<Match> matches = List.of(new Match(0, 0, 4), new Match(30, 0, 4), new Match(20, 20, 4));
+
+        assertMergedMatches(matches, List.of(new Match(10, 20, 2)), matches);
+    }
+
+    @Test
+    @DisplayName("Test translation of positions after removing tokens")
+    void testTokenGaps() {
+        TokenGaps gaps = new TokenGaps();
+        assertTrue(gaps.isEmpty());
+        gaps.remove(5, 3); // original positions 5, 6, 7
+        gaps.remove(10, 2); // original positions 13, 14
+        gaps.remove(4, 1); // original position 4
+
+        BitSet removed = new BitSet();
+        removed.set(4, 8);
+        removed.set(13, 15);
+        int current = 0;
+        for (int original = 0; original < NUMBER_OF_TOKENS; original++) {
+            if (!removed.get(original)) {
+                assertEquals(current, gaps.toCurrent(original));
+                assertEquals(original, gaps.toOriginal(current));
+                current++;
+            }
+        }
+
+        Submission submission = createSubmission("submission");
+        Submission shortened = gaps.applyTo(submission);
+        TokenSequence expected = submission.getTokenSequence().withoutTokens(removed);
+        TokenSequence actual = shortened.getTokenSequence();
+        assertEquals(NUMBER_OF_TOKENS + 1, submission.getNumberOfTokens());
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getType(i), actual.getType(i));
+            assertEquals(expected.getLine(i), actual.getLine(i));
+        }
+    }
+
+    @Test
+    @DisplayName("Test submissions are not copied without removed tokens")
+    void testEmptyTokenGaps() {
+        Submission submission = createSubmission("submission");
+        assertSame(submission, new TokenGaps().applyTo(submission));
+    }
+
+    /**
+     * Merges the matches of two submissions and checks that exactly the expected matches remain, no ignored matches are
+     * left and the token sequences are unchanged.
+     */
+    private void assertMergedMatches(List<Match> matches, List<Match> ignoredMatches, List<Match> expectedMatches) {
+        Submission left = createSubmission("left");
+        Submission right = createSubmission("right");
+        JPlagComparison comparison = new JPlagComparison(left, right, new ArrayList<>(matches), new ArrayList<>(ignoredMatches));
+
+        JPlagComparison merged = matchMerging.mergeMatchesOf(comparison);
+
+        assertEquals(Set.copyOf(expectedMatches), Set.copyOf(merged.matches()));
+        assertEquals(expectedMatches.size(), merged.matches().size());
+        assertTrue(merged.ignoredMatches().isEmpty());
+        assertSame(left, merged.firstSubmission());
+        assertSame(right, merged.secondSubmission());
+        assertEquals(NUMBER_OF_TOKENS + 1, merged.firstSubmission().getNumberOfTokens());
+        assertEquals(NUMBER_OF_TOKENS + 1, merged.secondSubmission().getNumberOfTokens());
+    }
+
+    private static Submission createSubmission(String name) {
+        List<Token> tokens = new ArrayList<>();
+        for (int i = 0; i < NUMBER_OF_TOKENS; i++) {
+            tokens.add(new Token(TestTokenType.values()[i % TestTokenType.values().length], FILE, i + 1, 1, 1));
+        }
+        tokens.add(Token.fileEnd(FILE));
+        Submission submission = new Submission(name, FILE, true, List.of(FILE), null);
+        submission.setTokenList(tokens);
+        return submission;
+    }
+}
@@ -0,0 +1,67 @@
+package de.jplag.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import de.jplag.JPlag;
+import de.jplag.JPlagResult;
+import de.jplag.SubmissionSet;
+import de.jplag.SubmissionSetBuilder;
+import de.jplag.TestBase;
+import de.jplag.exceptions.ExitException;
+import de.jplag.options.ExecutionOptions;
+import de.jplag.options.JPlagOptions;
+import de.jplag.progress.ProgressTracker;
+
+/**
+ * Tests the metrics of the stages of a run.
+ */
+class RunMetricsTest extends TestBase {
+    private static final String SAMPLE_NAME = "PartialPlagiarism";
+
+    @Test
+    @DisplayName("test metrics of all stages are collected if enabled")
+    void testCollectedMetrics() throws ExitException {
+        JPlagResult result = JPlag.run(getOptions(SAMPLE_NAME, it -> it.withExecutionOptions(new ExecutionOptions().withCollectMetrics(true))));
+        MetricsSummary summary = result.getMetrics().summarize();
+        for (Stage stage : new Stage[] {Stage.DISCOVERY, Stage.PARSING, Stage.HASHING, Stage.TILING, Stage.CLUSTERING}) {
+            assertTrue(summary.stages().containsKey(stage.getIdentifier()), stage::toString);
+        }
+
+        int submissions = result.getSubmissions().numberOfSubmissions();
+        long parsingBatches = summary.stages().get(Stage.PARSING.getIdentifier()).count(); // languages may parse batches of submissions
+        assertTrue(parsingBatches > 0 && parsingBatches <= submissions);
+        assertEquals(submissions, summary.histograms().get(RunMetrics.SUBMISSION_TOKENS).count());
+        long tiledPairs = summary.stages().get(Stage.TILING.getIdentifier()).count();
+        assertEquals(tiledPairs, summary.histograms().get(RunMetrics.PAIR_COST).count());
+        assertTrue(summary.peakHeapBytes() > 0);
+    }
+
+    @Test
+    @DisplayName("test normalization is measured per submission")
+    void testNormalizationMetrics() throws ExitException {
+        JPlagOptions options = getOptions("normalization", it -> it.withExecutionOptions(new ExecutionOptions().withCollectMetrics(true)));
+        RunMetrics metrics = RunMetrics.of(options.executionOptions());
+        SubmissionSet submissionSet = new SubmissionSetBuilder(options).buildSubmissionSet(null, new ProgressTracker(null, metrics));
+        submissionSet.normalizeSubmissions();
+
+        MetricsSummary.StageSummary normalization = metrics.summarize().stages().get(Stage.NORMALIZATION.getIdentifier());
+        assertEquals(submissionSet.numberOfSubmissions(), normalization.count());
+    }
+
+    @Test
+    @DisplayName("test nothing is collected by default")
+    void testDisabledMetrics() throws ExitException {
+        JPlagResult result = JPlag.run(getDefaultOptions(SAMPLE_NAME));
+        assertSame(RunMetrics.DISABLED, result.getMetrics());
+        assertFalse(result.getMetrics().isEnabled());
+        assertTrue(result.getMetrics().summarize().stages().isEmpty());
+        assertNull(result.getMetrics().startStage(Stage.TILING)); // no flight recording is running
+    }
+}
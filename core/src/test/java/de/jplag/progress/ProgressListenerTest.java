@@ -0,0 +1,75 @@
+package de.jplag.progress;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import de.jplag.JPlag;
+import de.jplag.JPlagExecutor;
+import de.jplag.JPlagResult;
+import de.jplag.TestBase;
+import de.jplag.exceptions.ExitException;
+import de.jplag.options.ExecutionOptions;
+import de.jplag.options.JPlagOptions;
+
+/**
+ * Tests the progress reported by JPlag runs.
+ */
+class ProgressListenerTest extends TestBase {
+    private static final String SAMPLE_NAME = "PartialPlagiarism";
+
+    @Test
+    @DisplayName("test progress of all phases is reported")
+    void testReportedPhases() throws ExitException {
+        assertProgress(getDefaultOptions(SAMPLE_NAME));
+    }
+
+    @Test
+    @DisplayName("test progress is reported when comparing while parsing")
+    void testReportedPhasesPipelined() throws ExitException {
+        assertProgress(getOptions(SAMPLE_NAME, it -> it.withExecutionOptions(new ExecutionOptions().withPipelinedExecution(true))));
+    }
+
+    private void assertProgress(JPlagOptions options) throws ExitException {
+        RecordingListener listener = new RecordingListener();
+        JPlagResult result;
+        try (JPlagExecutor executor = new JPlagExecutor()) {
+            result = JPlag.run(options, executor, listener);
+        }
+        assertTrue(listener.startedPhases.containsAll(List.of(Phase.PARSING, Phase.COMPARING, Phase.CLUSTERING)), listener.startedPhases::toString);
+        assertEquals(listener.startedPhases.size(), listener.finishedPhases.size());
+
+        Progress parsing = listener.finishedPhases.get(Phase.PARSING);
+        assertEquals(result.getSubmissions().numberOfSubmissions() + result.getSubmissions().getInvalidSubmissions().size(),
+                parsing.completedSteps());
+        assertEquals(parsing.totalSteps(), parsing.completedSteps());
+
+        int submissions = result.getSubmissions().numberOfSubmissions();
+        Progress comparing = listener.finishedPhases.get(Phase.COMPARING);
+        assertEquals(submissions * (submissions - 1) / 2, comparing.completedSteps());
+        assertEquals(0, comparing.remainingSteps());
+        assertTrue(comparing.peakHeapBytes() > 0);
+    }
+
+    private static final class RecordingListener implements ProgressListener {
+        private final List<Phase> startedPhases = new CopyOnWriteArrayList<>();
+        private final Map<Phase, Progress> finishedPhases = new ConcurrentHashMap<>();
+
+        @Override
+        public void phaseStarted(Phase phase) {
+            startedPhases.add(phase);
+        }
+
+        @Override
+        public void phaseFinished(Progress progress) {
+            finishedPhases.put(progress.phase(), progress);
+        }
+    }
+}
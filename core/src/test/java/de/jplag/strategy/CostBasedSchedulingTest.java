@@ -0,0 +1,50 @@
+package de.jplag.strategy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import de.jplag.JPlag;
+import de.jplag.TestBase;
+import de.jplag.exceptions.ExitException;
+import de.jplag.options.ExecutionOptions;
+import de.jplag.options.JPlagOptions;
+
+/**
+ * Ensures that comparing the pairs tile by tile or in descending order of their estimated cost does not change the
+ * result, including the order of the comparisons, compared to the row-major order.
+ */
+class CostBasedSchedulingTest extends TestBase {
+
+    @Test
+    @DisplayName("test cost-based scheduling yields the same comparisons deterministically")
+    void testSameComparisons() throws ExitException {
+        assertSameComparisons("PartialPlagiarism", it -> it);
+    }
+
+    @Test
+    @DisplayName("test cost-based scheduling without candidate pair filtering")
+    void testWithoutCandidatePairs() throws ExitException {
+        assertSameComparisons("PartialPlagiarism", it -> it.withExecutionOptions(new ExecutionOptions().withCandidatePairFiltering(false)));
+    }
+
+    @Test
+    @DisplayName("test cost-based scheduling with basecode")
+    void testBasecode() throws ExitException {
+        assertSameComparisons("basecode", it -> it.withBaseCodeSubmissionDirectory(new File(it.submissionDirectories().iterator().next(), "base")));
+    }
+
+    private void assertSameComparisons(String sampleName, Function<JPlagOptions, JPlagOptions> customization) throws ExitException {
+        JPlagOptions options = getOptions(sampleName, customization);
+        ExecutionOptions rowMajor = options.executionOptions().withComparisonBlockSize(1).withCostBasedScheduling(false);
+        ExecutionOptions tiled = options.executionOptions().withComparisonBlockSize(2);
+        List<String> expected = fingerprintInOrder(JPlag.run(options.withExecutionOptions(rowMajor)));
+        assertEquals(expected, fingerprintInOrder(JPlag.run(options.withExecutionOptions(tiled.withCostBasedScheduling(false)))));
+        assertEquals(expected, fingerprintInOrder(JPlag.run(options.withExecutionOptions(tiled.withCostBasedScheduling(true)))));
+    }
+}
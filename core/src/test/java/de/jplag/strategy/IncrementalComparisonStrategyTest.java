@@ -0,0 +1,63 @@
+package de.jplag.strategy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.jplag.JPlag;
+import de.jplag.TestBase;
+import de.jplag.exceptions.ExitException;
+import de.jplag.options.ExecutionOptions;
+import de.jplag.options.JPlagOptions;
+
+/**
+ * Ensures that reusing the comparisons of a previous run does not change the result.
+ */
+class IncrementalComparisonStrategyTest extends TestBase {
+    private static final String SAMPLE_NAME = "PartialPlagiarism";
+
+    @TempDir
+    private Path storeDirectory;
+
+    @Test
+    @DisplayName("test reused comparisons equal compared comparisons")
+    void testReusedComparisons() throws ExitException {
+        assertSameComparisons(it -> it);
+    }
+
+    @Test
+    @DisplayName("test reused comparisons with similarity threshold")
+    void testReusedComparisonsWithThreshold() throws ExitException {
+        assertSameComparisons(it -> it.withSimilarityThreshold(0.5));
+    }
+
+    @Test
+    @DisplayName("test store is discarded if the minimum match length changes")
+    void testChangedMinimumTokenMatch() throws ExitException {
+        File store = storeDirectory.resolve("results.comparisons").toFile();
+        JPlag.run(getOptions(SAMPLE_NAME, it -> it.withExecutionOptions(new ExecutionOptions().withComparisonStore(store))));
+
+        JPlagOptions options = getOptions(SAMPLE_NAME, it -> it.withMinimumTokenMatch(5));
+        List<String> expected = fingerprint(JPlag.run(options));
+        assertEquals(expected, fingerprint(JPlag.run(options.withExecutionOptions(new ExecutionOptions().withComparisonStore(store)))));
+    }
+
+    private void assertSameComparisons(Function<JPlagOptions, JPlagOptions> customization) throws ExitException {
+        JPlagOptions options = getOptions(SAMPLE_NAME, customization);
+        List<String> expected = fingerprint(JPlag.run(options));
+
+        File store = storeDirectory.resolve("results.comparisons").toFile();
+        JPlagOptions incrementalOptions = options.withExecutionOptions(new ExecutionOptions().withComparisonStore(store));
+        assertEquals(expected, fingerprint(JPlag.run(incrementalOptions)));
+        assertTrue(store.exists());
+        assertEquals(expected, fingerprint(JPlag.run(incrementalOptions)));
+    }
+}
@@ -0,0 +1,49 @@
+package de.jplag.strategy;
+
+import java.io.File;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import de.jplag.TestBase;
+import de.jplag.exceptions.ExitException;
+import de.jplag.options.ExecutionOptions;
+import de.jplag.options.JPlagOptions;
+
+/**
+ * Ensures that comparing submissions while parsing them yields the same comparisons as comparing them afterwards.
+ */
+class PipelinedComparisonStrategyTest extends TestBase {
+
+    @Test
+    @DisplayName("test pipelined comparisons equal phased comparisons")
+    void testPipelinedComparisons() throws ExitException {
+        assertSameComparisons("PartialPlagiarism", it -> it);
+    }
+
+    @Test
+    @DisplayName("test pipelined comparisons with multiple parser threads")
+    void testPipelinedComparisonsWithParserThreads() throws ExitException {
+        assertSameComparisons("PartialPlagiarism", it -> it.withExecutionOptions(it.executionOptions().withParserThreads(4)));
+    }
+
+    @Test
+    @DisplayName("test pipelined comparisons with base code")
+    void testPipelinedComparisonsWithBasecode() throws ExitException {
+        assertSameComparisons("basecode", it -> it.withBaseCodeSubmissionDirectory(new File(it.submissionDirectories().iterator().next(), "base")));
+    }
+
+    @Test
+    @DisplayName("test pipelined comparisons with bounded result collection")
+    void testPipelinedComparisonsWithBoundedResults() throws ExitException {
+        assertSameComparisons("PartialPlagiarism", it -> it.withMaximumNumberOfComparisons(3)
+                .withExecutionOptions(it.executionOptions().withBoundedResultCollection(true)));
+    }
+
+    private void assertSameComparisons(String sampleName, Function<JPlagOptions, JPlagOptions> customization) throws ExitException {
+        JPlagOptions options = getOptions(sampleName, customization);
+        ExecutionOptions pipelined = options.executionOptions().withPipelinedExecution(true);
+        assertSameComparisons(options, options.withExecutionOptions(pipelined));
+    }
+}
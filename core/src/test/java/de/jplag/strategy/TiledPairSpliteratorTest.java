@@ -0,0 +1,60 @@
+package de.jplag.strategy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import de.jplag.Submission;
+
+class TiledPairSpliteratorTest {
+
+    @ParameterizedTest
+    @CsvSource({"0,4", "1,4", "2,1", "7,1", "7,3", "16,4", "17,4", "33,5", "40,64"})
+    void testAllPairsExactlyOnce(int numberOfSubmissions, int blockSize) {
+        List<Submission> submissions = createSubmissions(numberOfSubmissions);
+        List<String> expected = rowMajorPairs(submissions).stream().sorted().toList();
+
+        List<String> sequential = StreamSupport.stream(new TiledPairSpliterator(submissions, blockSize), false).map(SubmissionTuple::toString)
+                .sorted().toList();
+        List<String> parallel = StreamSupport.stream(new TiledPairSpliterator(submissions, blockSize), true).map(SubmissionTuple::toString)
+                .sorted().toList();
+
+        assertEquals(expected, sequential);
+        assertEquals(expected, parallel);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"9", "25"})
+    void testBlockSizeOneIsRowMajor(int numberOfSubmissions) {
+        List<Submission> submissions = createSubmissions(numberOfSubmissions);
+        List<String> rowMajor = rowMajorPairs(submissions);
+        List<String> ordered = StreamSupport.stream(new TiledPairSpliterator(submissions, 1), true).map(SubmissionTuple::toString).toList();
+        assertEquals(rowMajor, ordered);
+    }
+
+    private static List<Submission> createSubmissions(int count) {
+        // every third submission is an old one
+        return IntStream.range(0, count).mapToObj(i -> new Submission("S" + i, null, i % 3 != 0, List.of(), null)).toList();
+    }
+
+    /**
+     * @return the pairs that are compared, in row-major order.
+     */
+    private static List<String> rowMajorPairs(List<Submission> submissions) {
+        List<String> pairs = new ArrayList<>();
+        for (int i = 0; i < submissions.size(); i++) {
+            for (int j = i + 1; j < submissions.size(); j++) {
+                if (submissions.get(i).isNew() || submissions.get(j).isNew()) {
+                    pairs.add(new SubmissionTuple(submissions.get(i), submissions.get(j)).toString());
+                }
+            }
+        }
+        return pairs;
+    }
+}
@@ -3,47 +3,68 @@ package de.jplag.antlr;
 import java.io.File;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import de.jplag.Language;
+import de.jplag.LanguageParser;
 import de.jplag.ParsingException;
 import de.jplag.Token;
 
 /**
  * Base class for Antlr languages. Handle the parse function from {@link Language}
  * <p>
- * You can either pass the parser to the super constructor, or implement the initializeParser method. That allows you to
- * access class members, like language specific options.
+ * You can either pass a factory for the parser to the super constructor, or implement the initializeParser method. That
+ * allows you to access class members, like language specific options. In both cases, each parsing thread gets its own
+ * parser, see {@link #createParser()}. If a single parser instance is passed, files are parsed sequentially.
  */
 public abstract class AbstractAntlrLanguage implements Language {
+    private final Supplier<? extends AbstractAntlrParserAdapter<?>> parserFactory; // null if the parser is shared
     private AbstractAntlrParserAdapter<?> parser;
 
     /**
-     * New instance
+     * New instance, which shares the given parser between all threads.
      * @param parser The parser for source files
      */
     protected AbstractAntlrLanguage(AbstractAntlrParserAdapter<?> parser) {
+        this.parserFactory = null;
         this.parser = parser;
     }
 
+    /**
+     * New instance, which creates an independent parser for each parsing thread.
+     * @param parserFactory creates the parser for source files
+     */
+    protected AbstractAntlrLanguage(Supplier<? extends AbstractAntlrParserAdapter<?>> parserFactory) {
+        this.parserFactory = parserFactory;
+        this.parser = null;
+    }
+
     /**
      * New instance, without pre initialized parser. If you use this constructor, you need to override the initializeParser
      * method.
      */
     protected AbstractAntlrLanguage() {
+        this.parserFactory = this::initializeParser;
         this.parser = null;
     }
 
     @Override
     public List<Token> parse(Set<File> files) throws ParsingException {
         if (this.parser == null) {
-            this.parser = this.initializeParser();
+            this.parser = this.parserFactory.get();
         }
 
         return this.parser.parse(files);
     }
 
+    @Override
+    public LanguageParser createParser() {
+        return parserFactory == null ? this : parserFactory.get();
+    }
+
     /**
-     * Lazily creates the parser. Has to be implemented, if no parser is passed in the constructor.
+     * Lazily creates the parser. Has to be implemented, if no parser is passed in the constructor. Called for this language
+     * and once for each thread that parses files concurrently.
      * @return The newly initialized parser
      */
     protected AbstractAntlrParserAdapter<?> initializeParser() {
@@ -2,7 +2,10 @@ package de.jplag.antlr;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Predicate;
 
@@ -16,15 +19,19 @@ import org.antlr.v4.runtime.tree.TerminalNode;
  * the visit methods in the overwritten constructor.
  */
 public abstract class AbstractAntlrListener {
-    private final List<ContextVisitor<ParserRuleContext>> contextVisitors;
-    private final List<TerminalVisitor> terminalVisitors;
+    private static final ContextVisitor<?>[] NO_CONTEXT_VISITORS = new ContextVisitor<?>[0];
+    private static final TerminalVisitor[] NO_TERMINAL_VISITORS = new TerminalVisitor[0];
+
+    private final Map<Class<? extends ParserRuleContext>, List<ContextVisitor<?>>> contextVisitors;
+    private final Map<Integer, List<TerminalVisitor>> terminalVisitors;
+    private volatile DispatchIndex dispatchIndex;
 
     /**
      * New instance
      */
     protected AbstractAntlrListener() {
-        contextVisitors = new ArrayList<>();
-        terminalVisitors = new ArrayList<>();
+        contextVisitors = new LinkedHashMap<>();
+        terminalVisitors = new LinkedHashMap<>();
     }
 
     /**
@@ -34,11 +41,10 @@ public abstract class AbstractAntlrListener {
      * @return A visitor for the node.
      * @param <T> The class of the node.
      */
-    @SuppressWarnings("unchecked")
     public <T extends ParserRuleContext> ContextVisitor<T> visit(Class<T> antlrType, Predicate<T> condition) {
-        Predicate<T> typeCheck = rule -> rule.getClass() == antlrType;
-        ContextVisitor<T> visitor = new ContextVisitor<>(typeCheck.and(condition));
-        contextVisitors.add((ContextVisitor<ParserRuleContext>) visitor);
+        ContextVisitor<T> visitor = new ContextVisitor<>(condition);
+        contextVisitors.computeIfAbsent(antlrType, key -> new ArrayList<>()).add(visitor);
+        dispatchIndex = null;
         return visitor;
     }
 
@@ -59,9 +65,9 @@ public abstract class AbstractAntlrListener {
      * @return A visitor for the node.
      */
     public TerminalVisitor visit(int terminalType, Predicate<Token> condition) {
-        Predicate<Token> typeCheck = rule -> rule.getType() == terminalType;
-        TerminalVisitor visitor = new TerminalVisitor(typeCheck.and(condition));
-        terminalVisitors.add(visitor);
+        TerminalVisitor visitor = new TerminalVisitor(condition);
+        terminalVisitors.computeIfAbsent(terminalType, key -> new ArrayList<>()).add(visitor);
+        dispatchIndex = null;
         return visitor;
     }
 
@@ -78,21 +84,87 @@ public abstract class AbstractAntlrListener {
      * Called by {@link InternalListener#visitTerminal(TerminalNode)} as part of antlr framework.
      */
     void visitTerminal(HandlerData<Token> data) {
-        this.terminalVisitors.stream().filter(visitor -> visitor.matches(data.entity())).forEach(visitor -> visitor.enter(data));
+        for (TerminalVisitor visitor : dispatchIndex().terminalVisitors(data.entity().getType())) {
+            if (visitor.matches(data.entity())) {
+                visitor.enter(data);
+            }
+        }
     }
 
     /**
      * Called by {@link InternalListener#enterEveryRule(ParserRuleContext)} as part of antlr framework.
      */
     void enterEveryRule(HandlerData<ParserRuleContext> data) {
-        this.contextVisitors.stream().filter(visitor -> visitor.matches(data.entity())).forEach(visitor -> visitor.enter(data));
+        for (ContextVisitor<ParserRuleContext> visitor : dispatchIndex().contextVisitors(data.entity().getClass())) {
+            if (visitor.matches(data.entity())) {
+                visitor.enter(data);
+            }
+        }
     }
 
     /**
      * Called by {@link InternalListener#exitEveryRule(ParserRuleContext)} as part of antlr framework.
      */
     void exitEveryRule(HandlerData<ParserRuleContext> data) {
-        this.contextVisitors.stream().filter(visitor -> visitor.matches(data.entity())).forEach(visitor -> visitor.exit(data));
+        for (ContextVisitor<ParserRuleContext> visitor : dispatchIndex().contextVisitors(data.entity().getClass())) {
+            if (visitor.matches(data.entity())) {
+                visitor.exit(data);
+            }
+        }
+    }
+
+    /**
+     * The dispatch index is built on first use, as visitors are registered in the constructors of subclasses. The listener
+     * is shared by all parsing threads, so the index is built once and published through a volatile field.
+     * @return the dispatch index for the registered visitors.
+     */
+    private DispatchIndex dispatchIndex() {
+        DispatchIndex index = dispatchIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = dispatchIndex;
+                if (index == null) {
+                    index = new DispatchIndex(contextVisitors, terminalVisitors);
+                    dispatchIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Maps rule classes and terminal types to their visitors in registration order, so a node is only checked against the
+     * conditions of the visitors registered for its type.
+     */
+    private static final class DispatchIndex {
+        private final Map<Class<?>, ContextVisitor<?>[]> contextVisitors;
+        private final TerminalVisitor[][] terminalVisitors; // indexed by terminal type + 1, as EOF is -1
+
+        DispatchIndex(Map<Class<? extends ParserRuleContext>, List<ContextVisitor<?>>> contextVisitors,
+                Map<Integer, List<TerminalVisitor>> terminalVisitors) {
+            this.contextVisitors = new HashMap<>();
+            contextVisitors.forEach((type, visitors) -> this.contextVisitors.put(type, visitors.toArray(NO_CONTEXT_VISITORS)));
+            int maximumType = terminalVisitors.keySet().stream().mapToInt(Integer::intValue).max().orElse(Token.EOF);
+            this.terminalVisitors = new TerminalVisitor[maximumType + 2][];
+            terminalVisitors.forEach((type, visitors) -> {
+                if (type >= Token.EOF) {
+                    this.terminalVisitors[type + 1] = visitors.toArray(NO_TERMINAL_VISITORS);
+                }
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        ContextVisitor<ParserRuleContext>[] contextVisitors(Class<?> type) {
+            return (ContextVisitor<ParserRuleContext>[]) contextVisitors.getOrDefault(type, NO_CONTEXT_VISITORS);
+        }
+
+        TerminalVisitor[] terminalVisitors(int type) {
+            int index = type + 1;
+            if (index < 0 || index >= terminalVisitors.length || terminalVisitors[index] == null) {
+                return NO_TERMINAL_VISITORS;
+            }
+            return terminalVisitors[index];
+        }
     }
 
     /**
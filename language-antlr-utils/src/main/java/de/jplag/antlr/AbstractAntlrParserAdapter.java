@@ -1,7 +1,10 @@
 package de.jplag.antlr;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Set;
 
@@ -15,6 +18,7 @@ import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.ParseTreeWalker;
 
 import de.jplag.AbstractParser;
+import de.jplag.LanguageParser;
 import de.jplag.ParsingException;
 import de.jplag.Token;
 import de.jplag.util.FileUtils;
@@ -23,7 +27,7 @@ import de.jplag.util.FileUtils;
  * Base class for Antlr parser adapters
  * @param <T> The type of the antlr parser
  */
-public abstract class AbstractAntlrParserAdapter<T extends Parser> extends AbstractParser {
+public abstract class AbstractAntlrParserAdapter<T extends Parser> extends AbstractParser implements LanguageParser {
 
     private final boolean extractsSemantics;
 
@@ -62,7 +66,10 @@ public abstract class AbstractAntlrParserAdapter<T extends Parser> extends Abstr
             Lexer lexer = this.createLexer(CharStreams.fromReader(reader));
             CommonTokenStream tokenStream = new CommonTokenStream(lexer);
             T parser = this.createParser(tokenStream);
-            ParserRuleContext entryContext = this.getEntryContext(parser);
+            DfaCache dfaCache = getDfaCache();
+            dfaCache.warmUpIfCold(this::warmUp);
+            ParserRuleContext entryContext = parseEntryContext(parser);
+            dfaCache.update(lexer, parser);
             ParseTreeWalker treeWalker = new ParseTreeWalker();
             InternalListener listener = new InternalListener(this.getListener(), collector);
             for (ParseTree child : entryContext.children) {
@@ -74,6 +81,66 @@ public abstract class AbstractAntlrParserAdapter<T extends Parser> extends Abstr
         collector.addFileEndToken();
     }
 
+    /**
+     * Parses the warm-up resource to populate the DFA cache of the grammar. Failures are only logged, as the warm-up does
+     * not affect the parse results.
+     */
+    private void warmUp() {
+        String resource = getWarmUpResource();
+        if (resource == null) {
+            return;
+        }
+        try (InputStream input = getClass().getResourceAsStream(resource)) {
+            if (input == null) {
+                logger.warn("Warm-up resource {} of {} not found", resource, getClass().getSimpleName());
+                return;
+            }
+            Lexer lexer = this.createLexer(CharStreams.fromStream(input, StandardCharsets.UTF_8));
+            lexer.removeErrorListeners();
+            T parser = this.createParser(new CommonTokenStream(lexer));
+            parser.removeErrorListeners();
+            parseEntryContext(parser);
+        } catch (IOException | RuntimeException exception) { // catching runtime exceptions to capture any exceptions thrown by ANTLR.
+            logger.warn("Could not warm up the DFA cache with {}", resource, exception);
+        }
+    }
+
+    private ParserRuleContext parseEntryContext(T parser) {
+        return usesTwoStageParsing() ? TwoStageParsing.parse(parser, this::getEntryContext) : getEntryContext(parser);
+    }
+
+    /**
+     * @return Whether files are parsed in two stages, see {@link TwoStageParsing}. Grammars whose inputs regularly fail the
+     * SLL stage can parse faster with full LL prediction only, see {@link DfaCache#getFullContextParseCount()}. Defaults to
+     * true.
+     */
+    protected boolean usesTwoStageParsing() {
+        return true;
+    }
+
+    /**
+     * @return The DFA cache of the grammar, which provides the metrics on its DFA states.
+     */
+    public DfaCache getDfaCache() {
+        return DfaCache.of(getClass(), getMaximumDfaStates());
+    }
+
+    /**
+     * @return The maximum number of DFA states of the grammar before its cache is cleared. Defaults to the value configured
+     * by {@link DfaCache#MAXIMUM_STATES_PROPERTY}.
+     */
+    protected int getMaximumDfaStates() {
+        return DfaCache.configuredMaximumStates();
+    }
+
+    /**
+     * @return The name of a small source file resource, relative to the adapter class, that is parsed to warm up the DFA
+     * cache of the grammar. Null if the cache is not warmed up.
+     */
+    protected String getWarmUpResource() {
+        return null;
+    }
+
     /**
      * Creates the antlr lexer
      * @param input The input stream
@@ -89,7 +156,8 @@ public abstract class AbstractAntlrParserAdapter<T extends Parser> extends Abstr
     protected abstract T createParser(CommonTokenStream tokenStream);
 
     /**
-     * Extracts the core context from the parser. Should return the root context for the entire source file
+     * Extracts the core context from the parser. Should return the root context for the entire source file. Parsing is done
+     * in two stages, see {@link TwoStageParsing}, so this may be invoked a second time on the reset parser.
      * @param parser The parser
      * @return The root context
      */
@@ -0,0 +1,220 @@
+package de.jplag.antlr;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.atn.ATNSimulator;
+import org.antlr.v4.runtime.atn.PredictionContextCache;
+import org.antlr.v4.runtime.dfa.DFA;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Manages the DFA cache of an ANTLR grammar. The prediction simulators of ANTLR cache DFA states statically per
+ * grammar, so the cache is shared by all parses of the grammar and grows with the variety of the parsed code. The cache
+ * is warmed up with a small corpus before the first parse and cleared once it exceeds a maximum number of states, after
+ * which it is warmed up again. The prediction contexts the DFA states refer to are cached statically as well, they are
+ * cleared together with the DFA states. The maximum only counts DFA states, as the number of contexts follows from
+ * them. There is one cache per parser adapter class. Adapters that extend {@link AbstractAntlrParserAdapter} use it
+ * automatically, hand-written adapters report their parses via {@link #of(Class)} and {@link #update(Lexer, Parser)},
+ * but are not warmed up.
+ */
+public final class DfaCache {
+    /**
+     * System property to configure the maximum number of DFA states of a grammar before its cache is cleared.
+     */
+    public static final String MAXIMUM_STATES_PROPERTY = "jplag.antlr.maximumDfaStates";
+
+    /**
+     * Default maximum number of DFA states of a grammar before its cache is cleared.
+     */
+    public static final int DEFAULT_MAXIMUM_STATES = 250_000;
+
+    private static final Logger logger = LoggerFactory.getLogger(DfaCache.class);
+    private static final Map<Class<?>, DfaCache> caches = new ConcurrentHashMap<>();
+    private static final Field contextCacheField = findContextCacheField();
+
+    private final int maximumStates;
+    private final AtomicBoolean warm;
+    private final AtomicInteger peakStateCount;
+    private final AtomicInteger clearCount;
+    private final AtomicLong parseCount;
+    private final AtomicLong fullContextParseCount;
+    private volatile String grammarName;
+    private volatile int stateCount;
+
+    private DfaCache(int maximumStates) {
+        this.maximumStates = maximumStates;
+        this.warm = new AtomicBoolean();
+        this.peakStateCount = new AtomicInteger();
+        this.clearCount = new AtomicInteger();
+        this.parseCount = new AtomicLong();
+        this.fullContextParseCount = new AtomicLong();
+    }
+
+    /**
+     * @return the maximum number of DFA states configured by {@link #MAXIMUM_STATES_PROPERTY}.
+     */
+    public static int configuredMaximumStates() {
+        return Integer.getInteger(MAXIMUM_STATES_PROPERTY, DEFAULT_MAXIMUM_STATES);
+    }
+
+    /**
+     * @return the caches of all grammars that were used so far, e.g. to report their metrics.
+     */
+    public static List<DfaCache> all() {
+        return List.copyOf(caches.values());
+    }
+
+    /**
+     * Provides the cache of a parser adapter class with the configured maximum number of states, it is created on first
+     * access.
+     * @param owner is the parser adapter class.
+     * @return the cache.
+     */
+    public static DfaCache of(Class<?> owner) {
+        return of(owner, configuredMaximumStates());
+    }
+
+    /**
+     * Provides the cache of a parser adapter class, it is created on first access.
+     * @param owner is the parser adapter class.
+     * @param maximumStates is the maximum number of states before the cache is cleared.
+     * @return the cache.
+     */
+    static DfaCache of(Class<?> owner, int maximumStates) {
+        return caches.computeIfAbsent(owner, key -> new DfaCache(maximumStates));
+    }
+
+    /**
+     * @return the file name of the grammar, or null if nothing was parsed so far.
+     */
+    public String getGrammarName() {
+        return grammarName;
+    }
+
+    /**
+     * @return the number of DFA states of the lexer and the parser after the most recent parse.
+     */
+    public int getStateCount() {
+        return stateCount;
+    }
+
+    /**
+     * @return the highest number of DFA states of the lexer and the parser observed after a parse.
+     */
+    public int getPeakStateCount() {
+        return peakStateCount.get();
+    }
+
+    /**
+     * @return how often the cache was cleared because it exceeded the maximum number of states.
+     */
+    public int getClearCount() {
+        return clearCount.get();
+    }
+
+    /**
+     * @return the number of parsed files, not counting the warm-up.
+     */
+    public long getParseCount() {
+        return parseCount.get();
+    }
+
+    /**
+     * @return the number of parsed files that needed full LL prediction, because they failed the SLL stage or were not
+     * parsed in two stages, see {@link TwoStageParsing#usedFullContext(Parser)}.
+     */
+    public long getFullContextParseCount() {
+        return fullContextParseCount.get();
+    }
+
+    /**
+     * Warms up the cache unless it is already warm or being warmed up by another thread.
+     * @param warmUp parses the warm-up corpus.
+     */
+    void warmUpIfCold(Runnable warmUp) {
+        if (warm.compareAndSet(false, true)) {
+            warmUp.run();
+        }
+    }
+
+    /**
+     * Records a parse and the number of states afterwards, and clears the cache if it exceeds the maximum number of states.
+     * Parses running concurrently keep using the DFAs they already hold, the cleared ones are garbage collected afterwards.
+     * The shared prediction contexts are cleared as well, see {@link #clearContexts}.
+     * @param lexer is the lexer of the parse.
+     * @param parser is the parser of the parse.
+     */
+    public void update(Lexer lexer, Parser parser) {
+        if (grammarName == null) {
+            grammarName = parser.getGrammarFileName();
+        }
+        parseCount.incrementAndGet();
+        if (TwoStageParsing.usedFullContext(parser)) {
+            fullContextParseCount.incrementAndGet();
+        }
+        int states = countStates(lexer.getInterpreter().decisionToDFA) + countStates(parser.getInterpreter().decisionToDFA);
+        stateCount = states;
+        peakStateCount.accumulateAndGet(states, Math::max);
+        if (states > maximumStates) {
+            synchronized (this) {
+                if (countStates(parser.getInterpreter().decisionToDFA) + countStates(lexer.getInterpreter().decisionToDFA) > maximumStates) {
+                    lexer.getInterpreter().clearDFA();
+                    parser.getInterpreter().clearDFA();
+                    clearContexts(lexer.getInterpreter());
+                    clearContexts(parser.getInterpreter());
+                    clearCount.incrementAndGet();
+                    stateCount = 0;
+                    warm.set(false);
+                    logger.debug("Cleared DFA cache of {} with {} states", grammarName, states);
+                }
+            }
+        }
+    }
+
+    /**
+     * Clears the prediction contexts a simulator shares with all simulators of its grammar. ANTLR offers no way to clear
+     * them, thus the map of the cache is cleared directly, while holding the lock ANTLR uses when it adds contexts. The
+     * cache only deduplicates contexts, parses that still hold contexts are not affected.
+     */
+    private static void clearContexts(ATNSimulator simulator) {
+        PredictionContextCache contextCache = simulator.getSharedContextCache();
+        if (contextCache == null || contextCacheField == null) {
+            return;
+        }
+        synchronized (contextCache) {
+            try {
+                ((Map<?, ?>) contextCacheField.get(contextCache)).clear();
+            } catch (IllegalAccessException exception) {
+                logger.debug("Cannot clear the prediction context cache", exception);
+            }
+        }
+    }
+
+    private static Field findContextCacheField() {
+        try {
+            Field field = PredictionContextCache.class.getDeclaredField("cache");
+            field.setAccessible(true);
+            return field;
+        } catch (ReflectiveOperationException | RuntimeException exception) {
+            logger.warn("Prediction context caches of ANTLR cannot be cleared, only their DFA states are bounded", exception);
+            return null;
+        }
+    }
+
+    private static int countStates(DFA[] decisionToDFA) {
+        int states = 0;
+        for (DFA dfa : decisionToDFA) {
+            states += dfa.states.size();
+        }
+        return states;
+    }
+}
@@ -3,7 +3,47 @@ package de.jplag.antlr;
 import de.jplag.semantics.VariableRegistry;
 
 /**
- * Holds the data passed to the (quasi-static) listeners.
+ * Holds the data passed to the (quasi-static) listeners. One instance per entity kind is reused for every node of a
+ * walk, as handlers are invoked synchronously and must not retain it.
  */
-record HandlerData<T>(T entity, VariableRegistry variableRegistry, TokenCollector collector) {
+final class HandlerData<T> {
+    private final VariableRegistry variableRegistry;
+    private final TokenCollector collector;
+    private T entity;
+
+    HandlerData(VariableRegistry variableRegistry, TokenCollector collector) {
+        this.variableRegistry = variableRegistry;
+        this.collector = collector;
+    }
+
+    /**
+     * @return The currently visited entity.
+     */
+    T entity() {
+        return entity;
+    }
+
+    /**
+     * @return The variable registry of the walk.
+     */
+    VariableRegistry variableRegistry() {
+        return variableRegistry;
+    }
+
+    /**
+     * @return The token collector of the walk.
+     */
+    TokenCollector collector() {
+        return collector;
+    }
+
+    /**
+     * Moves the handler data to the next visited entity.
+     * @param entity The entity.
+     * @return Self
+     */
+    HandlerData<T> at(T entity) {
+        this.entity = entity;
+        return this;
+    }
 }
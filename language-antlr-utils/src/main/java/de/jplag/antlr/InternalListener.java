@@ -1,6 +1,7 @@
 package de.jplag.antlr;
 
 import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
 import org.antlr.v4.runtime.tree.ErrorNode;
 import org.antlr.v4.runtime.tree.ParseTreeListener;
 import org.antlr.v4.runtime.tree.TerminalNode;
@@ -13,36 +14,34 @@ import de.jplag.semantics.VariableRegistry;
  */
 class InternalListener implements ParseTreeListener {
     private final AbstractAntlrListener listener;
-    private final TokenCollector collector;
     protected final VariableRegistry variableRegistry;
+    private final HandlerData<Token> terminalData;
+    private final HandlerData<ParserRuleContext> ruleData;
 
     InternalListener(AbstractAntlrListener listener, TokenCollector collector) {
         this.listener = listener;
-        this.collector = collector;
         this.variableRegistry = new VariableRegistry();
+        this.terminalData = new HandlerData<>(variableRegistry, collector);
+        this.ruleData = new HandlerData<>(variableRegistry, collector);
     }
 
     @Override
     public void visitTerminal(TerminalNode terminalNode) {
-        listener.visitTerminal(getHandlerData(terminalNode.getSymbol()));
+        listener.visitTerminal(terminalData.at(terminalNode.getSymbol()));
     }
 
     @Override
     public void enterEveryRule(ParserRuleContext rule) {
-        listener.enterEveryRule(getHandlerData(rule));
+        listener.enterEveryRule(ruleData.at(rule));
     }
 
     @Override
     public void exitEveryRule(ParserRuleContext rule) {
-        listener.exitEveryRule(getHandlerData(rule));
+        listener.exitEveryRule(ruleData.at(rule));
     }
 
     @Override
     public void visitErrorNode(ErrorNode errorNode) {
         // does nothing, because we do not handle error nodes right now.
     }
-
-    private <T> HandlerData<T> getHandlerData(T entity) {
-        return new HandlerData<>(entity, variableRegistry, collector);
-    }
 }
@@ -0,0 +1,61 @@
+package de.jplag.antlr;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+
+/**
+ * Runs ANTLR parsers in two stages. The input is first parsed with the fast {@link PredictionMode#SLL} prediction mode
+ * and an error strategy that bails out on the first syntax error. Only if that fails, the input is parsed again with
+ * the full {@link PredictionMode#LL} prediction mode, the default error strategy and the error listeners of the parser.
+ * An SLL parse either yields the same parse tree as an LL parse or fails, so the result does not depend on the stage
+ * that produced it. Most inputs are parsed by the first stage.
+ */
+public final class TwoStageParsing {
+
+    private TwoStageParsing() {
+        // private constructor to prevent instantiation
+    }
+
+    /**
+     * Parses the input of a parser in two stages.
+     * @param parser is the freshly created parser, its token stream is reset for the second stage.
+     * @param entryRule invokes the entry rule of the grammar on the parser, e.g. {@code MyParser::compilationUnit}.
+     * @param <T> is the type of the parser.
+     * @param <C> is the type of the entry context.
+     * @return the entry context of the parse tree.
+     */
+    public static <T extends Parser, C extends ParserRuleContext> C parse(T parser, Function<T, C> entryRule) {
+        List<ANTLRErrorListener> errorListeners = new ArrayList<>(parser.getErrorListeners());
+        parser.removeErrorListeners();
+        parser.setErrorHandler(new BailErrorStrategy());
+        parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+        try {
+            return entryRule.apply(parser);
+        } catch (ParseCancellationException exception) {
+            parser.reset();
+            errorListeners.forEach(parser::addErrorListener);
+            parser.setErrorHandler(new DefaultErrorStrategy());
+            parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+            return entryRule.apply(parser);
+        }
+    }
+
+    /**
+     * Determines whether the last parse of a parser used the full {@link PredictionMode#LL} prediction mode, i.e. the input
+     * failed the first stage or the parser was not run in two stages.
+     * @param parser is the parser after parsing.
+     * @return whether the parse tree was produced with full LL prediction.
+     */
+    public static boolean usedFullContext(Parser parser) {
+        return !(parser.getErrorHandler() instanceof BailErrorStrategy);
+    }
+}
@@ -0,0 +1,104 @@
+package de.jplag.antlr;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.atn.PredictionContextCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.jplag.ParsingException;
+import de.jplag.antlr.testLanguage.TestParserAdapter;
+
+/**
+ * Tests the DFA cache management of the antlr parser adapter.
+ */
+class DfaCacheTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void testStateCountIsReported() throws IOException, ParsingException {
+        TestParserAdapter adapter = new TestParserAdapter();
+        adapter.parse(Set.of(createFile("(1 + 3) - (2 + 4)")));
+
+        DfaCache cache = adapter.getDfaCache();
+        assertEquals("TestParser.g4", cache.getGrammarName());
+        assertTrue(cache.getPeakStateCount() > 0);
+        assertTrue(DfaCache.all().contains(cache));
+    }
+
+    @Test
+    void testCacheIsClearedWhenExceeded() throws IOException, ParsingException {
+        BoundedParserAdapter adapter = new BoundedParserAdapter();
+        adapter.parse(Set.of(createFile("(1 + 3) - (2 + 4)")));
+
+        DfaCache cache = adapter.getDfaCache();
+        assertEquals(1, cache.getClearCount());
+        assertEquals(0, cache.getStateCount());
+        assertEquals(0, sharedContextCache().size());
+    }
+
+    @Test
+    void testContextCacheIsFilledByParsing() throws IOException, ParsingException {
+        new TestParserAdapter().parse(Set.of(createFile("(1 + 3) - (2 + 4)")));
+        assertTrue(sharedContextCache().size() > 0);
+    }
+
+    @Test
+    void testFallbacksToFullContextAreCounted() throws IOException, ParsingException {
+        TwoStageParserAdapter adapter = new TwoStageParserAdapter();
+        adapter.parse(Set.of(createFile("1 + 3")));
+        adapter.parse(Set.of(createFile("(1 + 3) - (2 + 4)"))); // ambiguous, fails the SLL stage
+
+        DfaCache cache = adapter.getDfaCache();
+        assertEquals(2, cache.getParseCount());
+        assertEquals(1, cache.getFullContextParseCount());
+    }
+
+    @Test
+    void testSingleStageParsesUseFullContext() throws IOException, ParsingException {
+        SingleStageParserAdapter adapter = new SingleStageParserAdapter();
+        adapter.parse(Set.of(createFile("(1 + 3) - (2 + 4)")));
+
+        DfaCache cache = adapter.getDfaCache();
+        assertEquals(1, cache.getParseCount());
+        assertEquals(1, cache.getFullContextParseCount());
+    }
+
+    /**
+     * @return the prediction contexts shared by all parsers of the test grammar.
+     */
+    private static PredictionContextCache sharedContextCache() {
+        return new TestParser(new CommonTokenStream(new TestLexer(CharStreams.fromString("")))).getInterpreter().getSharedContextCache();
+    }
+
+    private File createFile(String content) throws IOException {
+        return Files.writeString(directory.resolve("test.expression"), content).toFile();
+    }
+
+    private static class BoundedParserAdapter extends TestParserAdapter {
+        @Override
+        protected int getMaximumDfaStates() {
+            return 0;
+        }
+    }
+
+    private static class TwoStageParserAdapter extends TestParserAdapter {
+    }
+
+    private static class SingleStageParserAdapter extends TestParserAdapter {
+        @Override
+        protected boolean usesTwoStageParsing() {
+            return false;
+        }
+    }
+}
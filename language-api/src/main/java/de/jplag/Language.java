@@ -7,9 +7,10 @@ import java.util.Set;
 import de.jplag.options.LanguageOptions;
 
 /**
- * Common interface for all languages. Each language-front end must provide a concrete language implementation.
+ * Common interface for all languages. Each language-front end must provide a concrete language implementation, which
+ * also parses the submissions, see {@link LanguageParser}.
  */
-public interface Language {
+public interface Language extends LanguageParser {
 
     /**
      * Suffixes for the files containing code of the language. An empty array means all suffixes are valid.
@@ -32,12 +33,22 @@ public interface Language {
     int minimumTokenMatch();
 
     /**
-     * Parses a set of files.
-     * @param files are the files to parse.
-     * @return the list of parsed JPlag tokens.
-     * @throws ParsingException if an error during parsing the files occurred.
+     * Specifies how many submissions the language prefers to parse per call of {@link #parseBatch(List)}.
+     * @return defaults to 1, which means submissions are parsed individually with {@link #parse(Set)}.
      */
-    List<Token> parse(Set<File> files) throws ParsingException;
+    default int batchSize() {
+        return 1;
+    }
+
+    /**
+     * Creates an independent parser with the same options as this language, which is used by a single thread to parse
+     * submissions concurrently to other threads.
+     * @return the new parser, or this language if it does not support independent parsers. In that case, submissions are
+     * parsed sequentially.
+     */
+    default LanguageParser createParser() {
+        return this;
+    }
 
     /**
      * Indicates whether the tokens returned by parse have semantic information added to them, i.e. whether the token
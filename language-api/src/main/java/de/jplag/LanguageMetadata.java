@@ -0,0 +1,35 @@
+package de.jplag;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import de.jplag.options.LanguageOptions;
+
+/**
+ * Static metadata of a {@link Language} implementation. It is stored in the class file of the language, so it can be
+ * read from the class found by the service loader without instantiating the language, which may be expensive. The
+ * values have to be the same as the ones returned by the language instance.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface LanguageMetadata {
+    /**
+     * Identifier of the language, see {@link Language#getIdentifier()}.
+     */
+    String identifier();
+
+    /**
+     * Descriptive name of the language, see {@link Language#getName()}.
+     */
+    String name();
+
+    /**
+     * Type of the options of the language, see {@link Language#getOptions()}. It requires a public no-argument constructor.
+     * The default {@link LanguageOptions} means that the language has no options.
+     */
+    Class<? extends LanguageOptions> options() default LanguageOptions.class;
+}
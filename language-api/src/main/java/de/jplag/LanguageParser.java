@@ -0,0 +1,40 @@
+package de.jplag;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Parses the files of submissions into tokens. Every {@link Language} is a parser itself, and languages that can parse
+ * concurrently provide independent parsers for the parsing threads, see {@link Language#createParser()}.
+ */
+public interface LanguageParser {
+
+    /**
+     * Parses a set of files.
+     * @param files are the files to parse.
+     * @return the list of parsed JPlag tokens.
+     * @throws ParsingException if an error during parsing the files occurred.
+     */
+    List<Token> parse(Set<File> files) throws ParsingException;
+
+    /**
+     * Parses the files of multiple submissions in one batch, which allows parsers to share their setup costs between the
+     * submissions. A failure only affects the result of the respective submission. Used instead of {@link #parse(Set)} if
+     * the language prefers batches, see {@link Language#batchSize()}.
+     * @param fileSets are the files of the submissions.
+     * @return the parsing result per submission, in the order of the given file sets.
+     */
+    default List<ParsingResult> parseBatch(List<Set<File>> fileSets) {
+        List<ParsingResult> results = new ArrayList<>(fileSets.size());
+        for (Set<File> files : fileSets) {
+            try {
+                results.add(ParsingResult.of(parse(files)));
+            } catch (ParsingException exception) {
+                results.add(ParsingResult.failed(exception));
+            }
+        }
+        return results;
+    }
+}
@@ -0,0 +1,41 @@
+package de.jplag;
+
+import java.util.List;
+
+/**
+ * The result of parsing the files of a single submission as part of a batch, see {@link Language#parseBatch(List)}.
+ * Either the tokens or the exception is present, so a failing submission does not affect the others of the batch.
+ * @param tokens are the parsed tokens, or null if parsing failed.
+ * @param exception is the reason parsing failed, or null if parsing succeeded.
+ */
+public record ParsingResult(List<Token> tokens, ParsingException exception) {
+
+    /**
+     * Creates the result of a successful parse.
+     * @param tokens are the parsed tokens.
+     * @return the result.
+     */
+    public static ParsingResult of(List<Token> tokens) {
+        return new ParsingResult(tokens, null);
+    }
+
+    /**
+     * Creates the result of a failed parse.
+     * @param exception is the reason parsing failed.
+     * @return the result.
+     */
+    public static ParsingResult failed(ParsingException exception) {
+        return new ParsingResult(null, exception);
+    }
+
+    /**
+     * @return the parsed tokens.
+     * @throws ParsingException if parsing failed.
+     */
+    public List<Token> tokensOrThrow() throws ParsingException {
+        if (exception != null) {
+            throw exception;
+        }
+        return tokens;
+    }
+}
@@ -28,7 +28,7 @@ public class CodeSemantics {
      * @param reads A set of the variables which were (potentially) read from in the code snippet.
      * @param writes A set of the variables which were (potentially) written to in the code snippet.
      */
-    private CodeSemantics(boolean keep, PositionSignificance positionSignificance, int bidirectionalBlockDepthChange, Set<Variable> reads,
+    CodeSemantics(boolean keep, PositionSignificance positionSignificance, int bidirectionalBlockDepthChange, Set<Variable> reads,
             Set<Variable> writes) {
         this.keep = keep;
         this.positionSignificance = positionSignificance;
@@ -126,6 +126,13 @@ public class CodeSemantics {
         return positionSignificance == PositionSignificance.FULL;
     }
 
+    /**
+     * @return the position significance of this code snippet.
+     */
+    PositionSignificance positionSignificance() {
+        return positionSignificance;
+    }
+
     /**
      * Mark this code snippet as having full position significance.
      */
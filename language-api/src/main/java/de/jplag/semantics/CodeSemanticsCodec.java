@@ -0,0 +1,91 @@
+package de.jplag.semantics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes and reads code semantics in a compact binary format, e.g. to persist parsed tokens. As variables are
+ * identified by their identity, all semantics of a token sequence have to be written by the same codec, and have to be
+ * read by a single codec in the same order. Each variable is then only written once and shared again when reading.
+ */
+public class CodeSemanticsCodec {
+    private static final PositionSignificance[] POSITION_SIGNIFICANCES = PositionSignificance.values();
+    private static final VariableScope[] VARIABLE_SCOPES = VariableScope.values();
+
+    private final Map<Variable, Integer> writtenVariables = new IdentityHashMap<>();
+    private final List<Variable> readVariables = new ArrayList<>();
+
+    /**
+     * Writes the given semantics.
+     * @param semantics are the semantics to write.
+     * @param output is the output to write to.
+     * @throws IOException if writing to the output fails.
+     */
+    public void write(CodeSemantics semantics, DataOutput output) throws IOException {
+        output.writeBoolean(semantics.keep());
+        output.writeByte(semantics.positionSignificance().ordinal());
+        output.writeInt(semantics.bidirectionalBlockDepthChange());
+        writeVariables(semantics.reads(), output);
+        writeVariables(semantics.writes(), output);
+    }
+
+    /**
+     * Reads semantics that were written by {@link #write(CodeSemantics, DataOutput)}.
+     * @param input is the input to read from.
+     * @return the read semantics.
+     * @throws IOException if reading from the input fails or the input is malformed.
+     */
+    public CodeSemantics read(DataInput input) throws IOException {
+        boolean keep = input.readBoolean();
+        PositionSignificance positionSignificance = POSITION_SIGNIFICANCES[checkIndex(input.readByte(), POSITION_SIGNIFICANCES.length)];
+        int bidirectionalBlockDepthChange = input.readInt();
+        Set<Variable> reads = readVariables(input);
+        Set<Variable> writes = readVariables(input);
+        return new CodeSemantics(keep, positionSignificance, bidirectionalBlockDepthChange, reads, writes);
+    }
+
+    private void writeVariables(Set<Variable> variables, DataOutput output) throws IOException {
+        output.writeInt(variables.size());
+        for (Variable variable : variables) {
+            Integer id = writtenVariables.get(variable);
+            if (id != null) {
+                output.writeInt(id);
+            } else { // first occurrence, the definition follows the new id
+                output.writeInt(writtenVariables.size());
+                writtenVariables.put(variable, writtenVariables.size());
+                output.writeUTF(variable.name());
+                output.writeByte(variable.scope().ordinal());
+                output.writeBoolean(variable.isMutable());
+            }
+        }
+    }
+
+    private Set<Variable> readVariables(DataInput input) throws IOException {
+        int size = input.readInt();
+        Set<Variable> variables = new HashSet<>();
+        for (int i = 0; i < size; i++) {
+            int id = checkIndex(input.readInt(), readVariables.size() + 1);
+            if (id == readVariables.size()) {
+                String name = input.readUTF();
+                VariableScope scope = VARIABLE_SCOPES[checkIndex(input.readByte(), VARIABLE_SCOPES.length)];
+                readVariables.add(new Variable(name, scope, input.readBoolean()));
+            }
+            variables.add(readVariables.get(id));
+        }
+        return variables;
+    }
+
+    private static int checkIndex(int index, int length) throws IOException {
+        if (index < 0 || index >= length) {
+            throw new IOException("Malformed semantics: index " + index + " out of bounds for length " + length);
+        }
+        return index;
+    }
+}
@@ -14,6 +14,14 @@ public class Variable {
         this.isMutable = isMutable;
     }
 
+    String name() {
+        return name;
+    }
+
+    VariableScope scope() {
+        return scope;
+    }
+
     boolean isMutable() {
         return isMutable;
     }
@@ -3,6 +3,10 @@ package de.jplag.util;
 import java.io.*;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
@@ -163,4 +167,19 @@ public class FileUtils {
         writer.write(content);
         writer.close();
     }
+
+    /**
+     * Moves a file to the given target, replacing an existing target. The move is atomic if the file system supports it,
+     * thus readers never see a partially written target.
+     * @param source The file to move
+     * @param target The target path
+     * @throws IOException If any error occurs
+     */
+    public static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException exception) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
 }
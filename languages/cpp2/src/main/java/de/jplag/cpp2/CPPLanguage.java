@@ -3,17 +3,19 @@ package de.jplag.cpp2;
 import org.kohsuke.MetaInfServices;
 
 import de.jplag.Language;
+import de.jplag.LanguageMetadata;
 import de.jplag.antlr.AbstractAntlrLanguage;
 
 /**
  * The entry point for the ANTLR parser based C++ language module.
  */
 @MetaInfServices(Language.class)
+@LanguageMetadata(identifier = "cpp2", name = "C/C++ Parser")
 public class CPPLanguage extends AbstractAntlrLanguage {
     private static final String IDENTIFIER = "cpp2";
 
     public CPPLanguage() {
-        super(new CPPParserAdapter());
+        super(CPPParserAdapter::new);
     }
 
     @Override
@@ -40,4 +40,9 @@ public class CPPParserAdapter extends AbstractAntlrParserAdapter<CPP14Parser> {
     protected AbstractAntlrListener getListener() {
         return listener;
     }
+
+    @Override
+    protected String getWarmUpResource() {
+        return "warm-up.cpp";
+    }
 }
@@ -0,0 +1,69 @@
+#include <iostream>
+#include <map>
+#include <memory>
+#include <string>
+#include <vector>
+
+namespace warmup {
+
+template <typename T>
+class Stack {
+  public:
+    void push(const T& value) { values.push_back(value); }
+
+    T pop() {
+        T value = values.back();
+        values.pop_back();
+        return value;
+    }
+
+    bool empty() const { return values.empty(); }
+
+  private:
+    std::vector<T> values;
+};
+
+struct Point {
+    int x = 0;
+    int y = 0;
+};
+
+enum class Color { RED, GREEN, BLUE };
+
+int fibonacci(int n) {
+    if (n < 2) {
+        return n;
+    }
+    return fibonacci(n - 1) + fibonacci(n - 2);
+}
+
+}  // namespace warmup
+
+int main(int argc, char** argv) {
+    using namespace warmup;
+    Stack<int> stack;
+    std::map<std::string, int> counts;
+    auto point = std::make_unique<Point>();
+    point->x = argc;
+    for (int i = 0; i < 10; ++i) {
+        stack.push(fibonacci(i));
+        counts["value"] += i;
+    }
+    while (!stack.empty()) {
+        int value = stack.pop();
+        switch (value % 3) {
+            case 0:
+                std::cout << value << std::endl;
+                break;
+            default:
+                continue;
+        }
+    }
+    try {
+        throw std::runtime_error("done");
+    } catch (const std::exception& exception) {
+        std::cerr << exception.what() << '\n';
+    }
+    Color color = argc > 1 ? Color::RED : Color::BLUE;
+    return color == Color::RED ? 1 : 0;
+}
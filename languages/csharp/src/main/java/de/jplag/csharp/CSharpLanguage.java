@@ -2,12 +2,14 @@ package de.jplag.csharp;
 
 import org.kohsuke.MetaInfServices;
 
+import de.jplag.LanguageMetadata;
 import de.jplag.antlr.AbstractAntlrLanguage;
 
 /**
  * C# language with full support of C# 6 features and below.
  */
 @MetaInfServices(de.jplag.Language.class)
+@LanguageMetadata(identifier = "csharp", name = "C# 6 Parser")
 public class CSharpLanguage extends AbstractAntlrLanguage {
     private static final String NAME = "C# 6 Parser";
     private static final String IDENTIFIER = "csharp";
@@ -15,7 +17,7 @@ public class CSharpLanguage extends AbstractAntlrLanguage {
     private static final int DEFAULT_MIN_TOKEN_MATCH = 8;
 
     public CSharpLanguage() {
-        super(new CSharpParserAdapter());
+        super(CSharpParserAdapter::new);
     }
 
     @Override
@@ -34,4 +34,9 @@ public class CSharpParserAdapter extends AbstractAntlrParserAdapter<CSharpParser
     protected AbstractAntlrListener getListener() {
         return new CSharpListener();
     }
+
+    @Override
+    protected String getWarmUpResource() {
+        return "warm-up.cs";
+    }
 }
@@ -0,0 +1,64 @@
+using System;
+using System.Collections.Generic;
+using System.Linq;
+
+namespace WarmUp
+{
+    public interface IShape
+    {
+        double Area();
+    }
+
+    public class Circle : IShape
+    {
+        public double Radius { get; set; }
+
+        public Circle(double radius)
+        {
+            Radius = radius;
+        }
+
+        public double Area() => Math.PI * Radius * Radius;
+    }
+
+    public enum Color { Red, Green, Blue }
+
+    public static class Program
+    {
+        public static void Main(string[] args)
+        {
+            var shapes = new List<IShape> { new Circle(1.0), new Circle(2.0) };
+            double total = 0;
+            foreach (var shape in shapes)
+            {
+                total += shape.Area();
+            }
+            var large = shapes.Where(shape => shape.Area() > 3).ToList();
+            for (int i = 0; i < args.Length; i++)
+            {
+                if (args[i] == null)
+                {
+                    continue;
+                }
+                switch (args[i].Length)
+                {
+                    case 0:
+                        break;
+                    default:
+                        Console.WriteLine(args[i]);
+                        break;
+                }
+            }
+            try
+            {
+                throw new InvalidOperationException($"Total {total}");
+            }
+            catch (InvalidOperationException exception)
+            {
+                Console.Error.WriteLine(exception.Message);
+            }
+            Color color = large.Count > 0 ? Color.Red : Color.Blue;
+            Console.WriteLine(color);
+        }
+    }
+}
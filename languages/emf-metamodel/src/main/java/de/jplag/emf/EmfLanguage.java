@@ -7,6 +7,7 @@ import java.util.Set;
 import org.eclipse.emf.ecore.EcorePackage;
 import org.kohsuke.MetaInfServices;
 
+import de.jplag.LanguageMetadata;
 import de.jplag.ParsingException;
 import de.jplag.Token;
 import de.jplag.emf.parser.EcoreParser;
@@ -16,6 +17,7 @@ import de.jplag.emf.parser.EcoreParser;
  * @author Timur Saglam
  */
 @MetaInfServices(de.jplag.Language.class)
+@LanguageMetadata(identifier = "emf", name = "EMF metamodel")
 public class EmfLanguage implements de.jplag.Language {
     public static final String VIEW_FILE_SUFFIX = ".emfatic";
     public static final String FILE_ENDING = "." + EcorePackage.eNAME;
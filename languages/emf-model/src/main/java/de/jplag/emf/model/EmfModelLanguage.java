@@ -6,6 +6,7 @@ import java.util.List;
 
 import org.kohsuke.MetaInfServices;
 
+import de.jplag.LanguageMetadata;
 import de.jplag.emf.dynamic.DynamicEmfLanguage;
 import de.jplag.emf.model.parser.DynamicModelParser;
 
@@ -15,6 +16,7 @@ import de.jplag.emf.model.parser.DynamicModelParser;
  * @author Timur Saglam
  */
 @MetaInfServices(de.jplag.Language.class)
+@LanguageMetadata(identifier = "emf-model", name = "EMF models (dynamically created token set)")
 public class EmfModelLanguage extends DynamicEmfLanguage {
     private static final String NAME = "EMF models (dynamically created token set)";
     private static final String IDENTIFIER = "emf-model";
@@ -6,10 +6,12 @@ import java.util.Set;
 
 import org.kohsuke.MetaInfServices;
 
+import de.jplag.LanguageMetadata;
 import de.jplag.ParsingException;
 import de.jplag.Token;
 
 @MetaInfServices(de.jplag.Language.class)
+@LanguageMetadata(identifier = "go", name = "Go Parser")
 public class GoLanguage implements de.jplag.Language {
 
     private static final String NAME = "Go Parser";
@@ -17,6 +17,8 @@ import de.jplag.AbstractParser;
 import de.jplag.ParsingException;
 import de.jplag.Token;
 import de.jplag.TokenType;
+import de.jplag.antlr.DfaCache;
+import de.jplag.antlr.TwoStageParsing;
 import de.jplag.golang.grammar.GoLexer;
 import de.jplag.golang.grammar.GoParser;
 import de.jplag.util.FileUtils;
@@ -42,7 +44,8 @@ public class GoParserAdapter extends AbstractParser {
             CommonTokenStream tokenStream = new CommonTokenStream(lexer);
             GoParser parser = new GoParser(tokenStream);
 
-            ParserRuleContext entryContext = parser.sourceFile();
+            ParserRuleContext entryContext = TwoStageParsing.parse(parser, GoParser::sourceFile);
+            DfaCache.of(GoParserAdapter.class).update(lexer, parser);
             ParseTreeWalker treeWalker = new ParseTreeWalker();
 
             JPlagGoListener listener = new JPlagGoListener(this);
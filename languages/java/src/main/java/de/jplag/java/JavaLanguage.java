@@ -6,16 +6,20 @@ import java.util.Set;
 
 import org.kohsuke.MetaInfServices;
 
+import de.jplag.LanguageMetadata;
 import de.jplag.ParsingException;
+import de.jplag.ParsingResult;
 import de.jplag.Token;
 
 /**
  * Language for Java 9 and newer.
  */
 @MetaInfServices(de.jplag.Language.class)
+@LanguageMetadata(identifier = "java", name = "Javac based AST plugin")
 public class JavaLanguage implements de.jplag.Language {
     private static final String IDENTIFIER = "java";
     public static final int JAVA_VERSION = 21;
+    private static final int BATCH_SIZE = 32;
 
     private final Parser parser;
 
@@ -48,6 +52,21 @@ public class JavaLanguage implements de.jplag.Language {
         return this.parser.parse(files);
     }
 
+    @Override
+    public List<ParsingResult> parseBatch(List<Set<File>> fileSets) {
+        return this.parser.parseBatch(fileSets);
+    }
+
+    @Override
+    public int batchSize() {
+        return BATCH_SIZE;
+    }
+
+    @Override
+    public Parser createParser() {
+        return new Parser();
+    }
+
     @Override
     public boolean tokensHaveSemantics() {
         return true;
@@ -2,11 +2,17 @@ package de.jplag.java;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.URI;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 
 import javax.tools.DiagnosticCollector;
@@ -19,6 +25,7 @@ import javax.tools.ToolProvider;
 import org.slf4j.Logger;
 
 import de.jplag.ParsingException;
+import de.jplag.ParsingResult;
 import de.jplag.Token;
 import de.jplag.util.FileUtils;
 
@@ -28,38 +35,114 @@ import com.sun.source.util.JavacTask;
 import com.sun.source.util.SourcePositions;
 import com.sun.source.util.Trees;
 
+/**
+ * Parses Java files with the compiler of the running JDK. Each adapter uses its own compiler instance, thus adapters
+ * can be used by different threads concurrently. The files of multiple submissions are parsed in a single compilation
+ * task and the file managers are shared by the tasks of a call, so the setup costs are shared between the submissions.
+ */
 public class JavacAdapter {
 
-    private static final JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+    private final JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
 
-    public void parseFiles(Set<File> files, final Parser parser) throws ParsingException {
-        var listener = new DiagnosticCollector<>();
+    /**
+     * Parses the files of multiple submissions. Submissions are parsed together if their files have the same charset. The
+     * file managers are closed before returning, as they hold the files of the platform classes open.
+     * @param fileSets are the files of the submissions.
+     * @param parser collects the tokens.
+     * @return the parsing result per submission, in the order of the given file sets.
+     */
+    public List<ParsingResult> parseFiles(List<Set<File>> fileSets, final Parser parser) {
+        ParsingResult[] results = new ParsingResult[fileSets.size()];
+        Map<Charset, StandardJavaFileManager> fileManagers = new HashMap<>();
+        try {
+            for (Batch batch : createBatches(fileSets, results)) {
+                StandardJavaFileManager fileManager = fileManagers.computeIfAbsent(batch.charset(),
+                        key -> javac.getStandardFileManager(null, null, key));
+                parseBatch(batch, fileManager, fileSets, parser, results);
+            }
+        } finally {
+            closeAll(fileManagers.values(), parser.logger);
+        }
+        return Arrays.asList(results);
+    }
 
-        List<ParsingException> parsingExceptions = new ArrayList<>();
-        final Charset guessedCharset = FileUtils.detectCharsetFromMultiple(files);
-        try (final StandardJavaFileManager fileManager = javac.getStandardFileManager(listener, null, guessedCharset)) {
-            var javaFiles = fileManager.getJavaFileObjectsFromFiles(files);
-
-            // We need to disable annotation processing, see
-            // https://stackoverflow.com/questions/72737445/system-java-compiler-behaves-different-depending-on-dependencies-defined-in-mave
-            final CompilationTask task = javac.getTask(null, fileManager, listener,
-                    List.of("-proc:none", "--enable-preview", "--release=" + JavaLanguage.JAVA_VERSION), null, javaFiles);
-            final Trees trees = Trees.instance(task);
-            final SourcePositions positions = new FixedSourcePositions(trees.getSourcePositions());
-            for (final CompilationUnitTree ast : executeCompilationTask(task, parser.logger)) {
-                File file = new File(ast.getSourceFile().toUri());
-                final LineMap map = ast.getLineMap();
-                var scanner = new TokenGeneratingTreeScanner(file, parser, map, positions, ast);
-                ast.accept(scanner, null);
-                parsingExceptions.addAll(scanner.getParsingExceptions());
-                parser.add(Token.semanticFileEnd(file));
+    private static void closeAll(Collection<StandardJavaFileManager> fileManagers, Logger logger) {
+        for (StandardJavaFileManager fileManager : fileManagers) {
+            try {
+                fileManager.close();
+            } catch (IOException exception) {
+                logger.error(exception.getMessage(), exception);
             }
-        } catch (IOException exception) {
-            throw new ParsingException(null, exception.getMessage(), exception);
         }
-        parsingExceptions.addAll(processErrors(parser.logger, listener));
-        if (!parsingExceptions.isEmpty()) {
-            throw ParsingException.wrappingExceptions(parsingExceptions);
+    }
+
+    /**
+     * Groups the submissions by the charset of their files. A submission that shares files with a submission of the group
+     * starts a new group, as the parsed files are routed back to their submission. Submissions whose charset cannot be
+     * detected are not grouped, their failed result is stored right away.
+     */
+    private List<Batch> createBatches(List<Set<File>> fileSets, ParsingResult[] results) {
+        Map<Charset, Batch> openBatches = new HashMap<>();
+        List<Batch> batches = new ArrayList<>();
+        for (int submission = 0; submission < fileSets.size(); submission++) {
+            Set<File> files = fileSets.get(submission);
+            Charset charset;
+            try {
+                charset = FileUtils.detectCharsetFromMultiple(files);
+            } catch (ParsingException exception) {
+                results[submission] = ParsingResult.failed(exception);
+                continue;
+            }
+            Batch batch = openBatches.get(charset);
+            if (batch == null || files.stream().anyMatch(batch.files()::contains)) {
+                batch = new Batch(charset, new ArrayList<>(), new HashSet<>());
+                openBatches.put(charset, batch);
+                batches.add(batch);
+            }
+            batch.submissions().add(submission);
+            batch.files().addAll(files);
+        }
+        return batches;
+    }
+
+    private void parseBatch(Batch batch, StandardJavaFileManager fileManager, List<Set<File>> fileSets, Parser parser, ParsingResult[] results) {
+        var listener = new DiagnosticCollector<>();
+        List<JavaFileObject> javaFiles = new ArrayList<>();
+        Map<URI, Integer> submissionOfFile = new HashMap<>();
+        Map<Integer, List<Token>> tokens = new HashMap<>();
+        Map<Integer, List<ParsingException>> parsingExceptions = new HashMap<>();
+        for (int submission : batch.submissions()) {
+            for (JavaFileObject javaFile : fileManager.getJavaFileObjectsFromFiles(fileSets.get(submission))) {
+                javaFiles.add(javaFile);
+                submissionOfFile.put(javaFile.toUri(), submission);
+            }
+            tokens.put(submission, new ArrayList<>());
+            parsingExceptions.put(submission, new ArrayList<>());
+        }
+
+        // We need to disable annotation processing, see
+        // https://stackoverflow.com/questions/72737445/system-java-compiler-behaves-different-depending-on-dependencies-defined-in-mave
+        final CompilationTask task = javac.getTask(null, fileManager, listener,
+                List.of("-proc:none", "--enable-preview", "--release=" + JavaLanguage.JAVA_VERSION), null, javaFiles);
+        final Trees trees = Trees.instance(task);
+        final SourcePositions positions = new FixedSourcePositions(trees.getSourcePositions());
+        for (final CompilationUnitTree ast : executeCompilationTask(task, parser.logger)) {
+            int submission = submissionOfFile.get(ast.getSourceFile().toUri());
+            File file = new File(ast.getSourceFile().toUri());
+            final LineMap map = ast.getLineMap();
+            parser.collectInto(tokens.get(submission));
+            var scanner = new TokenGeneratingTreeScanner(file, parser, map, positions, ast);
+            ast.accept(scanner, null);
+            parsingExceptions.get(submission).addAll(scanner.getParsingExceptions());
+            parser.add(Token.semanticFileEnd(file));
+        }
+        parser.collectInto(null);
+        processErrors(parser.logger, listener, submissionOfFile, batch.submissions(), parsingExceptions);
+
+        for (int submission : batch.submissions()) {
+            List<ParsingException> exceptions = parsingExceptions.get(submission);
+            results[submission] = exceptions.isEmpty() ? ParsingResult.of(tokens.get(submission))
+                    : ParsingResult.failed(ParsingException.wrappingExceptions(exceptions));
         }
     }
 
@@ -73,15 +156,35 @@ public class JavacAdapter {
         return abstractSyntaxTrees;
     }
 
-    private List<ParsingException> processErrors(Logger logger, DiagnosticCollector<Object> listener) {
-        return listener.getDiagnostics().stream().filter(it -> it.getKind() == javax.tools.Diagnostic.Kind.ERROR).map(diagnosticItem -> {
+    /**
+     * Converts the errors into parsing exceptions of the submission of their file. Errors without a file affect all given
+     * submissions.
+     */
+    private void processErrors(Logger logger, DiagnosticCollector<Object> listener, Map<URI, Integer> submissionOfFile, List<Integer> submissions,
+            Map<Integer, List<ParsingException>> parsingExceptions) {
+        listener.getDiagnostics().stream().filter(it -> it.getKind() == javax.tools.Diagnostic.Kind.ERROR).forEach(diagnosticItem -> {
             File file = null;
+            Integer submission = null;
             if (diagnosticItem.getSource() instanceof JavaFileObject fileObject) {
                 file = new File(fileObject.toUri());
+                submission = submissionOfFile.get(fileObject.toUri());
             }
             logger.error("{}", diagnosticItem);
-            return new ParsingException(file, diagnosticItem.getMessage(Locale.getDefault()));
-        }).toList();
+            ParsingException exception = new ParsingException(file, diagnosticItem.getMessage(Locale.getDefault()));
+            if (submission != null) {
+                parsingExceptions.get(submission).add(exception);
+            } else {
+                submissions.forEach(it -> parsingExceptions.get(it).add(exception));
+            }
+        });
     }
 
+    /**
+     * Submissions that are parsed in a single compilation task.
+     * @param charset is the charset of the files.
+     * @param submissions are the indexes of the submissions.
+     * @param files are the files of the submissions.
+     */
+    private record Batch(Charset charset, List<Integer> submissions, Set<File> files) {
+    }
 }
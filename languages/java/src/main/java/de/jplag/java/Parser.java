@@ -1,15 +1,17 @@
 package de.jplag.java;
 
 import java.io.File;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
 import de.jplag.AbstractParser;
+import de.jplag.LanguageParser;
 import de.jplag.ParsingException;
+import de.jplag.ParsingResult;
 import de.jplag.Token;
 
-public class Parser extends AbstractParser {
+public class Parser extends AbstractParser implements LanguageParser {
+    private final JavacAdapter javacAdapter;
     private List<Token> tokens;
 
     /**
@@ -17,16 +19,36 @@ public class Parser extends AbstractParser {
      */
     public Parser() {
         super();
+        javacAdapter = new JavacAdapter();
     }
 
+    @Override
     public List<Token> parse(Set<File> files) throws ParsingException {
-        tokens = new ArrayList<>();
-        new JavacAdapter().parseFiles(files, this);
-        logger.debug("--- token semantics ---");
-        for (Token token : tokens) {
-            logger.debug("{} | {} | {}", token.getLine(), token.getType().getDescription(), token.getSemantics());
+        return parseBatch(List.of(files)).get(0).tokensOrThrow();
+    }
+
+    /**
+     * Parses the files of multiple submissions in one batch.
+     * @param fileSets are the files of the submissions.
+     * @return the parsing result per submission, in the order of the given file sets.
+     */
+    @Override
+    public List<ParsingResult> parseBatch(List<Set<File>> fileSets) {
+        List<ParsingResult> results = javacAdapter.parseFiles(fileSets, this);
+        if (logger.isDebugEnabled()) {
+            logger.debug("--- token semantics ---");
+            results.stream().filter(result -> result.tokens() != null).flatMap(result -> result.tokens().stream())
+                    .forEach(token -> logger.debug("{} | {} | {}", token.getLine(), token.getType().getDescription(), token.getSemantics()));
         }
-        return tokens;
+        return results;
+    }
+
+    /**
+     * Directs the added tokens to the tokens of the submission whose file is currently scanned.
+     * @param tokens are the tokens of the submission.
+     */
+    void collectInto(List<Token> tokens) {
+        this.tokens = tokens;
     }
 
     public void add(Token token) {
@@ -0,0 +1,69 @@
+package de.jplag.java;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.jplag.ParsingException;
+import de.jplag.ParsingResult;
+import de.jplag.Token;
+
+/**
+ * Tests that parsing submissions in a batch yields the same tokens as parsing them individually.
+ */
+class BatchParsingTest {
+    private static final Path RESOURCES = Path.of("src", "test", "resources", "de", "jplag", "java");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testBatchMatchesIndividualParsing() throws IOException, ParsingException {
+        Set<File> first = Set.of(RESOURCES.resolve("IfElse.java").toFile());
+        Set<File> second = Set.of(RESOURCES.resolve("Try.java").toFile(), RESOURCES.resolve("TryWithResource.java").toFile());
+        Set<File> invalid = Set.of(Files.writeString(directory.resolve("Invalid.java"), "class Invalid { void method( }").toFile());
+
+        List<ParsingResult> results = new JavaLanguage().parseBatch(List.of(first, invalid, second, first));
+
+        assertEquals(4, results.size());
+        assertSameTokens(new JavaLanguage().parse(first), results.get(0));
+        assertNotNull(results.get(1).exception());
+        assertSameTokens(new JavaLanguage().parse(second), results.get(2));
+        assertSameTokens(new JavaLanguage().parse(first), results.get(3));
+    }
+
+    @Test
+    void testUnreadableSubmissionFailsAlone() throws ParsingException {
+        Set<File> first = Set.of(RESOURCES.resolve("IfElse.java").toFile());
+        Set<File> missing = Set.of(directory.resolve("Missing.java").toFile());
+
+        List<ParsingResult> results = new JavaLanguage().parseBatch(List.of(first, missing, first));
+
+        assertEquals(3, results.size());
+        assertSameTokens(new JavaLanguage().parse(first), results.get(0));
+        assertNotNull(results.get(1).exception());
+        assertSameTokens(new JavaLanguage().parse(first), results.get(2));
+    }
+
+    private static void assertSameTokens(List<Token> expected, ParsingResult result) {
+        assertNull(result.exception());
+        List<Token> actual = result.tokens();
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getType(), actual.get(i).getType());
+            assertEquals(expected.get(i).getFile(), actual.get(i).getFile());
+            assertEquals(expected.get(i).getLine(), actual.get(i).getLine());
+            assertEquals(expected.get(i).getColumn(), actual.get(i).getColumn());
+        }
+    }
+}
@@ -2,12 +2,15 @@ package de.jplag.javascript;
 
 import org.kohsuke.MetaInfServices;
 
+import de.jplag.LanguageMetadata;
 import de.jplag.typescript.TypeScriptLanguage;
+import de.jplag.typescript.TypeScriptLanguageOptions;
 
 /**
  * Represents the JavaScript Language as a variance of TypeScript
  */
 @MetaInfServices(de.jplag.Language.class)
+@LanguageMetadata(identifier = "javascript", name = "JavaScript", options = TypeScriptLanguageOptions.class)
 public class JavaScriptLanguage extends TypeScriptLanguage {
 
     private static final String IDENTIFIER = "javascript";
@@ -2,12 +2,14 @@ package de.jplag.kotlin;
 
 import org.kohsuke.MetaInfServices;
 
+import de.jplag.LanguageMetadata;
 import de.jplag.antlr.AbstractAntlrLanguage;
 
 /**
  * This represents the Kotlin language as a language supported by JPlag.
  */
 @MetaInfServices(de.jplag.Language.class)
+@LanguageMetadata(identifier = "kotlin", name = "Kotlin Parser")
 public class KotlinLanguage extends AbstractAntlrLanguage {
 
     private static final String NAME = "Kotlin Parser";
@@ -16,7 +18,7 @@ public class KotlinLanguage extends AbstractAntlrLanguage {
     private static final String[] FILE_EXTENSIONS = {".kt"};
 
     public KotlinLanguage() {
-        super(new KotlinParserAdapter());
+        super(KotlinParserAdapter::new);
     }
 
     @Override
@@ -29,4 +29,9 @@ public class KotlinParserAdapter extends AbstractAntlrParserAdapter<KotlinParser
     protected AbstractAntlrListener getListener() {
         return listener;
     }
+
+    @Override
+    protected String getWarmUpResource() {
+        return "warm-up.kt";
+    }
 }
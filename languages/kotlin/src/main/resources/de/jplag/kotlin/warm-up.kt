@@ -0,0 +1,51 @@
+package warmup
+
+import kotlin.math.PI
+
+interface Shape {
+    fun area(): Double
+}
+
+data class Circle(val radius: Double) : Shape {
+    override fun area(): Double = PI * radius * radius
+}
+
+enum class Color { RED, GREEN, BLUE }
+
+class Stack<T> {
+    private val values = mutableListOf<T>()
+
+    fun push(value: T) {
+        values.add(value)
+    }
+
+    fun pop(): T = values.removeAt(values.size - 1)
+
+    val isEmpty: Boolean
+        get() = values.isEmpty()
+}
+
+fun fibonacci(n: Int): Int = if (n < 2) n else fibonacci(n - 1) + fibonacci(n - 2)
+
+fun main(args: Array<String>) {
+    val shapes = listOf(Circle(1.0), Circle(2.0))
+    val total = shapes.sumOf { it.area() }
+    val stack = Stack<Int>()
+    for (i in 0 until 10) {
+        stack.push(fibonacci(i))
+    }
+    while (!stack.isEmpty) {
+        when (val value = stack.pop()) {
+            0 -> println("zero")
+            in 1..5 -> println("small $value")
+            else -> continue
+        }
+    }
+    try {
+        throw IllegalStateException("Total $total")
+    } catch (exception: IllegalStateException) {
+        println(exception.message)
+    }
+    val color = if (args.isNotEmpty()) Color.RED else Color.BLUE
+    println(color)
+}
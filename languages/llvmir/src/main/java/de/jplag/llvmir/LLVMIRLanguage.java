@@ -3,12 +3,14 @@ package de.jplag.llvmir;
 import org.kohsuke.MetaInfServices;
 
 import de.jplag.Language;
+import de.jplag.LanguageMetadata;
 import de.jplag.antlr.AbstractAntlrLanguage;
 
 /**
  * The entry point for the ANTLR parser based LLVM IR language module.
  */
 @MetaInfServices(Language.class)
+@LanguageMetadata(identifier = "llvmir", name = "LLVMIR Parser")
 public class LLVMIRLanguage extends AbstractAntlrLanguage {
 
     private static final String NAME = "LLVMIR Parser";
@@ -17,7 +19,7 @@ public class LLVMIRLanguage extends AbstractAntlrLanguage {
     private static final String[] FILE_EXTENSIONS = {".ll"};
 
     public LLVMIRLanguage() {
-        super(new LLVMIRParserAdapter());
+        super(LLVMIRParserAdapter::new);
     }
 
     @Override
@@ -33,4 +33,9 @@ public class LLVMIRParserAdapter extends AbstractAntlrParserAdapter<LLVMIRParser
     protected AbstractAntlrListener getListener() {
         return listener;
     }
+
+    @Override
+    protected String getWarmUpResource() {
+        return "warm-up.ll";
+    }
 }
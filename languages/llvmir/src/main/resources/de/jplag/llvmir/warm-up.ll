@@ -0,0 +1,38 @@
+; ModuleID = 'warm-up.c'
+source_filename = "warm-up.c"
+target datalayout = "e-m:e-p270:32:32-p271:32:32-p272:64:64-i64:64-f80:128-n8:16:32:64-S128"
+target triple = "x86_64-pc-linux-gnu"
+
+%struct.Point = type { i32, i32 }
+
+@.str = private unnamed_addr constant [4 x i8] c"%d\0A\00", align 1
+
+define dso_local i32 @fibonacci(i32 noundef %0) {
+  %2 = icmp slt i32 %0, 2
+  br i1 %2, label %3, label %4
+
+3:
+  ret i32 %0
+
+4:
+  %5 = sub nsw i32 %0, 1
+  %6 = call i32 @fibonacci(i32 noundef %5)
+  %7 = sub nsw i32 %0, 2
+  %8 = call i32 @fibonacci(i32 noundef %7)
+  %9 = add nsw i32 %6, %8
+  ret i32 %9
+}
+
+define dso_local i32 @main() {
+  %1 = alloca %struct.Point, align 4
+  %2 = getelementptr inbounds %struct.Point, ptr %1, i32 0, i32 0
+  store i32 10, ptr %2, align 4
+  %3 = load i32, ptr %2, align 4
+  %4 = call i32 @fibonacci(i32 noundef %3)
+  %5 = call i32 (ptr, ...) @printf(ptr noundef @.str, i32 noundef %4)
+  %6 = icmp sgt i32 %4, 50
+  %7 = select i1 %6, i32 1, i32 0
+  ret i32 %7
+}
+
+declare i32 @printf(ptr noundef, ...)
@@ -16,6 +16,8 @@ import de.jplag.AbstractParser;
 import de.jplag.ParsingException;
 import de.jplag.Token;
 import de.jplag.TokenType;
+import de.jplag.antlr.DfaCache;
+import de.jplag.antlr.TwoStageParsing;
 import de.jplag.python3.grammar.Python3Lexer;
 import de.jplag.python3.grammar.Python3Parser;
 import de.jplag.python3.grammar.Python3Parser.File_inputContext;
@@ -55,7 +57,8 @@ public class Parser extends AbstractParser {
 
             // create a parser that feeds off the tokens buffer
             Python3Parser parser = new Python3Parser(tokens);
-            File_inputContext in = parser.file_input();
+            File_inputContext in = TwoStageParsing.parse(parser, Python3Parser::file_input);
+            DfaCache.of(Parser.class).update(lexer, parser);
 
             ParseTreeWalker ptw = new ParseTreeWalker();
             for (int i = 0; i < in.getChildCount(); i++) {
@@ -6,10 +6,12 @@ import java.util.Set;
 
 import org.kohsuke.MetaInfServices;
 
+import de.jplag.LanguageMetadata;
 import de.jplag.ParsingException;
 import de.jplag.Token;
 
 @MetaInfServices(de.jplag.Language.class)
+@LanguageMetadata(identifier = "python3", name = "Python3 Parser")
 public class PythonLanguage implements de.jplag.Language {
 
     private static final String IDENTIFIER = "python3";
@@ -17,6 +17,8 @@ import de.jplag.AbstractParser;
 import de.jplag.ParsingException;
 import de.jplag.Token;
 import de.jplag.TokenType;
+import de.jplag.antlr.DfaCache;
+import de.jplag.antlr.TwoStageParsing;
 import de.jplag.rlang.grammar.RFilter;
 import de.jplag.rlang.grammar.RLexer;
 import de.jplag.rlang.grammar.RParser;
@@ -67,7 +69,8 @@ public class RParserAdapter extends AbstractParser {
             RParser parser = new RParser(tokens);
 
             // Create a tree walker and the entry context defined by the parser grammar
-            ParserRuleContext entryContext = parser.prog();
+            ParserRuleContext entryContext = TwoStageParsing.parse(parser, RParser::prog);
+            DfaCache.of(RParserAdapter.class).update(lexer, parser);
             ParseTreeWalker treeWalker = new ParseTreeWalker();
 
             // Walk over the parse tree:
@@ -6,6 +6,7 @@ import java.util.Set;
 
 import org.kohsuke.MetaInfServices;
 
+import de.jplag.LanguageMetadata;
 import de.jplag.ParsingException;
 import de.jplag.Token;
 
@@ -13,6 +14,7 @@ import de.jplag.Token;
  * This represents the Rust language as a language supported by JPlag.
  */
 @MetaInfServices(de.jplag.Language.class)
+@LanguageMetadata(identifier = "rust", name = "Rust Language Module")
 public class RustLanguage implements de.jplag.Language {
 
     protected static final String[] FILE_EXTENSIONS = {".rs"};
@@ -16,6 +16,8 @@ import org.antlr.v4.runtime.tree.ParseTreeWalker;
 import de.jplag.AbstractParser;
 import de.jplag.ParsingException;
 import de.jplag.Token;
+import de.jplag.antlr.DfaCache;
+import de.jplag.antlr.TwoStageParsing;
 import de.jplag.rust.grammar.RustLexer;
 import de.jplag.rust.grammar.RustParser;
 import de.jplag.util.FileUtils;
@@ -50,7 +52,8 @@ public class RustParserAdapter extends AbstractParser {
             RustParser parser = new RustParser(tokenStream);
 
             // Create a tree walker and the entry context defined by the parser grammar
-            ParserRuleContext entryContext = parser.crate();
+            ParserRuleContext entryContext = TwoStageParsing.parse(parser, RustParser::crate);
+            DfaCache.of(RustParserAdapter.class).update(lexer, parser);
             ParseTreeWalker treeWalker = new ParseTreeWalker();
 
             // Walk over the parse tree:
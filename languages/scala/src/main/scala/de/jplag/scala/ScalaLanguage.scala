@@ -1,6 +1,6 @@
 package de.jplag.scala
 
-import de.jplag.Token
+import de.jplag.{LanguageMetadata, Token}
 
 import java.io.File
 import org.kohsuke.MetaInfServices
@@ -8,6 +8,7 @@ import org.kohsuke.MetaInfServices
 import java.util
 import scala.jdk.CollectionConverters.{SeqHasAsJava, SetHasAsScala}
 
+@LanguageMetadata(identifier = "scala", name = "Scala parser")
 class ScalaLanguage extends de.jplag.Language {
   private val parser = new Parser
   private final val fileExtensions = Array(".scala", ".sc")
@@ -6,6 +6,7 @@ import java.util.Set;
 
 import org.kohsuke.MetaInfServices;
 
+import de.jplag.LanguageMetadata;
 import de.jplag.ParsingException;
 import de.jplag.Token;
 import de.jplag.scxml.parser.ScxmlParserAdapter;
@@ -14,6 +15,7 @@ import de.jplag.scxml.parser.ScxmlParserAdapter;
  * Language for statecharts in the State Chart XML (SCXML) format.
  */
 @MetaInfServices(de.jplag.Language.class)
+@LanguageMetadata(identifier = "scxml", name = "SCXML (Statechart XML)")
 public class ScxmlLanguage implements de.jplag.Language {
 
     /**
@@ -6,6 +6,7 @@ import java.util.Set;
 
 import org.kohsuke.MetaInfServices;
 
+import de.jplag.LanguageMetadata;
 import de.jplag.ParsingException;
 import de.jplag.Token;
 
@@ -13,6 +14,7 @@ import de.jplag.Token;
  * This represents the Swift language as a language supported by JPlag.
  */
 @MetaInfServices(de.jplag.Language.class)
+@LanguageMetadata(identifier = "swift", name = "Swift Parser")
 public class SwiftLanguage implements de.jplag.Language {
 
     private static final String IDENTIFIER = "swift";
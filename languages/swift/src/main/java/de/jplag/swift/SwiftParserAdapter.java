@@ -16,6 +16,8 @@ import org.antlr.v4.runtime.tree.ParseTreeWalker;
 import de.jplag.AbstractParser;
 import de.jplag.ParsingException;
 import de.jplag.Token;
+import de.jplag.antlr.DfaCache;
+import de.jplag.antlr.TwoStageParsing;
 import de.jplag.swift.grammar.Swift5Lexer;
 import de.jplag.swift.grammar.Swift5Parser;
 import de.jplag.util.FileUtils;
@@ -55,7 +57,8 @@ public class SwiftParserAdapter extends AbstractParser {
             CommonTokenStream tokenStream = new CommonTokenStream(lexer);
             Swift5Parser parser = new Swift5Parser(tokenStream);
 
-            ParserRuleContext entryContext = parser.top_level();
+            ParserRuleContext entryContext = TwoStageParsing.parse(parser, Swift5Parser::top_level);
+            DfaCache.of(SwiftParserAdapter.class).update(lexer, parser);
             ParseTreeWalker treeWalker = new ParseTreeWalker();
 
             JPlagSwiftListener listener = new JPlagSwiftListener(this);
@@ -6,6 +6,7 @@ import java.util.Set;
 
 import org.kohsuke.MetaInfServices;
 
+import de.jplag.LanguageMetadata;
 import de.jplag.ParsingException;
 import de.jplag.Token;
 
@@ -15,6 +16,7 @@ import de.jplag.Token;
  * but there are better approaches for text plagiarism out there (based on NLP techniques).
  */
 @MetaInfServices(de.jplag.Language.class)
+@LanguageMetadata(identifier = "text", name = "Text Parser (naive)")
 public class NaturalLanguage implements de.jplag.Language {
 
     private static final String IDENTIFIER = "text";
@@ -2,12 +2,14 @@ package de.jplag.typescript;
 
 import org.kohsuke.MetaInfServices;
 
+import de.jplag.LanguageMetadata;
 import de.jplag.antlr.AbstractAntlrLanguage;
 
 /**
  * This represents the TypeScript language as a language supported by JPlag.
  */
 @MetaInfServices(de.jplag.Language.class)
+@LanguageMetadata(identifier = "typescript", name = "Typescript Parser", options = TypeScriptLanguageOptions.class)
 public class TypeScriptLanguage extends AbstractAntlrLanguage {
 
     private static final String IDENTIFIER = "typescript";
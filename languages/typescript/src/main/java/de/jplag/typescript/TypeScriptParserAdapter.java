@@ -46,4 +46,9 @@ public class TypeScriptParserAdapter extends AbstractAntlrParserAdapter<TypeScri
     protected AbstractAntlrListener getListener() {
         return listener;
     }
+
+    @Override
+    protected String getWarmUpResource() {
+        return "warm-up.ts";
+    }
 }
@@ -0,0 +1,63 @@
+interface Shape {
+    area(): number;
+}
+
+class Circle implements Shape {
+    constructor(private readonly radius: number) {}
+
+    area(): number {
+        return Math.PI * this.radius * this.radius;
+    }
+}
+
+enum Color {
+    Red,
+    Green,
+    Blue,
+}
+
+class Stack<T> {
+    private values: T[] = [];
+
+    push(value: T): void {
+        this.values.push(value);
+    }
+
+    pop(): T | undefined {
+        return this.values.pop();
+    }
+
+    get isEmpty(): boolean {
+        return this.values.length === 0;
+    }
+}
+
+function fibonacci(n: number): number {
+    return n < 2 ? n : fibonacci(n - 1) + fibonacci(n - 2);
+}
+
+export async function main(args: string[]): Promise<number> {
+    const shapes: Shape[] = [new Circle(1), new Circle(2)];
+    const total = shapes.map((shape) => shape.area()).reduce((sum, area) => sum + area, 0);
+    const stack = new Stack<number>();
+    for (let i = 0; i < 10; i++) {
+        stack.push(fibonacci(i));
+    }
+    while (!stack.isEmpty) {
+        const value = stack.pop() ?? 0;
+        switch (value % 3) {
+            case 0:
+                console.log(`value ${value}`);
+                break;
+            default:
+                continue;
+        }
+    }
+    try {
+        throw new Error(`Total ${total}`);
+    } catch (error) {
+        console.error(error);
+    }
+    const color = args.length > 0 ? Color.Red : Color.Blue;
+    return color === Color.Red ? 1 : 0;
+}